@@ -0,0 +1,63 @@
+package textanalyzer.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import textanalyzer.AnalysisProgress;
+import textanalyzer.AnalysisResult;
+import textanalyzer.ParallelTextAnalyzer;
+import textanalyzer.TextAnalysisEngine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Измерение подсчёта предложений и слов: однопроходный анализатор, его параллельный вариант
+ * и прежний разбор регулярными выражениями из {@code MainWindow.analyzeText()} (для сравнения).
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class AnalysisBenchmark {
+    @Param({"1KB", "1MB", "64MB", "1GB"})
+    public String size;
+
+    private char[] text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        text = Corpus.chars(Corpus.parseSize(size));
+    }
+
+    @Benchmark
+    public AnalysisResult sequential() {
+        TextAnalysisEngine.Scanner scanner = new TextAnalysisEngine.Scanner();
+        scanner.feed(text, 0, text.length);
+        return scanner.result();
+    }
+
+    @Benchmark
+    public AnalysisResult parallel() {
+        return ParallelTextAnalyzer.analyze(text, 0, text.length, AnalysisProgress.NONE);
+    }
+
+    /**
+     * Прежний алгоритм: разбиение на предложения и слова регулярными выражениями.
+     * Строка создаётся внутри измерения, как это делал {@code textArea.getText()}.
+     */
+    @Benchmark
+    public long legacyRegexSplit() {
+        String content = new String(text).trim();
+        long sentences = 0;
+        for (String sentence : content.split("(?<=[.!?])\\s*")) {
+            sentence = sentence.trim();
+            if (sentence.endsWith(".") || sentence.endsWith("?") || sentence.endsWith("!")) {
+                sentences++;
+            }
+        }
+        return sentences + content.split("\\s+").length;
+    }
+}
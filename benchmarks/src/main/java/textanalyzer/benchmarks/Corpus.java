@@ -0,0 +1,87 @@
+package textanalyzer.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Класс Corpus строит тестовые тексты заданного размера, повторяя образец
+ * {@code /resources/TestText.txt}. Корпуса детерминированы, поэтому результаты измерений воспроизводимы.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+final class Corpus {
+    private static final String SEED = loadSeed();
+
+    private Corpus() {
+    }
+
+    private static String loadSeed() {
+        try (InputStream in = Objects.requireNonNull(Corpus.class.getResourceAsStream("/resources/TestText.txt"))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8) + "\n";
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось прочитать образец текста", e);
+        }
+    }
+
+    /**
+     * Переводит обозначение размера ("1KB", "1MB", "64MB", "1GB") в число.
+     *
+     * @param size Обозначение размера
+     * @return Размер в единицах (символах или байтах)
+     */
+    static long parseSize(String size) {
+        String value = size.toUpperCase(Locale.ROOT);
+        long multiplier = 1;
+        if (value.endsWith("KB")) {
+            multiplier = 1L << 10;
+        } else if (value.endsWith("MB")) {
+            multiplier = 1L << 20;
+        } else if (value.endsWith("GB")) {
+            multiplier = 1L << 30;
+        }
+        return Long.parseLong(value.replaceAll("[^0-9]", "")) * multiplier;
+    }
+
+    /**
+     * Строит массив символов заданной длины из повторений образца.
+     *
+     * @param length Длина текста в символах
+     * @return Текст
+     */
+    static char[] chars(long length) {
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Слишком большой текст: " + length);
+        }
+        char[] chars = new char[(int) length];
+        char[] seed = SEED.toCharArray();
+        for (int i = 0; i < chars.length; i += seed.length) {
+            System.arraycopy(seed, 0, chars, i, Math.min(seed.length, chars.length - i));
+        }
+        return chars;
+    }
+
+    /**
+     * Записывает во временный файл текст в UTF-8 размером не меньше заданного.
+     *
+     * @param bytes Минимальный размер файла в байтах
+     * @return Путь к созданному файлу
+     * @throws IOException Ошибка записи
+     */
+    static Path file(long bytes) throws IOException {
+        Path file = Files.createTempFile("corpus-", ".txt");
+        int seedBytes = SEED.getBytes(StandardCharsets.UTF_8).length;
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long written = 0; written < bytes; written += seedBytes) {
+                writer.write(SEED);
+            }
+        }
+        return file;
+    }
+}
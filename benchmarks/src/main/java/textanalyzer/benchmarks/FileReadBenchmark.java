@@ -0,0 +1,71 @@
+package textanalyzer.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import textanalyzer.AnalysisProgress;
+import textanalyzer.AnalysisResult;
+import textanalyzer.FileAnalyzer;
+import textanalyzer.TextFileLoader;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Измерение чтения файлов: загрузка в документ ({@code loadFile()}), потоковый анализ файла с диска
+ * и прежнее построчное чтение с добавлением строк в документ (для сравнения).
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class FileReadBenchmark {
+    @Param({"1KB", "1MB", "64MB", "1GB"})
+    public String size;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Corpus.file(Corpus.parseSize(size));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public PlainDocument loadDocument() throws IOException {
+        return TextFileLoader.loadDocument(file, (bytesRead, totalBytes) -> true);
+    }
+
+    @Benchmark
+    public AnalysisResult analyzeFile() throws IOException {
+        return FileAnalyzer.analyze(file, AnalysisProgress.NONE);
+    }
+
+    /**
+     * Прежний путь чтения: BufferedReader с кодировкой по умолчанию и добавление каждой строки в документ.
+     */
+    @Benchmark
+    public PlainDocument legacyReadLines() throws IOException, BadLocationException {
+        PlainDocument document = new PlainDocument();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file.toFile()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                document.insertString(document.getLength(), line + "\n", null);
+            }
+        }
+        return document;
+    }
+}
@@ -0,0 +1,78 @@
+package textanalyzer.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import textanalyzer.AnalysisResult;
+import textanalyzer.ReportWriter;
+import textanalyzer.TextAnalysisEngine;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Измерение записи отчёта ({@code saveResults()}): исходный текст и строки с результатами анализа.
+ * Потоковая запись из документа сравнивается с прежней записью через {@code getText().trim()} и {@code FileWriter}.
+ * Сброс на диск при сохранении отключён: прежняя запись его не выполняет, а сравнивается именно путь записи.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ReportWriteBenchmark {
+    @Param({"1KB", "1MB", "64MB", "1GB"})
+    public String size;
+
+    private PlainDocument document;
+    private AnalysisResult result;
+    private File target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String text = new String(Corpus.chars(Corpus.parseSize(size)));
+        result = TextAnalysisEngine.analyze(text);
+        document = new PlainDocument();
+        try {
+            document.insertString(0, text, null);
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+        target = Files.createTempFile("report-", ".txt").toFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(target.toPath());
+    }
+
+    @Benchmark
+    public File writeReport() throws IOException {
+        ReportWriter.write(target.toPath(), ReportWriter.TextSource.of(document), result, false, null, (_, _) -> true);
+        return target;
+    }
+
+    @Benchmark
+    public File legacyWriteReport() throws IOException, BadLocationException {
+        String text = document.getText(0, document.getLength()).trim();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(target))) {
+            writer.write("Текст:\n\n");
+            writer.write(text + "\n\n");
+            writer.write("\nРезультаты анализа:\n\n");
+            writer.write("Количество предложений: " + result.sentences() + "\n");
+            writer.write("Количество слов: " + result.words() + "\n");
+            writer.write("Повествовательные предложения: " + result.declarative() + "\n");
+            writer.write("Вопросительные предложения: " + result.questions() + "\n");
+            writer.write("Восклицательные предложения: " + result.exclamatory() + "\n");
+        }
+        return target;
+    }
+}
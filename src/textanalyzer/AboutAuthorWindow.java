@@ -5,25 +5,28 @@ import java.awt.*;
 import java.awt.datatransfer.StringSelection;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.net.URL;
-import javax.imageio.ImageIO;
 
 /**
  * Класс AboutAuthorWindow представляет окно "Об авторе", которое отображает фотографию автора,
  * контактную информацию и кнопку для возврата к предыдущему окну.
+ * Окно создаётся при первом открытии и затем переиспользуется (см. {@link #open(JFrame)}).
  *
  * @author Klimuk M.N.
  * @version 1.1.2.2024
  */
 public class AboutAuthorWindow extends JFrame {
+    /**
+     * Размер фотографии автора (в пикселях).
+     */
+    static final int PHOTO_SIZE = 350;
+
+    private static AboutAuthorWindow instance;
+    private JFrame previousWindow; // Окно, которое будет отображаться после закрытия текущего окна
+
     /**
      * Конструктор, инициализирует окно с информацией об авторе.
-     *
-     * @param previousWindow Окно, которое будет отображаться после закрытия текущего окна.
      */
-    public AboutAuthorWindow(JFrame previousWindow) {
+    private AboutAuthorWindow() {
         UtilsUI.setAppIcon(this);
 
         setTitle("Об авторе");
@@ -35,11 +38,26 @@ public class AboutAuthorWindow extends JFrame {
 
         add(createImagePanel(), BorderLayout.NORTH);
         add(createInfoPanel(), BorderLayout.CENTER);
-        add(createButtonPanel(previousWindow), BorderLayout.SOUTH);
+        add(createButtonPanel(), BorderLayout.SOUTH);
 
         UtilsUI.disableFocusForAllButtons(this);
     }
 
+    /**
+     * Показывает окно "Об авторе", создавая его при первом вызове.
+     *
+     * @param previousWindow Окно, которое будет отображаться после закрытия текущего окна.
+     */
+    public static void open(JFrame previousWindow) {
+        if (instance == null) {
+            instance = new AboutAuthorWindow();
+        }
+        instance.previousWindow = previousWindow;
+        instance.setLocationRelativeTo(null);
+        instance.setVisible(true);
+        instance.toFront();
+    }
+
     /**
      * Создает панель с изображением автора.
      *
@@ -56,30 +74,18 @@ public class AboutAuthorWindow extends JFrame {
     }
 
     /**
-     * Создает метку с фотографией автора. Фотография масштабируется, если она слишком большая.
+     * Создает метку с фотографией автора. Фотография загружается и масштабируется в фоновом потоке
+     * один раз за время работы программы.
      *
      * @return Метка с изображением автора.
      */
     private JLabel createImageLabel() {
-        JLabel imageLabel = new JLabel();
-        try {
-            URL imageUrl = getClass().getResource("/resources/photoAuthor.jpg"); // Путь к изображению
-            if (imageUrl != null) {
-                BufferedImage authorImage = ImageIO.read(imageUrl); // Считываем изображение
-                Image scaledImage = authorImage.getScaledInstance(350, 350, Image.SCALE_SMOOTH);
-                ImageIcon imageIcon = new ImageIcon(scaledImage); // Создаем иконку из изображения
-
-                imageLabel.setIcon(imageIcon);
-                imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
-                imageLabel.setBorder(BorderFactory.createLineBorder(Color.GRAY, 3)); // Добавляем рамку
-            } else {
-                throw new IOException("Изображение не найдено!"); // Обработка ошибки
-            }
-        } catch (IOException ex) {
-            System.out.println("Ошибка загрузки изображения: " + ex.getMessage());
-            imageLabel.setText("Фото не найдено");
-            imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        }
+        JLabel imageLabel = new JLabel("", SwingConstants.CENTER);
+        imageLabel.setPreferredSize(new Dimension(PHOTO_SIZE, PHOTO_SIZE));
+        ImageCache.whenLoaded(ImageCache.AUTHOR_PHOTO, PHOTO_SIZE, PHOTO_SIZE, icon -> {
+            imageLabel.setIcon(icon);
+            imageLabel.setBorder(BorderFactory.createLineBorder(Color.GRAY, 3)); // Добавляем рамку
+        }, () -> imageLabel.setText("Фото не найдено"));
         return imageLabel;
     }
 
@@ -144,14 +150,13 @@ public class AboutAuthorWindow extends JFrame {
     /**
      * Создает панель с кнопкой "Назад" для возврата к предыдущему окну.
      *
-     * @param previousWindow Окно, которое будет отображаться после закрытия текущего.
      * @return Панель с кнопкой "Назад".
      */
-    private JPanel createButtonPanel(JFrame previousWindow) {
+    private JPanel createButtonPanel() {
         JPanel buttonPanel = new JPanel(new BorderLayout());
         buttonPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        JButton backButton = createBackButton(previousWindow);
+        JButton backButton = createBackButton();
         buttonPanel.add(backButton, BorderLayout.CENTER);
 
         return buttonPanel;
@@ -160,16 +165,15 @@ public class AboutAuthorWindow extends JFrame {
     /**
      * Создает кнопку "Назад", которая возвращает пользователя на предыдущее окно.
      *
-     * @param previousWindow Окно, которое будет отображаться после закрытия текущего.
      * @return Кнопка "Назад".
      */
-    private JButton createBackButton(JFrame previousWindow) {
+    private JButton createBackButton() {
         JButton jbtBack = new JButton("Назад");
         jbtBack.setFont(new Font("Arial", Font.BOLD, 16));
         jbtBack.setPreferredSize(new Dimension(100, 40));
         jbtBack.addActionListener(_ -> {
             previousWindow.setVisible(true);
-            dispose(); // Закрываем текущее окно
+            setVisible(false); // Скрываем текущее окно до следующего открытия
         });
         return jbtBack;
     }
@@ -2,22 +2,28 @@ package textanalyzer;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Objects;
 
 /**
  * Класс AboutProgramWindow представляет окно "О программе".
  * Включает описание функций программы, а также кнопки выхода и возврата к предыдущему окну.
+ * Окно создаётся при первом открытии и затем переиспользуется (см. {@link #open(JFrame)}).
  *
  * @author Klimuk M.N.
  * @version 1.1.2.2024
  */
 public class AboutProgramWindow extends JFrame {
+    /**
+     * Размер изображения в окне (в пикселях).
+     */
+    static final int IMAGE_SIZE = 100;
+
+    private static AboutProgramWindow instance;
+    private JFrame previousWindow; // Окно, которое будет отображаться после закрытия текущего окна
+
     /**
      * Конструктор, инициализирует окно с описанием программы.
-     *
-     * @param previousWindow Окно, которое будет отображаться после закрытия текущего окна
      */
-    public AboutProgramWindow(JFrame previousWindow) {
+    private AboutProgramWindow() {
         UtilsUI.setAppIcon(this);
 
         setTitle("О программе");
@@ -30,12 +36,27 @@ public class AboutProgramWindow extends JFrame {
         JPanel mainPanel = new JPanel(new BorderLayout());
         mainPanel.add(createHeaderPanel(), BorderLayout.NORTH);
         mainPanel.add(createCenterPanel(), BorderLayout.CENTER);
-        mainPanel.add(createBottomPanel(previousWindow), BorderLayout.SOUTH);
+        mainPanel.add(createBottomPanel(), BorderLayout.SOUTH);
 
         add(mainPanel);
         UtilsUI.disableFocusForAllButtons(this);
     }
 
+    /**
+     * Показывает окно "О программе", создавая его при первом вызове.
+     *
+     * @param previousWindow Окно, которое будет отображаться после закрытия текущего окна
+     */
+    public static void open(JFrame previousWindow) {
+        if (instance == null) {
+            instance = new AboutProgramWindow();
+        }
+        instance.previousWindow = previousWindow;
+        instance.setLocationRelativeTo(null);
+        instance.setVisible(true);
+        instance.toFront();
+    }
+
     /**
      * Создает верхнюю панель с заголовком программы.
      *
@@ -95,35 +116,27 @@ public class AboutProgramWindow extends JFrame {
     }
 
     /**
-     * Создает метку с изображением.
-     * Изображение масштабируется, если оно слишком большое.
+     * Создает метку с изображением. Изображение загружается и масштабируется в фоновом потоке.
      *
      * @return Метка с изображением или текстом, если изображение не найдено
      */
     private JLabel createImageLabel() {
-        ImageIcon icon = new ImageIcon(Objects.requireNonNull(getClass().getResource("/resources/icon.png")));
-        if (icon.getIconWidth() > 0) {
-            Image scaledImage = icon.getImage().getScaledInstance(100, 100, Image.SCALE_SMOOTH);
-            return new JLabel(new ImageIcon(scaledImage), SwingConstants.CENTER);
-        } else {
-            return new JLabel("Изображение не найдено", SwingConstants.CENTER);
-        }
+        return ImageCache.createLabel(ImageCache.APP_ICON, IMAGE_SIZE, IMAGE_SIZE, "Изображение не найдено");
     }
 
     /**
      * Создает нижнюю панель с кнопками и информацией о версии программы.
      *
-     * @param previousWindow Окно, которое будет отображаться после закрытия текущего окна
      * @return Нижняя панель с кнопками и текстом о версии
      */
-    private JPanel createBottomPanel(JFrame previousWindow) {
+    private JPanel createBottomPanel() {
         JPanel bottomPanel = new JPanel(new BorderLayout());
 
         // Кнопка "Назад"
         JButton jbtBack = new JButton("Назад");
         jbtBack.addActionListener(_ -> {
             previousWindow.setVisible(true); // Показываем предыдущее окно
-            dispose(); // Закрываем текущее окно
+            setVisible(false); // Скрываем текущее окно до следующего открытия
         });
 
         // Текст о версии программы
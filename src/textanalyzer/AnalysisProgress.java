@@ -0,0 +1,41 @@
+package textanalyzer;
+
+/**
+ * Интерфейс AnalysisProgress связывает длительный анализ с тем, кто его запустил:
+ * через него анализ сообщает о ходе выполнения и узнаёт о запросе на отмену.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public interface AnalysisProgress {
+    /**
+     * Пустой монитор: анализ выполняется до конца, ход выполнения никуда не передаётся.
+     */
+    AnalysisProgress NONE = new AnalysisProgress() {
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void update(long processed, long total, AnalysisResult partial) {
+        }
+    };
+
+    /**
+     * Проверяет, запрошена ли отмена анализа. Анализ проверяет флаг между блоками текста
+     * и при отмене завершается досрочно.
+     *
+     * @return true, если анализ нужно прервать
+     */
+    boolean isCancelled();
+
+    /**
+     * Сообщает о ходе выполнения анализа.
+     *
+     * @param processed Количество обработанных символов
+     * @param total Общее количество символов (или -1, если оно неизвестно)
+     * @param partial Промежуточные результаты по обработанной части текста
+     */
+    void update(long processed, long total, AnalysisResult partial);
+}
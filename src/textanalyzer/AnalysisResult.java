@@ -0,0 +1,270 @@
+package textanalyzer;
+
+/**
+ * Неизменяемый результат анализа текста. Окно программы отображает его на метках, а сохранение
+ * и экспорт читают значения отсюда, а не из текста меток.
+ * <p>
+ * Хеш содержимого — полиномиальный 64-битный хеш символов текста, вычисляемый за тот же проход,
+ * что и подсчёт. Хеши соседних фрагментов складываются в хеш их объединения (см. {@link #plus}),
+ * поэтому параллельный и последовательный анализ дают одинаковый хеш.
+ * <p>
+ * Таблица частот слов заполняется только по запросу (например, при анализе в окне программы). Результат
+ * владеет переданной ему таблицей и замораживает её: после создания результата изменить таблицу нельзя,
+ * поэтому результат можно без копирования передавать между потоками и хранить в кеше. При сложении
+ * и вычитании результатов таблица не переносится. Так же заполняется, замораживается и переносится
+ * скетч частот сочетаний слов ({@link NGramSketch}).
+ * <p>
+ * Показатели удобочитаемости (средние длины предложений и слов, индексы Флеша, доля уникальных слов)
+ * вычисляются из счётчиков результата, которые подсчитываются за тот же проход по тексту, что и остальные,
+ * поэтому для них не нужен отдельный анализ, а при сложении результатов фрагментов они остаются точными.
+ *
+ * @param sentences Количество предложений
+ * @param words Количество слов
+ * @param declarative Количество повествовательных предложений
+ * @param questions Количество вопросительных предложений
+ * @param exclamatory Количество восклицательных предложений
+ * @param characters Количество символов в тексте
+ * @param wordCharacters Количество букв и цифр в словах
+ * @param syllables Количество слогов в словах (по числу гласных, не меньше одного слога в слове)
+ * @param sourceHash Хеш содержимого текста ({@link #NO_HASH}, если он неизвестен)
+ * @param elapsedNanos Время анализа в наносекундах
+ * @param frequencies Таблица частот слов (null, если частоты не подсчитывались)
+ * @param ngrams Скетч частот сочетаний слов (null, если сочетания не подсчитывались)
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public record AnalysisResult(long sentences, long words, long declarative, long questions, long exclamatory,
+                             long characters, long wordCharacters, long syllables, long sourceHash,
+                             long elapsedNanos, WordFrequencyTable frequencies, NGramSketch ngrams) {
+    /**
+     * Значение хеша, означающее, что хеш содержимого неизвестен (например, после пошагового пересчёта при вводе).
+     */
+    public static final long NO_HASH = 0;
+
+    /**
+     * Множитель полиномиального хеша.
+     */
+    static final long HASH_MULTIPLIER = 0x100000001B3L;
+
+    /**
+     * Результат анализа пустого текста.
+     */
+    public static final AnalysisResult EMPTY = new AnalysisResult(0, 0, 0, 0, 0, 0, 0, 0, NO_HASH, 0);
+
+    /**
+     * Замораживает переданные таблицу частот и скетч сочетаний: дальше они принадлежат результату.
+     */
+    public AnalysisResult {
+        if (frequencies != null) {
+            frequencies.freeze();
+        }
+        if (ngrams != null) {
+            ngrams.freeze();
+        }
+    }
+
+    /**
+     * Создаёт результат без таблицы частот слов и скетча сочетаний слов.
+     *
+     * @param sentences Количество предложений
+     * @param words Количество слов
+     * @param declarative Количество повествовательных предложений
+     * @param questions Количество вопросительных предложений
+     * @param exclamatory Количество восклицательных предложений
+     * @param characters Количество символов в тексте
+     * @param wordCharacters Количество букв и цифр в словах
+     * @param syllables Количество слогов в словах
+     * @param sourceHash Хеш содержимого текста
+     * @param elapsedNanos Время анализа в наносекундах
+     */
+    public AnalysisResult(long sentences, long words, long declarative, long questions, long exclamatory,
+                          long characters, long wordCharacters, long syllables, long sourceHash, long elapsedNanos) {
+        this(sentences, words, declarative, questions, exclamatory, characters, wordCharacters, syllables,
+                sourceHash, elapsedNanos, null, null);
+    }
+
+    /**
+     * Проверяет, что в тексте не найдено ни одного слова (текст пуст или состоит из пробелов).
+     *
+     * @return true, если текст пуст
+     */
+    public boolean isEmpty() {
+        return words == 0;
+    }
+
+    /**
+     * Возвращает среднюю длину предложения. Текст без знаков конца предложения считается одним предложением.
+     *
+     * @return Среднее количество слов в предложении (0 для пустого текста)
+     */
+    public double averageSentenceLength() {
+        return words == 0 ? 0 : (double) words / Math.max(1, sentences);
+    }
+
+    /**
+     * Возвращает среднюю длину слова.
+     *
+     * @return Среднее количество букв и цифр в слове (0 для пустого текста)
+     */
+    public double averageWordLength() {
+        return words == 0 ? 0 : (double) wordCharacters / words;
+    }
+
+    /**
+     * Возвращает среднее количество слогов в слове.
+     *
+     * @return Среднее количество слогов (0 для пустого текста)
+     */
+    public double averageSyllables() {
+        return words == 0 ? 0 : (double) syllables / words;
+    }
+
+    /**
+     * Вычисляет индекс удобочитаемости Флеша для английского текста:
+     * 206,835 − 1,015 × (слов в предложении) − 84,6 × (слогов в слове). Чем выше значение, тем легче текст.
+     *
+     * @return Индекс удобочитаемости (0 для пустого текста)
+     */
+    public double fleschReadingEase() {
+        return words == 0 ? 0 : 206.835 - 1.015 * averageSentenceLength() - 84.6 * averageSyllables();
+    }
+
+    /**
+     * Вычисляет индекс удобочитаемости Флеша с коэффициентами для русского языка (формула Оборневой):
+     * 206,835 − 1,3 × (слов в предложении) − 60,1 × (слогов в слове). Русские слова в среднем длиннее
+     * английских, поэтому вес длины слова уменьшен.
+     *
+     * @return Индекс удобочитаемости (0 для пустого текста)
+     */
+    public double fleschReadingEaseRussian() {
+        return words == 0 ? 0 : 206.835 - 1.3 * averageSentenceLength() - 60.1 * averageSyllables();
+    }
+
+    /**
+     * Вычисляет индекс удобочитаемости по формуле, подходящей для языка текста.
+     *
+     * @param rules Правила языка, по которым анализировался текст
+     * @return Индекс удобочитаемости
+     */
+    public double readingEase(TokenizerRules rules) {
+        return rules == TokenizerRules.ENGLISH ? fleschReadingEase() : fleschReadingEaseRussian();
+    }
+
+    /**
+     * Возвращает лексическое разнообразие текста (type/token ratio): долю уникальных слов среди всех слов.
+     *
+     * @return Доля от 0 до 1 или {@link Double#NaN}, если частоты слов не подсчитывались
+     */
+    public double typeTokenRatio() {
+        if (frequencies == null) {
+            return Double.NaN;
+        }
+        return words == 0 ? 0 : (double) frequencies.size() / words;
+    }
+
+    /**
+     * Складывает результаты анализа двух соседних фрагментов текста: этот фрагмент идёт первым.
+     * Время анализа суммируется, таблица частот слов и скетч сочетаний не переносятся.
+     *
+     * @param next Результаты анализа следующего фрагмента
+     * @return Результаты анализа объединённого текста
+     */
+    public AnalysisResult plus(AnalysisResult next) {
+        long hash;
+        if (characters == 0) {
+            hash = next.sourceHash;
+        } else if (next.characters == 0) {
+            hash = sourceHash;
+        } else if (sourceHash == NO_HASH || next.sourceHash == NO_HASH) {
+            hash = NO_HASH;
+        } else {
+            hash = sourceHash * power(HASH_MULTIPLIER, next.characters) + next.sourceHash;
+        }
+        return new AnalysisResult(sentences + next.sentences, words + next.words,
+                declarative + next.declarative, questions + next.questions, exclamatory + next.exclamatory,
+                characters + next.characters, wordCharacters + next.wordCharacters, syllables + next.syllables,
+                hash, elapsedNanos + next.elapsedNanos);
+    }
+
+    /**
+     * Вычитает результаты анализа фрагмента текста. Хеш содержимого результата становится неизвестным.
+     *
+     * @param part Результаты анализа фрагмента
+     * @return Результаты анализа оставшегося текста
+     */
+    public AnalysisResult minus(AnalysisResult part) {
+        return new AnalysisResult(sentences - part.sentences, words - part.words,
+                declarative - part.declarative, questions - part.questions, exclamatory - part.exclamatory,
+                characters - part.characters, wordCharacters - part.wordCharacters, syllables - part.syllables,
+                NO_HASH, elapsedNanos);
+    }
+
+    /**
+     * Возвращает копию результата с заданным временем анализа.
+     *
+     * @param nanos Время анализа в наносекундах
+     * @return Результат с новым временем анализа
+     */
+    public AnalysisResult withElapsedNanos(long nanos) {
+        return new AnalysisResult(sentences, words, declarative, questions, exclamatory,
+                characters, wordCharacters, syllables, sourceHash, nanos, frequencies, ngrams);
+    }
+
+    /**
+     * Возвращает копию результата с заданной таблицей частот слов.
+     *
+     * @param table Таблица частот слов (или null)
+     * @return Результат с новой таблицей частот
+     */
+    public AnalysisResult withFrequencies(WordFrequencyTable table) {
+        return new AnalysisResult(sentences, words, declarative, questions, exclamatory,
+                characters, wordCharacters, syllables, sourceHash, elapsedNanos, table, ngrams);
+    }
+
+    /**
+     * Возвращает копию результата с заданным скетчем сочетаний слов.
+     *
+     * @param sketch Скетч частот сочетаний слов (или null)
+     * @return Результат с новым скетчем
+     */
+    public AnalysisResult withNGrams(NGramSketch sketch) {
+        return new AnalysisResult(sentences, words, declarative, questions, exclamatory,
+                characters, wordCharacters, syllables, sourceHash, elapsedNanos, frequencies, sketch);
+    }
+
+    /**
+     * Возвращает копию результата с неизвестным хешем содержимого: для сумм, у которых нет одного
+     * исходного текста (например, итогов корпуса).
+     *
+     * @return Результат с хешем {@link #NO_HASH}
+     */
+    public AnalysisResult withoutHash() {
+        return new AnalysisResult(sentences, words, declarative, questions, exclamatory,
+                characters, wordCharacters, syllables, NO_HASH, elapsedNanos, frequencies, ngrams);
+    }
+
+    /**
+     * Возвращает копию результата только со счётчиками: без таблицы частот слов и скетча сочетаний.
+     *
+     * @return Результат без частот
+     */
+    public AnalysisResult withoutFrequencies() {
+        return new AnalysisResult(sentences, words, declarative, questions, exclamatory,
+                characters, wordCharacters, syllables, sourceHash, elapsedNanos);
+    }
+
+    /**
+     * Возводит число в степень по модулю 2^64 (быстрое возведение в степень).
+     */
+    static long power(long base, long exponent) {
+        long result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+            exponent >>>= 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+package textanalyzer;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Класс AnalysisWorker выполняет анализ текста в фоновом потоке, не блокируя поток обработки событий.
+ * Промежуточные результаты передаются в интерфейс через {@link #process(List)}, процент выполнения
+ * публикуется через свойство "progress", а отмена выполняется кооперативно методом {@link #cancel(boolean)}.
+ * Длительность завершённого анализа записывается в статистику {@link PerformanceMonitor}.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public class AnalysisWorker extends SwingWorker<AnalysisResult, AnalysisResult> {
+    private final Task task;
+    private final Consumer<AnalysisResult> progressListener;
+
+    /**
+     * Задача анализа, выполняемая в фоновом потоке.
+     */
+    @FunctionalInterface
+    public interface Task {
+        /**
+         * Выполняет анализ.
+         *
+         * @param progress Монитор хода выполнения и отмены
+         * @return Результаты анализа
+         * @throws Exception Ошибка при анализе (например, ошибка чтения файла)
+         */
+        AnalysisResult run(AnalysisProgress progress) throws Exception;
+    }
+
+    /**
+     * Конструктор фонового анализа.
+     *
+     * @param task Задача анализа
+     * @param progressListener Получатель промежуточных результатов (вызывается в потоке обработки событий)
+     */
+    public AnalysisWorker(Task task, Consumer<AnalysisResult> progressListener) {
+        this.task = task;
+        this.progressListener = progressListener;
+    }
+
+    @Override
+    protected AnalysisResult doInBackground() throws Exception {
+        PerformanceMonitor.Sample sample = PerformanceMonitor.start(PerformanceMonitor.Operation.ANALYSIS);
+        AnalysisResult result = task.run(new AnalysisProgress() {
+            @Override
+            public boolean isCancelled() {
+                return AnalysisWorker.this.isCancelled();
+            }
+
+            @Override
+            public void update(long processed, long total, AnalysisResult partial) {
+                if (total > 0) {
+                    setProgress((int) Math.min(100, processed * 100 / total));
+                }
+                publish(partial);
+            }
+        });
+        if (!isCancelled()) {
+            sample.stop(result.characters()); // Отменённый анализ не учитывается в статистике
+        }
+        return result;
+    }
+
+    @Override
+    protected void process(List<AnalysisResult> chunks) {
+        // Показываем только самые свежие промежуточные результаты
+        progressListener.accept(chunks.getLast());
+    }
+}
@@ -0,0 +1,209 @@
+package textanalyzer;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Класс AtomicFileOutput — поток записи файла, который либо заменяет файл целиком, либо оставляет его
+ * прежним. Данные пишутся во временный файл в том же каталоге, а по {@link #commit()} временный файл
+ * переименовывается в целевой одной атомарной операцией. Если запись прервана ошибкой (например, нехваткой
+ * места на диске), отменой или сбоем программы, прежний файл не изменяется, а временный файл удаляется
+ * при закрытии потока.
+ * <p>
+ * Запись идёт через {@link FileChannel} блоками по {@value #BUFFER_SIZE} байт из прямого буфера, поэтому
+ * данные не копируются лишний раз между памятью Java и системными вызовами. Если включён сброс на диск
+ * ({@link #FORCE}), перед переименованием содержимое файла, а после него — запись каталога сбрасываются
+ * на диск, и после сбоя питания в каталоге окажется либо прежний, либо новый файл полностью.
+ * <p>
+ * Сброс на диск включён по умолчанию; его можно выключить системным свойством
+ * {@code textanalyzer.save.force=false}, если важнее скорость, чем сохранность при сбое питания.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class AtomicFileOutput extends OutputStream {
+    /**
+     * Размер прямого буфера записи (в байтах).
+     */
+    static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Сбрасывать ли файл на диск перед переименованием (по умолчанию — да).
+     */
+    public static final boolean FORCE = Boolean.parseBoolean(System.getProperty("textanalyzer.save.force", "true"));
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final boolean force;
+    private long written;
+    private boolean committed;
+    private boolean closed;
+
+    /**
+     * Создаёт временный файл рядом с целевым и открывает его для записи.
+     *
+     * @param target Целевой файл (может уже существовать)
+     * @param force true, если файл нужно сбросить на диск перед переименованием
+     * @throws IOException Ошибка создания временного файла
+     */
+    public AtomicFileOutput(Path target, boolean force) throws IOException {
+        this.target = target.toAbsolutePath();
+        this.force = force;
+        Path directory = this.target.getParent();
+        String name = this.target.getFileName().toString();
+        Path candidate;
+        FileChannel opened;
+        while (true) {
+            // Скрытый временный файл в том же каталоге: переименование не переносит данные между дисками
+            candidate = directory.resolve("." + name + "." + Long.toHexString(ThreadLocalRandom.current()
+                    .nextLong() >>> 1) + ".tmp");
+            try {
+                opened = FileChannel.open(candidate, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                // Имя занято: пробуем другое
+            }
+        }
+        temp = candidate;
+        channel = opened;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            int count = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, count);
+            offset += count;
+            length -= count;
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    /**
+     * Записывает содержимое буфера во временный файл.
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Возвращает поток для записи данных файла, при необходимости сжимающий их. Закрытие возвращённого
+     * потока дописывает конец сжатого формата, но не завершает запись: файл заменяется только методом
+     * {@link #commit()}, поэтому поток можно закрыть до него.
+     *
+     * @param codec Кодек сжатия или null, если данные записываются без сжатия
+     * @return Поток для записи
+     * @throws IOException Ошибка записи заголовка сжатых данных
+     */
+    public OutputStream stream(CompressionCodec codec) throws IOException {
+        OutputStream file = new FilterOutputStream(this) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush(); // Временный файл остаётся открытым до commit() или close()
+            }
+        };
+        return codec == null ? file : codec.compress(file);
+    }
+
+    /**
+     * Возвращает количество байтов, уже записанных во временный файл.
+     *
+     * @return Количество байтов
+     */
+    public long bytesWritten() {
+        return written;
+    }
+
+    /**
+     * Завершает запись: дописывает буфер, при необходимости сбрасывает файл на диск и атомарно заменяет
+     * им целевой файл.
+     *
+     * @throws IOException Ошибка записи или переименования (целевой файл при этом не изменяется)
+     */
+    public void commit() throws IOException {
+        drain();
+        if (force) {
+            channel.force(true);
+        }
+        channel.close();
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Файловая система не поддерживает атомарное переименование: замена выполняется обычным образом
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+        if (force) {
+            syncDirectory(target.getParent());
+        }
+    }
+
+    /**
+     * Сбрасывает на диск запись каталога, чтобы переименование пережило сбой питания. Не во всех системах
+     * каталог можно открыть как файл (в Windows нельзя); там переименование сохраняется самой файловой системой.
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Каталог нельзя открыть или сбросить: файл уже заменён, данные файла сброшены на диск
+        }
+    }
+
+    /**
+     * Закрывает поток. Если запись не была завершена методом {@link #commit()}, временный файл удаляется,
+     * а целевой файл остаётся прежним.
+     *
+     * @throws IOException Ошибка удаления временного файла
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!committed) {
+            try {
+                channel.close();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
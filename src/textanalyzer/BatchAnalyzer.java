@@ -0,0 +1,404 @@
+package textanalyzer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Класс BatchAnalyzer реализует пакетный режим без графического интерфейса. Программа получает
+ * файлы и каталоги в аргументах командной строки, анализирует файлы параллельно в пуле потоков
+ * ограниченного размера и выводит результаты по каждому файлу и итоговые суммы в формате CSV или JSON.
+ * Используется тот же анализатор, что и в окне программы, поэтому результаты совпадают.
+ * С индексом корпуса (см. {@link ResultStore}) программа может также отвечать на сводные запросы,
+ * не читая исходные тексты.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class BatchAnalyzer {
+    private static final String USAGE = """
+            Использование: java -jar TextAnalyzer.jar [параметры] <файл или каталог>...
+            Параметры:
+              --format csv|json   формат вывода (по умолчанию csv)
+              --output <файл>     записать результаты в файл вместо стандартного вывода
+              --threads <n>       количество потоков анализа (по умолчанию — число процессоров)
+              --lang ru|en        язык текстов: правила сокращений и конца предложений (по умолчанию ru)
+              --cache <файл>      хранить результаты в индексе корпуса и не анализировать повторно
+                                  неизменённые файлы
+              --query             не анализировать файлы, а вывести итоги и самые частые слова
+                                  по индексу --cache (файлы и каталоги в аргументах ограничивают выборку)
+              --top <n>           количество самых частых слов для --query (по умолчанию 20)
+              --help              показать эту справку
+            Каталоги обходятся рекурсивно, анализируются файлы с расширением .txt
+            (в том числе сжатые: .txt.gz).""";
+
+    private static final int DEFAULT_TOP_WORDS = 20;
+
+    private BatchAnalyzer() {
+    }
+
+    /**
+     * Формат вывода результатов.
+     */
+    enum Format {
+        CSV, JSON
+    }
+
+    /**
+     * Результат анализа одного файла.
+     *
+     * @param file Путь к файлу
+     * @param counts Результаты анализа (null, если файл не удалось прочитать)
+     * @param error Сообщение об ошибке (null, если анализ выполнен успешно)
+     */
+    record FileResult(Path file, AnalysisResult counts, String error) {
+    }
+
+    /**
+     * Выполняет пакетный анализ по аргументам командной строки.
+     *
+     * @param args Аргументы командной строки
+     * @return Код завершения: 0 — успешно, 1 — часть файлов не удалось прочитать, 2 — ошибка в аргументах
+     */
+    public static int run(String[] args) {
+        Format format = Format.CSV;
+        Path output = null;
+        Path cacheFile = null;
+        TokenizerRules rules = TokenizerRules.DEFAULT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean query = false;
+        int topWords = DEFAULT_TOP_WORDS;
+        List<Path> inputs = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--help", "-h" -> {
+                        System.out.println(USAGE);
+                        return 0;
+                    }
+                    case "--format" -> format = requireFormat(args, ++i);
+                    case "--output" -> output = Path.of(requireValue(args, ++i));
+                    case "--threads" -> threads = requireNumber(args, ++i, 1);
+                    case "--cache" -> cacheFile = Path.of(requireValue(args, ++i));
+                    case "--lang" -> rules = TokenizerRules.forLanguage(requireValue(args, ++i));
+                    case "--query" -> query = true;
+                    case "--top" -> topWords = requireNumber(args, ++i, 0);
+                    default -> {
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("неизвестный параметр: " + args[i]);
+                        }
+                        inputs.add(Path.of(args[i]));
+                    }
+                }
+            }
+            if (query && cacheFile == null) {
+                throw new IllegalArgumentException("параметр --query требует --cache");
+            }
+            if (!query && inputs.isEmpty()) {
+                throw new IllegalArgumentException("не указаны файлы для анализа");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ошибка в аргументах: " + e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        if (query) {
+            return query(cacheFile, inputs, rules, topWords, format, output);
+        }
+        try {
+            List<Path> files = collectFiles(inputs);
+            ResultStore store = cacheFile == null ? null : openStore(cacheFile);
+            ResultCache cache = new ResultCache(ResultCache.DEFAULT_MAX_BYTES, store);
+            try (Writer writer = output == null
+                    ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                    : Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                return analyzeAll(files, threads, cache, rules, format, writer) ? 0 : 1;
+            } finally {
+                if (store != null) {
+                    store.close();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Ошибка ввода-вывода: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Открывает индекс корпуса для анализа. Если индекс открыть нельзя (например, его использует другой
+     * процесс), файлы анализируются без него.
+     *
+     * @return Индекс или null
+     */
+    private static ResultStore openStore(Path cacheFile) {
+        try {
+            return ResultStore.open(cacheFile);
+        } catch (IOException e) {
+            System.err.println("Предупреждение: индекс корпуса не используется: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Выводит итоги и самые частые слова по индексу корпуса, не читая исходные файлы.
+     *
+     * @return Код завершения
+     */
+    private static int query(Path cacheFile, List<Path> roots, TokenizerRules rules, int topWords, Format format,
+                             Path output) {
+        List<Path> prefixes = roots.stream().map(root -> root.toAbsolutePath().normalize()).toList();
+        Predicate<Path> selected = file -> prefixes.isEmpty() || prefixes.stream().anyMatch(file::startsWith);
+        try (ResultStore store = ResultStore.openReadOnly(cacheFile);
+             Writer writer = output == null
+                     ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                     : Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            int files = store.count(selected, rules.language());
+            AnalysisResult total = store.totals(selected, rules.language());
+            List<WordFrequencyTable.Entry> words = store.topWords(selected, rules.language(), topWords);
+            if (format == Format.CSV) {
+                writer.write("files,sentences,words,declarative,questions,exclamatory,avg_sentence_length,"
+                        + "avg_word_length,flesch,flesch_ru\n");
+                writer.write(files + "," + csvCounts(total) + "\n\nword,count\n");
+                for (WordFrequencyTable.Entry word : words) {
+                    writer.write(csv(word.word()) + "," + word.count() + "\n");
+                }
+            } else {
+                writer.write("{\n  \"total\": {\"files\": " + files + ", " + jsonCounts(total) + "},\n"
+                        + "  \"topWords\": [");
+                for (int i = 0; i < words.size(); i++) {
+                    writer.write((i == 0 ? "\n    " : ",\n    ") + "{\"word\": " + json(words.get(i).word())
+                            + ", \"count\": " + words.get(i).count() + "}");
+                }
+                writer.write("\n  ]\n}\n");
+            }
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Ошибка ввода-вывода: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("параметр " + args[index - 1] + " требует значения");
+        }
+        return args[index];
+    }
+
+    /**
+     * Возвращает целое значение параметра, которое должно быть не меньше заданного.
+     */
+    private static int requireNumber(String[] args, int index, int min) {
+        String value = requireValue(args, index);
+        try {
+            int number = Integer.parseInt(value);
+            if (number >= min) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Не число: сообщение то же, что и для числа вне допустимого диапазона
+        }
+        throw new IllegalArgumentException("параметр " + args[index - 1] + " требует целого числа не меньше "
+                + min + ", указано: " + value);
+    }
+
+    /**
+     * Возвращает формат вывода, заданный значением параметра.
+     */
+    private static Format requireFormat(String[] args, int index) {
+        String value = requireValue(args, index);
+        for (Format format : Format.values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("параметр " + args[index - 1] + " принимает значения csv|json, указано: "
+                + value);
+    }
+
+    /**
+     * Раскрывает каталоги в списки текстовых файлов. Файлы, указанные явно, берутся без проверки расширения.
+     * Используется также рабочей областью окна программы (см. {@link WorkspaceWindow}).
+     *
+     * @param inputs Файлы и каталоги
+     * @return Список файлов
+     * @throws IOException Ошибка обхода каталога
+     */
+    static List<Path> collectFiles(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> tree = Files.walk(input)) {
+                    tree.filter(Files::isRegularFile)
+                            .filter(path -> CompressionCodec.stripExtension(path.getFileName().toString())
+                                    .toLowerCase(Locale.ROOT).endsWith(".txt"))
+                            .sorted()
+                            .forEach(files::add);
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Анализирует файлы в пуле потоков и выводит результаты в порядке перечисления файлов
+     * по мере их готовности.
+     *
+     * @return true, если все файлы проанализированы успешно
+     */
+    private static boolean analyzeAll(List<Path> files, int threads, ResultCache cache, TokenizerRules rules,
+                                      Format format, Writer writer) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<FileResult>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(executor.submit(() -> analyzeFile(file, cache, rules)));
+            }
+
+            AnalysisResult total = AnalysisResult.EMPTY;
+            boolean success = true;
+            writeHeader(format, writer);
+            for (int i = 0; i < futures.size(); i++) {
+                FileResult result = getResult(futures.get(i), files.get(i));
+                if (result.counts() != null) {
+                    total = total.plus(result.counts());
+                } else {
+                    success = false;
+                }
+                writeRow(format, writer, result, i == 0);
+            }
+            writeFooter(format, writer, total, files.size());
+            return success;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static FileResult analyzeFile(Path file, ResultCache cache, TokenizerRules rules) {
+        try {
+            return new FileResult(file, cache.analyze(file, AnalysisProgress.NONE, rules, false), null);
+        } catch (IOException e) {
+            return new FileResult(file, null, e.toString());
+        }
+    }
+
+    private static FileResult getResult(Future<FileResult> future, Path file) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new FileResult(file, null, "анализ прерван");
+        } catch (ExecutionException e) {
+            return new FileResult(file, null, String.valueOf(e.getCause()));
+        }
+    }
+
+    private static void writeHeader(Format format, Writer writer) throws IOException {
+        if (format == Format.CSV) {
+            writer.write("file,sentences,words,declarative,questions,exclamatory,avg_sentence_length,avg_word_length,"
+                    + "flesch,flesch_ru,error\n");
+        } else {
+            writer.write("{\n  \"files\": [");
+        }
+    }
+
+    private static void writeRow(Format format, Writer writer, FileResult result, boolean first)
+            throws IOException {
+        AnalysisResult counts = result.counts();
+        if (format == Format.CSV) {
+            writer.write(csv(result.file().toString()));
+            writer.write(counts == null ? ",,,,,,,,," : "," + csvCounts(counts) + ",");
+            writer.write(result.error() == null ? "" : csv(result.error()));
+            writer.write('\n');
+        } else {
+            writer.write(first ? "\n    {" : ",\n    {");
+            writer.write("\"file\": " + json(result.file().toString()));
+            if (counts != null) {
+                writer.write(", " + jsonCounts(counts));
+            } else {
+                writer.write(", \"error\": " + json(result.error()));
+            }
+            writer.write('}');
+        }
+    }
+
+    private static void writeFooter(Format format, Writer writer, AnalysisResult total, int files)
+            throws IOException {
+        if (format == Format.CSV) {
+            writer.write("TOTAL," + csvCounts(total) + ",\n");
+        } else {
+            writer.write("\n  ],\n  \"total\": {\"files\": " + files + ", " + jsonCounts(total) + "}\n}\n");
+        }
+    }
+
+    private static String csvCounts(AnalysisResult counts) {
+        return counts.sentences() + "," + counts.words() + "," + counts.declarative() + "," + counts.questions()
+                + "," + counts.exclamatory() + "," + ResultExporter.number(counts.averageSentenceLength()) + ","
+                + ResultExporter.number(counts.averageWordLength()) + ","
+                + ResultExporter.number(counts.fleschReadingEase()) + ","
+                + ResultExporter.number(counts.fleschReadingEaseRussian());
+    }
+
+    private static String jsonCounts(AnalysisResult counts) {
+        return "\"sentences\": " + counts.sentences() + ", \"words\": " + counts.words()
+                + ", \"declarative\": " + counts.declarative() + ", \"questions\": " + counts.questions()
+                + ", \"exclamatory\": " + counts.exclamatory()
+                + ", \"averageSentenceLength\": " + ResultExporter.number(counts.averageSentenceLength())
+                + ", \"averageWordLength\": " + ResultExporter.number(counts.averageWordLength())
+                + ", \"flesch\": " + ResultExporter.number(counts.fleschReadingEase())
+                + ", \"fleschRussian\": " + ResultExporter.number(counts.fleschReadingEaseRussian());
+    }
+
+    /**
+     * Экранирует значение для CSV: поле с запятой, кавычкой или переводом строки заключается в кавычки.
+     */
+    static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Записывает строку как строковый литерал JSON.
+     */
+    static String json(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < ' ') {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
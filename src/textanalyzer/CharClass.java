@@ -0,0 +1,144 @@
+package textanalyzer;
+
+/**
+ * Класс CharClass содержит заранее построенную таблицу классов символов для анализатора текста.
+ * Класс каждого символа Unicode (буква, цифра, пробел, знак конца предложения и т. д.) вычисляется
+ * один раз при загрузке класса, поэтому анализатор определяет его одним обращением к массиву
+ * вместо цепочки проверок {@link Character}. Там же хранятся таблица перевода в нижний регистр
+ * и таблица гласных букв для подсчёта слогов.
+ * <p>
+ * Символы вне базовой плоскости (суррогатные пары) относятся к прочим знакам.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+final class CharClass {
+    /** Пробельный или управляющий символ: разделяет слова. */
+    static final byte SPACE = 0;
+    /** Прочий знак (запятая относится к отдельному классу). */
+    static final byte OTHER = 1;
+    /** Строчная буква. */
+    static final byte LOWER = 2;
+    /** Прописная буква. */
+    static final byte UPPER = 3;
+    /** Буква без регистра или диакритический знак. */
+    static final byte LETTER = 4;
+    /** Цифра. */
+    static final byte DIGIT = 5;
+    /** Точка. */
+    static final byte PERIOD = 6;
+    /** Вопросительный знак. */
+    static final byte QUESTION = 7;
+    /** Восклицательный знак. */
+    static final byte EXCLAMATION = 8;
+    /** Многоточие одним символом. */
+    static final byte ELLIPSIS = 9;
+    /** Дефис: соединяет части слова («кто-то»). */
+    static final byte HYPHEN = 10;
+    /** Апостроф: соединяет части слова («don't»). */
+    static final byte APOSTROPHE = 11;
+    /** Запятая: соединяет цифры числа («3,14»). */
+    static final byte COMMA = 12;
+    /** Тире. */
+    static final byte DASH = 13;
+    /** Кавычка или скобка. */
+    static final byte QUOTE = 14;
+    /** Невидимый символ внутри слова (мягкий перенос, нулевой ширины): пропускается. */
+    static final byte IGNORABLE = 15;
+
+    private static final byte[] CLASSES = new byte[Character.MAX_VALUE + 1];
+    private static final char[] LOWER_CASE = new char[Character.MAX_VALUE + 1];
+    // Гласные в нижнем регистре: русские, латинские (включая букву y) и латинские с диакритическими знаками
+    private static final String VOWEL_LETTERS = "аеёиоуыэюяaeiouyàáâãäåæèéêëìíîïòóôõöøùúûüýÿ";
+    private static final boolean[] VOWELS = new boolean[0x500]; // Все гласные из списка меньше U+0500
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            CLASSES[c] = classify((char) c);
+            LOWER_CASE[c] = Character.toLowerCase((char) c);
+        }
+        for (int i = 0; i < VOWEL_LETTERS.length(); i++) {
+            VOWELS[VOWEL_LETTERS.charAt(i)] = true;
+        }
+    }
+
+    private CharClass() {
+    }
+
+    private static byte classify(char c) {
+        return switch (c) {
+            case '.' -> PERIOD;
+            case '?' -> QUESTION;
+            case '!' -> EXCLAMATION;
+            case '\u2026' -> ELLIPSIS; // …
+            case '-', '\u2010', '\u2011' -> HYPHEN;
+            case '\'', '\u2019' -> APOSTROPHE; // ’
+            case ',' -> COMMA;
+            case '\u2012', '\u2013', '\u2014', '\u2015' -> DASH; // ‒ – — ―
+            case '"', '(', ')', '[', ']', '{', '}', '\u00AB', '\u00BB', '\u2018', '\u201A', '\u201C', '\u201D',
+                 '\u201E', '\u2039', '\u203A' -> QUOTE; // « » ‘ ‚ “ ” „ ‹ ›
+            case '\u00AD', '\u200B', '\u200C', '\u200D', '\u2060', '\uFEFF' -> IGNORABLE;
+            default -> classifyByType(c);
+        };
+    }
+
+    private static byte classifyByType(char c) {
+        if (c <= ' ' || Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+            return SPACE;
+        }
+        if (Character.isDigit(c)) {
+            return DIGIT;
+        }
+        if (Character.isLowerCase(c)) {
+            return LOWER;
+        }
+        if (Character.isUpperCase(c) || Character.isTitleCase(c)) {
+            return UPPER;
+        }
+        int type = Character.getType(c);
+        if (Character.isLetter(c) || type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK) {
+            return LETTER;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Возвращает класс символа.
+     *
+     * @param c Символ
+     * @return Одна из констант класса
+     */
+    static byte of(char c) {
+        return CLASSES[c];
+    }
+
+    /**
+     * Проверяет, относится ли класс к символам слова (буквам и цифрам).
+     *
+     * @param charClass Класс символа
+     * @return true для букв и цифр
+     */
+    static boolean isWord(byte charClass) {
+        return charClass >= LOWER && charClass <= DIGIT;
+    }
+
+    /**
+     * Переводит символ в нижний регистр по таблице.
+     *
+     * @param c Символ
+     * @return Символ в нижнем регистре
+     */
+    static char toLowerCase(char c) {
+        return LOWER_CASE[c];
+    }
+
+    /**
+     * Проверяет, является ли буква в нижнем регистре гласной.
+     *
+     * @param lowerCase Символ в нижнем регистре
+     * @return true для гласной буквы
+     */
+    static boolean isVowel(char lowerCase) {
+        return lowerCase < VOWELS.length && VOWELS[lowerCase];
+    }
+}
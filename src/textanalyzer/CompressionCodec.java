@@ -0,0 +1,154 @@
+package textanalyzer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Интерфейс CompressionCodec описывает формат сжатия файлов: как распознать сжатый файл по первым байтам,
+ * как распаковать его при чтении и как сжать данные при сохранении. Сжатые тексты читаются без распаковки
+ * на диск (см. {@link TextFileLoader#decode}), а отчёты можно сразу сохранять сжатыми.
+ * <p>
+ * Встроен формат gzip ({@link #GZIP}). Другие форматы подключаются без изменения программы: достаточно
+ * положить в classpath библиотеку с реализацией этого интерфейса, зарегистрированной через
+ * {@link ServiceLoader} (файл {@code META-INF/services/textanalyzer.CompressionCodec}).
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public interface CompressionCodec {
+    /**
+     * Количество байтов в начале файла, по которым кодеки распознают свой формат.
+     */
+    int HEADER_SIZE = 16;
+
+    /**
+     * Встроенный кодек gzip.
+     */
+    CompressionCodec GZIP = new GzipCodec();
+
+    /**
+     * Доступные кодеки: встроенный gzip и найденные через {@link ServiceLoader}.
+     */
+    List<CompressionCodec> AVAILABLE = load();
+
+    /**
+     * Возвращает название формата для интерфейса пользователя.
+     *
+     * @return Название формата
+     */
+    String name();
+
+    /**
+     * Возвращает расширение сжатых файлов.
+     *
+     * @return Расширение без точки
+     */
+    String extension();
+
+    /**
+     * Проверяет, сжат ли файл в этом формате, по его первым байтам (сигнатуре формата).
+     *
+     * @param header Первые байты файла (не больше {@value #HEADER_SIZE}; файл может быть и короче)
+     * @return true, если файл сжат в этом формате
+     */
+    boolean matches(ByteBuffer header);
+
+    /**
+     * Оборачивает поток сжатых данных потоком распакованных.
+     *
+     * @param in Поток сжатых данных
+     * @return Поток распакованных данных (закрывает {@code in} при закрытии)
+     * @throws IOException Ошибка чтения заголовка сжатых данных
+     */
+    InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * Оборачивает поток записи потоком, сжимающим данные.
+     *
+     * @param out Поток для записи сжатых данных
+     * @return Поток для записи исходных данных; его закрытие дописывает конец сжатого формата и закрывает {@code out}
+     * @throws IOException Ошибка записи заголовка сжатых данных
+     */
+    OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Определяет формат сжатия открытого файла по его первым байтам. Позиция канала не изменяется.
+     *
+     * @param channel Канал открытого файла
+     * @return Кодек или null, если файл не сжат ни в одном из доступных форматов
+     * @throws IOException Ошибка чтения файла
+     */
+    static CompressionCodec detect(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Читаем начало файла
+        }
+        header.flip();
+        for (CompressionCodec codec : AVAILABLE) {
+            if (codec.matches(header.asReadOnlyBuffer())) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Определяет формат сжатия файла по его первым байтам.
+     *
+     * @param file Путь к файлу
+     * @return Кодек или null, если файл не сжат ни в одном из доступных форматов
+     * @throws IOException Ошибка чтения файла
+     */
+    static CompressionCodec detect(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return detect(channel);
+        }
+    }
+
+    /**
+     * Убирает из имени файла расширение сжатого формата ({@code text.txt.gz} → {@code text.txt}).
+     *
+     * @param fileName Имя файла
+     * @return Имя без расширения сжатия (или исходное имя)
+     */
+    static String stripExtension(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (CompressionCodec codec : AVAILABLE) {
+            if (lower.endsWith("." + codec.extension())) {
+                return fileName.substring(0, fileName.length() - codec.extension().length() - 1);
+            }
+        }
+        return fileName;
+    }
+
+    /**
+     * Собирает список кодеков. Кодек с уже занятым расширением и кодек, который не удалось загрузить,
+     * пропускаются, чтобы неисправная библиотека не мешала чтению остальных файлов.
+     */
+    private static List<CompressionCodec> load() {
+        List<CompressionCodec> codecs = new ArrayList<>();
+        codecs.add(GZIP);
+        try {
+            for (CompressionCodec codec : ServiceLoader.load(CompressionCodec.class)) {
+                if (codecs.stream().noneMatch(known -> known.extension().equalsIgnoreCase(codec.extension()))) {
+                    codecs.add(codec);
+                }
+            }
+        } catch (ServiceConfigurationError e) {
+            Logger.getLogger(CompressionCodec.class.getName()).log(Level.WARNING, "Ошибка загрузки кодека", e);
+        }
+        return List.copyOf(codecs);
+    }
+}
@@ -0,0 +1,221 @@
+package textanalyzer;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Класс DocumentAnalyzer анализирует содержимое Swing-документа по блокам его внутреннего буфера.
+ * Текст не копируется в строку целиком, а каждый блок читается под блокировкой чтения документа,
+ * поэтому анализ можно безопасно выполнять вне потока обработки событий.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class DocumentAnalyzer {
+    /**
+     * Размер блока текста (в символах), после которого сообщается о ходе анализа и проверяется отмена.
+     */
+    static final int BLOCK_SIZE = 1 << 20;
+
+    /**
+     * Получатель фрагментов текста документа.
+     */
+    @FunctionalInterface
+    interface FragmentConsumer {
+        /**
+         * Принимает очередной фрагмент текста. Массив принадлежит документу, поэтому
+         * его содержимое действительно только во время вызова.
+         *
+         * @param chars Массив символов
+         * @param offset Смещение первого символа фрагмента в массиве
+         * @param length Количество символов во фрагменте
+         * @param position Позиция первого символа фрагмента в документе
+         */
+        void accept(char[] chars, int offset, int length, int position);
+    }
+
+    private DocumentAnalyzer() {
+    }
+
+    /**
+     * Читает документ целиком по блокам. Блокировка чтения удерживается только на время одного блока,
+     * поэтому правка текста в потоке обработки событий ждёт не дольше обработки блока. Если документ
+     * изменился между блоками, уже прочитанные фрагменты относятся к прежнему тексту и чтение прекращается.
+     *
+     * @param document Документ
+     * @param cancelled Признак отмены, проверяемый между блоками
+     * @param consumer Получатель фрагментов текста
+     * @return true, если прочитан весь документ без изменений; false, если чтение отменено
+     * или документ изменился
+     */
+    static boolean readBlocks(Document document, BooleanSupplier cancelled, FragmentConsumer consumer) {
+        boolean[] modified = {false};
+        // Уведомления о правке приходят под блокировкой записи, поэтому следующий блок видит признак
+        DocumentListener listener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                modified[0] = true;
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                modified[0] = true;
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Изменение атрибутов не меняет текст
+            }
+        };
+        document.addDocumentListener(listener);
+        try {
+            Segment segment = new Segment();
+            segment.setPartialReturn(true);
+            int[] length = {-1};
+            int[] offset = {0};
+            boolean[] stale = {false}; // Признак правки, прочитанный под блокировкой
+            while (length[0] < 0 || offset[0] < length[0]) {
+                if (cancelled.getAsBoolean()) {
+                    return false;
+                }
+                document.render(() -> {
+                    if (modified[0]) {
+                        stale[0] = true;
+                        return;
+                    }
+                    if (length[0] < 0) {
+                        length[0] = document.getLength();
+                    }
+                    int blockEnd = Math.min(length[0], offset[0] + BLOCK_SIZE);
+                    try {
+                        while (offset[0] < blockEnd) {
+                            document.getText(offset[0], blockEnd - offset[0], segment);
+                            consumer.accept(segment.array, segment.offset, segment.count, offset[0]);
+                            offset[0] += segment.count;
+                        }
+                    } catch (BadLocationException e) {
+                        throw new IllegalStateException(e); // Документ не изменился, диапазон лежит внутри него
+                    }
+                });
+                if (stale[0]) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            document.removeDocumentListener(listener);
+        }
+    }
+
+    /**
+     * Анализирует документ целиком.
+     *
+     * @param document Документ для анализа
+     * @param progress Монитор хода выполнения и отмены
+     * @return Результаты анализа (частичные, если анализ был отменён)
+     */
+    public static AnalysisResult analyze(Document document, AnalysisProgress progress) {
+        return analyze(document, progress, TokenizerRules.DEFAULT, false);
+    }
+
+    /**
+     * Анализирует документ целиком по правилам заданного языка, при необходимости подсчитывая частоты слов.
+     *
+     * @param document Документ для анализа
+     * @param progress Монитор хода выполнения и отмены
+     * @param rules Правила языка
+     * @param withFrequencies true, если нужна таблица частот слов (см. {@link AnalysisResult#frequencies()})
+     * @return Результаты анализа (частичные, если анализ был отменён)
+     */
+    public static AnalysisResult analyze(Document document, AnalysisProgress progress, TokenizerRules rules,
+                                         boolean withFrequencies) {
+        long started = System.nanoTime();
+        AnalysisResult result = ParallelTextAnalyzer.isWorthwhile(document.getLength())
+                ? analyzeParallel(document, progress, rules, withFrequencies)
+                : analyzeSequential(document, progress, rules, withFrequencies);
+        return result.withElapsedNanos(System.nanoTime() - started);
+    }
+
+    /**
+     * Вычисляет хеш содержимого документа без анализа текста. Хеш совпадает с {@link AnalysisResult#sourceHash()}
+     * результата анализа того же документа.
+     *
+     * @param document Документ
+     * @return Хеш содержимого ({@link AnalysisResult#NO_HASH} для пустого документа)
+     */
+    public static long hash(Document document) {
+        long[] hash = {0};
+        document.render(() -> {
+            Segment segment = new Segment();
+            segment.setPartialReturn(true);
+            int length = document.getLength();
+            int offset = 0;
+            try {
+                while (offset < length) {
+                    document.getText(offset, length - offset, segment);
+                    hash[0] = TextAnalysisEngine.hash(hash[0], segment.array, segment.offset, segment.count);
+                    offset += segment.count;
+                }
+            } catch (BadLocationException e) {
+                throw new IllegalStateException(e); // Диапазон всегда лежит внутри документа
+            }
+        });
+        return hash[0]; // Для пустого документа остаётся 0, то есть NO_HASH
+    }
+
+    /**
+     * Анализирует документ последовательно, блок за блоком.
+     */
+    private static AnalysisResult analyzeSequential(Document document, AnalysisProgress progress,
+                                                    TokenizerRules rules, boolean withFrequencies) {
+        TextAnalysisEngine.Scanner scanner = new TextAnalysisEngine.Scanner(rules,
+                withFrequencies ? new WordFrequencyTable() : null, withFrequencies ? new NGramSketch() : null);
+        Segment segment = new Segment();
+        segment.setPartialReturn(true); // Разрешаем возвращать фрагменты без копирования
+        int length = document.getLength();
+        int[] offset = {0};
+
+        while (offset[0] < length && !progress.isCancelled()) {
+            int blockEnd = Math.min(length, offset[0] + BLOCK_SIZE);
+            // Блокировка чтения удерживается только на время обработки одного блока
+            document.render(() -> {
+                try {
+                    while (offset[0] < blockEnd) {
+                        document.getText(offset[0], blockEnd - offset[0], segment);
+                        scanner.feed(segment.array, segment.offset, segment.count);
+                        offset[0] += segment.count;
+                    }
+                } catch (BadLocationException e) {
+                    throw new IllegalStateException(e); // Документ изменился во время анализа
+                }
+            });
+            progress.update(offset[0], length, scanner.result());
+        }
+        return scanner.result().withFrequencies(scanner.frequencies()).withNGrams(scanner.ngrams());
+    }
+
+    /**
+     * Анализирует большой документ параллельно. Текст запрашивается одним непрерывным фрагментом
+     * (буфер документа копируется, только если его разрыв попадает внутрь текста), а блокировка чтения
+     * удерживается до конца анализа, поэтому буфер не может измениться во время работы параллельных задач.
+     */
+    private static AnalysisResult analyzeParallel(Document document, AnalysisProgress progress,
+                                                  TokenizerRules rules, boolean withFrequencies) {
+        AnalysisResult[] result = {AnalysisResult.EMPTY};
+        document.render(() -> {
+            Segment segment = new Segment();
+            try {
+                document.getText(0, document.getLength(), segment);
+            } catch (BadLocationException e) {
+                throw new IllegalStateException(e); // Диапазон всегда лежит внутри документа
+            }
+            result[0] = ParallelTextAnalyzer.analyze(segment.array, segment.offset, segment.count, progress,
+                    rules, withFrequencies);
+        });
+        return result[0];
+    }
+}
@@ -0,0 +1,68 @@
+package textanalyzer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Класс FileAnalyzer анализирует текстовый файл прямо с диска, не загружая его в текстовое поле.
+ * Файл декодируется блоками фиксированного размера, которые сразу передаются потоковому анализатору,
+ * поэтому расход памяти не зависит от размера файла.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class FileAnalyzer {
+    private FileAnalyzer() {
+    }
+
+    /**
+     * Анализирует файл целиком.
+     *
+     * @param file Путь к файлу
+     * @param progress Монитор хода выполнения и отмены (ход выполнения измеряется в байтах файла)
+     * @return Результаты анализа (частичные, если анализ был отменён)
+     * @throws IOException Ошибка чтения файла
+     */
+    public static AnalysisResult analyze(Path file, AnalysisProgress progress) throws IOException {
+        return analyze(file, progress, TokenizerRules.DEFAULT, false);
+    }
+
+    /**
+     * Анализирует файл целиком по правилам заданного языка, при необходимости подсчитывая частоты слов.
+     *
+     * @param file Путь к файлу
+     * @param progress Монитор хода выполнения и отмены (ход выполнения измеряется в байтах файла)
+     * @param rules Правила языка
+     * @param withFrequencies true, если нужна таблица частот слов (см. {@link AnalysisResult#frequencies()})
+     * @return Результаты анализа (частичные, если анализ был отменён)
+     * @throws IOException Ошибка чтения файла
+     */
+    public static AnalysisResult analyze(Path file, AnalysisProgress progress, TokenizerRules rules,
+                                         boolean withFrequencies) throws IOException {
+        long started = System.nanoTime();
+        TextAnalysisEngine.Scanner scanner = new TextAnalysisEngine.Scanner(rules,
+                withFrequencies ? new WordFrequencyTable() : null, withFrequencies ? new NGramSketch() : null);
+        // Состояние анализатора сохраняется между блоками, поэтому границы блоков не влияют на результат
+        TextFileLoader.decode(file, scanner::feed, (bytesRead, totalBytes) -> {
+            progress.update(bytesRead, totalBytes, scanner.result());
+            return !progress.isCancelled();
+        });
+        return scanner.result().withFrequencies(scanner.frequencies()).withNGrams(scanner.ngrams())
+                .withElapsedNanos(System.nanoTime() - started);
+    }
+
+    /**
+     * Вычисляет хеш содержимого файла (тот же, что попадает в {@link AnalysisResult#sourceHash()}) без анализа.
+     * Используется, чтобы узнать, изменилось ли содержимое файла, у которого изменилось только время изменения.
+     *
+     * @param file Путь к файлу
+     * @return Хеш содержимого ({@link AnalysisResult#NO_HASH} для пустого файла)
+     * @throws IOException Ошибка чтения файла
+     */
+    public static long hash(Path file) throws IOException {
+        long[] hash = {0};
+        TextFileLoader.decode(file, (chars, offset, length) ->
+                hash[0] = TextAnalysisEngine.hash(hash[0], chars, offset, length), (bytesRead, totalBytes) -> true);
+        return hash[0];
+    }
+}
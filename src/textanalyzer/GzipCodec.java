@@ -0,0 +1,75 @@
+package textanalyzer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Класс GzipCodec — встроенный кодек формата gzip на основе {@link java.util.zip.Inflater} и
+ * {@link Deflater} из JDK. Файлы из нескольких склеенных частей gzip (например, созданные pigz или bgzip)
+ * читаются целиком.
+ * <p>
+ * Буфер сжатых данных — {@value #BUFFER_SIZE} байт, чтобы распаковка обращалась к файлу и к библиотеке
+ * zlib крупными блоками. Уровень сжатия при сохранении задаётся системным свойством
+ * {@code textanalyzer.gzip.level} (от 1 — быстрее, до 9 — компактнее; по умолчанию {@value #DEFAULT_LEVEL}).
+ * Недопустимое значение свойства заменяется уровнем по умолчанию.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+final class GzipCodec implements CompressionCodec {
+    /**
+     * Размер буфера сжатых данных (в байтах).
+     */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Уровень сжатия по умолчанию.
+     */
+    static final int DEFAULT_LEVEL = 6;
+
+    private static final int LEVEL = levelProperty("textanalyzer.gzip.level");
+
+    /**
+     * Читает уровень сжатия из системного свойства: значение вне 1..9 или не число заменяется уровнем по умолчанию.
+     */
+    private static int levelProperty(String name) {
+        int level = Integer.getInteger(name, DEFAULT_LEVEL);
+        return level >= Deflater.BEST_SPEED && level <= Deflater.BEST_COMPRESSION ? level : DEFAULT_LEVEL;
+    }
+
+    @Override
+    public String name() {
+        return "gzip";
+    }
+
+    @Override
+    public String extension() {
+        return "gz";
+    }
+
+    @Override
+    public boolean matches(ByteBuffer header) {
+        // Сигнатура gzip: 1F 8B и метод сжатия deflate (8)
+        return header.remaining() >= 3 && (header.get(0) & 0xFF) == 0x1F && (header.get(1) & 0xFF) == 0x8B
+                && header.get(2) == Deflater.DEFLATED;
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+        return new GZIPInputStream(in, BUFFER_SIZE);
+    }
+
+    @Override
+    public OutputStream compress(OutputStream out) throws IOException {
+        return new GZIPOutputStream(out, BUFFER_SIZE) {
+            {
+                def.setLevel(LEVEL);
+            }
+        };
+    }
+}
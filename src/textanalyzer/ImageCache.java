@@ -0,0 +1,177 @@
+package textanalyzer;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Класс ImageCache загружает изображения из ресурсов программы в фоновом потоке и запоминает
+ * результат по имени ресурса и размеру, поэтому каждое изображение декодируется и масштабируется
+ * один раз за время работы программы, а поток обработки событий не тратит время на чтение файлов.
+ * <p>
+ * Изображения, которые понадобятся позже (например, в окнах "О программе" и "Об авторе"),
+ * можно подготовить заранее методом {@link #prefetch(String, int, int)}.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class ImageCache {
+    private static final Logger LOG = Logger.getLogger(ImageCache.class.getName());
+
+    /**
+     * Иконка приложения.
+     */
+    public static final String APP_ICON = "/resources/icon.png";
+
+    /**
+     * Фотография автора.
+     */
+    public static final String AUTHOR_PHOTO = "/resources/photoAuthor.jpg";
+
+    /**
+     * Размер, означающий исходный размер изображения (без масштабирования).
+     */
+    public static final int ORIGINAL_SIZE = 0;
+
+    /**
+     * Ключ изображения: имя ресурса и размер после масштабирования.
+     */
+    private record Key(String resource, int width, int height) {
+    }
+
+    private static final Map<Key, CompletableFuture<ImageIcon>> IMAGES = new ConcurrentHashMap<>();
+
+    // Один фоновый поток: изображений немного, а порядок загрузки совпадает с порядком запросов
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "image-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ImageCache() {
+    }
+
+    /**
+     * Возвращает изображение из ресурсов, загружая и масштабируя его в фоновом потоке при первом запросе.
+     *
+     * @param resource Имя ресурса (например, {@link #APP_ICON})
+     * @param width Ширина после масштабирования или {@link #ORIGINAL_SIZE}
+     * @param height Высота после масштабирования или {@link #ORIGINAL_SIZE}
+     * @return Изображение, которое будет готово после загрузки (завершается ошибкой, если ресурс не найден)
+     */
+    public static CompletableFuture<ImageIcon> load(String resource, int width, int height) {
+        return IMAGES.computeIfAbsent(new Key(resource, width, height),
+                key -> CompletableFuture.supplyAsync(() -> decode(key), LOADER));
+    }
+
+    /**
+     * Начинает загрузку изображения, которое понадобится позже.
+     *
+     * @param resource Имя ресурса
+     * @param width Ширина после масштабирования или {@link #ORIGINAL_SIZE}
+     * @param height Высота после масштабирования или {@link #ORIGINAL_SIZE}
+     */
+    public static void prefetch(String resource, int width, int height) {
+        load(resource, width, height);
+    }
+
+    /**
+     * Передаёт изображение получателю в потоке обработки событий, как только оно будет загружено.
+     * Если изображение уже готово и метод вызван в потоке обработки событий, получатель вызывается сразу.
+     *
+     * @param resource Имя ресурса
+     * @param width Ширина после масштабирования или {@link #ORIGINAL_SIZE}
+     * @param height Высота после масштабирования или {@link #ORIGINAL_SIZE}
+     * @param onLoaded Получатель изображения
+     * @param onError Действие при ошибке загрузки (вызывается в потоке обработки событий)
+     */
+    public static void whenLoaded(String resource, int width, int height, Consumer<ImageIcon> onLoaded,
+                                  Runnable onError) {
+        CompletableFuture<ImageIcon> image = load(resource, width, height);
+        if (image.isDone() && !image.isCompletedExceptionally() && SwingUtilities.isEventDispatchThread()) {
+            onLoaded.accept(image.join());
+            return;
+        }
+        image.whenComplete((icon, error) -> SwingUtilities.invokeLater(() -> {
+            if (error == null) {
+                onLoaded.accept(icon);
+            } else {
+                onError.run();
+            }
+        }));
+    }
+
+    /**
+     * Создаёт метку заданного размера, в которой изображение появится после загрузки.
+     *
+     * @param resource Имя ресурса
+     * @param width Ширина изображения
+     * @param height Высота изображения
+     * @param errorText Текст метки, если изображение не удалось загрузить
+     * @return Метка для изображения
+     */
+    public static JLabel createLabel(String resource, int width, int height, String errorText) {
+        JLabel label = new JLabel("", SwingConstants.CENTER);
+        // Размер известен заранее, поэтому окно не перестраивается
+        label.setPreferredSize(new Dimension(width, height));
+        whenLoaded(resource, width, height, label::setIcon, () -> label.setText(errorText));
+        return label;
+    }
+
+    /**
+     * Читает и масштабирует изображение (выполняется в фоновом потоке).
+     */
+    private static ImageIcon decode(Key key) {
+        URL url = ImageCache.class.getResource(key.resource());
+        try {
+            if (url == null) {
+                throw new IOException("Изображение не найдено: " + key.resource());
+            }
+            BufferedImage image = ImageIO.read(url);
+            if (image == null) {
+                throw new IOException("Неизвестный формат изображения: " + key.resource());
+            }
+            if (key.width() != ORIGINAL_SIZE && key.height() != ORIGINAL_SIZE) {
+                image = scale(image, key.width(), key.height());
+            }
+            return new ImageIcon(image);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Ошибка загрузки изображения", e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Масштабирует изображение. При сильном уменьшении размер уменьшается вдвое за шаг:
+     * это даёт качество, близкое к {@link Image#SCALE_SMOOTH}, но во много раз быстрее.
+     */
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        BufferedImage current = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2); // Увеличение выполняется за один шаг
+            BufferedImage scaled = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = scaled.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            graphics.dispose();
+            current = scaled;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+}
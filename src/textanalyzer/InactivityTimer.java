@@ -3,73 +3,149 @@ package textanalyzer;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.AWTEventListener;
-import java.awt.event.MouseEvent;
-import java.awt.event.KeyEvent;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
 
 /**
  * Класс InactivityTimer используется для отслеживания бездействия пользователя.
  * Если пользователь не взаимодействует с приложением в течение заданного времени,
  * приложение автоматически закрывается.
+ * <p>
+ * Слушатель событий мыши и клавиатуры только запоминает время последнего действия в volatile-поле,
+ * поэтому обработка ввода почти ничего не стоит даже при быстром наборе текста. Время бездействия
+ * проверяет один периодический таймер. Слушатель установлен для всего приложения, поэтому отсчёт
+ * продолжается при переходе между окнами, а сообщение о закрытии показывается над активным окном.
+ * Для приложения используется один общий таймер (см. {@link #startGlobal(int)}).
+ * <p>
+ * Выполнение фоновой задачи (анализа, загрузки, сохранения, очереди рабочей области) тоже считается
+ * действием: пока хотя бы одна задача отмечена методами {@link #taskStarted()} и {@link #taskFinished()}
+ * (или {@link #track(SwingWorker)}), приложение не закрывается, а отсчёт начинается заново после её завершения.
  *
  * @author Klimuk M.N.
  * @version 1.1.2.2024
  */
 public class InactivityTimer {
-    private Timer timer;
-    private final JFrame parentFrame; // Окно сообщения о закрытии программы
-    private final int timeout; // Время ожидания бездействия
-    private AWTEventListener eventListener; // Слушатель событий
+    private static final Logger LOG = Logger.getLogger(InactivityTimer.class.getName());
 
     /**
-     * Конструктор, инициализирует таймер и слушатели событий.
+     * Наибольший период проверки бездействия в миллисекундах.
+     */
+    static final int CHECK_INTERVAL = 1000;
+
+    private static final AtomicInteger RUNNING_TASKS = new AtomicInteger(); // Количество выполняющихся фоновых задач
+
+    private static volatile InactivityTimer global; // Общий таймер приложения
+
+    private final Timer timer; // Периодическая проверка бездействия
+    private final long timeoutNanos; // Время ожидания бездействия
+    private final AWTEventListener eventListener; // Слушатель событий
+    private volatile long lastActivity; // Время последнего действия пользователя (System.nanoTime)
+    private boolean listening;
+
+    /**
+     * Конструктор, инициализирует таймер и слушатель событий. Отсчёт начинается после вызова {@link #startTimer()}.
      *
-     * @param parentFrame Окно приложения, в котором будет отображаться сообщение о бездействии
      * @param timeout Время бездействия в миллисекундах, после которого приложение закрывается
      */
-    public InactivityTimer(JFrame parentFrame, int timeout) {
-        this.parentFrame = parentFrame;
-        this.timeout = timeout;
-        initTimer(); // Инициализация таймера
-        initEventListeners(); // Инициализация слушателей событий
+    public InactivityTimer(int timeout) {
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+        // Проверка выполняется в потоке обработки событий, где показывается сообщение о закрытии
+        timer = new Timer(Math.min(timeout, CHECK_INTERVAL), _ -> checkInactivity());
+        eventListener = _ -> lastActivity = System.nanoTime(); // Только запись времени: вызывается на каждое событие
     }
 
     /**
-     * Инициализирует таймер, который будет запускать завершение приложения после заданного времени.
+     * Запускает общий таймер бездействия приложения. Повторный вызов возвращает уже запущенный таймер.
+     * Вызывается в потоке обработки событий.
+     *
+     * @param timeout Время бездействия в миллисекундах, после которого приложение закрывается
+     * @return Общий таймер приложения
      */
-    private void initTimer() {
-        timer = new Timer(timeout, _ -> {
-            // Сообщение о бездействии и закрытие приложения
-            JOptionPane.showMessageDialog(parentFrame,
-                    "Приложение закрывается из-за бездействия.",
-                    "Бездействие",
-                    JOptionPane.WARNING_MESSAGE);
-            System.exit(0); // Завершаем работу приложения
-        });
-        timer.setRepeats(false); // Таймер срабатывает только один раз
+    public static InactivityTimer startGlobal(int timeout) {
+        if (global == null) {
+            global = new InactivityTimer(timeout);
+            global.startTimer();
+        }
+        return global;
     }
 
     /**
-     * Инициализирует слушатели событий для отслеживания активности пользователя.
-     * Таймер сбрасывается при любом действии пользователя (клик мыши или нажатие клавиши).
+     * Возвращает общий таймер бездействия приложения.
+     *
+     * @return Общий таймер или null, если он не запущен
      */
-    private void initEventListeners() {
-        eventListener = event -> {
-            if (event instanceof MouseEvent || event instanceof KeyEvent) {
-                resetTimer(); // Сброс таймера при активности пользователя
+    public static InactivityTimer global() {
+        return global;
+    }
+
+    /**
+     * Отмечает начало фоновой задачи. Пока задача выполняется, приложение не закрывается из-за бездействия.
+     * Можно вызывать из любого потока; каждому вызову должен соответствовать вызов {@link #taskFinished()}.
+     */
+    public static void taskStarted() {
+        RUNNING_TASKS.incrementAndGet();
+    }
+
+    /**
+     * Отмечает завершение фоновой задачи. Время бездействия отсчитывается заново от этого момента.
+     * Можно вызывать из любого потока.
+     */
+    public static void taskFinished() {
+        RUNNING_TASKS.decrementAndGet();
+        InactivityTimer timer = global;
+        if (timer != null) {
+            timer.resetTimer();
+        }
+    }
+
+    /**
+     * Отмечает фоновую задачу SwingWorker на всё время её выполнения. Вызывается до {@link SwingWorker#execute()}.
+     *
+     * @param worker Фоновая задача
+     */
+    public static void track(SwingWorker<?, ?> worker) {
+        taskStarted();
+        worker.addPropertyChangeListener(event -> {
+            if ("state".equals(event.getPropertyName()) && event.getNewValue() == SwingWorker.StateValue.DONE) {
+                taskFinished();
             }
-        };
+        });
+    }
 
-        // Добавляем слушатель событий для мыши и клавиатуры
-        Toolkit.getDefaultToolkit().addAWTEventListener(eventListener, AWTEvent.MOUSE_EVENT_MASK
-                | AWTEvent.KEY_EVENT_MASK);
+    /**
+     * Проверяет, истекло ли время бездействия, и закрывает приложение.
+     */
+    private void checkInactivity() {
+        if (RUNNING_TASKS.get() > 0) {
+            resetTimer(); // Выполняющаяся фоновая задача считается действием пользователя
+            return;
+        }
+        if (System.nanoTime() - lastActivity < timeoutNanos) {
+            return;
+        }
+        stopTimer();
+        // Сообщение о бездействии и закрытие приложения
+        JOptionPane.showMessageDialog(KeyboardFocusManager.getCurrentKeyboardFocusManager().getActiveWindow(),
+                "Приложение закрывается из-за бездействия.",
+                "Бездействие",
+                JOptionPane.WARNING_MESSAGE);
+        System.exit(0); // Завершаем работу приложения
     }
 
     /**
-     * Запускает таймер отслеживания бездействия.
+     * Запускает таймер отслеживания бездействия и слушатель событий мыши и клавиатуры.
      */
     public void startTimer() {
+        if (!listening) {
+            // Добавляем слушатель событий для мыши и клавиатуры
+            Toolkit.getDefaultToolkit().addAWTEventListener(eventListener, AWTEvent.MOUSE_EVENT_MASK
+                    | AWTEvent.MOUSE_WHEEL_EVENT_MASK | AWTEvent.KEY_EVENT_MASK);
+            listening = true;
+        }
+        resetTimer();
         timer.start();
-        System.out.println("Таймер запущен");
+        LOG.fine("Таймер запущен");
     }
 
     /**
@@ -77,15 +153,14 @@ public class InactivityTimer {
      */
     public void stopTimer() {
         timer.stop();
-        System.out.println("Таймер остановлен");
+        LOG.fine("Таймер остановлен");
     }
 
     /**
-     * Перезапускает таймер, сбрасывая отсчет времени.
+     * Сбрасывает отсчет времени бездействия.
      */
     public void resetTimer() {
-        timer.restart();
-        System.out.println("Таймер перезапущен");
+        lastActivity = System.nanoTime();
     }
 
     /**
@@ -93,10 +168,7 @@ public class InactivityTimer {
      */
     public void removeEventListener() {
         Toolkit.getDefaultToolkit().removeAWTEventListener(eventListener); // Удаление слушателя событий
-        System.out.println("Слушатель удален");
+        listening = false;
+        LOG.fine("Слушатель удален");
     }
-
-    // TODO -> Таймер работает только при первом запуске приложения и сбрасывается после перехода в другое окно
-    // TODO -> В идеале необходимо добавить восстановление таймера при возвращении в стартовое окно
 }
-
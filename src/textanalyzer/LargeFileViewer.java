@@ -0,0 +1,223 @@
+package textanalyzer;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Компонент LargeFileViewer показывает большой текстовый файл только для чтения. В отличие от JTextArea
+ * он не хранит текст и не строит разметку всего документа: при отрисовке декодируются только строки,
+ * попадающие в видимую область, а недавно показанные строки запоминаются в небольшом кэше.
+ * Компонент размещается в JScrollPane вместо текстового поля.
+ * <p>
+ * Найденные панелью поиска вхождения подсвечиваются так же, как в текстовом поле: только в видимых строках.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public class LargeFileViewer extends JComponent implements Scrollable {
+    /**
+     * Количество декодированных строк, которые хранятся для повторной отрисовки.
+     */
+    private static final int CACHED_LINES = 512;
+
+    /**
+     * Шаг позиций табуляции (в символах).
+     */
+    private static final int TAB_SIZE = 8;
+
+    private final MappedTextFile text;
+    private SearchIndex index; // Индекс файла, по которому найдены вхождения
+    private SearchIndex.Matches matches; // Подсвечиваемые вхождения (null, если поиска не было)
+    private int current = -1; // Номер выбранного вхождения
+    private final Map<Integer, String> lines = new LinkedHashMap<>(CACHED_LINES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+            return size() > CACHED_LINES;
+        }
+    };
+
+    /**
+     * Конструктор просмотра.
+     *
+     * @param text Открытый файл с индексом строк
+     */
+    public LargeFileViewer(MappedTextFile text) {
+        this.text = text;
+        setFont(UIManager.getFont("TextArea.font"));
+        setBackground(UIManager.getColor("TextArea.background"));
+        setForeground(UIManager.getColor("TextArea.foreground"));
+        setOpaque(true);
+        setBorder(BorderFactory.createEmptyBorder(2, 4, 2, 4));
+    }
+
+    /**
+     * Возвращает показываемый файл.
+     *
+     * @return Файл с индексом строк
+     */
+    public MappedTextFile getText() {
+        return text;
+    }
+
+    /**
+     * Задаёт вхождения, которые подсвечиваются в видимых строках.
+     *
+     * @param index Индекс показываемого файла
+     * @param matches Найденные вхождения или null, чтобы снять подсветку
+     * @param current Номер выбранного вхождения или -1
+     */
+    public void setMatches(SearchIndex index, SearchIndex.Matches matches, int current) {
+        this.index = index;
+        this.matches = matches;
+        this.current = current;
+        repaint();
+    }
+
+    /**
+     * Возвращает номер первой строки, видимой в области прокрутки.
+     *
+     * @return Номер строки, начиная с 0
+     */
+    public int firstVisibleLine() {
+        int line = (getVisibleRect().y - getInsets().top) / lineHeight();
+        return Math.max(0, Math.min(text.lineCount() - 1, line));
+    }
+
+    /**
+     * Прокручивает просмотр так, чтобы символ строки оказался в видимой области.
+     *
+     * @param line Номер строки, начиная с 0
+     * @param column Номер символа в строке
+     */
+    public void scrollToPosition(int line, int column) {
+        FontMetrics metrics = getFontMetrics(getFont());
+        Insets insets = getInsets();
+        scrollRectToVisible(new Rectangle(insets.left + columnX(metrics, line, column),
+                insets.top + line * metrics.getHeight(), metrics.charWidth('m'), metrics.getHeight()));
+    }
+
+    private int lineHeight() {
+        return getFontMetrics(getFont()).getHeight();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        FontMetrics metrics = getFontMetrics(getFont());
+        Insets insets = getInsets();
+        // Ширина оценивается по длине самой длинной строки в байтах, чтобы не декодировать весь файл
+        long width = (long) text.maxLineBytes() * metrics.charWidth('m');
+        long height = (long) text.lineCount() * metrics.getHeight();
+        return new Dimension((int) Math.min(Integer.MAX_VALUE / 2, width + insets.left + insets.right),
+                (int) Math.min(Integer.MAX_VALUE / 2, height + insets.top + insets.bottom));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        g.setFont(getFont());
+
+        Insets insets = getInsets();
+        FontMetrics metrics = g.getFontMetrics();
+        int lineHeight = metrics.getHeight();
+        int first = Math.max(0, (clip.y - insets.top) / lineHeight);
+        int last = Math.min(text.lineCount() - 1, (clip.y + clip.height - insets.top) / lineHeight);
+        paintMatches(g, metrics, first, last);
+        g.setColor(getForeground());
+        for (int line = first; line <= last; line++) {
+            int y = insets.top + line * lineHeight + metrics.getAscent();
+            g.drawString(expandTabs(line(line)), insets.left, y);
+        }
+    }
+
+    /**
+     * Подсвечивает вхождения, попадающие в строки [first, last]. Вхождение-фраза может занимать несколько строк.
+     */
+    private void paintMatches(Graphics g, FontMetrics metrics, int first, int last) {
+        if (matches == null || matches.count() == 0 || first > last) {
+            return;
+        }
+        Insets insets = getInsets();
+        int lineHeight = metrics.getHeight();
+        int from = index.lineStart(first);
+        int to = index.lineStart(last + 1);
+        int i = matches.firstAtOrAfter(from);
+        if (i > 0 && matches.end(i - 1) > from) {
+            i--; // Фраза начинается выше видимой области
+        }
+        for (; i < matches.count() && matches.start(i) < to; i++) {
+            g.setColor(i == current ? SearchPanel.CURRENT_COLOR : SearchPanel.MATCH_COLOR);
+            int start = matches.start(i);
+            int end = matches.end(i);
+            for (int line = Math.max(first, index.lineOf(start)); line <= last && index.lineStart(line) < end;
+                 line++) {
+                int lineStart = index.lineStart(line);
+                int x = columnX(metrics, line, Math.max(0, start - lineStart));
+                int width = columnX(metrics, line, end - lineStart) - x;
+                g.fillRect(insets.left + x, insets.top + line * lineHeight, width, lineHeight);
+            }
+        }
+    }
+
+    /**
+     * Возвращает горизонтальное смещение символа строки с учётом табуляции.
+     */
+    private int columnX(FontMetrics metrics, int line, int column) {
+        String shown = line(line);
+        return metrics.stringWidth(expandTabs(shown.substring(0, Math.min(column, shown.length()))));
+    }
+
+    /**
+     * Возвращает текст строки: из кэша или декодируя его из файла.
+     */
+    private String line(int line) {
+        return lines.computeIfAbsent(line, text::line);
+    }
+
+    /**
+     * Заменяет символы табуляции пробелами до ближайшей позиции табуляции.
+     */
+    private static String expandTabs(String line) {
+        if (line.indexOf('\t') < 0) {
+            return line;
+        }
+        StringBuilder builder = new StringBuilder(line.length() + TAB_SIZE);
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                builder.append(" ".repeat(TAB_SIZE - builder.length() % TAB_SIZE));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? lineHeight() : getFontMetrics(getFont()).charWidth('m');
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return getParent() instanceof JViewport viewport && viewport.getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() instanceof JViewport viewport && viewport.getHeight() > getPreferredSize().height;
+    }
+}
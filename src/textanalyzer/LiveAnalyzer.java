@@ -0,0 +1,239 @@
+package textanalyzer;
+
+import javax.swing.*;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.DocumentFilter;
+import javax.swing.text.Segment;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Класс LiveAnalyzer обновляет результаты анализа по мере ввода текста. Фильтр документа получает
+ * каждое изменение до и после его применения и пересчитывает только окно текста вокруг правки,
+ * ограниченное ближайшими точками синхронизации анализатора (обычно это одно-два слова).
+ * Затраты на правку пропорциональны её размеру, а не размеру документа. Метки обновляются
+ * с задержкой, поэтому серия быстрых нажатий клавиш приводит к одному обновлению интерфейса.
+ * <p>
+ * Полный анализ текста при подключении к документу выполняется в фоновом потоке (см. {@link #attach}),
+ * а правки начинают учитываться после его завершения. Пока он выполняется, текст не должен изменяться.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public class LiveAnalyzer extends DocumentFilter {
+    /**
+     * Задержка обновления результатов после последней правки (в миллисекундах).
+     */
+    static final int UPDATE_DELAY = 150;
+
+    /**
+     * Размер блока, которым читается текст при поиске точек синхронизации.
+     */
+    private static final int SCAN_BLOCK = 256;
+
+    private final Timer updateTimer;
+    private final Segment segment = new Segment();
+    private AbstractDocument document;
+    private AnalysisWorker scan; // Полный анализ при подключении (null, если он завершён)
+    private TokenizerRules rules = TokenizerRules.DEFAULT;
+    private AnalysisResult total = AnalysisResult.EMPTY;
+
+    /**
+     * Конструктор анализатора.
+     *
+     * @param listener Получатель обновлённых результатов (вызывается в потоке обработки событий)
+     */
+    public LiveAnalyzer(Consumer<AnalysisResult> listener) {
+        updateTimer = new Timer(UPDATE_DELAY, _ -> listener.accept(total));
+        updateTimer.setRepeats(false);
+    }
+
+    /**
+     * Подключает анализатор к документу. Возвращает фоновый полный анализ текущего текста, который
+     * вызывающий запускает сам (например, с индикатором выполнения); после его завершения анализатор
+     * отслеживает все изменения документа. Если анализ отменён, анализатор отключается от документа.
+     * Пока анализ выполняется, документ не должен изменяться.
+     *
+     * @param document Документ текстового поля
+     * @return Фоновый анализ (ещё не запущенный)
+     */
+    public AnalysisWorker attach(AbstractDocument document) {
+        detach();
+        this.document = document;
+        TokenizerRules scanRules = rules;
+        AnalysisWorker worker = new AnalysisWorker(
+                progress -> DocumentAnalyzer.analyze(document, progress, scanRules, false), _ -> {
+        });
+        worker.addPropertyChangeListener(event -> {
+            if ("state".equals(event.getPropertyName()) && event.getNewValue() == SwingWorker.StateValue.DONE) {
+                finishScan(worker);
+            }
+        });
+        scan = worker;
+        return worker;
+    }
+
+    /**
+     * Завершает подключение: запоминает результаты полного анализа и начинает отслеживать правки.
+     */
+    private void finishScan(AnalysisWorker worker) {
+        if (worker != scan) {
+            return; // Анализатор уже отключён или подключён заново
+        }
+        scan = null;
+        try {
+            total = worker.isCancelled() ? null : worker.get();
+        } catch (InterruptedException | ExecutionException e) {
+            total = null;
+        }
+        if (total == null) {
+            total = AnalysisResult.EMPTY;
+            detach();
+            return;
+        }
+        document.setDocumentFilter(this);
+        updateTimer.restart();
+    }
+
+    /**
+     * Устанавливает правила языка. Если анализатор подключён к документу, текст нужно проанализировать
+     * заново: возвращается фоновый анализ, который вызывающий запускает сам.
+     *
+     * @param rules Правила языка
+     * @return Фоновый анализ (ещё не запущенный) или null, если анализатор не подключён
+     */
+    public AnalysisWorker setRules(TokenizerRules rules) {
+        this.rules = rules;
+        return document != null ? attach(document) : null;
+    }
+
+    /**
+     * Отключает анализатор от документа.
+     */
+    public void detach() {
+        if (scan != null) {
+            scan.cancel(false);
+            scan = null;
+        }
+        if (document != null) {
+            document.setDocumentFilter(null);
+            document = null;
+        }
+        updateTimer.stop();
+    }
+
+    /**
+     * Проверяет, подключён ли анализатор к документу (в том числе если полный анализ ещё выполняется).
+     *
+     * @return true, если анализатор подключён
+     */
+    public boolean isAttached() {
+        return document != null;
+    }
+
+    /**
+     * Возвращает актуальные результаты анализа документа.
+     *
+     * @return Результаты анализа
+     */
+    public AnalysisResult getResult() {
+        return total;
+    }
+
+    @Override
+    public void insertString(FilterBypass fb, int offset, String string, AttributeSet attr)
+            throws BadLocationException {
+        replace(fb, offset, 0, string, attr);
+    }
+
+    @Override
+    public void remove(FilterBypass fb, int offset, int length) throws BadLocationException {
+        replace(fb, offset, length, null, null);
+    }
+
+    @Override
+    public void replace(FilterBypass fb, int offset, int length, String text, AttributeSet attrs)
+            throws BadLocationException {
+        Document doc = fb.getDocument();
+        int oldLength = doc.getLength();
+        // Окно [start, end) ограничено точками синхронизации, которые правка не затрагивает
+        int start = syncPointBefore(doc, offset);
+        int end = syncPointAfter(doc, offset + length);
+        AnalysisResult before = countRange(doc, start, end);
+
+        if (text == null || text.isEmpty()) {
+            fb.remove(offset, length);
+        } else {
+            fb.replace(offset, length, text, attrs);
+        }
+
+        int shift = doc.getLength() - oldLength;
+        AnalysisResult after = countRange(doc, start, end == oldLength ? doc.getLength() : end + shift);
+        total = total.minus(before).plus(after);
+        updateTimer.restart(); // Откладываем обновление меток до паузы во вводе
+    }
+
+    /**
+     * Ищет ближайшую точку синхронизации, не превышающую позицию (или начало документа).
+     */
+    private int syncPointBefore(Document doc, int position) throws BadLocationException {
+        segment.setPartialReturn(false);
+        int limit = position;
+        while (limit >= 2) {
+            int blockStart = Math.max(0, limit - SCAN_BLOCK);
+            doc.getText(blockStart, limit - blockStart, segment);
+            for (int i = limit; i >= blockStart + 2; i--) {
+                int index = segment.offset + i - blockStart;
+                if (TextAnalysisEngine.isSyncPoint(segment.array[index - 2], segment.array[index - 1])) {
+                    return i;
+                }
+            }
+            limit = blockStart + 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Ищет ближайшую точку синхронизации, оба предшествующих символа которой лежат не раньше позиции
+     * (или конец документа).
+     */
+    private int syncPointAfter(Document doc, int position) throws BadLocationException {
+        segment.setPartialReturn(false);
+        int length = doc.getLength();
+        int blockStart = position;
+        while (blockStart + 2 <= length) {
+            int blockEnd = Math.min(length, blockStart + SCAN_BLOCK);
+            doc.getText(blockStart, blockEnd - blockStart, segment);
+            for (int i = blockStart + 2; i <= blockEnd; i++) {
+                int index = segment.offset + i - blockStart;
+                if (TextAnalysisEngine.isSyncPoint(segment.array[index - 2], segment.array[index - 1])) {
+                    return i;
+                }
+            }
+            if (blockEnd == length) {
+                break;
+            }
+            blockStart = blockEnd - 1;
+        }
+        return length;
+    }
+
+    /**
+     * Анализирует диапазон документа, начинающийся с точки синхронизации (или с начала документа).
+     */
+    private AnalysisResult countRange(Document doc, int start, int end) throws BadLocationException {
+        TextAnalysisEngine.Scanner scanner = start == 0 ? new TextAnalysisEngine.Scanner(rules, null)
+                : TextAnalysisEngine.Scanner.atSyncPoint(rules, null);
+        segment.setPartialReturn(true);
+        int offset = start;
+        while (offset < end) {
+            doc.getText(offset, end - offset, segment);
+            scanner.feed(segment.array, segment.offset, segment.count);
+            offset += segment.count;
+        }
+        return scanner.result();
+    }
+}
@@ -1,8 +1,21 @@
 package textanalyzer;
 
 import javax.swing.*;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
 import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Главное окно программы для анализа текста. В этом окне выполняется ввод текста, 
@@ -12,13 +25,69 @@ import java.io.*;
  * @version 1.1.2.2024
  */
 public class MainWindow extends JFrame {
+    // Предупреждение, выводимое при попытке анализа пустого текстового поля
+    private static final String EMPTY_TEXT_MESSAGE =
+            "Текстовое поле пусто! Пожалуйста, введите текст для анализа.";
+
+    // Размер файла (в байтах), начиная с которого файл открывается в режиме просмотра, а не в текстовом поле
+    private static final long VIEWER_THRESHOLD = Long.getLong("textanalyzer.viewerThreshold", 64L << 20);
+
+    // Количество самых частых слов на метке результатов и во всплывающей подсказке к ней
+    private static final int LABEL_TOP_WORDS = 5;
+    private static final int TOOLTIP_TOP_WORDS = 20;
+
+    // Количество словосочетаний на метке результатов и каждого вида сочетаний во всплывающей подсказке к ней
+    private static final int LABEL_TOP_NGRAMS = 3;
+    private static final int TOOLTIP_TOP_NGRAMS = 10;
+
     // Объявление полей текстового поля и меток слов и предложений
     private final JTextArea textArea;
+    private final JScrollPane textScrollPane;
+    private final SearchPanel searchPanel;
     private final JLabel sentenceCountLabel;
     private final JLabel wordCountLabel;
     private final JLabel declarativeCountLabel;
     private final JLabel questionCountLabel;
     private final JLabel exclamatoryCountLabel;
+    private final JLabel uniqueWordsLabel;
+    private final JLabel averagesLabel;
+    private final JLabel readabilityLabel;
+    private final JLabel diversityLabel;
+    private final JLabel topWordsLabel;
+    private final JLabel ngramsLabel;
+
+    // Результаты последнего анализа (null, если анализ ещё не выполнялся) и их источник: файл,
+    // проанализированный с диска, или документ текстового поля (второе поле равно null для файла),
+    // а также правила языка, по которым они получены
+    private AnalysisResult lastResult;
+    private Path lastResultFile;
+    private Document lastResultDocument;
+    private TokenizerRules lastResultRules;
+
+    // Правила языка, по которым текст делится на предложения и слова
+    private TokenizerRules rules = TokenizerRules.DEFAULT;
+
+    // Кнопки действий, индикатор хода выполнения и текущая фоновая задача (анализ или загрузка)
+    private final JButton jbtAnalyze;
+    private final JButton jbtLoadFile;
+    private final JButton jbtAnalyzeFile;
+    private final JButton jbtSave;
+    private final JButton jbtClear;
+    private final JButton jbtCancel;
+    private final JProgressBar progressBar;
+    private SwingWorker<?, ?> backgroundTask;
+    private PerformanceWindow performanceWindow; // Окно статистики (создаётся при первом открытии)
+    private WorkspaceWindow workspaceWindow; // Рабочая область (создаётся при первом открытии)
+    private SentenceWindow sentenceWindow; // Таблица предложений (создаётся при первом открытии)
+    private JMenuItem sentencesItem; // Пункт таблицы предложений (недоступен в режиме просмотра файла)
+
+    // Большой файл, открытый в режиме просмотра вместо текстового поля (null, если показано текстовое поле)
+    private MappedTextFile viewedFile;
+
+    // Анализ по мере ввода текста и флажок его включения
+    private final LiveAnalyzer liveAnalyzer;
+    private final JCheckBox jcbLiveAnalysis;
+    private JMenu languageMenu; // Меню языка (недоступно во время фоновой задачи)
 
     /**
      * Конструктор главного окна.
@@ -35,24 +104,43 @@ public class MainWindow extends JFrame {
         // Создаём текстовую область для ввода текста
         textArea = new JTextArea(10, 50);
 
+        // Анализ при вводе: при замене документа (например, после загрузки файла) подключаемся к новому
+        // Смена языка заново подключает анализ при вводе, поэтому его результаты получены по текущим правилам
+        liveAnalyzer = new LiveAnalyzer(result -> showResult(result, null, rules));
+        jcbLiveAnalysis = new JCheckBox("Анализ при вводе");
+        jcbLiveAnalysis.addActionListener(_ -> toggleLiveAnalysis());
+        textArea.addPropertyChangeListener("document", _ -> {
+            if (jcbLiveAnalysis.isSelected()) {
+                attachLiveAnalyzer();
+            }
+        });
+
         // Создание и добавление кнопок с обработчиками событий
-        JButton jbtAnalyze = new JButton("Анализировать");
+        jbtAnalyze = new JButton("Анализировать");
         jbtAnalyze.addActionListener(_ -> analyzeText());
 
-        JButton jbtLoadFile = new JButton("Загрузить файл");
+        jbtLoadFile = new JButton("Загрузить файл");
         jbtLoadFile.addActionListener(_ -> loadFile());
 
-        JButton jbtSave = new JButton("Сохранить");
+        jbtAnalyzeFile = new JButton("Анализ файла...");
+        jbtAnalyzeFile.setToolTipText("Анализ файла с диска без загрузки в текстовое поле");
+        jbtAnalyzeFile.addActionListener(_ -> analyzeFile());
+
+        jbtSave = new JButton("Сохранить");
         jbtSave.addActionListener(_ -> saveResults());
 
-        JButton jbtClear = new JButton("Очистить");
+        jbtClear = new JButton("Очистить");
         jbtClear.addActionListener(_ -> clearText());
 
+        jbtCancel = new JButton("Отмена");
+        jbtCancel.addActionListener(_ -> cancelAnalysis());
+
         JButton jbtBack = new JButton("Назад");
         jbtBack.setFont(new Font("Arial", Font.BOLD, 16));
         jbtBack.addActionListener(_ -> {
             previousWindow.setVisible(true);
-            dispose(); // Закрываем текущее окно
+            showTextArea(); // Освобождаем файл, открытый в режиме просмотра
+            setVisible(false); // Окно скрывается и переиспользуется при следующем открытии
         });
 
         JButton jbtExit = new JButton("Выход");
@@ -66,6 +154,19 @@ public class MainWindow extends JFrame {
         declarativeCountLabel = new JLabel("Повествовательные предложения: 0");
         questionCountLabel = new JLabel("Вопросительные предложения: 0");
         exclamatoryCountLabel = new JLabel("Восклицательные предложения: 0");
+        uniqueWordsLabel = new JLabel("Уникальных слов: 0");
+        averagesLabel = new JLabel("Средняя длина: —");
+        readabilityLabel = new JLabel("Удобочитаемость (Флеш): —");
+        diversityLabel = new JLabel("Лексическое разнообразие: —");
+        topWordsLabel = new JLabel("Частые слова: —");
+        // Результат файла из индекса корпуса показывается без частот слов: они подсчитываются по щелчку
+        topWordsLabel.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                countFrequencies();
+            }
+        });
+        ngramsLabel = new JLabel("Словосочетания: —");
 
         // Панель для текста с рамкой
         JPanel textPanel = new JPanel(new BorderLayout());
@@ -73,7 +174,12 @@ public class MainWindow extends JFrame {
                 BorderFactory.createTitledBorder("Текст для анализа"),
                 BorderFactory.createEmptyBorder(10, 10, 10, 10)
         ));
-        textPanel.add(new JScrollPane(textArea), BorderLayout.CENTER);
+        textScrollPane = new JScrollPane(textArea);
+        textPanel.add(textScrollPane, BorderLayout.CENTER);
+
+        // Панель поиска над текстом: индекс строится после загрузки файла или анализа
+        searchPanel = new SearchPanel(textArea, textScrollPane);
+        textPanel.add(searchPanel, BorderLayout.NORTH);
 
         // Обёртка для панели текста с внешними отступами
         JPanel textPanelWrapper = new JPanel(new BorderLayout());
@@ -81,7 +187,7 @@ public class MainWindow extends JFrame {
         textPanelWrapper.add(textPanel, BorderLayout.CENTER);
 
         // Панель для результатов анализа
-        JPanel resultPanel = new JPanel(new GridLayout(5, 1, 1, 15));
+        JPanel resultPanel = new JPanel(new GridLayout(11, 1, 1, 10));
         resultPanel.setBorder(BorderFactory.createCompoundBorder(
                 BorderFactory.createTitledBorder("Результаты анализа"),
                 BorderFactory.createEmptyBorder(10,10,10,10)
@@ -92,17 +198,35 @@ public class MainWindow extends JFrame {
         resultPanel.add(declarativeCountLabel);
         resultPanel.add(questionCountLabel);
         resultPanel.add(exclamatoryCountLabel);
+        resultPanel.add(averagesLabel);
+        resultPanel.add(readabilityLabel);
+        resultPanel.add(uniqueWordsLabel);
+        resultPanel.add(diversityLabel);
+        resultPanel.add(topWordsLabel);
+        resultPanel.add(ngramsLabel);
 
         // Панель для кнопок
-        JPanel buttonPanel = new JPanel(new GridLayout(2, 2, 20, 20));
+        JPanel buttonPanel = new JPanel(new GridLayout(3, 2, 20, 20));
         buttonPanel.setBorder(BorderFactory.createCompoundBorder(
                 BorderFactory.createTitledBorder("Действия"),
                 BorderFactory.createEmptyBorder(10, 10, 10, 10)
         ));
         buttonPanel.add(jbtAnalyze);
         buttonPanel.add(jbtLoadFile);
+        buttonPanel.add(jbtAnalyzeFile);
         buttonPanel.add(jbtSave);
         buttonPanel.add(jbtClear);
+        buttonPanel.add(jcbLiveAnalysis);
+
+        // Панель хода анализа: индикатор выполнения и кнопка отмены, видна только во время анализа
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        JPanel progressPanel = new JPanel(new BorderLayout(10, 0));
+        progressPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 10));
+        progressPanel.add(progressBar, BorderLayout.CENTER);
+        progressPanel.add(jbtCancel, BorderLayout.EAST);
+        progressBar.setVisible(false);
+        jbtCancel.setVisible(false);
 
         // Панель для кнопки "Назад" с выравниванием по левому краю
         JPanel backButtonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
@@ -135,6 +259,7 @@ public class MainWindow extends JFrame {
 
         // Собираем нижнюю часть окна
         JPanel lowerPanel = new JPanel(new BorderLayout());
+        lowerPanel.add(progressPanel, BorderLayout.NORTH);
         lowerPanel.add(bottomPanel, BorderLayout.CENTER);
         lowerPanel.add(navigationPanel, BorderLayout.SOUTH);
 
@@ -163,12 +288,36 @@ public class MainWindow extends JFrame {
         JMenuItem aboutProgram = new JMenuItem("О программе");
         JMenuItem aboutAuthor = new JMenuItem("Об авторе");
 
-        aboutProgram.addActionListener(_ -> new AboutProgramWindow(this).setVisible(true));
-        aboutAuthor.addActionListener(_ -> new AboutAuthorWindow(this).setVisible(true));
+        aboutProgram.addActionListener(_ -> AboutProgramWindow.open(this));
+        aboutAuthor.addActionListener(_ -> AboutAuthorWindow.open(this));
 
         infoMenu.add(aboutProgram);
         infoMenu.add(aboutAuthor);
 
+        // Вкладка "Документы"
+        JMenu documentsMenu = new JMenu("Документы");
+        JMenuItem find = new JMenuItem("Найти в тексте");
+        find.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F, InputEvent.CTRL_DOWN_MASK));
+        find.addActionListener(_ -> searchPanel.focusQuery());
+        documentsMenu.add(find);
+        sentencesItem = new JMenuItem("Таблица предложений...");
+        sentencesItem.setToolTipText("Позиция, длина, количество слов и тип каждого предложения текста");
+        sentencesItem.addActionListener(_ -> showSentenceWindow());
+        documentsMenu.add(sentencesItem);
+        JMenuItem workspace = new JMenuItem("Рабочая область...");
+        workspace.setToolTipText("Анализ многих файлов и каталогов с таблицей результатов");
+        workspace.addActionListener(_ -> showWorkspaceWindow());
+        documentsMenu.add(workspace);
+
+        // Вкладка "Язык"
+        languageMenu = getLanguageMenu();
+
+        // Вкладка "Производительность"
+        JMenu performanceMenu = new JMenu("Производительность");
+        JMenuItem statistics = new JMenuItem("Статистика операций");
+        statistics.addActionListener(_ -> showPerformanceWindow());
+        performanceMenu.add(statistics);
+
         // Вкладка "Об версиях"
         JMenu versionMenu = getjMenu();
 
@@ -177,11 +326,72 @@ public class MainWindow extends JFrame {
 
         // Добавляем меню в меню-бар
         menuBar.add(infoMenu);
+        menuBar.add(documentsMenu);
+        menuBar.add(languageMenu);
+        menuBar.add(performanceMenu);
         menuBar.add(versionMenu);
         menuBar.add(helpMenu);
         return menuBar;
     }
 
+    /**
+     * Создаёт вкладку "Язык" в меню: выбор правил разбора текста на предложения и слова.
+     * @return JMenu с языками анализа.
+     */
+    private JMenu getLanguageMenu() {
+        JMenu menu = new JMenu("Язык");
+        ButtonGroup group = new ButtonGroup();
+        for (TokenizerRules language : TokenizerRules.available()) {
+            JRadioButtonMenuItem item = new JRadioButtonMenuItem(language.name(), language == rules);
+            item.addActionListener(_ -> selectLanguage(language));
+            group.add(item);
+            menu.add(item);
+        }
+        return menu;
+    }
+
+    /**
+     * Показывает окно статистики производительности; повторный вызов выводит уже открытое окно на передний план.
+     */
+    private void showPerformanceWindow() {
+        if (performanceWindow == null || !performanceWindow.isDisplayable()) {
+            performanceWindow = new PerformanceWindow(this);
+        }
+        performanceWindow.setVisible(true);
+        performanceWindow.toFront();
+    }
+
+    /**
+     * Показывает рабочую область для анализа многих файлов. Файлы анализируются по правилам языка,
+     * выбранного в главном окне на момент их добавления.
+     */
+    private void showWorkspaceWindow() {
+        if (workspaceWindow == null) {
+            workspaceWindow = new WorkspaceWindow(this, () -> rules);
+        }
+        workspaceWindow.setVisible(true);
+        workspaceWindow.toFront();
+    }
+
+    /**
+     * Открывает таблицу предложений текста (окно создаётся при первом открытии).
+     */
+    private void showSentenceWindow() {
+        if (sentenceWindow == null) {
+            sentenceWindow = new SentenceWindow(this, textArea, () -> rules);
+        }
+        sentenceWindow.showSentences();
+    }
+
+    // Метод для смены языка анализа
+    private void selectLanguage(TokenizerRules language) {
+        rules = language;
+        AnalysisWorker scan = liveAnalyzer.setRules(language); // Анализ при вводе пересчитывается по новым правилам
+        if (scan != null) {
+            runInBackground(scan, () -> finishLiveAnalyzer(scan));
+        }
+    }
+
     /**
      * Создаёт вкладку "Помощь" в меню.
      * @return JMenu для помощи.
@@ -196,7 +406,13 @@ public class MainWindow extends JFrame {
                         1. Введите текст в поле сверху или загрузите файл.
                         2. Нажмите "Анализировать", чтобы выполнить анализ.
                         3. Сохраните результаты в файл, если нужно.
-                        4. Для очистки текста нажмите "Очистить".""",
+                        4. Для очистки текста нажмите "Очистить".
+                        5. Для анализа большого файла без загрузки в поле нажмите "Анализ файла...".
+                        6. Включите "Анализ при вводе", чтобы результаты обновлялись во время набора текста.
+                        7. Очень большие файлы открываются в режиме просмотра: текст нельзя изменить,
+                           но его можно анализировать и сохранять.
+                        8. В меню "Язык" выберите язык текста: от него зависит, какие сокращения
+                           (например, "т.е." или "Mr.") не считаются концом предложения.""",
                 "Помощь", JOptionPane.INFORMATION_MESSAGE));
 
         helpMenu.add(howToUse);
@@ -256,25 +472,18 @@ public class MainWindow extends JFrame {
 
     // Метод для очистки текста и сброса меток
     private void clearText() {
+        showTextArea(); // Закрываем файл, открытый в режиме просмотра
         textArea.setText(""); // Очищаем текстовое поле
         // Сбрасываем значения меток с результатами анализа
-        sentenceCountLabel.setText("Количество предложений: 0");
-        wordCountLabel.setText("Количество слов: 0");
-        declarativeCountLabel.setText("Повествовательные предложения: 0");
-        questionCountLabel.setText("Вопросительные предложения: 0");
-        exclamatoryCountLabel.setText("Восклицательные предложения: 0");
+        displayResult(AnalysisResult.EMPTY, rules);
+        lastResult = null;
     }
 
     // Метод для сохранения результатов анализа в файл
     private void saveResults() {
         // Проверяем, пустой ли текст или результаты анализа равны нулю
-        String text = textArea.getText().trim();
-        if (text.isEmpty() ||
-                sentenceCountLabel.getText().endsWith("0") &&
-                        wordCountLabel.getText().endsWith("0") &&
-                        declarativeCountLabel.getText().endsWith("0") &&
-                        questionCountLabel.getText().endsWith("0") &&
-                        exclamatoryCountLabel.getText().endsWith("0")) {
+        if (lastResult == null || lastResult.isEmpty()
+                || lastResultFile == null && textArea.getDocument().getLength() == 0) {
 
             // Сообщаем пользователю о невозможности сохранить пустой файл
             JOptionPane.showMessageDialog(this,
@@ -284,20 +493,57 @@ public class MainWindow extends JFrame {
             return; // Прерываем выполнение метода
         }
 
-        // Создание диалога для выбора файла для сохранения
+        // Создание диалога для выбора файла и формата сохранения
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Сохранить файл");
-        fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Text Files",
-                "txt"));
+        fileChooser.setAcceptAllFileFilterUsed(false);
+        Map<javax.swing.filechooser.FileFilter, ResultExporter.Format> formats = new LinkedHashMap<>();
+        for (ResultExporter.Format format : ResultExporter.Format.values()) {
+            javax.swing.filechooser.FileFilter filter = new javax.swing.filechooser.FileNameExtensionFilter(
+                    format.description(), format.extension());
+            formats.put(filter, format);
+            fileChooser.addChoosableFileFilter(filter);
+        }
+        fileChooser.setFileFilter(formats.keySet().iterator().next()); // По умолчанию — отчёт с текстом
+
+        // Выбор сжатия файла: без сжатия или одним из доступных кодеков
+        JComboBox<String> compression = new JComboBox<>();
+        compression.addItem("Без сжатия");
+        for (CompressionCodec codec : CompressionCodec.AVAILABLE) {
+            compression.addItem(codec.name() + " (." + codec.extension() + ")");
+        }
+        JPanel compressionPanel = new JPanel(new BorderLayout(0, 5));
+        compressionPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 0));
+        compressionPanel.add(new JLabel("Сжатие:"), BorderLayout.NORTH);
+        compressionPanel.add(compression, BorderLayout.CENTER);
+        JPanel accessory = new JPanel(new BorderLayout());
+        accessory.add(compressionPanel, BorderLayout.NORTH);
+        fileChooser.setAccessory(accessory);
 
         // Ожидаем выбора файла пользователем
         int userSelection = fileChooser.showSaveDialog(this);
         if (userSelection == JFileChooser.APPROVE_OPTION) {
             File selectedFile = fileChooser.getSelectedFile();
+            ResultExporter.Format format = formats.get(fileChooser.getFileFilter());
+
+            // Отчёт содержит сам текст: он должен быть тем текстом, по которому получены результаты.
+            // Текст мог быть заменён или отредактирован после анализа — это видно по хешу содержимого
+            if (format == ResultExporter.Format.REPORT && lastResultFile == null
+                    && (lastResultDocument != textArea.getDocument()
+                    || lastResult.sourceHash() != DocumentAnalyzer.hash(lastResultDocument))) {
+                JOptionPane.showMessageDialog(this,
+                        "Текст в поле изменён после анализа. Выполните анализ заново, чтобы сохранить отчёт.",
+                        "Ошибка сохранения",
+                        JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            CompressionCodec codec = compression.getSelectedIndex() > 0
+                    ? CompressionCodec.AVAILABLE.get(compression.getSelectedIndex() - 1) : null;
 
-            // Если пользователь не указал расширение, добавляем .txt
-            if (!selectedFile.getName().toLowerCase().endsWith(".txt")) {
-                selectedFile = new File(selectedFile.getAbsolutePath() + ".txt");
+            // Если пользователь не указал расширение, добавляем расширение выбранного формата и сжатия
+            String extension = "." + format.extension() + (codec != null ? "." + codec.extension() : "");
+            if (!selectedFile.getName().toLowerCase().endsWith(extension)) {
+                selectedFile = new File(selectedFile.getAbsolutePath() + extension);
             }
 
             // Проверяем, существует ли файл, и спрашиваем пользователя о перезаписи
@@ -311,108 +557,587 @@ public class MainWindow extends JFrame {
                 }
             }
 
-            // Пытаемся сохранить результаты анализа в выбранный файл
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(selectedFile))) {
-                writer.write("Текст:\n\n");
-                writer.write(text + "\n\n");
-                writer.write("\nРезультаты анализа:\n\n");
-                writer.write(sentenceCountLabel.getText() + "\n");
-                writer.write(wordCountLabel.getText() + "\n");
-                writer.write(declarativeCountLabel.getText() + "\n");
-                writer.write(questionCountLabel.getText() + "\n");
-                writer.write(exclamatoryCountLabel.getText() + "\n");
-
-                // Уведомляем пользователя об успешном сохранении
-                JOptionPane.showMessageDialog(this,
-                        "Файл успешно сохранён!",
-                        "Успех",
-                        JOptionPane.INFORMATION_MESSAGE);
-            } catch (IOException e) {
-                // Обрабатываем ошибки записи в файл
-                JOptionPane.showMessageDialog(this,
-                        "Ошибка при сохранении файла: " + e.getMessage(),
-                        "Ошибка",
-                        JOptionPane.ERROR_MESSAGE);
-            }
+            // Сохраняем результаты в фоне: файл пишется во временный и заменяет прежний только целиком
+            Path target = selectedFile.toPath();
+            AnalysisResult result = lastResult;
+            ReportWriter.TextSource text = lastResultFile != null
+                    ? ReportWriter.TextSource.of(lastResultFile)
+                    : ReportWriter.TextSource.of(lastResultDocument);
+            SwingWorker<Void, Void> saver = new SwingWorker<>() {
+                @Override
+                protected Void doInBackground() throws IOException {
+                    PerformanceMonitor.Sample sample = PerformanceMonitor.start(PerformanceMonitor.Operation.SAVE);
+                    ResultExporter.export(target, format, text, result, AtomicFileOutput.FORCE, codec,
+                            (written, total) -> {
+                                setProgress((int) (written * 100 / Math.max(1, total)));
+                                return !isCancelled();
+                            });
+                    sample.stop(Files.size(target)); // При отмене запись прерывается исключением
+                    return null;
+                }
+            };
+            runInBackground(saver, () -> finishSaving(saver));
+        }
+    }
+
+    /**
+     * Обрабатывает завершение фонового сохранения: сообщает об успехе или ошибке. При отмене
+     * или ошибке прежний файл остаётся неизменным.
+     *
+     * @param saver Завершившееся фоновое сохранение
+     */
+    private void finishSaving(SwingWorker<Void, Void> saver) {
+        if (saver.isCancelled()) {
+            return;
+        }
+        try {
+            saver.get();
+            // Уведомляем пользователя об успешном сохранении
+            JOptionPane.showMessageDialog(this,
+                    "Файл успешно сохранён!",
+                    "Успех",
+                    JOptionPane.INFORMATION_MESSAGE);
+        } catch (InterruptedException | ExecutionException e) {
+            // Обрабатываем ошибки записи в файл
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            JOptionPane.showMessageDialog(this,
+                    "Ошибка при сохранении файла: " + cause.getMessage(),
+                    "Ошибка",
+                    JOptionPane.ERROR_MESSAGE);
         }
     }
 
     // Метод для загрузки текста из файла
     private void loadFile() {
+        Path selectedFile = chooseTextFile();
+        if (selectedFile != null && isLargeFile(selectedFile)) {
+            openInViewer(selectedFile);
+        } else if (selectedFile != null) {
+
+            // Документ строится в фоновом потоке и устанавливается в текстовое поле одной операцией.
+            // Распакованный текст сжатого файла ограничен тем же порогом, что и размер несжатого
+            SwingWorker<PlainDocument, Void> loader = new SwingWorker<>() {
+                @Override
+                protected PlainDocument doInBackground() throws IOException {
+                    PerformanceMonitor.Sample sample = PerformanceMonitor.start(PerformanceMonitor.Operation.LOAD);
+                    PlainDocument document = TextFileLoader.loadDocument(selectedFile, VIEWER_THRESHOLD,
+                            (bytesRead, totalBytes) -> {
+                                setProgress((int) (bytesRead * 100 / Math.max(1, totalBytes)));
+                                return !isCancelled();
+                            });
+                    sample.stop(Files.size(selectedFile)); // При отмене загрузка прерывается исключением
+                    return document;
+                }
+            };
+            runInBackground(loader, () -> finishLoading(loader, selectedFile));
+        }
+    }
+
+    /**
+     * Проверяет, нужно ли открывать файл в режиме просмотра вместо текстового поля.
+     *
+     * @param file Путь к файлу
+     * @return true, если размер файла не меньше порога режима просмотра
+     */
+    private static boolean isLargeFile(Path file) {
+        try {
+            // Режим просмотра отображает файл в память, поэтому сжатый файл распаковывается в текстовое поле,
+            // а слишком длинный распакованный текст предлагается проанализировать без загрузки (см. finishLoading)
+            return Files.size(file) >= VIEWER_THRESHOLD && CompressionCodec.detect(file) == null;
+        } catch (IOException e) {
+            return false; // Ошибка будет показана при чтении файла
+        }
+    }
+
+    /**
+     * Открывает большой файл в режиме просмотра: строит индекс строк в фоновом потоке
+     * и показывает файл вместо текстового поля.
+     *
+     * @param file Путь к файлу
+     */
+    private void openInViewer(Path file) {
+        SwingWorker<MappedTextFile, Void> opener = new SwingWorker<>() {
+            @Override
+            protected MappedTextFile doInBackground() throws IOException {
+                PerformanceMonitor.Sample sample = PerformanceMonitor.start(PerformanceMonitor.Operation.LOAD);
+                MappedTextFile opened = MappedTextFile.open(file, (bytesRead, totalBytes) -> {
+                    setProgress((int) (bytesRead * 100 / Math.max(1, totalBytes)));
+                    return !isCancelled();
+                });
+                sample.stop(opened.size()); // При отмене построение индекса прерывается исключением
+                return opened;
+            }
+        };
+        runInBackground(opener, () -> {
+            if (opener.isCancelled()) {
+                return;
+            }
+            try {
+                showViewer(opener.get());
+            } catch (InterruptedException | ExecutionException e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                if (cause instanceof MappedTextFile.TooManyLinesException) {
+                    // Потоковому анализу число строк не важно: файл можно проанализировать без просмотра
+                    int answer = JOptionPane.showConfirmDialog(this,
+                            cause.getMessage() + ".\nПроанализировать файл без просмотра?",
+                            "Большой файл",
+                            JOptionPane.YES_NO_OPTION);
+                    if (answer == JOptionPane.YES_OPTION) {
+                        analyzeFile(file);
+                    }
+                    return;
+                }
+                JOptionPane.showMessageDialog(this, "Ошибка при чтении файла: " + cause.getMessage(),
+                        "Ошибка", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+    }
+
+    /**
+     * Показывает файл в режиме просмотра вместо текстового поля. Текстовое поле очищается,
+     * а анализ при вводе выключается, так как текст в режиме просмотра не редактируется.
+     *
+     * @param file Открытый файл
+     */
+    private void showViewer(MappedTextFile file) {
+        showTextArea();
+        jcbLiveAnalysis.setSelected(false);
+        toggleLiveAnalysis();
+        textArea.setDocument(new PlainDocument()); // Освобождаем память, занятую прежним текстом
+        viewedFile = file;
+        if (sentenceWindow != null) {
+            sentenceWindow.setVisible(false); // Таблица строится по текстовому полю, а оно теперь пусто
+        }
+        LargeFileViewer viewer = new LargeFileViewer(file);
+        searchPanel.setViewer(viewer); // Индекс поиска строится по файлу, без загрузки текста
+        textScrollPane.setViewportView(viewer);
+        updateActions(false);
+    }
+
+    /**
+     * Возвращает текстовое поле на место просмотра файла и закрывает файл.
+     */
+    private void showTextArea() {
+        if (viewedFile == null) {
+            return;
+        }
+        try {
+            viewedFile.close();
+        } catch (IOException e) {
+            // Файл открыт только для чтения: ошибка закрытия не влияет на данные
+        }
+        viewedFile = null;
+        searchPanel.setViewer(null);
+        textScrollPane.setViewportView(textArea);
+        updateActions(false);
+    }
+
+    /**
+     * Показывает диалог выбора текстового файла для открытия.
+     *
+     * @return Путь к выбранному файлу или null, если выбор отменён
+     */
+    private Path chooseTextFile() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
 
-        // Фильтр для текстовых файлов
-        fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Text Files",
-                "txt"));
+        // Фильтр для текстовых файлов, в том числе сжатых
+        fileChooser.setFileFilter(UtilsUI.textFileFilter());
 
         // Ожидаем выбора файла пользователем
         int result = fileChooser.showOpenDialog(this);
-        if (result == JFileChooser.APPROVE_OPTION) {
-            File selectedFile = fileChooser.getSelectedFile();
-            try (BufferedReader reader = new BufferedReader(new FileReader(selectedFile))) {
-                textArea.setText(""); // Очищаем текстовое поле перед загрузкой файла
-                String line;
-                // Чтение строк из файла и добавление их в текстовое поле
-                while ((line = reader.readLine()) != null) {
-                    textArea.append(line + "\n");
+        return result == JFileChooser.APPROVE_OPTION ? fileChooser.getSelectedFile().toPath() : null;
+    }
+
+    // Метод для анализа файла с диска без загрузки его содержимого в текстовое поле
+    private void analyzeFile() {
+        Path selectedFile = chooseTextFile();
+        if (selectedFile != null) {
+            analyzeFile(selectedFile);
+        }
+    }
+
+    /**
+     * Анализирует файл потоково, не загружая его текст в текстовое поле.
+     *
+     * @param file Путь к файлу
+     */
+    private void analyzeFile(Path file) {
+        TokenizerRules language = rules;
+        AnalysisWorker worker = new AnalysisWorker(
+                progress -> ResultCache.shared().analyze(file, progress, language, true),
+                partial -> displayResult(partial, language));
+        runInBackground(worker, () -> finishAnalysis(worker, file, language,
+                "Файл не содержит текста для анализа."));
+    }
+
+    /**
+     * Устанавливает загруженный документ в текстовое поле или сообщает об ошибке чтения.
+     *
+     * Если распакованный текст сжатого файла слишком велик для текстового поля, предлагает
+     * проанализировать файл потоково.
+     *
+     * @param loader Завершившаяся фоновая загрузка
+     * @param file Загружаемый файл
+     */
+    private void finishLoading(SwingWorker<PlainDocument, Void> loader, Path file) {
+        if (loader.isCancelled()) {
+            return; // Текстовое поле остаётся без изменений
+        }
+        try {
+            textArea.setDocument(loader.get());
+            textArea.setCaretPosition(0);
+            searchPanel.ensureIndex();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e.getCause() instanceof TextFileLoader.TextTooLargeException) {
+                int answer = JOptionPane.showConfirmDialog(this,
+                        "Текст файла длиннее " + VIEWER_THRESHOLD / 1_000_000 + " млн символов и не помещается "
+                                + "в текстовое поле.\nПроанализировать файл без загрузки?",
+                        "Большой файл",
+                        JOptionPane.YES_NO_OPTION);
+                if (answer == JOptionPane.YES_OPTION) {
+                    analyzeFile(file);
                 }
-            } catch (IOException e) {
-                // Обрабатываем ошибки чтения файла
-                JOptionPane.showMessageDialog(this, "Ошибка при чтении файла",
-                        "Ошибка", JOptionPane.ERROR_MESSAGE);
+                return;
             }
+            // Обрабатываем ошибки чтения файла
+            JOptionPane.showMessageDialog(this, "Ошибка при чтении файла",
+                    "Ошибка", JOptionPane.ERROR_MESSAGE);
         }
     }
 
     // Метод для анализа текста
     private void analyzeText() {
-        String text = textArea.getText().trim(); // Удаляем пробелы в начале и конце
+        TokenizerRules language = rules;
+        // В режиме просмотра анализируется сам файл
+        if (viewedFile != null) {
+            Path file = viewedFile.file();
+            AnalysisWorker worker = new AnalysisWorker(
+                    progress -> ResultCache.shared().analyze(file, progress, language, true),
+                    partial -> displayResult(partial, language));
+            runInBackground(worker, () -> finishAnalysis(worker, file, language,
+                    "Файл не содержит текста для анализа."));
+            return;
+        }
 
         // Проверка, что текст не пустой
-        if (text.isEmpty()) {
-            JOptionPane.showMessageDialog(this,
-                    "Текстовое поле пусто! Пожалуйста, введите текст для анализа.",
-                    "Ошибка",
-                    JOptionPane.WARNING_MESSAGE);
+        if (textArea.getDocument().getLength() == 0) {
+            showEmptyTextWarning(EMPTY_TEXT_MESSAGE);
             return; // Прерываем выполнение метода
         }
 
-        // Разбиваем текст на предложения, учитывая только те, которые заканчиваются на точку, ! или ?
-        String[] sentences = text.split("(?<=[.!?])\\s*");
-        int sentenceCount = 0;
-        int declarativeCount = 0;
-        int questionCount = 0;
-        int exclamatoryCount = 0;
-
-        // Процесс анализа каждого предложения
-        for (String sentence : sentences) {
-            sentence = sentence.trim(); // Убираем лишние пробелы вокруг предложения
-            if (sentence.isEmpty()) continue; // Пропускаем пустые строки и предложения без знака точки, ? или !
-            if (!sentence.endsWith(".") && !sentence.endsWith("?") && !sentence.endsWith("!")) continue;
-
-            sentenceCount++; // Подсчёт предложений
-
-            // Определяем тип предложения
-            if (sentence.endsWith(".")) {
-                declarativeCount++;
-            } else if (sentence.endsWith("?")) {
-                questionCount++;
-            } else if (sentence.endsWith("!")) {
-                exclamatoryCount++;
+        // Запускаем анализ в фоновом потоке, чтобы окно не зависало на больших текстах.
+        // Если этот текст уже анализировался, результат берётся из кэша
+        Document document = textArea.getDocument();
+        AnalysisWorker worker = new AnalysisWorker(
+                progress -> ResultCache.shared().analyze(document, progress, language, true),
+                partial -> displayResult(partial, language));
+        runInBackground(worker, () -> finishAnalysis(worker, null, language, EMPTY_TEXT_MESSAGE));
+    }
+
+    /**
+     * Подсчитывает частоты слов файла, результат анализа которого получен из индекса корпуса без них.
+     */
+    private void countFrequencies() {
+        if (!canCountFrequencies() || backgroundTask != null) {
+            return;
+        }
+        Path file = lastResultFile;
+        TokenizerRules language = lastResultRules;
+        AnalysisWorker worker = new AnalysisWorker(
+                progress -> ResultCache.shared().analyzeFrequencies(file, progress, language),
+                partial -> displayResult(partial, language));
+        runInBackground(worker, () -> finishAnalysis(worker, file, language,
+                "Файл не содержит текста для анализа."));
+    }
+
+    /**
+     * Проверяет, можно ли подсчитать частоты слов для результатов последнего анализа: это результаты
+     * анализа файла, полученные без таблицы частот.
+     */
+    private boolean canCountFrequencies() {
+        return lastResult != null && lastResultFile != null && lastResult.frequencies() == null;
+    }
+
+    /**
+     * Запускает фоновую задачу: показывает индикатор выполнения и блокирует действия до её завершения.
+     *
+     * @param task Фоновая задача
+     * @param onDone Действие, выполняемое в потоке обработки событий после завершения задачи
+     */
+    private void runInBackground(SwingWorker<?, ?> task, Runnable onDone) {
+        task.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName())) {
+                progressBar.setValue((Integer) event.getNewValue());
+            } else if ("state".equals(event.getPropertyName())
+                    && event.getNewValue() == SwingWorker.StateValue.DONE) {
+                setBusy(false);
+                backgroundTask = null;
+                onDone.run();
             }
+        });
+        backgroundTask = task;
+        setBusy(true);
+        InactivityTimer.track(task);
+        task.execute();
+    }
+
+    // Метод для включения и выключения анализа при вводе
+    private void toggleLiveAnalysis() {
+        if (jcbLiveAnalysis.isSelected()) {
+            attachLiveAnalyzer();
+        } else {
+            liveAnalyzer.detach();
         }
+    }
 
-        // Считаем слова, используя разбиение по пробелам
-        int wordCount = text.split("\\s+").length;
+    /**
+     * Подключает анализ при вводе к документу текстового поля. Полный анализ текущего текста выполняется
+     * в фоне с индикатором выполнения; текст в это время не редактируется.
+     */
+    private void attachLiveAnalyzer() {
+        AnalysisWorker scan = liveAnalyzer.attach((AbstractDocument) textArea.getDocument());
+        runInBackground(scan, () -> finishLiveAnalyzer(scan));
+    }
 
-        // Обновляем метки с результатами анализа
-        sentenceCountLabel.setText("Количество предложений: " + sentenceCount);
-        wordCountLabel.setText("Количество слов: " + wordCount);
-        declarativeCountLabel.setText("Повествовательные предложения: " + declarativeCount);
-        questionCountLabel.setText("Вопросительные предложения: " + questionCount);
-        exclamatoryCountLabel.setText("Восклицательные предложения: " + exclamatoryCount);
+    /**
+     * Выключает анализ при вводе, если полный анализ текста при подключении был отменён или завершился ошибкой.
+     *
+     * @param scan Завершившийся полный анализ
+     */
+    private void finishLiveAnalyzer(AnalysisWorker scan) {
+        if (scan.isCancelled() || !liveAnalyzer.isAttached()) {
+            jcbLiveAnalysis.setSelected(false);
+            liveAnalyzer.detach();
+        }
     }
-}
 
+    // Метод для отмены выполняющейся фоновой задачи
+    private void cancelAnalysis() {
+        if (backgroundTask != null) {
+            backgroundTask.cancel(false); // Задача остановится после обработки текущего блока
+        }
+    }
 
+    /**
+     * Обрабатывает завершение фонового анализа: выводит итоговые результаты или сообщение об ошибке.
+     *
+     * @param worker Завершившийся фоновый анализ
+     * @param file Проанализированный файл (null, если анализировался текст текстового поля)
+     * @param language Правила языка, по которым выполнялся анализ
+     * @param emptyMessage Предупреждение, выводимое, если в тексте не найдено ни одного слова
+     */
+    private void finishAnalysis(AnalysisWorker worker, Path file, TokenizerRules language, String emptyMessage) {
+        if (worker.isCancelled()) {
+            // Промежуточные результаты неполны: возвращаем на метки результаты последнего завершённого анализа
+            displayResult(lastResult != null ? lastResult : AnalysisResult.EMPTY, lastResultRules);
+            return;
+        }
+        try {
+            AnalysisResult result = worker.get();
+            if (result.isEmpty()) {
+                showEmptyTextWarning(emptyMessage);
+                return;
+            }
+            showResult(result, file, language);
+            if (viewedFile == null) {
+                searchPanel.ensureIndex(); // Индекс строится по тексту, который только что проанализирован
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            displayResult(lastResult != null ? lastResult : AnalysisResult.EMPTY, lastResultRules);
+            JOptionPane.showMessageDialog(this,
+                    "Ошибка при анализе текста: " + e.getMessage(),
+                    "Ошибка",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Переключает окно в режим выполнения фоновой задачи и обратно. Во время её выполнения текст нельзя изменять.
+     *
+     * @param running true, если фоновая задача выполняется
+     */
+    private void setBusy(boolean running) {
+        updateActions(running);
+        progressBar.setValue(0);
+        progressBar.setVisible(running);
+        jbtCancel.setVisible(running);
+    }
+
+    /**
+     * Разрешает или запрещает действия в зависимости от того, выполняется ли фоновая задача
+     * и показан ли файл в режиме просмотра.
+     *
+     * @param running true, если фоновая задача выполняется
+     */
+    private void updateActions(boolean running) {
+        textArea.setEditable(!running);
+        jbtAnalyze.setEnabled(!running);
+        jbtLoadFile.setEnabled(!running);
+        jbtAnalyzeFile.setEnabled(!running);
+        jbtSave.setEnabled(!running);
+        jbtClear.setEnabled(!running);
+        jcbLiveAnalysis.setEnabled(!running && viewedFile == null);
+        if (sentencesItem != null) {
+            sentencesItem.setEnabled(viewedFile == null); // Предложения файла в режиме просмотра не размечаются
+        }
+        if (languageMenu != null) {
+            languageMenu.setEnabled(!running); // Смена языка запускает повторный анализ при вводе
+        }
+    }
+
+    // Метод для вывода предупреждения о пустом тексте
+    private void showEmptyTextWarning(String message) {
+        JOptionPane.showMessageDialog(this,
+                message,
+                "Ошибка",
+                JOptionPane.WARNING_MESSAGE);
+    }
+
+    /**
+     * Запоминает результаты анализа вместе с их источником и отображает их на метках.
+     *
+     * @param result Результаты анализа
+     * @param file Проанализированный файл (null, если анализировался текст текстового поля)
+     * @param language Правила языка, по которым выполнялся анализ
+     */
+    private void showResult(AnalysisResult result, Path file, TokenizerRules language) {
+        lastResult = result;
+        lastResultFile = file;
+        lastResultDocument = file == null ? textArea.getDocument() : null;
+        lastResultRules = language;
+        displayResult(result, language);
+    }
+
+    /**
+     * Выводит результаты анализа на метки, не запоминая их как результаты последнего анализа.
+     * Используется для промежуточных результатов фонового анализа, которые нельзя сохранять.
+     *
+     * @param result Результаты анализа (возможно, неполные)
+     * @param language Правила языка, по которым выполнялся анализ
+     */
+    private void displayResult(AnalysisResult result, TokenizerRules language) {
+        sentenceCountLabel.setText("Количество предложений: " + result.sentences());
+        wordCountLabel.setText("Количество слов: " + result.words());
+        declarativeCountLabel.setText("Повествовательные предложения: " + result.declarative());
+        questionCountLabel.setText("Вопросительные предложения: " + result.questions());
+        exclamatoryCountLabel.setText("Восклицательные предложения: " + result.exclamatory());
+        showReadability(result, language);
+        showFrequencies(result);
+        showNGrams(result.ngrams());
+    }
+
+    /**
+     * Отображает средние длины предложений и слов и индекс удобочитаемости для языка, по правилам которого
+     * получены результаты.
+     * Индексы по обеим формулам и среднее число слогов показываются во всплывающей подсказке.
+     *
+     * @param result Результаты анализа
+     * @param language Правила языка, по которым выполнялся анализ
+     */
+    private void showReadability(AnalysisResult result, TokenizerRules language) {
+        if (result.isEmpty()) {
+            averagesLabel.setText("Средняя длина: —");
+            readabilityLabel.setText("Удобочитаемость (Флеш): —");
+            readabilityLabel.setToolTipText(null);
+            return;
+        }
+        averagesLabel.setText(String.format("Средняя длина: предложения %.1f слов, слова %.1f букв",
+                result.averageSentenceLength(), result.averageWordLength()));
+        readabilityLabel.setText(String.format("Удобочитаемость (Флеш): %.1f", result.readingEase(language)));
+        readabilityLabel.setToolTipText(String.format("<html>Слогов в слове: %.2f<br>"
+                        + "Индекс Флеша: %.1f<br>Индекс Флеша для русского текста: %.1f<br>"
+                        + "Чем выше значение, тем легче читается текст</html>",
+                result.averageSyllables(), result.fleschReadingEase(), result.fleschReadingEaseRussian()));
+    }
+
+    /**
+     * Отображает количество уникальных слов и самые частые слова. Полный список из
+     * {@value #TOOLTIP_TOP_WORDS} слов показывается во всплывающей подсказке.
+     *
+     * @param result Результаты анализа (частоты слов могут не подсчитываться)
+     */
+    private void showFrequencies(AnalysisResult result) {
+        WordFrequencyTable frequencies = result.frequencies();
+        if (frequencies == null) {
+            // Промежуточные результаты, анализ при вводе и результаты из индекса корпуса частоты слов не содержат
+            uniqueWordsLabel.setText(result.isEmpty() ? "Уникальных слов: 0" : "Уникальных слов: —");
+            diversityLabel.setText("Лексическое разнообразие: —");
+            boolean countable = result == lastResult && canCountFrequencies();
+            topWordsLabel.setText(countable ? "Частые слова: не подсчитаны (щёлкните, чтобы подсчитать)"
+                    : "Частые слова: —");
+            topWordsLabel.setToolTipText(countable ? "Результат взят из индекса корпуса без частот слов" : null);
+            topWordsLabel.setCursor(countable ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR)
+                    : Cursor.getDefaultCursor());
+            return;
+        }
+        topWordsLabel.setCursor(Cursor.getDefaultCursor());
+        uniqueWordsLabel.setText("Уникальных слов: " + frequencies.size());
+        diversityLabel.setText(result.isEmpty() ? "Лексическое разнообразие: —"
+                : String.format("Лексическое разнообразие: %.3f", result.typeTokenRatio()));
+        diversityLabel.setToolTipText("Доля уникальных слов среди всех слов текста");
+        List<WordFrequencyTable.Entry> top = frequencies.top(TOOLTIP_TOP_WORDS);
+        StringBuilder label = new StringBuilder("Частые слова: ");
+        StringBuilder tooltip = new StringBuilder("<html>");
+        for (int i = 0; i < top.size(); i++) {
+            WordFrequencyTable.Entry entry = top.get(i);
+            if (i < LABEL_TOP_WORDS) {
+                label.append(i == 0 ? "" : ", ").append(entry.word()).append(" (").append(entry.count()).append(')');
+            }
+            tooltip.append(i + 1).append(". ").append(entry.word()).append(" — ").append(entry.count()).append("<br>");
+        }
+        topWordsLabel.setText(top.isEmpty() ? "Частые слова: —" : label.toString());
+        topWordsLabel.setToolTipText(top.isEmpty() ? null : tooltip.append("</html>").toString());
+    }
+
+    /**
+     * Отображает устойчивые словосочетания, а если их нет — самые частые сочетания из двух слов.
+     * Самые частые сочетания из двух и трёх слов и словосочетания с оценками показываются во всплывающей подсказке.
+     *
+     * @param ngrams Скетч частот сочетаний слов (null, если сочетания не подсчитывались)
+     */
+    private void showNGrams(NGramSketch ngrams) {
+        if (ngrams == null) {
+            ngramsLabel.setText("Словосочетания: —");
+            ngramsLabel.setToolTipText(null);
+            return;
+        }
+        List<NGramSketch.Collocation> collocations = ngrams.collocations(TOOLTIP_TOP_NGRAMS);
+        List<NGramSketch.Entry> bigrams = ngrams.top(2, TOOLTIP_TOP_NGRAMS);
+        List<NGramSketch.Entry> trigrams = ngrams.top(3, TOOLTIP_TOP_NGRAMS);
+        if (bigrams.isEmpty()) {
+            ngramsLabel.setText("Словосочетания: —");
+            ngramsLabel.setToolTipText(null);
+            return;
+        }
+        StringBuilder label = new StringBuilder("Словосочетания: ");
+        if (!collocations.isEmpty()) {
+            for (int i = 0; i < Math.min(LABEL_TOP_NGRAMS, collocations.size()); i++) {
+                NGramSketch.Collocation collocation = collocations.get(i);
+                label.append(i == 0 ? "" : ", ").append(collocation.words())
+                        .append(" (").append(collocation.count()).append(')');
+            }
+        } else {
+            for (int i = 0; i < Math.min(LABEL_TOP_NGRAMS, bigrams.size()); i++) {
+                label.append(i == 0 ? "" : ", ").append(bigrams.get(i).words())
+                        .append(" (").append(bigrams.get(i).count()).append(')');
+            }
+        }
+        StringBuilder tooltip = new StringBuilder("<html><b>Устойчивые словосочетания</b><br>");
+        for (NGramSketch.Collocation collocation : collocations) {
+            tooltip.append(collocation.words()).append(" — ").append(collocation.count())
+                    .append(String.format(" (PMI %.1f)", collocation.score())).append("<br>");
+        }
+        tooltip.append("<b>Частые сочетания из двух слов</b><br>");
+        for (NGramSketch.Entry entry : bigrams) {
+            tooltip.append(entry.words()).append(" — ").append(entry.count()).append("<br>");
+        }
+        tooltip.append("<b>Частые сочетания из трёх слов</b><br>");
+        for (NGramSketch.Entry entry : trigrams) {
+            tooltip.append(entry.words()).append(" — ").append(entry.count()).append("<br>");
+        }
+        ngramsLabel.setText(label.toString());
+        ngramsLabel.setToolTipText(tooltip.append(String.format("Погрешность частот не больше %.2f%% от числа "
+                + "сочетаний</html>", ngrams.epsilon() * 100)).toString());
+    }
+}
@@ -0,0 +1,290 @@
+package textanalyzer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Класс MappedTextFile предоставляет построчный доступ к большому текстовому файлу без загрузки его в память.
+ * Файл отображается в память, при открытии один раз просматривается и строится индекс начал строк,
+ * а текст строки декодируется только при обращении к ней. Индекс хранится в массивах примитивов:
+ * для каждой строки — смещение от начала её блока из {@value #LINES_PER_BLOCK} строк ({@code int}),
+ * для каждого блока — смещение от начала файла ({@code long}).
+ * <p>
+ * Строки длиннее {@value #MAX_LINE_BYTES} байт разбиваются на несколько строк просмотра,
+ * чтобы время декодирования и отрисовки одной строки было ограничено.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class MappedTextFile implements Closeable {
+    /**
+     * Максимальная длина строки просмотра (в байтах).
+     */
+    static final int MAX_LINE_BYTES = 1 << 12;
+
+    /**
+     * Максимальное количество строк просмотра (ограничено высотой компонента Swing в пикселях).
+     */
+    static final int MAX_LINES = 1 << 25;
+
+    /**
+     * Размер окна отображения файла в память (в байтах). Соседние окна перекрываются с запасом на длину строки,
+     * поэтому каждая строка целиком лежит в окне, где она начинается.
+     */
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private static final int LINES_PER_BLOCK = 1 << 10;
+
+    /**
+     * Размер блока байтов, который копируется из отображения при построении индекса.
+     */
+    private static final int SCAN_CHUNK = 1 << 20;
+
+    /**
+     * Исключение, сообщающее, что в файле больше строк, чем может показать режим просмотра.
+     */
+    public static final class TooManyLinesException extends IOException {
+        /**
+         * Конструктор исключения.
+         *
+         * @param message Сообщение об ошибке
+         */
+        public TooManyLinesException(String message) {
+            super(message);
+        }
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final TextFileLoader.Encoding encoding;
+    private final long size;
+    private final MappedByteBuffer[] windows;
+
+    private long[] blockStarts = new long[16];
+    private int[] lineOffsets = new int[LINES_PER_BLOCK];
+    private int lineCount;
+    private int maxLineBytes;
+
+    private MappedTextFile(Path file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.encoding = TextFileLoader.detectEncoding(channel);
+        this.size = channel.size();
+        windows = new MappedByteBuffer[(int) ((size + WINDOW_SIZE - 1) / WINDOW_SIZE)];
+        for (int i = 0; i < windows.length; i++) {
+            long start = i * WINDOW_SIZE;
+            windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(WINDOW_SIZE + 2 * MAX_LINE_BYTES, size - start));
+        }
+    }
+
+    /**
+     * Открывает файл и строит индекс строк.
+     *
+     * @param file Путь к файлу
+     * @param progress Получатель сведений о ходе построения индекса
+     * @return Открытый файл
+     * @throws IOException Ошибка чтения файла или файл содержит больше {@value #MAX_LINES} строк
+     * @throws CancellationException Если построение индекса было прервано
+     */
+    public static MappedTextFile open(Path file, TextFileLoader.ReadProgress progress) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedTextFile text = new MappedTextFile(file, channel);
+            text.buildIndex(progress);
+            return text;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Просматривает файл и запоминает начала строк. Перевод строки ищется как отдельный байт
+     * (UTF-8, windows-1251) или как выровненная пара байтов (UTF-16).
+     */
+    private void buildIndex(TextFileLoader.ReadProgress progress) throws IOException {
+        boolean utf16 = encoding.charset() == StandardCharsets.UTF_16LE
+                || encoding.charset() == StandardCharsets.UTF_16BE;
+        int newlineIndex = encoding.charset() == StandardCharsets.UTF_16BE ? 1 : 0;
+        byte[] chunk = new byte[SCAN_CHUNK];
+        long position = encoding.bomLength();
+        addLine(position);
+
+        for (int w = 0; w < windows.length; w++) {
+            MappedByteBuffer window = windows[w];
+            long windowStart = w * WINDOW_SIZE;
+            long scanEnd = Math.min(size, windowStart + WINDOW_SIZE);
+            while (position < scanEnd) {
+                int count = (int) Math.min(chunk.length, scanEnd - position);
+                window.get((int) (position - windowStart), chunk, 0, count);
+                scanChunk(chunk, count, position, utf16, newlineIndex);
+                position += count;
+                if (!progress.update(position, size)) {
+                    throw new CancellationException("Открытие файла отменено");
+                }
+            }
+        }
+    }
+
+    /**
+     * Ищет начала строк в очередном блоке байтов файла.
+     *
+     * @param chunk Байты блока
+     * @param count Количество байтов в блоке
+     * @param position Смещение блока от начала файла
+     * @param utf16 true для кодировок UTF-16
+     * @param newlineIndex Индекс младшего байта символа в паре байтов UTF-16 (0 для однобайтового поиска)
+     */
+    private void scanChunk(byte[] chunk, int count, long position, boolean utf16, int newlineIndex)
+            throws IOException {
+        int step = utf16 ? 2 : 1;
+        long lineStart = lineStart(lineCount - 1);
+        int i = 0;
+        while (i + step <= count) {
+            // Быстрый поиск перевода строки до позиции, в которой строку пришлось бы перенести
+            int limit = (int) Math.min(count, Math.max(i, lineStart + MAX_LINE_BYTES - position));
+            while (i + step <= limit && !isCharacter(chunk, i, '\n', utf16, newlineIndex)) {
+                i += step;
+            }
+            if (i + step > count) {
+                break;
+            }
+            long current = position + i;
+            if (isCharacter(chunk, i, '\n', utf16, newlineIndex)) {
+                lineStart = current + step;
+                addLine(lineStart);
+            } else if (!isCharacter(chunk, i, '\r', utf16, newlineIndex) || current - lineStart > MAX_LINE_BYTES) {
+                // Слишком длинная строка: переносим её перед текущим символом, не разрывая
+                // многобайтовый символ (\r перед переводом строки переносом не отделяется)
+                long wrap = current;
+                if (encoding.charset() == StandardCharsets.UTF_8) {
+                    while (wrap > lineStart + 1 && (byteAt(wrap) & 0xC0) == 0x80) {
+                        wrap--;
+                    }
+                } else if (utf16 && (byteAt(wrap + 1 - newlineIndex) & 0xFC) == 0xDC) {
+                    wrap -= 2; // Не отделяем вторую половину суррогатной пары
+                }
+                lineStart = wrap;
+                addLine(lineStart);
+            }
+            i += step;
+        }
+    }
+
+    private static boolean isCharacter(byte[] chunk, int index, char c, boolean utf16, int newlineIndex) {
+        return chunk[index + newlineIndex] == c && (!utf16 || chunk[index + 1 - newlineIndex] == 0);
+    }
+
+    private void addLine(long start) throws IOException {
+        if (lineCount == MAX_LINES) {
+            throw new TooManyLinesException("Файл содержит больше " + MAX_LINES + " строк, и режим просмотра "
+                    + "не может его показать");
+        }
+        int block = lineCount / LINES_PER_BLOCK;
+        if (lineCount % LINES_PER_BLOCK == 0) {
+            if (block == blockStarts.length) {
+                blockStarts = Arrays.copyOf(blockStarts, block * 2);
+            }
+            blockStarts[block] = start;
+        }
+        if (lineCount == lineOffsets.length) {
+            lineOffsets = Arrays.copyOf(lineOffsets, lineCount * 2);
+        }
+        lineOffsets[lineCount] = (int) (start - blockStarts[block]);
+        if (lineCount > 0) {
+            maxLineBytes = (int) Math.max(maxLineBytes, start - lineStart(lineCount - 1));
+        }
+        lineCount++;
+    }
+
+    private byte byteAt(long position) {
+        return windows[(int) (position / WINDOW_SIZE)].get((int) (position % WINDOW_SIZE));
+    }
+
+    private long lineStart(int line) {
+        return blockStarts[line / LINES_PER_BLOCK] + lineOffsets[line];
+    }
+
+    /**
+     * Возвращает количество строк просмотра.
+     *
+     * @return Количество строк
+     */
+    public int lineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Возвращает длину самой длинной строки в байтах (с учётом переноса длинных строк).
+     *
+     * @return Длина строки в байтах
+     */
+    public int maxLineBytes() {
+        return Math.max(maxLineBytes, (int) (size - lineStart(lineCount - 1)));
+    }
+
+    /**
+     * Декодирует строку просмотра. Перевод строки в конце (\n или \r\n) не включается.
+     *
+     * @param line Номер строки, начиная с 0
+     * @return Текст строки
+     */
+    public String line(int line) {
+        String text = rawLine(line);
+        int length = text.length();
+        if (length > 0 && text.charAt(length - 1) == '\n') {
+            length--;
+            if (length > 0 && text.charAt(length - 1) == '\r') {
+                length--;
+            }
+        }
+        return text.substring(0, length);
+    }
+
+    /**
+     * Декодирует строку просмотра вместе с переводом строки в конце, если он есть. Строки, декодированные
+     * подряд, в сумме дают весь текст файла (без метки порядка байтов).
+     *
+     * @param line Номер строки, начиная с 0
+     * @return Текст строки
+     */
+    String rawLine(int line) {
+        long start = lineStart(line);
+        long end = line + 1 < lineCount ? lineStart(line + 1) : size;
+        ByteBuffer window = windows.length == 0 ? ByteBuffer.allocate(0) : windows[(int) (start / WINDOW_SIZE)];
+        int offset = (int) (start % WINDOW_SIZE);
+        return encoding.charset().decode(window.slice(offset, (int) (end - start))).toString();
+    }
+
+    /**
+     * Возвращает путь к файлу.
+     *
+     * @return Путь к файлу
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Возвращает размер файла в байтах.
+     *
+     * @return Размер файла
+     */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
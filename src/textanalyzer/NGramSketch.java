@@ -0,0 +1,676 @@
+package textanalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Класс NGramSketch подсчитывает частоты сочетаний из двух и трёх слов (биграмм и триграмм) и находит
+ * устойчивые словосочетания (коллокации) в памяти фиксированного объёма, не зависящего от размера текста.
+ * <p>
+ * Частоты хранятся в скетче Count-Min: {@code depth} строк по {@code width} счётчиков, каждому сочетанию
+ * соответствует по одному счётчику в каждой строке, а оценкой частоты служит минимум из них. В том же
+ * скетче хранятся частоты отдельных слов, нужные для оценки коллокаций. Оценка никогда не бывает меньше
+ * истинной частоты и с вероятностью не ниже 1 − δ превышает её не более чем на ε·N, где N — общее число
+ * учтённых слов и сочетаний; ширина строки — ⌈e/ε⌉, округлённое вверх до степени двойки, число строк —
+ * ⌈ln(1/δ)⌉. Счётчики обновляются консервативно: увеличиваются только те, что меньше новой оценки.
+ * Это заметно уменьшает завышение оценок редких сочетаний и сохраняет возможность складывать скетчи.
+ * <p>
+ * Самые частые сочетания каждой длины отбираются в наборе из {@code capacity} счётчиков, как в алгоритме
+ * Space-Saving: новое сочетание вытесняет сочетание с наименьшим счётчиком. Но значение счётчика берётся
+ * из скетча, а не наследуется от вытесненного сочетания, и вытеснение происходит, только если оценка
+ * нового сочетания больше наименьшего счётчика. Поэтому в тексте с длинным «хвостом» редких сочетаний
+ * набор не заполняется случайными сочетаниями с завышенными счётчиками.
+ * <p>
+ * Сочетания не переходят через знаки конца предложения, запятые и прочие знаки препинания
+ * (см. {@link #breakSequence()}). Анализатор передаёт слова в нижнем регистре тем же проходом,
+ * в котором считает слова и предложения. Скетчи фрагментов одного текста объединяются методом
+ * {@link #merge(NGramSketch)}. Для этого скетч запоминает первые {@code MAX_ORDER − 1} слов фрагмента
+ * до первого разрыва последовательности, а при объединении добавляет их к последним словам левого фрагмента
+ * и учитывает только сочетания, переходящие через стык. Поэтому число учтённых сочетаний каждой длины
+ * после объединения такое же, как при последовательном анализе всего текста.
+ * Скетч, переданный в {@link AnalysisResult}, замораживается: после этого методы, изменяющие его,
+ * выбрасывают {@link IllegalStateException}.
+ * <p>
+ * Параметры по умолчанию задаются системными свойствами {@code textanalyzer.ngrams.epsilon},
+ * {@code textanalyzer.ngrams.delta} и {@code textanalyzer.ngrams.capacity}.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class NGramSketch {
+    /**
+     * Наибольшая длина сочетания (в словах).
+     */
+    public static final int MAX_ORDER = 3;
+
+    /**
+     * Относительная погрешность оценки частоты по умолчанию (доля от числа сочетаний).
+     */
+    public static final double DEFAULT_EPSILON = doubleProperty("textanalyzer.ngrams.epsilon", 1e-4);
+
+    /**
+     * Вероятность превышения погрешности по умолчанию.
+     */
+    public static final double DEFAULT_DELTA = doubleProperty("textanalyzer.ngrams.delta", 0.01);
+
+    /**
+     * Количество отслеживаемых самых частых сочетаний каждой длины по умолчанию.
+     */
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("textanalyzer.ngrams.capacity", 256);
+
+    /**
+     * Наименьшая частота биграммы, при которой она рассматривается как коллокация.
+     */
+    static final int MIN_COLLOCATION_COUNT = 3;
+
+    private static final int MAX_WORD_LENGTH = TextAnalysisEngine.MAX_WORD_LENGTH;
+
+    // Начальные значения ключей сочетаний разной длины: одинаковые слова в сочетаниях разной длины
+    // дают разные ключи
+    private static final long[] SEEDS = {0, 0x9E3779B97F4A7C15L, 0x3C6EF372FE94F82AL, 0xDAA66D2C7DDF743FL};
+
+    /**
+     * Сочетание слов с оценкой частоты.
+     *
+     * @param words Слова сочетания через пробел
+     * @param count Оценка частоты сверху
+     * @param error Наибольшая возможная погрешность оценки (истинная частота не меньше count − error)
+     */
+    public record Entry(String words, long count, long error) {
+    }
+
+    /**
+     * Устойчивое словосочетание из двух слов.
+     *
+     * @param words Слова через пробел
+     * @param count Гарантированная частота сочетания (оценка снизу)
+     * @param score Поточечная взаимная информация (PMI) в битах: двоичный логарифм того, во сколько раз
+     *              слова встречаются вместе чаще, чем при независимом появлении
+     */
+    public record Collocation(String words, long count, double score) {
+    }
+
+    private final double epsilon;
+    private final double delta;
+    private final int width; // Ширина строки скетча (степень двойки)
+    private final int mask;
+    private final int depth;
+    private final long[] sketch; // Строки скетча Count-Min подряд
+    private final int[] indexes; // Номера счётчиков текущего сочетания в строках скетча
+    private final long[] totals = new long[MAX_ORDER + 1]; // Число учтённых сочетаний каждой длины
+    private final TopCounters[] heavyHitters = new TopCounters[MAX_ORDER + 1]; // Для длин 2 и 3
+
+    // Окно последних слов текущей последовательности (кольцевой буфер)
+    private final char[][] window = new char[MAX_ORDER][MAX_WORD_LENGTH];
+    private final int[] windowLengths = new int[MAX_ORDER];
+    private final long[] windowHashes = new long[MAX_ORDER];
+    private int windowSize;
+    private int windowHead; // Позиция последнего слова
+
+    // Первые слова фрагмента до первого разрыва последовательности: они образуют сочетания на стыке фрагментов
+    private final char[][] lead = new char[MAX_ORDER - 1][MAX_WORD_LENGTH];
+    private final int[] leadLengths = new int[MAX_ORDER - 1];
+    private final long[] leadHashes = new long[MAX_ORDER - 1];
+    private int leadSize;
+    private boolean leadOpen = true; // Последовательность ещё не прерывалась
+    private boolean frozen;
+
+    /**
+     * Создаёт скетч с параметрами по умолчанию.
+     */
+    public NGramSketch() {
+        this(DEFAULT_EPSILON, DEFAULT_DELTA, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создаёт скетч с заданной точностью.
+     *
+     * @param epsilon Относительная погрешность оценки частоты (от 0 до 1)
+     * @param delta Вероятность превышения погрешности (от 0 до 1)
+     * @param capacity Количество отслеживаемых самых частых сочетаний каждой длины
+     */
+    public NGramSketch(double epsilon, double delta, int capacity) {
+        if (!(epsilon > 0 && epsilon < 1 && delta > 0 && delta < 1) || capacity < 1) {
+            throw new IllegalArgumentException("Недопустимые параметры скетча: epsilon=" + epsilon
+                    + ", delta=" + delta + ", capacity=" + capacity);
+        }
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.width = Integer.highestOneBit((int) Math.ceil(Math.E / epsilon) - 1) << 1;
+        this.mask = width - 1;
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.sketch = new long[width * depth];
+        this.indexes = new int[depth];
+        for (int order = 2; order <= MAX_ORDER; order++) {
+            heavyHitters[order] = new TopCounters(capacity);
+        }
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Учитывает очередное слово текста и сочетания, которые оно заканчивает.
+     *
+     * @param word Массив символов слова в нижнем регистре
+     * @param offset Смещение первого символа
+     * @param length Длина слова (не больше {@link TextAnalysisEngine#MAX_WORD_LENGTH})
+     */
+    public void addWord(char[] word, int offset, int length) {
+        checkMutable();
+        long hash = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = hash * AnalysisResult.HASH_MULTIPLIER + word[i];
+        }
+        if (leadOpen && leadSize < MAX_ORDER - 1) {
+            System.arraycopy(word, offset, lead[leadSize], 0, length);
+            leadLengths[leadSize] = length;
+            leadHashes[leadSize++] = hash;
+        }
+        push(word, offset, length, hash, 1);
+    }
+
+    /**
+     * Добавляет слово в окно и учитывает сочетания длиной не меньше minOrder, которые оно заканчивает.
+     */
+    private void push(char[] word, int offset, int length, long hash, int minOrder) {
+        int previous = windowHead;
+        int beforePrevious = previous == 0 ? MAX_ORDER - 1 : previous - 1;
+        windowHead = previous == MAX_ORDER - 1 ? 0 : previous + 1;
+        System.arraycopy(word, offset, window[windowHead], 0, length);
+        windowLengths[windowHead] = length;
+        windowHashes[windowHead] = hash;
+        windowSize = Math.min(windowSize + 1, MAX_ORDER);
+
+        if (minOrder <= 1) {
+            increment(mix(SEEDS[1] + hash));
+            totals[1]++;
+        }
+        if (windowSize >= 2 && minOrder <= 2) {
+            long key = mix(mix(SEEDS[2] + windowHashes[previous]) + hash);
+            totals[2]++;
+            offer(2, key, increment(key));
+        }
+        if (windowSize >= 3) {
+            long key = mix(mix(mix(SEEDS[3] + windowHashes[beforePrevious]) + windowHashes[previous]) + hash);
+            totals[3]++;
+            offer(3, key, increment(key));
+        }
+    }
+
+    /**
+     * Прерывает последовательность слов: следующее слово не образует сочетаний с предыдущими.
+     */
+    public void breakSequence() {
+        checkMutable();
+        windowSize = 0;
+        leadOpen = false;
+    }
+
+    /**
+     * Запрещает дальнейшие изменения скетча. Вызывается, когда скетч становится частью результата анализа.
+     */
+    void freeze() {
+        frozen = true;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new IllegalStateException("Скетч сочетаний результата анализа не изменяется");
+        }
+    }
+
+    /**
+     * Вычисляет ключ сочетания слов по их хешам (так же, как {@link #addWord}).
+     */
+    private static long key(long[] wordHashes) {
+        long key = SEEDS[wordHashes.length];
+        for (long hash : wordHashes) {
+            key = mix(key + hash);
+        }
+        return key;
+    }
+
+    /**
+     * Перемешивает биты 64-битного значения (финализатор MurmurHash3).
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        return value ^ value >>> 33;
+    }
+
+    /**
+     * Увеличивает счётчики сочетания в скетче.
+     *
+     * @return Новая оценка частоты сочетания
+     */
+    private long increment(long key) {
+        // Номера счётчиков в строках получаются двойным хешированием из двух половин ключа
+        int[] indexes = this.indexes;
+        int index = (int) key & mask;
+        int step = (int) (key >>> 32) & mask | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0, base = 0; row < depth; row++, base += width) {
+            indexes[row] = base + index;
+            estimate = Math.min(estimate, sketch[base + index]);
+            index = (index + step) & mask;
+        }
+        // Консервативное обновление: увеличиваются только счётчики, не превышающие новой оценки
+        estimate++;
+        for (int row = 0; row < depth; row++) {
+            if (sketch[indexes[row]] < estimate) {
+                sketch[indexes[row]] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    private long estimate(long key) {
+        int index = (int) key & mask;
+        int step = (int) (key >>> 32) & mask | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0, base = 0; row < depth; row++, base += width) {
+            estimate = Math.min(estimate, sketch[base + index]);
+            index = (index + step) & mask;
+        }
+        return estimate;
+    }
+
+    /**
+     * Передаёт сочетание набору самых частых сочетаний и, если оно попало в набор, записывает его слова.
+     */
+    private void offer(int order, long key, long estimate) {
+        TopCounters counters = heavyHitters[order];
+        int slot = counters.offer(key, estimate);
+        if (slot < 0) {
+            return;
+        }
+        char[] label = counters.labels[slot];
+        int length = 0;
+        for (int i = order - 1; i >= 0; i--) {
+            int position = (windowHead - i + MAX_ORDER) % MAX_ORDER;
+            int wordLength = windowLengths[position];
+            if (length + wordLength + 1 > label.length) {
+                label = Arrays.copyOf(label, Math.max(label.length * 2, length + wordLength + 1));
+            }
+            if (length > 0) {
+                label[length++] = ' ';
+            }
+            System.arraycopy(window[position], 0, label, length, wordLength);
+            length += wordLength;
+        }
+        counters.labels[slot] = label;
+        counters.labelLengths[slot] = length;
+    }
+
+    /**
+     * Оценивает частоту слова или сочетания слов.
+     *
+     * @param words Слова через пробел (регистр не учитывается)
+     * @return Оценка частоты сверху (0, если сочетание длиннее {@value #MAX_ORDER} слов или пусто)
+     */
+    public long estimate(String words) {
+        String[] parts = words.trim().toLowerCase().split("\\s+");
+        if (parts.length > MAX_ORDER || parts[0].isEmpty()) {
+            return 0;
+        }
+        long[] hashes = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            long hash = 0;
+            for (int j = 0; j < parts[i].length(); j++) {
+                hash = hash * AnalysisResult.HASH_MULTIPLIER + parts[i].charAt(j);
+            }
+            hashes[i] = hash;
+        }
+        return estimate(key(hashes));
+    }
+
+    /**
+     * Возвращает количество учтённых сочетаний заданной длины.
+     *
+     * @param order Длина сочетания (1 — отдельные слова)
+     * @return Количество сочетаний
+     */
+    public long total(int order) {
+        return totals[order];
+    }
+
+    /**
+     * Возвращает самые частые сочетания заданной длины.
+     *
+     * @param order Длина сочетания: 2 или 3
+     * @param n Количество сочетаний
+     * @return Не более n сочетаний в порядке убывания гарантированной частоты (count − error), а при
+     *         равной гарантированной частоте — оценки сверху
+     */
+    public List<Entry> top(int order, int n) {
+        TopCounters counters = heavyHitters[order];
+        Integer[] slots = new Integer[counters.size];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = i;
+        }
+        // Сочетание, оценка которого завышена столкновениями в скетче, встречалось редко и уходит в конец
+        Arrays.sort(slots, Comparator.comparingLong((Integer slot) -> counters.seen[slot])
+                .thenComparingLong(slot -> counters.counts[slot]).reversed());
+        List<Entry> top = new ArrayList<>(Math.min(n, slots.length));
+        for (int i = 0; i < slots.length && top.size() < n; i++) {
+            int slot = slots[i];
+            top.add(new Entry(counters.label(slot), counters.counts[slot],
+                    counters.counts[slot] - counters.seen[slot]));
+        }
+        return top;
+    }
+
+    /**
+     * Находит устойчивые словосочетания: частые биграммы (гарантированно не реже {@value #MIN_COLLOCATION_COUNT}
+     * раз), упорядоченные по поточечной взаимной информации. Частоты отдельных слов берутся из того же скетча.
+     *
+     * @param n Количество словосочетаний
+     * @return Не более n словосочетаний в порядке убывания оценки
+     */
+    public List<Collocation> collocations(int n) {
+        List<Collocation> collocations = new ArrayList<>();
+        double words = totals[1];
+        double pairs = totals[2];
+        for (Entry entry : top(2, Integer.MAX_VALUE)) {
+            long count = entry.count() - entry.error(); // Гарантированная частота: без завышения скетча
+            if (count < MIN_COLLOCATION_COUNT) {
+                continue;
+            }
+            int space = entry.words().indexOf(' ');
+            long first = estimate(entry.words().substring(0, space));
+            long second = estimate(entry.words().substring(space + 1));
+            double score = Math.log((count / pairs) / ((first / words) * (second / words))) / Math.log(2);
+            collocations.add(new Collocation(entry.words(), count, score));
+        }
+        collocations.sort(Comparator.comparingDouble(Collocation::score).reversed());
+        return collocations.size() > n ? new ArrayList<>(collocations.subList(0, n)) : collocations;
+    }
+
+    /**
+     * Добавляет к этому скетчу счётчики скетча другого фрагмента текста с теми же параметрами.
+     * Другой фрагмент должен следовать в тексте сразу за этим: сочетания, начинающиеся в конце этого фрагмента
+     * и заканчивающиеся в начале другого, учитываются при объединении.
+     *
+     * @param other Скетч следующего фрагмента
+     */
+    public void merge(NGramSketch other) {
+        checkMutable();
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Скетчи с разными параметрами нельзя объединить");
+        }
+        for (int i = 0; i < sketch.length; i++) {
+            sketch[i] += other.sketch[i];
+        }
+        for (int order = 1; order <= MAX_ORDER; order++) {
+            totals[order] += other.totals[order];
+        }
+        for (int order = 2; order <= MAX_ORDER; order++) {
+            heavyHitters[order].merge(other.heavyHitters[order], this::estimate);
+        }
+        // Первое слово другого фрагмента заканчивает биграмму и триграмму на стыке, второе — только триграмму
+        for (int i = 0; i < other.leadSize; i++) {
+            push(other.lead[i], 0, other.leadLengths[i], other.leadHashes[i], i + 2);
+        }
+        if (leadOpen) {
+            for (int i = 0; i < other.leadSize && leadSize < MAX_ORDER - 1; i++) {
+                System.arraycopy(other.lead[i], 0, lead[leadSize], 0, other.leadLengths[i]);
+                leadLengths[leadSize] = other.leadLengths[i];
+                leadHashes[leadSize++] = other.leadHashes[i];
+            }
+            leadOpen = other.leadOpen;
+        }
+        // Если в другом фрагменте был разрыв или хватает слов для сочетаний, его окно заменяет окно после стыка
+        if (!other.leadOpen || other.leadSize == MAX_ORDER - 1) {
+            for (int i = 0; i < MAX_ORDER; i++) {
+                System.arraycopy(other.window[i], 0, window[i], 0, other.windowLengths[i]);
+            }
+            System.arraycopy(other.windowLengths, 0, windowLengths, 0, MAX_ORDER);
+            System.arraycopy(other.windowHashes, 0, windowHashes, 0, MAX_ORDER);
+            windowSize = other.windowSize;
+            windowHead = other.windowHead;
+        }
+    }
+
+    /**
+     * Возвращает относительную погрешность оценки частоты.
+     *
+     * @return Погрешность ε
+     */
+    public double epsilon() {
+        return epsilon;
+    }
+
+    /**
+     * Возвращает вероятность превышения погрешности.
+     *
+     * @return Вероятность δ
+     */
+    public double delta() {
+        return delta;
+    }
+
+    /**
+     * Оценивает объём памяти, занимаемый скетчем (не зависит от размера текста).
+     *
+     * @return Оценочный объём в байтах
+     */
+    public long estimatedBytes() {
+        long bytes = 8L * sketch.length + (2L * MAX_ORDER - 1) * (2L * MAX_WORD_LENGTH + 16);
+        for (int order = 2; order <= MAX_ORDER; order++) {
+            bytes += heavyHitters[order].estimatedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Набор счётчиков самых частых сочетаний одной длины. Счётчики упорядочены в двоичной куче
+     * с минимумом в корне, а поиск сочетания по ключу выполняется в хеш-таблице с открытой адресацией.
+     */
+    private static final class TopCounters {
+        private final int capacity;
+        private final long[] keys;
+        private final long[] counts; // Оценка частоты из скетча
+        private final long[] seen; // Сколько раз сочетание встретилось, пока было в наборе
+        private final char[][] labels; // Слова сочетания (заполненная часть — labelLengths)
+        private final int[] labelLengths;
+        private final int[] heap; // Номера счётчиков, в корне — счётчик с наименьшим значением
+        private final int[] positions; // Позиция счётчика в куче
+        private final int[] table; // Номер счётчика + 1, 0 — пустая ячейка
+        private int size;
+
+        TopCounters(int capacity) {
+            this.capacity = capacity;
+            keys = new long[capacity];
+            counts = new long[capacity];
+            seen = new long[capacity];
+            labels = new char[capacity][];
+            labelLengths = new int[capacity];
+            heap = new int[capacity];
+            positions = new int[capacity];
+            table = new int[Integer.highestOneBit(capacity) * 4];
+            for (int i = 0; i < capacity; i++) {
+                labels[i] = new char[32];
+            }
+        }
+
+        /**
+         * Учитывает очередное появление сочетания.
+         *
+         * @param key Ключ сочетания
+         * @param estimate Оценка частоты сочетания из скетча с учётом этого появления
+         * @return Номер счётчика, отданного новому сочетанию (его метку нужно заполнить), или -1
+         */
+        int offer(long key, long estimate) {
+            int index = find(key);
+            if (table[index] != 0) {
+                int slot = table[index] - 1;
+                counts[slot] = estimate;
+                seen[slot]++;
+                siftDown(positions[slot]);
+                return -1;
+            }
+            int slot;
+            if (size < capacity) {
+                slot = size++;
+                place(slot, slot);
+            } else if (estimate > counts[heap[0]]) {
+                slot = heap[0]; // Вытесняется сочетание с наименьшим счётчиком
+                remove(keys[slot]);
+                index = find(key);
+            } else {
+                return -1;
+            }
+            keys[slot] = key;
+            counts[slot] = estimate;
+            seen[slot] = 1;
+            table[index] = slot + 1;
+            siftUp(positions[slot]);
+            siftDown(positions[slot]);
+            return slot;
+        }
+
+        /**
+         * Находит ячейку ключа или пустую ячейку, в которую его можно вставить.
+         */
+        private int find(long key) {
+            int mask = table.length - 1;
+            int index = (int) key & mask;
+            while (table[index] != 0 && keys[table[index] - 1] != key) {
+                index = (index + 1) & mask; // Линейное пробирование
+            }
+            return index;
+        }
+
+        /**
+         * Удаляет ключ из хеш-таблицы, сдвигая назад следующие за ним ключи той же цепочки.
+         */
+        private void remove(long key) {
+            int mask = table.length - 1;
+            int hole = find(key);
+            table[hole] = 0;
+            for (int index = (hole + 1) & mask; table[index] != 0; index = (index + 1) & mask) {
+                int home = (int) keys[table[index] - 1] & mask;
+                // Ключ можно перенести в дыру, если его исходная ячейка не лежит между дырой и им самим
+                boolean movable = hole <= index ? home <= hole || home > index : home <= hole && home > index;
+                if (movable) {
+                    table[hole] = table[index];
+                    table[index] = 0;
+                    hole = index;
+                }
+            }
+        }
+
+        private void siftUp(int position) {
+            int slot = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (counts[heap[parent]] <= counts[slot]) {
+                    break;
+                }
+                place(heap[parent], position);
+                position = parent;
+            }
+            place(slot, position);
+        }
+
+        private void siftDown(int position) {
+            int slot = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                    child++;
+                }
+                if (counts[heap[child]] >= counts[slot]) {
+                    break;
+                }
+                place(heap[child], position);
+                position = child;
+            }
+            place(slot, position);
+        }
+
+        private void place(int slot, int position) {
+            heap[position] = slot;
+            positions[slot] = position;
+        }
+
+        String label(int slot) {
+            return new String(labels[slot], 0, labelLengths[slot]);
+        }
+
+        /**
+         * Объединяет счётчики с набором другого фрагмента: оценки сочетаний обоих наборов пересчитываются
+         * по объединённому скетчу, и остаются capacity сочетаний с наибольшими оценками.
+         *
+         * @param other Набор другого фрагмента
+         * @param estimator Оценка частоты сочетания по ключу в объединённом скетче
+         */
+        void merge(TopCounters other, LongUnaryOperator estimator) {
+            List<long[]> candidates = new ArrayList<>(size + other.size); // Ключ, оценка, число появлений
+            List<String> candidateLabels = new ArrayList<>(size + other.size);
+            for (int slot = 0; slot < size; slot++) {
+                int otherSlot = other.table[other.find(keys[slot])] - 1;
+                candidates.add(new long[]{keys[slot], estimator.applyAsLong(keys[slot]),
+                        seen[slot] + (otherSlot >= 0 ? other.seen[otherSlot] : 0)});
+                candidateLabels.add(label(slot));
+            }
+            for (int slot = 0; slot < other.size; slot++) {
+                if (table[find(other.keys[slot])] == 0) {
+                    candidates.add(new long[]{other.keys[slot], estimator.applyAsLong(other.keys[slot]),
+                            other.seen[slot]});
+                    candidateLabels.add(other.label(slot));
+                }
+            }
+            Integer[] order = new Integer[candidates.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingLong((Integer i) -> candidates.get(i)[1]).reversed());
+
+            Arrays.fill(table, 0);
+            size = 0;
+            for (int i = 0; i < order.length && size < capacity; i++) {
+                long[] candidate = candidates.get(order[i]);
+                String label = candidateLabels.get(order[i]);
+                int slot = size++;
+                keys[slot] = candidate[0];
+                counts[slot] = candidate[1];
+                seen[slot] = candidate[2];
+                if (label.length() > labels[slot].length) {
+                    labels[slot] = new char[label.length()];
+                }
+                label.getChars(0, label.length(), labels[slot], 0);
+                labelLengths[slot] = label.length();
+                table[find(candidate[0])] = slot + 1;
+                place(slot, slot);
+            }
+            for (int position = size / 2 - 1; position >= 0; position--) {
+                siftDown(position); // Построение кучи снизу вверх
+            }
+        }
+
+        long estimatedBytes() {
+            long bytes = 4L * table.length + (8L * 3 + 4L * 3 + 16) * capacity;
+            for (char[] label : labels) {
+                bytes += 2L * label.length;
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package textanalyzer;
+
+/**
+ * Класс OperationStatistics накапливает статистику одной операции программы: число выполнений,
+ * длительность, скорость обработки и объём выделенной памяти. Значения записываются из фоновых
+ * потоков, а читаются из потока обработки событий и через JMX, поэтому методы синхронизированы.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class OperationStatistics implements OperationStatisticsMXBean {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String throughputUnit;
+    private final double unitsPerThroughputUnit;
+    private long count;
+    private long totalNanos;
+    private long lastNanos;
+    private long lastProcessed;
+    private long lastAllocated = -1;
+    private long totalAllocated;
+    private boolean allocationSupported = true;
+
+    /**
+     * Конструктор статистики.
+     *
+     * @param throughputUnit Единица измерения скорости (например, "МБ/с")
+     * @param unitsPerThroughputUnit Число обработанных единиц (байтов, символов) в одной единице скорости
+     */
+    OperationStatistics(String throughputUnit, double unitsPerThroughputUnit) {
+        this.throughputUnit = throughputUnit;
+        this.unitsPerThroughputUnit = unitsPerThroughputUnit;
+    }
+
+    /**
+     * Записывает результат одной операции.
+     *
+     * @param nanos Длительность операции в наносекундах
+     * @param processed Объём обработанных данных (байтов или символов)
+     * @param allocated Объём выделенной памяти в байтах или -1, если он неизвестен
+     */
+    synchronized void record(long nanos, long processed, long allocated) {
+        count++;
+        totalNanos += nanos;
+        lastNanos = nanos;
+        lastProcessed = processed;
+        lastAllocated = allocated;
+        if (allocated < 0) {
+            allocationSupported = false;
+        } else {
+            totalAllocated += allocated;
+        }
+    }
+
+    @Override
+    public synchronized long getCount() {
+        return count;
+    }
+
+    @Override
+    public synchronized double getLastMillis() {
+        return lastNanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public synchronized double getAverageMillis() {
+        return count == 0 ? 0 : totalNanos / NANOS_PER_MILLI / count;
+    }
+
+    @Override
+    public synchronized double getLastThroughput() {
+        return lastNanos == 0 ? 0 : lastProcessed / unitsPerThroughputUnit / (lastNanos / 1e9);
+    }
+
+    @Override
+    public String getThroughputUnit() {
+        return throughputUnit;
+    }
+
+    @Override
+    public synchronized long getLastAllocatedBytes() {
+        return lastAllocated;
+    }
+
+    @Override
+    public synchronized long getAverageAllocatedBytes() {
+        return count == 0 || !allocationSupported ? -1 : totalAllocated / count;
+    }
+
+    @Override
+    public synchronized void reset() {
+        count = 0;
+        totalNanos = 0;
+        lastNanos = 0;
+        lastProcessed = 0;
+        lastAllocated = -1;
+        totalAllocated = 0;
+        allocationSupported = true;
+    }
+}
@@ -0,0 +1,64 @@
+package textanalyzer;
+
+/**
+ * Интерфейс OperationStatisticsMXBean описывает статистику одной операции программы (загрузки, анализа
+ * или сохранения), доступную через JMX (например, в JConsole или VisualVM).
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public interface OperationStatisticsMXBean {
+    /**
+     * Возвращает число выполненных операций.
+     *
+     * @return Число операций
+     */
+    long getCount();
+
+    /**
+     * Возвращает длительность последней операции.
+     *
+     * @return Длительность в миллисекундах
+     */
+    double getLastMillis();
+
+    /**
+     * Возвращает среднюю длительность операции.
+     *
+     * @return Длительность в миллисекундах
+     */
+    double getAverageMillis();
+
+    /**
+     * Возвращает скорость последней операции в единицах {@link #getThroughputUnit()}.
+     *
+     * @return Скорость обработки
+     */
+    double getLastThroughput();
+
+    /**
+     * Возвращает единицу измерения скорости обработки (например, "МБ/с").
+     *
+     * @return Единица измерения
+     */
+    String getThroughputUnit();
+
+    /**
+     * Возвращает объём памяти, выделенной потоком за последнюю операцию.
+     *
+     * @return Объём в байтах или -1, если JVM не поддерживает измерение
+     */
+    long getLastAllocatedBytes();
+
+    /**
+     * Возвращает средний объём памяти, выделенной за операцию.
+     *
+     * @return Объём в байтах или -1, если JVM не поддерживает измерение
+     */
+    long getAverageAllocatedBytes();
+
+    /**
+     * Сбрасывает статистику.
+     */
+    void reset();
+}
@@ -0,0 +1,199 @@
+package textanalyzer;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Класс ParallelTextAnalyzer анализирует большой текст параллельно в пуле ForkJoin.
+ * Буфер символов делится на фрагменты по точкам синхронизации анализатора, поэтому слова
+ * и предложения на стыках фрагментов учитываются ровно один раз, а сумма результатов
+ * совпадает с результатом последовательного анализа. Если нужны частоты слов, каждый фрагмент
+ * заполняет собственную таблицу и скетч сочетаний слов, а они объединяются вместе с результатами;
+ * в итоговый результат, который замораживает их, они передаются только после объединения всех фрагментов.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class ParallelTextAnalyzer {
+    /**
+     * Минимальный размер фрагмента (в символах): более мелкое деление не окупает накладные расходы.
+     */
+    static final int MIN_CHUNK = 1 << 18;
+
+    /**
+     * Размер текста (в символах), начиная с которого параллельный анализ выгоднее последовательного.
+     */
+    public static final int PARALLEL_THRESHOLD = 4 << 20;
+
+    private ParallelTextAnalyzer() {
+    }
+
+    /**
+     * Проверяет, имеет ли смысл анализировать текст заданной длины параллельно.
+     *
+     * @param length Длина текста в символах
+     * @return true, если параллельный анализ выгоден
+     */
+    public static boolean isWorthwhile(int length) {
+        return length >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Анализирует текст из массива символов в общем пуле ForkJoin.
+     *
+     * @param chars Массив символов
+     * @param offset Смещение начала текста
+     * @param length Длина текста
+     * @param progress Монитор хода выполнения и отмены
+     * @return Результаты анализа (частичные, если анализ был отменён)
+     */
+    public static AnalysisResult analyze(char[] chars, int offset, int length, AnalysisProgress progress) {
+        return analyze(chars, offset, length, progress, TokenizerRules.DEFAULT, false);
+    }
+
+    /**
+     * Анализирует текст из массива символов в общем пуле ForkJoin по правилам заданного языка,
+     * при необходимости подсчитывая частоты слов.
+     *
+     * @param chars Массив символов
+     * @param offset Смещение начала текста
+     * @param length Длина текста
+     * @param progress Монитор хода выполнения и отмены
+     * @param rules Правила языка
+     * @param withFrequencies true, если нужна таблица частот слов
+     * @return Результаты анализа (частичные, если анализ был отменён)
+     */
+    public static AnalysisResult analyze(char[] chars, int offset, int length, AnalysisProgress progress,
+                                         TokenizerRules rules, boolean withFrequencies) {
+        int[] bounds = splitPoints(chars, offset, length,
+                Math.max(MIN_CHUNK, length / (ForkJoinPool.getCommonPoolParallelism() * 4)));
+        Chunk chunk = ForkJoinPool.commonPool().invoke(new ChunkTask(chars, bounds, 0, bounds.length - 1,
+                new ProgressAccumulator(progress, length), rules, withFrequencies));
+        return chunk.counts().withFrequencies(chunk.frequencies()).withNGrams(chunk.ngrams());
+    }
+
+    /**
+     * Делит текст на фрагменты примерно заданного размера. Каждая граница сдвигается вперёд
+     * до ближайшей точки синхронизации; если в пределах фрагмента её нет, фрагмент объединяется со следующим.
+     *
+     * @return Границы фрагментов: первая равна началу текста, последняя — его концу
+     */
+    private static int[] splitPoints(char[] chars, int offset, int length, int chunk) {
+        int end = offset + length;
+        int[] bounds = new int[length / chunk + 2];
+        int count = 0;
+        bounds[count++] = offset;
+        for (long nominal = (long) offset + chunk; nominal < end; nominal += chunk) {
+            int limit = (int) Math.min(end, nominal + chunk);
+            int sync = TextAnalysisEngine.findSyncPoint(chars, offset, (int) nominal, limit);
+            if (sync > bounds[count - 1] && sync < end) {
+                bounds[count++] = sync;
+            }
+        }
+        bounds[count++] = end;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Результат анализа диапазона фрагментов: счётчики без частот и ещё не замороженные таблица частот
+     * и скетч сочетаний (null, если частоты не подсчитываются), которые принадлежат только этой задаче.
+     */
+    private record Chunk(AnalysisResult counts, WordFrequencyTable frequencies, NGramSketch ngrams) {
+        static final Chunk EMPTY = new Chunk(AnalysisResult.EMPTY, null, null);
+    }
+
+    /**
+     * Задача анализа диапазона фрагментов [from, to): делится пополам, пока не останется один фрагмент.
+     */
+    private static final class ChunkTask extends RecursiveTask<Chunk> {
+        private final char[] chars;
+        private final int[] bounds;
+        private final int from;
+        private final int to;
+        private final ProgressAccumulator progress;
+        private final TokenizerRules rules;
+        private final boolean withFrequencies;
+
+        ChunkTask(char[] chars, int[] bounds, int from, int to, ProgressAccumulator progress, TokenizerRules rules,
+                  boolean withFrequencies) {
+            this.chars = chars;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.progress = progress;
+            this.rules = rules;
+            this.withFrequencies = withFrequencies;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                ChunkTask right = new ChunkTask(chars, bounds, middle, to, progress, rules, withFrequencies);
+                right.fork();
+                Chunk left = new ChunkTask(chars, bounds, from, middle, progress, rules, withFrequencies).compute();
+                return merge(left, right.join());
+            }
+            if (progress.isCancelled()) {
+                return Chunk.EMPTY;
+            }
+            // Первый фрагмент начинается с начала текста, остальные — с точек синхронизации
+            WordFrequencyTable frequencies = withFrequencies ? new WordFrequencyTable() : null;
+            NGramSketch ngrams = withFrequencies ? new NGramSketch() : null;
+            TextAnalysisEngine.Scanner scanner = from == 0
+                    ? new TextAnalysisEngine.Scanner(rules, frequencies, ngrams)
+                    : TextAnalysisEngine.Scanner.atSyncPoint(rules, frequencies, ngrams);
+            scanner.feed(chars, bounds[from], bounds[to] - bounds[from]);
+            AnalysisResult counts = scanner.result();
+            progress.add(bounds[to] - bounds[from], counts);
+            return new Chunk(counts, scanner.frequencies(), scanner.ngrams());
+        }
+
+        /**
+         * Складывает результаты соседних фрагментов. Таблица частот и скетч сочетаний правого фрагмента
+         * добавляются к таблице и скетчу левого: все они принадлежат только этой задаче, поэтому копировать
+         * их не нужно.
+         */
+        private static Chunk merge(Chunk left, Chunk right) {
+            WordFrequencyTable frequencies = left.frequencies();
+            if (frequencies == null) {
+                frequencies = right.frequencies();
+            } else if (right.frequencies() != null) {
+                frequencies.addAll(right.frequencies());
+            }
+            NGramSketch ngrams = left.ngrams();
+            if (ngrams == null) {
+                ngrams = right.ngrams();
+            } else if (right.ngrams() != null) {
+                ngrams.merge(right.ngrams());
+            }
+            return new Chunk(left.counts().plus(right.counts()), frequencies, ngrams);
+        }
+    }
+
+    /**
+     * Собирает ход выполнения от параллельных задач и передаёт его монитору.
+     */
+    private static final class ProgressAccumulator {
+        private final AnalysisProgress progress;
+        private final long total;
+        private long processed;
+        private AnalysisResult partial = AnalysisResult.EMPTY;
+
+        ProgressAccumulator(AnalysisProgress progress, long total) {
+            this.progress = progress;
+            this.total = total;
+        }
+
+        boolean isCancelled() {
+            return progress.isCancelled();
+        }
+
+        synchronized void add(long chars, AnalysisResult counts) {
+            processed += chars;
+            partial = partial.plus(counts);
+            progress.update(processed, total, partial);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package textanalyzer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Класс PerformanceMonitor измеряет основные операции программы: загрузку файла, анализ текста
+ * и сохранение результатов. Для каждой операции записываются длительность, скорость обработки
+ * и объём памяти, выделенной потоком операции. Статистика операций и кэша результатов
+ * регистрируется в JMX под именами {@code textanalyzer:type=Performance,name=...}
+ * и {@code textanalyzer:type=ResultCache}.
+ * <p>
+ * Измерение выполняется так:
+ * <pre>{@code
+ * PerformanceMonitor.Sample sample = PerformanceMonitor.start(PerformanceMonitor.Operation.LOAD);
+ * ... // операция
+ * sample.stop(bytes);
+ * }</pre>
+ * Выделенная память учитывается только для потока, вызвавшего {@link #start(Operation)}: память,
+ * выделенная потоками параллельного анализа, в неё не входит.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class PerformanceMonitor {
+    private static final Logger LOG = Logger.getLogger(PerformanceMonitor.class.getName());
+
+    /**
+     * Измеряемая операция.
+     */
+    public enum Operation {
+        LOAD("Загрузка файла", "МБ/с", 1 << 20),
+        ANALYSIS("Анализ текста", "млн симв./с", 1_000_000),
+        SAVE("Сохранение результатов", "МБ/с", 1 << 20);
+
+        private final String description;
+        private final String throughputUnit;
+        private final double unitsPerThroughputUnit;
+
+        Operation(String description, String throughputUnit, double unitsPerThroughputUnit) {
+            this.description = description;
+            this.throughputUnit = throughputUnit;
+            this.unitsPerThroughputUnit = unitsPerThroughputUnit;
+        }
+
+        /**
+         * Возвращает название операции для интерфейса.
+         *
+         * @return Название операции
+         */
+        public String description() {
+            return description;
+        }
+    }
+
+    private static final Map<Operation, OperationStatistics> STATISTICS = new EnumMap<>(Operation.class);
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    static {
+        for (Operation operation : Operation.values()) {
+            STATISTICS.put(operation, new OperationStatistics(operation.throughputUnit,
+                    operation.unitsPerThroughputUnit));
+        }
+        registerBeans();
+    }
+
+    private PerformanceMonitor() {
+    }
+
+    /**
+     * Замер одной операции.
+     */
+    public static final class Sample {
+        private final Operation operation;
+        private final long startNanos;
+        private final long startAllocated;
+
+        private Sample(Operation operation) {
+            this.operation = operation;
+            this.startAllocated = allocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * Завершает замер и записывает его в статистику операции. Вызывается в том же потоке,
+         * что и {@link PerformanceMonitor#start(Operation)}.
+         *
+         * @param processed Объём обработанных данных: байтов для загрузки и сохранения, символов для анализа
+         */
+        public void stop(long processed) {
+            long nanos = System.nanoTime() - startNanos;
+            long endAllocated = allocatedBytes();
+            long allocated = startAllocated < 0 || endAllocated < 0 ? -1 : endAllocated - startAllocated;
+            STATISTICS.get(operation).record(nanos, processed, allocated);
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.fine(String.format("%s: %.1f мс, обработано %d, выделено %d байт",
+                        operation.description, nanos / 1e6, processed, allocated));
+            }
+        }
+    }
+
+    /**
+     * Начинает замер операции в текущем потоке.
+     *
+     * @param operation Операция
+     * @return Замер, который нужно завершить методом {@link Sample#stop(long)}
+     */
+    public static Sample start(Operation operation) {
+        return new Sample(operation);
+    }
+
+    /**
+     * Возвращает статистику операции.
+     *
+     * @param operation Операция
+     * @return Статистика операции
+     */
+    public static OperationStatistics statistics(Operation operation) {
+        return STATISTICS.get(operation);
+    }
+
+    /**
+     * Сбрасывает статистику всех операций и счётчики кэша результатов.
+     */
+    public static void reset() {
+        for (OperationStatistics statistics : STATISTICS.values()) {
+            statistics.reset();
+        }
+        ResultCache.shared().resetStatistics();
+    }
+
+    /**
+     * Возвращает объём памяти, выделенной текущим потоком с момента его запуска.
+     *
+     * @return Объём в байтах или -1, если JVM не поддерживает измерение
+     */
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Регистрирует статистику в JMX. Ошибка регистрации не мешает работе программы:
+     * статистика остаётся доступна в окне производительности.
+     */
+    private static void registerBeans() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (Map.Entry<Operation, OperationStatistics> entry : STATISTICS.entrySet()) {
+                register(server, new ObjectName("textanalyzer:type=Performance,name=" + entry.getKey().name()),
+                        entry.getValue());
+            }
+            register(server, new ObjectName("textanalyzer:type=ResultCache"), ResultCache.shared());
+        } catch (JMException | SecurityException e) {
+            LOG.log(Level.WARNING, "Не удалось зарегистрировать статистику в JMX", e);
+        }
+    }
+
+    private static void register(MBeanServer server, ObjectName name, Object bean) throws JMException {
+        if (!server.isRegistered(name)) {
+            server.registerMBean(bean, name);
+        }
+    }
+}
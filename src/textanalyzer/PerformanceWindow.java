@@ -0,0 +1,137 @@
+package textanalyzer;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+/**
+ * Класс PerformanceWindow представляет окно "Производительность": статистику загрузки файлов,
+ * анализа текста и сохранения результатов, а также попадания в кэш результатов анализа
+ * (см. {@link PerformanceMonitor}). Пока окно открыто, значения обновляются раз в секунду.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public class PerformanceWindow extends JDialog {
+    private static final int REFRESH_INTERVAL = 1000; // Период обновления в миллисекундах
+
+    private final StatisticsModel model = new StatisticsModel();
+    private final JLabel cacheLabel = new JLabel();
+    private final Timer refreshTimer = new Timer(REFRESH_INTERVAL, _ -> refresh());
+
+    /**
+     * Конструктор, инициализирует окно со статистикой.
+     *
+     * @param owner Окно, над которым отображается окно статистики
+     */
+    public PerformanceWindow(JFrame owner) {
+        super(owner, "Производительность", false);
+        setSize(760, 220);
+        setLocationRelativeTo(owner);
+        setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        cacheLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+        JButton jbtReset = new JButton("Сбросить");
+        jbtReset.addActionListener(_ -> {
+            PerformanceMonitor.reset();
+            refresh();
+        });
+        JButton jbtClose = new JButton("Закрыть");
+        jbtClose.addActionListener(_ -> dispose());
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.add(jbtReset);
+        buttonPanel.add(jbtClose);
+
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.add(cacheLabel, BorderLayout.CENTER);
+        bottomPanel.add(buttonPanel, BorderLayout.EAST);
+
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(bottomPanel, BorderLayout.SOUTH);
+        UtilsUI.disableFocusForAllButtons(this);
+
+        // Таймер работает, только пока окно открыто
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                refreshTimer.start();
+            }
+
+            @Override
+            public void windowClosed(WindowEvent e) {
+                refreshTimer.stop();
+            }
+        });
+        refresh();
+    }
+
+    /**
+     * Обновляет таблицу операций и строку статистики кэша.
+     */
+    private void refresh() {
+        model.fireTableRowsUpdated(0, model.getRowCount() - 1);
+        ResultCache cache = ResultCache.shared();
+        cacheLabel.setText(String.format("Кэш результатов: попаданий %d, промахов %d (%.0f%%), записей %d, %s",
+                cache.getHits(), cache.getMisses(), cache.getHitRate() * 100, cache.getEntries(),
+                formatBytes(cache.getEstimatedBytes())));
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 0) {
+            return "—";
+        }
+        if (bytes < 1 << 20) {
+            return String.format("%.1f КБ", bytes / 1024.0);
+        }
+        return String.format("%.1f МБ", bytes / (double) (1 << 20));
+    }
+
+    /**
+     * Модель таблицы: строка на каждую операцию, значения читаются из статистики при отрисовке.
+     */
+    private static final class StatisticsModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Операция", "Выполнено", "Последняя, мс", "Средняя, мс",
+                "Скорость", "Память (последняя)", "Память (в среднем)"};
+        private static final PerformanceMonitor.Operation[] OPERATIONS = PerformanceMonitor.Operation.values();
+
+        @Override
+        public int getRowCount() {
+            return OPERATIONS.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            PerformanceMonitor.Operation operation = OPERATIONS[row];
+            OperationStatistics statistics = PerformanceMonitor.statistics(operation);
+            if (column > 1 && statistics.getCount() == 0) {
+                return "—";
+            }
+            return switch (column) {
+                case 0 -> operation.description();
+                case 1 -> statistics.getCount();
+                case 2 -> String.format("%.1f", statistics.getLastMillis());
+                case 3 -> String.format("%.1f", statistics.getAverageMillis());
+                case 4 -> String.format("%.1f %s", statistics.getLastThroughput(), statistics.getThroughputUnit());
+                case 5 -> formatBytes(statistics.getLastAllocatedBytes());
+                case 6 -> formatBytes(statistics.getAverageAllocatedBytes());
+                default -> throw new IndexOutOfBoundsException(column);
+            };
+        }
+    }
+}
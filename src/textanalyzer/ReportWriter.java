@@ -0,0 +1,295 @@
+package textanalyzer;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Класс ReportWriter записывает отчёт об анализе: исходный текст и результаты анализа.
+ * Запись вынесена из окна программы, чтобы её можно было использовать и измерять отдельно от интерфейса.
+ * Текст документа или файла записывается по фрагментам, без копирования в строку,
+ * а файл отчёта всегда записывается в кодировке UTF-8.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class ReportWriter {
+    /**
+     * Размер буфера записи (в символах).
+     */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Шаг, с которым сообщается о ходе записи текста документа (в символах).
+     */
+    static final int PROGRESS_STEP = 1 << 20;
+
+    /**
+     * Количество самых частых слов в отчёте.
+     */
+    static final int TOP_WORDS = 10;
+
+    /**
+     * Количество сочетаний слов каждого вида в отчёте.
+     */
+    static final int TOP_NGRAMS = 10;
+
+    /**
+     * Наибольшее количество конечных символов текста с кодом не больше пробела, которые не записываются в отчёт.
+     */
+    static final int TRAILING_LIMIT = 1 << 16;
+
+    private ReportWriter() {
+    }
+
+    /**
+     * Ход записи текста отчёта.
+     */
+    @FunctionalInterface
+    public interface WriteProgress {
+        /**
+         * Сообщает о ходе записи текста.
+         *
+         * @param written Записанная часть текста (в символах документа или байтах исходного файла)
+         * @param total Размер текста в тех же единицах
+         * @return false, если запись нужно прервать
+         */
+        boolean update(long written, long total);
+    }
+
+    /**
+     * Источник текста отчёта.
+     */
+    @FunctionalInterface
+    public interface TextSource {
+        /**
+         * Записывает текст в поток символов, сообщая о ходе записи.
+         *
+         * @param writer Поток для записи
+         * @param progress Ход записи
+         * @throws IOException Ошибка чтения текста или записи; {@link InterruptedIOException}, если запись прервана
+         */
+        void writeTo(Writer writer, WriteProgress progress) throws IOException;
+
+        /**
+         * Записывает текст в поток символов.
+         *
+         * @param writer Поток для записи
+         * @throws IOException Ошибка чтения текста или записи
+         */
+        default void writeTo(Writer writer) throws IOException {
+            writeTo(writer, (_, _) -> true);
+        }
+
+        /**
+         * Текст Swing-документа, читаемый фрагментами его внутреннего буфера без копирования в строку.
+         * О ходе записи сообщается после каждых {@value ReportWriter#PROGRESS_STEP} символов.
+         *
+         * @param document Документ (не должен изменяться во время записи)
+         * @return Источник текста
+         */
+        static TextSource of(Document document) {
+            return (writer, progress) -> {
+                Segment segment = new Segment();
+                segment.setPartialReturn(true);
+                int length = document.getLength();
+                int offset = 0;
+                try {
+                    while (offset < length) {
+                        // Буфер документа отдаётся одним-двумя фрагментами, поэтому шаг ограничивается явно
+                        document.getText(offset, Math.min(length - offset, PROGRESS_STEP), segment);
+                        writer.write(segment.array, segment.offset, segment.count);
+                        offset += segment.count;
+                        if (!progress.update(offset, length)) {
+                            throw new InterruptedIOException("запись прервана");
+                        }
+                    }
+                } catch (BadLocationException e) {
+                    throw new IllegalStateException(e); // Документ изменился во время записи
+                }
+            };
+        }
+
+        /**
+         * Текст файла, декодируемый блоками (см. {@link TextFileLoader#decode}). Переводы строк записываются
+         * как в файле.
+         *
+         * @param file Путь к файлу
+         * @return Источник текста
+         */
+        static TextSource of(Path file) {
+            return (writer, progress) -> {
+                if (!TextFileLoader.decode(file, writer::write, progress::update)) {
+                    throw new InterruptedIOException("запись прервана");
+                }
+            };
+        }
+    }
+
+    /**
+     * Записывает отчёт в файл в кодировке UTF-8. Файл заменяется атомарно (см. {@link AtomicFileOutput}).
+     *
+     * @param file Файл отчёта
+     * @param text Проанализированный текст
+     * @param result Результаты анализа
+     * @throws IOException Ошибка записи в файл
+     */
+    public static void write(Path file, TextSource text, AnalysisResult result) throws IOException {
+        write(file, text, result, AtomicFileOutput.FORCE, null, (_, _) -> true);
+    }
+
+    /**
+     * Записывает отчёт в файл в кодировке UTF-8 через временный файл, который по окончании записи атомарно
+     * заменяет прежний. Если запись прервана ошибкой или отменой, прежний файл не изменяется.
+     *
+     * @param file Файл отчёта
+     * @param text Проанализированный текст
+     * @param result Результаты анализа
+     * @param force true, если файл нужно сбросить на диск перед заменой
+     * @param codec Кодек сжатия файла или null, если файл записывается без сжатия
+     * @param progress Ход записи текста
+     * @throws IOException Ошибка записи в файл; {@link InterruptedIOException}, если запись прервана
+     */
+    public static void write(Path file, TextSource text, AnalysisResult result, boolean force,
+                             CompressionCodec codec, WriteProgress progress) throws IOException {
+        try (AtomicFileOutput out = new AtomicFileOutput(file, force)) {
+            // Поток записи закрывается только после успешной записи: закрытие дописывает конец сжатого формата.
+            // При ошибке временный файл удаляется при закрытии out, а незакрытый поток уже не нужен
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out.stream(codec), StandardCharsets.UTF_8),
+                    BUFFER_SIZE);
+            write(writer, text, result, progress);
+            writer.close();
+            out.commit();
+        }
+    }
+
+    /**
+     * Записывает отчёт в поток символов. Начальные и конечные символы текста с кодом не больше пробела
+     * не записываются (как при {@link String#trim()}); из конечных отбрасываются только последние
+     * {@value #TRAILING_LIMIT}.
+     *
+     * @param writer Поток для записи
+     * @param text Проанализированный текст
+     * @param result Результаты анализа
+     * @throws IOException Ошибка записи
+     */
+    public static void write(Writer writer, TextSource text, AnalysisResult result) throws IOException {
+        write(writer, text, result, (_, _) -> true);
+    }
+
+    private static void write(Writer writer, TextSource text, AnalysisResult result, WriteProgress progress)
+            throws IOException {
+        writer.write("Текст:\n\n");
+        text.writeTo(new TrimmingWriter(writer), progress);
+        writer.write("\n\n");
+        writer.write("\nРезультаты анализа:\n\n");
+        writer.write("Количество предложений: " + result.sentences() + "\n");
+        writer.write("Количество слов: " + result.words() + "\n");
+        writer.write("Повествовательные предложения: " + result.declarative() + "\n");
+        writer.write("Вопросительные предложения: " + result.questions() + "\n");
+        writer.write("Восклицательные предложения: " + result.exclamatory() + "\n");
+        writer.write(String.format(Locale.ROOT, "Средняя длина предложения: %.1f слов\n",
+                result.averageSentenceLength()));
+        writer.write(String.format(Locale.ROOT, "Средняя длина слова: %.1f букв, %.2f слога\n",
+                result.averageWordLength(), result.averageSyllables()));
+        writer.write(String.format(Locale.ROOT, "Индекс удобочитаемости Флеша: %.1f (для русского текста: %.1f)\n",
+                result.fleschReadingEase(), result.fleschReadingEaseRussian()));
+        WordFrequencyTable frequencies = result.frequencies();
+        if (frequencies != null) {
+            writer.write("Уникальных слов: " + frequencies.size() + "\n");
+            writer.write(String.format(Locale.ROOT, "Лексическое разнообразие: %.3f\n", result.typeTokenRatio()));
+            writer.write("\nСамые частые слова:\n\n");
+            for (WordFrequencyTable.Entry entry : frequencies.top(TOP_WORDS)) {
+                writer.write(entry.word() + " — " + entry.count() + "\n");
+            }
+        }
+        NGramSketch ngrams = result.ngrams();
+        if (ngrams != null) {
+            writer.write("\nУстойчивые словосочетания:\n\n");
+            for (NGramSketch.Collocation collocation : ngrams.collocations(TOP_NGRAMS)) {
+                writer.write(String.format(Locale.ROOT, "%s — %d (PMI %.2f)\n", collocation.words(),
+                        collocation.count(), collocation.score()));
+            }
+            writeNGrams(writer, "Частые сочетания из двух слов", ngrams.top(2, TOP_NGRAMS));
+            writeNGrams(writer, "Частые сочетания из трёх слов", ngrams.top(3, TOP_NGRAMS));
+        }
+    }
+
+    private static void writeNGrams(Writer writer, String title, List<NGramSketch.Entry> entries)
+            throws IOException {
+        writer.write("\n" + title + ":\n\n");
+        for (NGramSketch.Entry entry : entries) {
+            writer.write(entry.words() + " — " + entry.count() + "\n");
+        }
+    }
+
+    /**
+     * Поток, отбрасывающий начальные и конечные символы с кодом не больше пробела. Символы в конце
+     * очередного фрагмента придерживаются, пока не станет ясно, что за ними следует видимый символ.
+     * Придерживается не больше {@value #TRAILING_LIMIT} последних символов: более ранние символы длинной
+     * серии записываются, чтобы память не зависела от длины серии. Закрытие потока не закрывает исходный поток.
+     */
+    private static final class TrimmingWriter extends FilterWriter {
+        private final StringBuilder pending = new StringBuilder();
+        private boolean started;
+
+        TrimmingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            int start = offset;
+            int end = offset + length;
+            if (!started) {
+                while (start < end && chars[start] <= ' ') {
+                    start++;
+                }
+                if (start == end) {
+                    return;
+                }
+                started = true;
+            }
+            int last = end;
+            while (last > start && chars[last - 1] <= ' ') {
+                last--;
+            }
+            if (last > start) {
+                out.append(pending);
+                pending.setLength(0);
+                out.write(chars, start, last - start);
+            }
+            pending.append(chars, last, end - last);
+            if (pending.length() > 2 * TRAILING_LIMIT) {
+                // Начало серии записывается, а придерживается только её конец (сдвиг раз в TRAILING_LIMIT символов)
+                int flushed = pending.length() - TRAILING_LIMIT;
+                out.append(pending, 0, flushed);
+                pending.delete(0, flushed);
+            }
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            write(new char[]{(char) c}, 0, 1);
+        }
+
+        @Override
+        public void write(String string, int offset, int length) throws IOException {
+            write(string.toCharArray(), offset, length);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package textanalyzer;
+
+import javax.swing.text.Document;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Класс ResultCache запоминает результаты анализа, чтобы повторный анализ неизменённого текста
+ * или повторно открытого файла выполнялся мгновенно.
+ * <p>
+ * Текст ищется в кэше по хешу содержимого, длине и языку анализа: хеш вычисляется отдельным быстрым проходом
+ * без анализа (см. {@link DocumentAnalyzer#hash(Document)}). Файл ищется по пути, размеру, времени
+ * изменения и языку анализа, поэтому для попадания в кэш его не нужно даже читать. Кэш вытесняет давно
+ * не использованные записи, когда их оценочный объём (вместе с таблицами частот слов) превышает заданный предел.
+ * Результаты анализа файлов можно дополнительно сохранять на диске между запусками программы
+ * в индексе корпуса (см. {@link ResultStore}). Промахи в этом случае анализируются с подсчётом частот,
+ * чтобы в индекс попала сводка частот слов; полные таблицы частот на диск не попадают, поэтому результат
+ * из индекса возвращается без таблицы частот, даже если частоты запрошены: счётчики выдаются сразу,
+ * а частоты подсчитываются по требованию (см. {@link #analyzeFrequencies}). Если у файла изменилось только
+ * время изменения, а размер прежний, сравнивается хеш содержимого: совпавший результат переносится
+ * без повторного анализа.
+ * <p>
+ * Общий кэш программы настраивается системными свойствами {@code textanalyzer.cache.maxBytes}
+ * (предел объёма в байтах) и {@code textanalyzer.cache.file} (файл индекса на диске). Индекс общего кэша
+ * закрывается при завершении программы.
+ * Число попаданий и промахов доступно через JMX (см. {@link PerformanceMonitor}).
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class ResultCache implements ResultCacheMXBean {
+    /**
+     * Предел объёма кэша по умолчанию (в байтах).
+     */
+    static final long DEFAULT_MAX_BYTES = 64 << 20;
+
+    /**
+     * Оценка объёма одной записи кэша в памяти без таблицы частот: ключ, результат и узел списка (в байтах).
+     */
+    static final int ENTRY_BYTES = 192;
+
+    private static final Logger LOG = Logger.getLogger(ResultCache.class.getName());
+
+    private static final ResultCache SHARED = new ResultCache(
+            Long.getLong("textanalyzer.cache.maxBytes", DEFAULT_MAX_BYTES), openSharedStore());
+
+    /**
+     * Ключ текста: хеш содержимого, длина и язык анализа.
+     */
+    private record TextKey(long hash, long length, String language) {
+    }
+
+    /**
+     * Ключ файла: путь, размер, время изменения и язык анализа.
+     *
+     * @param file Абсолютный нормализованный путь к файлу
+     * @param size Размер файла в байтах
+     * @param modified Время последнего изменения в миллисекундах
+     * @param language Код языка, по правилам которого анализировался файл
+     */
+    record FileKey(Path file, long size, long modified, String language) {
+        /**
+         * Составляет ключ по текущим атрибутам файла.
+         *
+         * @param file Путь к файлу
+         * @param rules Правила языка анализа
+         * @return Ключ файла
+         * @throws IOException Ошибка чтения атрибутов файла
+         */
+        static FileKey of(Path file, TokenizerRules rules) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileKey(file.toAbsolutePath().normalize(), attributes.size(),
+                    attributes.lastModifiedTime().toMillis(), rules.language());
+        }
+    }
+
+    private final Map<Object, AnalysisResult> entries;
+    private final long maxBytes;
+    private long bytes; // Оценочный объём записей в памяти
+    private volatile ResultStore store; // Сбрасывается в null после ошибки записи
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Конструктор кэша.
+     *
+     * @param maxBytes Предел оценочного объёма записей в памяти (в байтах)
+     * @param store Хранилище результатов анализа файлов на диске (или null)
+     */
+    public ResultCache(long maxBytes, ResultStore store) {
+        this.maxBytes = maxBytes;
+        this.store = store;
+        // Порядок доступа: первой идёт запись, которая дольше всех не использовалась
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Оценивает объём записи кэша в памяти.
+     */
+    private static long sizeOf(AnalysisResult result) {
+        WordFrequencyTable frequencies = result.frequencies();
+        NGramSketch ngrams = result.ngrams();
+        return ENTRY_BYTES + (frequencies == null ? 0 : frequencies.estimatedBytes())
+                + (ngrams == null ? 0 : ngrams.estimatedBytes());
+    }
+
+    /**
+     * Возвращает общий кэш программы.
+     *
+     * @return Общий кэш
+     */
+    public static ResultCache shared() {
+        return SHARED;
+    }
+
+    private static ResultStore openSharedStore() {
+        String file = System.getProperty("textanalyzer.cache.file");
+        if (file == null) {
+            return null;
+        }
+        try {
+            ResultStore store = ResultStore.open(Path.of(file));
+            // При закрытии записывается таблица смещений, и следующий запуск не просматривает записи подряд
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Не удалось закрыть хранилище результатов", e);
+                }
+            }, "result-store-close"));
+            return store;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Не удалось открыть хранилище результатов", e);
+            return null;
+        }
+    }
+
+    /**
+     * Возвращает индекс корпуса на диске, в котором сохраняются результаты анализа файлов.
+     *
+     * @return Индекс или null, если он не используется (или отключён после ошибки записи)
+     */
+    public ResultStore store() {
+        return store;
+    }
+
+    /**
+     * Анализирует документ или возвращает готовый результат анализа того же текста.
+     *
+     * @param document Документ для анализа
+     * @param progress Монитор хода выполнения и отмены
+     * @return Результаты анализа (частичные, если анализ был отменён)
+     */
+    public AnalysisResult analyze(Document document, AnalysisProgress progress) {
+        return analyze(document, progress, TokenizerRules.DEFAULT, false);
+    }
+
+    /**
+     * Анализирует документ по правилам заданного языка или возвращает готовый результат анализа того же текста.
+     *
+     * @param document Документ для анализа
+     * @param progress Монитор хода выполнения и отмены
+     * @param rules Правила языка
+     * @param withFrequencies true, если нужна таблица частот слов
+     * @return Результаты анализа (частичные, если анализ был отменён)
+     */
+    public AnalysisResult analyze(Document document, AnalysisProgress progress, TokenizerRules rules,
+                                  boolean withFrequencies) {
+        long hash = DocumentAnalyzer.hash(document);
+        if (hash != AnalysisResult.NO_HASH) {
+            AnalysisResult cached = get(new TextKey(hash, document.getLength(), rules.language()));
+            if (isSuitable(cached, withFrequencies)) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        AnalysisResult result = DocumentAnalyzer.analyze(document, progress, rules, withFrequencies);
+        if (!progress.isCancelled() && result.sourceHash() != AnalysisResult.NO_HASH) {
+            put(new TextKey(result.sourceHash(), result.characters(), rules.language()), result);
+        }
+        return result;
+    }
+
+    /**
+     * Анализирует файл или возвращает готовый результат, если файл не изменился с прошлого анализа.
+     *
+     * @param file Путь к файлу
+     * @param progress Монитор хода выполнения и отмены
+     * @return Результаты анализа (частичные, если анализ был отменён)
+     * @throws IOException Ошибка чтения файла
+     */
+    public AnalysisResult analyze(Path file, AnalysisProgress progress) throws IOException {
+        return analyze(file, progress, TokenizerRules.DEFAULT, false);
+    }
+
+    /**
+     * Анализирует файл по правилам заданного языка или возвращает готовый результат, если файл
+     * не изменился с прошлого анализа. Результат из индекса корпуса на диске возвращается без таблицы
+     * частот, даже если частоты запрошены.
+     *
+     * @param file Путь к файлу
+     * @param progress Монитор хода выполнения и отмены
+     * @param rules Правила языка
+     * @param withFrequencies true, если нужна таблица частот слов (при промахе она подсчитывается всегда)
+     * @return Результаты анализа (частичные, если анализ был отменён)
+     * @throws IOException Ошибка чтения файла
+     */
+    public AnalysisResult analyze(Path file, AnalysisProgress progress, TokenizerRules rules,
+                                  boolean withFrequencies) throws IOException {
+        return analyze(file, progress, rules, withFrequencies, true);
+    }
+
+    /**
+     * Анализирует файл с подсчётом частот слов или возвращает готовый результат с частотами. В отличие от
+     * {@link #analyze(Path, AnalysisProgress, TokenizerRules, boolean)} результат из индекса корпуса
+     * без таблицы частот не принимается: файл анализируется заново.
+     *
+     * @param file Путь к файлу
+     * @param progress Монитор хода выполнения и отмены
+     * @param rules Правила языка
+     * @return Результаты анализа с таблицей частот (частичные, если анализ был отменён)
+     * @throws IOException Ошибка чтения файла
+     */
+    public AnalysisResult analyzeFrequencies(Path file, AnalysisProgress progress, TokenizerRules rules)
+            throws IOException {
+        return analyze(file, progress, rules, true, false);
+    }
+
+    private AnalysisResult analyze(Path file, AnalysisProgress progress, TokenizerRules rules,
+                                   boolean withFrequencies, boolean acceptStored) throws IOException {
+        // Атрибуты читаются до анализа: если файл изменится во время анализа, запись просто устареет
+        FileKey key = FileKey.of(file, rules);
+        AnalysisResult cached = get(key);
+        ResultStore target = store;
+        if (cached == null && target != null) {
+            cached = target.get(key);
+            if (cached == null) {
+                cached = findUnchanged(target, file, key);
+            }
+            if (cached != null) {
+                put(key, cached);
+            }
+        }
+        // С индексом корпуса результат без частот выдаётся сразу, а частоты подсчитываются по требованию
+        if (isSuitable(cached, withFrequencies && !(acceptStored && target != null))) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        // Для индекса нужна сводка частот, даже если сами частоты не запрошены
+        AnalysisResult result = FileAnalyzer.analyze(file, progress, rules, withFrequencies || target != null);
+        boolean complete = !progress.isCancelled();
+        if (complete) {
+            storeResult(key, result); // Вместе со сводкой частот
+        }
+        if (!withFrequencies) {
+            result = result.withoutFrequencies(); // Незапрошенные частоты не занимают память кэша
+        }
+        if (complete) {
+            put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Ищет в индексе результат анализа файла, у которого изменилось только время изменения:
+     * если размер и хеш содержимого совпадают с сохранёнными, результат переносится на новый ключ.
+     *
+     * @return Перенесённый результат или null, если файл изменился или не анализировался
+     */
+    private AnalysisResult findUnchanged(ResultStore target, Path file, FileKey key) throws IOException {
+        FileKey stored = target.storedKey(key);
+        if (stored == null || stored.size() != key.size()) {
+            return null;
+        }
+        AnalysisResult previous = target.get(stored);
+        if (previous == null || previous.sourceHash() == AnalysisResult.NO_HASH
+                || previous.sourceHash() != FileAnalyzer.hash(file)) {
+            return null;
+        }
+        try {
+            return target.move(stored, key);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Не удалось сохранить результат в хранилище", e);
+            store = null;
+            return previous;
+        }
+    }
+
+    /**
+     * Проверяет, подходит ли найденный результат для запроса: результат без таблицы частот
+     * не подходит, если частоты нужны.
+     */
+    private static boolean isSuitable(AnalysisResult cached, boolean withFrequencies) {
+        return cached != null && (!withFrequencies || cached.frequencies() != null);
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public synchronized int getEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getEstimatedBytes() {
+        return bytes;
+    }
+
+    @Override
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+    }
+
+    private synchronized AnalysisResult get(Object key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(Object key, AnalysisResult result) {
+        long size = sizeOf(result);
+        AnalysisResult previous = entries.remove(key);
+        if (previous != null) {
+            bytes -= sizeOf(previous);
+        }
+        if (size > maxBytes) {
+            return; // Запись больше всего кэша не сохраняется, чтобы не вытеснять остальные
+        }
+        entries.put(key, result);
+        bytes += size;
+        // Вытесняем записи, которые дольше всех не использовались
+        Iterator<AnalysisResult> eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= sizeOf(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Дописывает результат в хранилище на диске. Ошибка записи не прерывает анализ:
+     * хранилище отключается, а кэш продолжает работать в памяти.
+     */
+    private void storeResult(FileKey key, AnalysisResult result) {
+        ResultStore target = store;
+        if (target == null) {
+            return;
+        }
+        try {
+            target.put(key, result);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Не удалось сохранить результат в хранилище", e);
+            store = null;
+        }
+    }
+}
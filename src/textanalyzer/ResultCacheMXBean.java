@@ -0,0 +1,49 @@
+package textanalyzer;
+
+/**
+ * Интерфейс ResultCacheMXBean описывает статистику кэша результатов анализа, доступную через JMX.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public interface ResultCacheMXBean {
+    /**
+     * Возвращает число запросов, для которых найден готовый результат.
+     *
+     * @return Число попаданий
+     */
+    long getHits();
+
+    /**
+     * Возвращает число запросов, для которых потребовался анализ.
+     *
+     * @return Число промахов
+     */
+    long getMisses();
+
+    /**
+     * Возвращает долю попаданий среди всех запросов.
+     *
+     * @return Доля от 0 до 1 (0, если запросов не было)
+     */
+    double getHitRate();
+
+    /**
+     * Возвращает число записей в памяти.
+     *
+     * @return Число записей
+     */
+    int getEntries();
+
+    /**
+     * Возвращает оценочный объём записей в памяти.
+     *
+     * @return Объём в байтах
+     */
+    long getEstimatedBytes();
+
+    /**
+     * Сбрасывает счётчики попаданий и промахов.
+     */
+    void resetStatistics();
+}
@@ -0,0 +1,272 @@
+package textanalyzer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Класс ResultExporter сохраняет результаты анализа в одном из форматов экспорта. Отчёт содержит
+ * текст и результаты (см. {@link ReportWriter}), остальные форматы — только результаты, чтобы их
+ * было дёшево обрабатывать другими программами.
+ * <p>
+ * Двоичная запись имеет фиксированный размер {@link #BINARY_RECORD_SIZE} байт и состоит из десяти
+ * 64-битных целых со старшим байтом вперёд: количество предложений, слов, повествовательных,
+ * вопросительных и восклицательных предложений, количество символов, букв и цифр в словах, слогов,
+ * хеш содержимого и время анализа в наносекундах. Показатели удобочитаемости из этих счётчиков
+ * вычисляются при чтении (см. {@link AnalysisResult}), а в CSV и JSON записываются готовыми значениями.
+ * Заголовка нет, поэтому файлы с записями можно объединять простым склеиванием.
+ * Частоты слов в двоичную запись не входят: их сохраняет отдельный формат {@link Format#FREQUENCIES}.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class ResultExporter {
+    /**
+     * Размер двоичной записи результатов (в байтах).
+     */
+    public static final int BINARY_RECORD_SIZE = 10 * Long.BYTES;
+
+    /**
+     * Количество самых частых слов и сочетаний слов каждого вида в экспорте JSON.
+     */
+    static final int TOP_WORDS = 10;
+
+    private ResultExporter() {
+    }
+
+    /**
+     * Формат экспорта.
+     */
+    public enum Format {
+        REPORT("txt", "Отчёт: текст и результаты (*.txt)"),
+        CSV("csv", "Результаты в CSV (*.csv)"),
+        JSON("json", "Результаты в JSON (*.json)"),
+        BINARY("bin", "Результаты в двоичном формате (*.bin)"),
+        FREQUENCIES("csv", "Частоты слов в CSV (*.csv)");
+
+        private final String extension;
+        private final String description;
+
+        Format(String extension, String description) {
+            this.extension = extension;
+            this.description = description;
+        }
+
+        /**
+         * Возвращает расширение файла этого формата.
+         *
+         * @return Расширение без точки
+         */
+        public String extension() {
+            return extension;
+        }
+
+        /**
+         * Возвращает описание формата для диалога сохранения.
+         *
+         * @return Описание формата
+         */
+        public String description() {
+            return description;
+        }
+    }
+
+    /**
+     * Сохраняет результаты анализа в файл. Файл заменяется атомарно (см. {@link AtomicFileOutput}).
+     *
+     * @param file Файл для записи
+     * @param format Формат экспорта
+     * @param text Проанализированный текст (нужен только для отчёта)
+     * @param result Результаты анализа
+     * @throws IOException Ошибка записи в файл
+     */
+    public static void export(Path file, Format format, ReportWriter.TextSource text, AnalysisResult result)
+            throws IOException {
+        export(file, format, text, result, AtomicFileOutput.FORCE, null, (_, _) -> true);
+    }
+
+    /**
+     * Сохраняет результаты анализа в файл через временный файл в том же каталоге, который по окончании
+     * записи атомарно заменяет прежний. Если запись прервана ошибкой или отменой, прежний файл не изменяется.
+     *
+     * @param file Файл для записи
+     * @param format Формат экспорта
+     * @param text Проанализированный текст (нужен только для отчёта)
+     * @param result Результаты анализа
+     * @param force true, если файл нужно сбросить на диск перед заменой
+     * @param codec Кодек сжатия файла или null, если файл записывается без сжатия
+     * @param progress Ход записи текста отчёта (для остальных форматов не вызывается)
+     * @throws IOException Ошибка записи в файл; {@link java.io.InterruptedIOException}, если запись прервана
+     */
+    public static void export(Path file, Format format, ReportWriter.TextSource text, AnalysisResult result,
+                              boolean force, CompressionCodec codec, ReportWriter.WriteProgress progress)
+            throws IOException {
+        if (format == Format.REPORT) {
+            ReportWriter.write(file, text, result, force, codec, progress);
+            return;
+        }
+        if (format == Format.FREQUENCIES && result.frequencies() == null) {
+            throw new IOException("частоты слов не подсчитаны, выполните анализ текста");
+        }
+        try (AtomicFileOutput out = new AtomicFileOutput(file, force)) {
+            // Поток закрывается только после успешной записи (см. ReportWriter#write(Path, ...))
+            OutputStream stream = out.stream(codec);
+            switch (format) {
+                case CSV, JSON, FREQUENCIES -> {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8),
+                            ReportWriter.BUFFER_SIZE);
+                    switch (format) {
+                        case CSV -> writeCsv(writer, result);
+                        case JSON -> writeJson(writer, result);
+                        default -> writeFrequencies(writer, result.frequencies());
+                    }
+                    writer.flush();
+                }
+                default -> writeBinary(stream, result);
+            }
+            stream.close(); // Дописывает конец сжатого формата
+            out.commit();
+        }
+    }
+
+    /**
+     * Записывает результаты в формате CSV: строка заголовка и строка значений.
+     *
+     * @param writer Поток для записи
+     * @param result Результаты анализа
+     * @throws IOException Ошибка записи
+     */
+    public static void writeCsv(Writer writer, AnalysisResult result) throws IOException {
+        WordFrequencyTable frequencies = result.frequencies();
+        writer.write("sentences,words,declarative,questions,exclamatory,characters,unique_words,"
+                + "avg_sentence_length,avg_word_length,avg_syllables,flesch,flesch_ru,type_token_ratio\n");
+        writer.write(result.sentences() + "," + result.words() + "," + result.declarative() + ","
+                + result.questions() + "," + result.exclamatory() + "," + result.characters() + ","
+                + (frequencies == null ? "" : String.valueOf(frequencies.size())) + ","
+                + number(result.averageSentenceLength()) + "," + number(result.averageWordLength()) + ","
+                + number(result.averageSyllables()) + "," + number(result.fleschReadingEase()) + ","
+                + number(result.fleschReadingEaseRussian()) + ","
+                + (frequencies == null ? "" : number(result.typeTokenRatio())) + "\n");
+    }
+
+    /**
+     * Записывает результаты в виде объекта JSON.
+     *
+     * @param writer Поток для записи
+     * @param result Результаты анализа
+     * @throws IOException Ошибка записи
+     */
+    public static void writeJson(Writer writer, AnalysisResult result) throws IOException {
+        writer.write("{\"sentences\": " + result.sentences() + ", \"words\": " + result.words()
+                + ", \"declarative\": " + result.declarative() + ", \"questions\": " + result.questions()
+                + ", \"exclamatory\": " + result.exclamatory() + ", \"characters\": " + result.characters()
+                + ", \"averageSentenceLength\": " + number(result.averageSentenceLength())
+                + ", \"averageWordLength\": " + number(result.averageWordLength())
+                + ", \"averageSyllables\": " + number(result.averageSyllables())
+                + ", \"flesch\": " + number(result.fleschReadingEase())
+                + ", \"fleschRussian\": " + number(result.fleschReadingEaseRussian()));
+        WordFrequencyTable frequencies = result.frequencies();
+        if (frequencies != null) {
+            writer.write(", \"uniqueWords\": " + frequencies.size()
+                    + ", \"typeTokenRatio\": " + number(result.typeTokenRatio()) + ", \"topWords\": [");
+            List<WordFrequencyTable.Entry> top = frequencies.top(TOP_WORDS);
+            for (int i = 0; i < top.size(); i++) {
+                // Слово состоит из букв, цифр и соединительных знаков (-'’.,), поэтому экранирование не требуется
+                writer.write((i == 0 ? "" : ", ") + "{\"word\": \"" + top.get(i).word() + "\", \"count\": "
+                        + top.get(i).count() + "}");
+            }
+            writer.write("]");
+        }
+        NGramSketch ngrams = result.ngrams();
+        if (ngrams != null) {
+            // Сочетания состоят из слов через пробел, поэтому экранирование также не требуется
+            writer.write(", \"topBigrams\": [");
+            writeNGrams(writer, ngrams.top(2, TOP_WORDS));
+            writer.write("], \"topTrigrams\": [");
+            writeNGrams(writer, ngrams.top(3, TOP_WORDS));
+            writer.write("], \"collocations\": [");
+            List<NGramSketch.Collocation> collocations = ngrams.collocations(TOP_WORDS);
+            for (int i = 0; i < collocations.size(); i++) {
+                writer.write((i == 0 ? "" : ", ") + "{\"words\": \"" + collocations.get(i).words()
+                        + "\", \"count\": " + collocations.get(i).count()
+                        + ", \"pmi\": " + number(collocations.get(i).score()) + "}");
+            }
+            writer.write("]");
+        }
+        writer.write("}\n");
+    }
+
+    private static void writeNGrams(Writer writer, List<NGramSketch.Entry> entries) throws IOException {
+        for (int i = 0; i < entries.size(); i++) {
+            writer.write((i == 0 ? "" : ", ") + "{\"words\": \"" + entries.get(i).words() + "\", \"count\": "
+                    + entries.get(i).count() + ", \"error\": " + entries.get(i).error() + "}");
+        }
+    }
+
+    /**
+     * Записывает частоты всех слов в формате CSV в порядке убывания частоты. Слово с запятой
+     * (число вида «3,14») заключается в кавычки.
+     *
+     * @param writer Поток для записи
+     * @param frequencies Таблица частот слов
+     * @throws IOException Ошибка записи
+     */
+    public static void writeFrequencies(Writer writer, WordFrequencyTable frequencies) throws IOException {
+        writer.write("word,count\n");
+        for (WordFrequencyTable.Entry entry : frequencies.top(frequencies.size())) {
+            String word = entry.word().indexOf(',') < 0 ? entry.word() : '"' + entry.word() + '"';
+            writer.write(word + "," + entry.count() + "\n");
+        }
+    }
+
+    /**
+     * Записывает результаты одной двоичной записью фиксированного размера.
+     *
+     * @param out Поток для записи
+     * @param result Результаты анализа
+     * @throws IOException Ошибка записи
+     */
+    public static void writeBinary(OutputStream out, AnalysisResult result) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(BINARY_RECORD_SIZE)
+                .putLong(result.sentences())
+                .putLong(result.words())
+                .putLong(result.declarative())
+                .putLong(result.questions())
+                .putLong(result.exclamatory())
+                .putLong(result.characters())
+                .putLong(result.wordCharacters())
+                .putLong(result.syllables())
+                .putLong(result.sourceHash())
+                .putLong(result.elapsedNanos());
+        out.write(record.array());
+    }
+
+    /**
+     * Читает двоичную запись результатов.
+     *
+     * @param record Буфер, позиция которого указывает на начало записи
+     * @return Результаты анализа
+     */
+    public static AnalysisResult readBinary(ByteBuffer record) {
+        return new AnalysisResult(record.getLong(), record.getLong(), record.getLong(), record.getLong(),
+                record.getLong(), record.getLong(), record.getLong(), record.getLong(), record.getLong(),
+                record.getLong());
+    }
+
+    /**
+     * Форматирует дробный показатель с точкой в качестве разделителя (для CSV и JSON).
+     *
+     * @param value Значение
+     * @return Значение с четырьмя знаками после точки
+     */
+    static String number(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+}
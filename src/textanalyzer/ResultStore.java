@@ -0,0 +1,561 @@
+package textanalyzer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Класс ResultStore — постоянный индекс корпуса: хранит на диске между запусками программы счётчики
+ * анализа каждого файла и сводку частот его слов. Индекс позволяет не анализировать повторно
+ * неизменённые файлы и отвечать на сводные запросы (итоги, самые частые слова корпуса),
+ * не читая исходные тексты.
+ * <p>
+ * Индекс — один файл, в конец которого дописывается запись для каждого проанализированного файла:
+ * путь, размер, время изменения и язык анализа, счётчики (вместе с хешем содержимого), число различных
+ * слов и {@value #SUMMARY_WORDS} самых частых слов с их частотами. Каждая запись предваряется длиной,
+ * поэтому оборванная при сбое последняя запись обнаруживается и отрезается. При закрытии за записями
+ * сохраняется таблица смещений: ключи и счётчики всех действующих записей с позициями их сводок.
+ * Тогда при следующем открытии читается только таблица, а сводки частот — лишь по запросу.
+ * Если таблицы нет (программа завершилась аварийно), записи просматриваются последовательно.
+ * Новые записи пишутся на место таблицы, а более поздняя запись файла заменяет ранние.
+ * Когда заменённые записи занимают больше половины файла, при закрытии действующие записи
+ * переносятся к началу файла. Пока записи переносятся, в заголовке вместо номера версии стоит признак сжатия,
+ * поэтому индекс, сжатие которого прервалось, при следующем открытии создаётся заново.
+ * <p>
+ * Индекс для записи открывает только один процесс: на время работы файл блокируется, и второй процесс
+ * получает ошибку открытия. Для сводных запросов индекс открывается только для чтения
+ * (см. {@link #openReadOnly(Path)}) с разделяемой блокировкой: такие запросы могут идти одновременно,
+ * а файл не изменяется.
+ * <p>
+ * Индекс прежней версии формата (с результатами прежних правил анализа) при открытии создаётся заново.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class ResultStore implements Closeable {
+    private static final int MAGIC = 0x54415253; // "TARS"
+    private static final int VERSION = 5;
+    private static final int COMPACTING = -1; // Номер версии в заголовке на время сжатия
+    private static final int HEADER_SIZE = 8;
+
+    // Отрицательное значение: при последовательном просмотре таблица не принимается за длину записи
+    private static final int TABLE_MAGIC = 0xE7AB1E00;
+    private static final int TRAILER_MAGIC = 0x54414958; // "TAIX"
+    private static final int TRAILER_SIZE = 12; // Смещение таблицы и признак
+
+    /**
+     * Наибольшее количество слов в сводке частот одного файла.
+     */
+    static final int SUMMARY_WORDS = 1000;
+
+    /**
+     * Доля заменённых записей в файле, после которой индекс сжимается при закрытии.
+     */
+    static final double COMPACT_DEAD_FRACTION = 0.5;
+
+    /**
+     * Место записи в индексе: путь к файлу и язык анализа.
+     */
+    private record Location(Path file, String language) {
+    }
+
+    /**
+     * Действующая запись индекса.
+     *
+     * @param key Ключ файла на момент анализа
+     * @param counts Счётчики анализа (без таблицы частот)
+     * @param uniqueWords Число различных слов (-1, если частоты не подсчитывались)
+     * @param offset Позиция записи в файле индекса
+     * @param length Длина записи вместе с полем длины
+     */
+    private record Entry(ResultCache.FileKey key, AnalysisResult counts, int uniqueWords, long offset, int length) {
+        Location location() {
+            return new Location(key.file(), key.language());
+        }
+
+        Entry movedTo(long position) {
+            return new Entry(key, counts, uniqueWords, position, length);
+        }
+    }
+
+    private final Map<Location, Entry> entries = new HashMap<>();
+    private final FileChannel channel;
+    private final boolean readOnly;
+    private long end; // Конец последней записи: сюда пишется следующая запись или таблица смещений
+
+    private ResultStore(FileChannel channel, boolean readOnly) {
+        this.channel = channel;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Открывает индекс для чтения и записи, создавая файл при необходимости. Файл блокируется
+     * до закрытия индекса.
+     *
+     * @param file Файл индекса
+     * @return Индекс с загруженными записями
+     * @throws IOException Ошибка чтения индекса, файл не является индексом результатов или уже открыт
+     * другим процессом
+     */
+    public static ResultStore open(Path file) throws IOException {
+        return open(file, false, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Открывает существующий индекс только для чтения: файл не изменяется ни при открытии,
+     * ни при закрытии, а сохранение результатов недоступно.
+     *
+     * @param file Файл индекса
+     * @return Индекс с загруженными записями
+     * @throws IOException Ошибка чтения индекса, файл не является индексом результатов или открыт
+     * для записи другим процессом
+     */
+    public static ResultStore openReadOnly(Path file) throws IOException {
+        return open(file, true, StandardOpenOption.READ);
+    }
+
+    private static ResultStore open(Path file, boolean readOnly, StandardOpenOption... options) throws IOException {
+        FileChannel channel = FileChannel.open(file, options);
+        try {
+            lock(channel, readOnly, file);
+            ResultStore store = new ResultStore(channel, readOnly);
+            store.load(file);
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close(); // Вместе с каналом снимается и блокировка
+            throw e;
+        }
+    }
+
+    /**
+     * Блокирует файл индекса: для записи — монопольно, для чтения — совместно с другими читателями.
+     */
+    private static void lock(FileChannel channel, boolean shared, Path file) throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock(0, Long.MAX_VALUE, shared);
+        } catch (OverlappingFileLockException e) {
+            lock = null; // Индекс уже открыт в этой программе
+        }
+        if (lock == null) {
+            throw new IOException("Индекс результатов уже используется другим процессом: " + file);
+        }
+    }
+
+    /**
+     * Загружает записи: из таблицы смещений, если индекс был закрыт правильно, иначе последовательным просмотром.
+     * Затем отрезает таблицу и оборванную запись, чтобы новые записи продолжили журнал.
+     */
+    private void load(Path file) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            writeHeader(); // Новый файл или не записан даже заголовок
+            return;
+        }
+        ByteBuffer header = read(0, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Файл не является индексом результатов анализа: " + file);
+        }
+        if (header.getInt() != VERSION) {
+            writeHeader(); // Прежняя версия формата или прерванное сжатие
+            return;
+        }
+        if (!readTable(size)) {
+            entries.clear();
+            scan(size);
+        }
+        if (!readOnly) {
+            channel.truncate(end);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        end = HEADER_SIZE;
+        if (readOnly) {
+            return; // Индекс читается как пустой
+        }
+        channel.truncate(0);
+        writeVersion(VERSION);
+    }
+
+    private void writeVersion(int version) throws IOException {
+        write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(version).flip(), 0);
+    }
+
+    /**
+     * Читает таблицу смещений в конце файла.
+     *
+     * @return false, если таблицы нет или она повреждена
+     */
+    private boolean readTable(long size) throws IOException {
+        if (size < HEADER_SIZE + TRAILER_SIZE) {
+            return false;
+        }
+        ByteBuffer trailer = read(size - TRAILER_SIZE, TRAILER_SIZE);
+        long tableOffset = trailer.getLong();
+        if (trailer.getInt() != TRAILER_MAGIC || tableOffset < HEADER_SIZE || tableOffset > size - TRAILER_SIZE) {
+            return false;
+        }
+        DataInputStream in = input(read(tableOffset, (int) (size - TRAILER_SIZE - tableOffset)));
+        try {
+            if (in.readInt() != TABLE_MAGIC) {
+                return false;
+            }
+            for (int count = in.readInt(); count > 0; count--) {
+                ResultCache.FileKey key = readKey(in);
+                AnalysisResult counts = readCounts(in);
+                Entry entry = new Entry(key, counts, in.readInt(), in.readLong(), in.readInt());
+                entries.put(entry.location(), entry);
+            }
+        } catch (IOException e) {
+            return false; // Таблица повреждена: записи будут прочитаны последовательно
+        }
+        end = tableOffset;
+        return true;
+    }
+
+    /**
+     * Последовательно читает записи и останавливается на оборванной записи или таблице смещений.
+     */
+    private void scan(long size) throws IOException {
+        long position = HEADER_SIZE;
+        while (position + Integer.BYTES <= size) {
+            int length = read(position, Integer.BYTES).getInt();
+            if (length <= 0 || position + Integer.BYTES + length > size) {
+                break;
+            }
+            DataInputStream in = input(read(position + Integer.BYTES, length));
+            try {
+                ResultCache.FileKey key = readKey(in);
+                AnalysisResult counts = readCounts(in);
+                Entry entry = new Entry(key, counts, in.readInt(), position, Integer.BYTES + length);
+                entries.put(entry.location(), entry);
+            } catch (IOException e) {
+                break;
+            }
+            position += Integer.BYTES + length;
+        }
+        end = position;
+    }
+
+    /**
+     * Ищет сохранённый результат анализа файла.
+     *
+     * @param key Путь, размер и время изменения файла и язык анализа
+     * @return Результат анализа (без таблицы частот) или null, если файл не анализировался или изменился
+     */
+    public synchronized AnalysisResult get(ResultCache.FileKey key) {
+        Entry entry = entries.get(new Location(key.file(), key.language()));
+        return entry != null && entry.key().equals(key) ? entry.counts() : null;
+    }
+
+    /**
+     * Возвращает ключ, с которым в индексе сохранён результат анализа файла, независимо от того,
+     * изменился ли файл с тех пор.
+     *
+     * @param key Текущий ключ файла
+     * @return Сохранённый ключ или null, если файл не анализировался
+     */
+    synchronized ResultCache.FileKey storedKey(ResultCache.FileKey key) {
+        Entry entry = entries.get(new Location(key.file(), key.language()));
+        return entry == null ? null : entry.key();
+    }
+
+    /**
+     * Переносит сохранённый результат на новый ключ файла. Используется, когда у файла изменилось
+     * только время изменения, а содержимое осталось прежним: сводка частот копируется без повторного анализа.
+     *
+     * @param stored Сохранённый ключ (см. {@link #storedKey(ResultCache.FileKey)})
+     * @param key Новый ключ файла
+     * @return Перенесённый результат или null, если запись с сохранённым ключом уже заменена
+     * @throws IOException Ошибка чтения или записи индекса
+     */
+    synchronized AnalysisResult move(ResultCache.FileKey stored, ResultCache.FileKey key) throws IOException {
+        Entry entry = entries.get(new Location(key.file(), key.language()));
+        if (entry == null || !entry.key().equals(stored)) {
+            return null;
+        }
+        append(key, entry.counts(), entry.uniqueWords(), readSummary(entry));
+        return entry.counts();
+    }
+
+    /**
+     * Сохраняет результат анализа файла и сразу дописывает его в индекс. Если результат содержит
+     * таблицу частот, вместе с ним сохраняется сводка самых частых слов.
+     *
+     * @param key Путь, размер и время изменения файла и язык анализа
+     * @param result Результат анализа
+     * @throws IOException Ошибка записи в индекс
+     */
+    public synchronized void put(ResultCache.FileKey key, AnalysisResult result) throws IOException {
+        WordFrequencyTable frequencies = result.frequencies();
+        AnalysisResult counts = result.withoutFrequencies();
+        Entry previous = entries.get(new Location(key.file(), key.language()));
+        if (previous != null && previous.key().equals(key) && previous.counts().equals(counts)
+                && (previous.uniqueWords() >= 0 || frequencies == null)) {
+            return; // Такая запись уже есть в индексе
+        }
+        if (frequencies == null) {
+            append(key, counts, -1, List.of());
+        } else {
+            append(key, counts, frequencies.size(), frequencies.top(SUMMARY_WORDS));
+        }
+    }
+
+    /**
+     * Возвращает количество файлов в индексе.
+     *
+     * @return Количество действующих записей
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Подсчитывает файлы индекса, удовлетворяющие условию.
+     *
+     * @param files Условие отбора файлов
+     * @param language Код языка анализа
+     * @return Количество файлов
+     */
+    public synchronized int count(Predicate<Path> files, String language) {
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            if (matches(entry, files, language)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Суммирует счётчики файлов индекса, не читая ни сводки частот, ни сами файлы.
+     *
+     * @param files Условие отбора файлов
+     * @param language Код языка анализа
+     * @return Суммарные счётчики; хеш содержимого у корпуса нет ({@link AnalysisResult#NO_HASH})
+     */
+    public synchronized AnalysisResult totals(Predicate<Path> files, String language) {
+        AnalysisResult total = AnalysisResult.EMPTY;
+        for (Entry entry : entries.values()) {
+            if (matches(entry, files, language)) {
+                total = total.plus(entry.counts().withoutHash());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Находит самые частые слова корпуса, объединяя сводки частот файлов. Сводка файла содержит
+     * только {@value #SUMMARY_WORDS} его самых частых слов, поэтому частоты редких слов корпуса
+     * могут быть занижены; для верхних слов погрешность мала.
+     *
+     * @param files Условие отбора файлов
+     * @param language Код языка анализа
+     * @param n Количество слов
+     * @return Не более n слов в порядке убывания частоты
+     * @throws IOException Ошибка чтения индекса
+     */
+    public synchronized List<WordFrequencyTable.Entry> topWords(Predicate<Path> files, String language, int n)
+            throws IOException {
+        WordFrequencyTable table = new WordFrequencyTable();
+        for (Entry entry : inFileOrder()) { // Чтение в порядке расположения в файле
+            if (!matches(entry, files, language)) {
+                continue;
+            }
+            for (WordFrequencyTable.Entry word : readSummary(entry)) {
+                char[] chars = word.word().toCharArray();
+                table.add(chars, 0, chars.length, word.count());
+            }
+        }
+        return table.top(n);
+    }
+
+    /**
+     * Возвращает действующие записи в порядке их расположения в файле индекса.
+     */
+    private List<Entry> inFileOrder() {
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort((a, b) -> Long.compare(a.offset(), b.offset()));
+        return sorted;
+    }
+
+    private static boolean matches(Entry entry, Predicate<Path> files, String language) {
+        return entry.key().language().equals(language) && files.test(entry.key().file());
+    }
+
+    /**
+     * Дописывает запись в конец журнала.
+     */
+    private void append(ResultCache.FileKey key, AnalysisResult counts, int uniqueWords,
+                        List<WordFrequencyTable.Entry> summary) throws IOException {
+        if (readOnly) {
+            throw new IOException("Индекс результатов открыт только для чтения");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + summary.size() * 16);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // Место для длины записи
+        writeKey(out, key);
+        writeCounts(out, counts);
+        out.writeInt(uniqueWords);
+        out.writeInt(summary.size());
+        for (WordFrequencyTable.Entry word : summary) {
+            out.writeUTF(word.word());
+            out.writeInt(word.count());
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        buffer.putInt(0, buffer.capacity() - Integer.BYTES);
+        write(buffer, end);
+        Entry entry = new Entry(key, counts, uniqueWords, end, buffer.capacity());
+        entries.put(entry.location(), entry);
+        end += buffer.capacity();
+    }
+
+    /**
+     * Читает сводку частот записи.
+     */
+    private List<WordFrequencyTable.Entry> readSummary(Entry entry) throws IOException {
+        if (entry.uniqueWords() < 0) {
+            return List.of();
+        }
+        int length = read(entry.offset(), Integer.BYTES).getInt();
+        DataInputStream in = input(read(entry.offset() + Integer.BYTES, length));
+        readKey(in);
+        readCounts(in);
+        in.readInt(); // Число различных слов
+        int count = in.readInt();
+        List<WordFrequencyTable.Entry> summary = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            summary.add(new WordFrequencyTable.Entry(in.readUTF(), in.readInt()));
+        }
+        return summary;
+    }
+
+    private static void writeKey(DataOutputStream out, ResultCache.FileKey key) throws IOException {
+        out.writeUTF(key.file().toString());
+        out.writeLong(key.size());
+        out.writeLong(key.modified());
+        out.writeUTF(key.language());
+    }
+
+    private static ResultCache.FileKey readKey(DataInputStream in) throws IOException {
+        return new ResultCache.FileKey(Path.of(in.readUTF()), in.readLong(), in.readLong(), in.readUTF());
+    }
+
+    private static void writeCounts(DataOutputStream out, AnalysisResult result) throws IOException {
+        out.writeLong(result.sentences());
+        out.writeLong(result.words());
+        out.writeLong(result.declarative());
+        out.writeLong(result.questions());
+        out.writeLong(result.exclamatory());
+        out.writeLong(result.characters());
+        out.writeLong(result.wordCharacters());
+        out.writeLong(result.syllables());
+        out.writeLong(result.sourceHash());
+        out.writeLong(result.elapsedNanos());
+    }
+
+    private static AnalysisResult readCounts(DataInputStream in) throws IOException {
+        return new AnalysisResult(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong());
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Неожиданный конец индекса");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static DataInputStream input(ByteBuffer buffer) {
+        return new DataInputStream(new ByteArrayInputStream(buffer.array(), buffer.arrayOffset(), buffer.limit()));
+    }
+
+    /**
+     * Проверяет, превышает ли доля заменённых записей в журнале {@link #COMPACT_DEAD_FRACTION}.
+     */
+    private boolean needsCompaction() {
+        long live = 0;
+        for (Entry entry : entries.values()) {
+            live += entry.length();
+        }
+        long records = end - HEADER_SIZE;
+        return records - live > records * COMPACT_DEAD_FRACTION;
+    }
+
+    /**
+     * Переносит действующие записи к началу файла по порядку, отбрасывая заменённые. Запись переносится
+     * только ближе к началу, поэтому ещё не перенесённые записи не затираются.
+     */
+    private void compact() throws IOException {
+        writeVersion(COMPACTING);
+        channel.force(false); // Признак сжатия должен попасть на диск раньше перенесённых записей
+        long position = HEADER_SIZE;
+        for (Entry entry : inFileOrder()) {
+            if (entry.offset() != position) {
+                write(read(entry.offset(), entry.length()), position);
+                entries.put(entry.location(), entry.movedTo(position));
+            }
+            position += entry.length();
+        }
+        end = position;
+        channel.truncate(end);
+        channel.force(false);
+        writeVersion(VERSION);
+    }
+
+    /**
+     * Сжимает индекс, если в нём много заменённых записей, записывает таблицу смещений за последней записью
+     * и закрывает файл индекса. Индекс, открытый только для чтения, просто закрывается.
+     *
+     * @throws IOException Ошибка записи
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try (channel) {
+            if (readOnly) {
+                return;
+            }
+            if (needsCompaction()) {
+                compact();
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(entries.size() * 160 + 32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(TABLE_MAGIC);
+            out.writeInt(entries.size());
+            for (Entry entry : inFileOrder()) {
+                writeKey(out, entry.key());
+                writeCounts(out, entry.counts());
+                out.writeInt(entry.uniqueWords());
+                out.writeLong(entry.offset());
+                out.writeInt(entry.length());
+            }
+            out.writeLong(end);
+            out.writeInt(TRAILER_MAGIC);
+            write(ByteBuffer.wrap(bytes.toByteArray()), end);
+        }
+    }
+}
@@ -5,12 +5,20 @@ import javax.swing.*;
 /**
  * Класс RunApp содержит точку входа в приложение "Анализ текста".
  * Этот класс инициализирует и отображает окно StartWindow с использованием Swing.
+ * Если переданы аргументы командной строки, программа работает в пакетном режиме без интерфейса
+ * (см. {@link BatchAnalyzer}).
  *
  * @author Klimuk M.N.
  * @version 1.1.2.2024
  */
 public class RunApp {
     public static void main(String[] args) {
+        // Пакетный режим: анализ файлов из командной строки без создания окон
+        if (args.length > 0) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(BatchAnalyzer.run(args));
+        }
+
         // Запуск программы и инициализация стартового окна
         SwingUtilities.invokeLater(() -> {
             StartWindow startWindow = new StartWindow();
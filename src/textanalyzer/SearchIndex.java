@@ -0,0 +1,531 @@
+package textanalyzer;
+
+import javax.swing.text.Document;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Класс SearchIndex — инвертированный индекс текста для полнотекстового поиска. Индекс хранит для каждого
+ * термина (слова в нижнем регистре) номера его вхождений среди всех слов текста, а для каждого вхождения —
+ * позицию в тексте. Все данные лежат в массивах примитивов: словарь терминов — в общем массиве символов
+ * с номерами терминов в алфавитном порядке (слово и начало слова ищутся двоичным поиском), списки вхождений —
+ * в одном массиве, разбитом на отрезки по терминам. Поэтому поиск не копирует текст и занимает миллисекунды
+ * даже на документе в сотни мегабайт.
+ * <p>
+ * Словом считается непрерывная последовательность букв и цифр (те же классы символов, что у анализатора,
+ * см. {@link CharClass}); части слова через дефис или апостроф индексируются как отдельные слова, и запрос
+ * разбивается на слова так же. Поддерживаются запросы:
+ * <ul>
+ *     <li>слово — все вхождения слова без учёта регистра;</li>
+ *     <li>начало слова со звёздочкой ({@code проб*}) — все слова с этим началом;</li>
+ *     <li>несколько слов — фраза: слова идут подряд (последнее слово фразы тоже может заканчиваться звёздочкой).</li>
+ * </ul>
+ * Индекс строится по неизменному тексту; после правки документа его нужно построить заново.
+ * <p>
+ * Индекс файла, открытого в режиме просмотра ({@link MappedTextFile}), строится по строкам просмотра без
+ * загрузки текста в память и дополнительно хранит позицию начала каждой строки, чтобы вхождение можно
+ * было показать по номеру строки и позиции в ней.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class SearchIndex {
+    /**
+     * Признак поиска по началу слова в конце запроса.
+     */
+    public static final char PREFIX_MARK = '*';
+
+    // Вхождения слов в порядке следования в тексте
+    private final int[] tokenStarts; // Позиция первого символа слова
+    private final int[] tokenTerms; // Номер термина
+
+    // Словарь терминов: символы всех терминов подряд, начало каждого термина и номера терминов по алфавиту
+    private final char[] termChars;
+    private final int[] termStarts;
+    private final int[] sortedTerms;
+    private final int[] termRanks; // Алфавитный номер каждого термина
+
+    // Списки вхождений: номера слов термина t лежат в postings[postingStarts[t] .. postingStarts[t + 1])
+    private final int[] postingStarts;
+    private final int[] postings;
+
+    // Позиции начала строк просмотра и конца текста (только для индекса файла, иначе null)
+    private final int[] lineStarts;
+
+    private SearchIndex(Builder builder, int[] lineStarts) {
+        this.lineStarts = lineStarts;
+        int tokens = builder.tokens;
+        int terms = builder.terms;
+        tokenStarts = Arrays.copyOf(builder.tokenStarts, tokens);
+        tokenTerms = Arrays.copyOf(builder.tokenTerms, tokens);
+        termChars = Arrays.copyOf(builder.chars, builder.termStarts[terms]);
+        termStarts = Arrays.copyOf(builder.termStarts, terms + 1);
+
+        // Списки вхождений строятся подсчётом: число вхождений термина, затем раскладка по отрезкам
+        postingStarts = new int[terms + 1];
+        for (int i = 0; i < tokens; i++) {
+            postingStarts[tokenTerms[i] + 1]++;
+        }
+        for (int t = 0; t < terms; t++) {
+            postingStarts[t + 1] += postingStarts[t];
+        }
+        postings = new int[tokens];
+        int[] next = Arrays.copyOf(postingStarts, terms);
+        for (int i = 0; i < tokens; i++) {
+            postings[next[tokenTerms[i]]++] = i; // Номера слов в каждом отрезке идут по возрастанию
+        }
+
+        sortedTerms = new int[terms];
+        Integer[] order = new Integer[terms];
+        for (int t = 0; t < terms; t++) {
+            order[t] = t;
+        }
+        Arrays.sort(order, this::compareTerms);
+        termRanks = new int[terms];
+        for (int t = 0; t < terms; t++) {
+            sortedTerms[t] = order[t];
+            termRanks[order[t]] = t;
+        }
+    }
+
+    /**
+     * Строит индекс документа. Текст читается фрагментами без копирования, а блокировка чтения документа
+     * удерживается только на время одного блока (см. {@link DocumentAnalyzer#readBlocks}), поэтому
+     * ввод текста во время построения не ждёт его окончания.
+     *
+     * @param document Документ
+     * @param cancelled Признак отмены, проверяемый между блоками текста
+     * @return Индекс или null, если построение отменено или документ изменился во время построения
+     */
+    public static SearchIndex build(Document document, BooleanSupplier cancelled) {
+        Builder builder = new Builder();
+        return DocumentAnalyzer.readBlocks(document, cancelled, builder::feed) ? builder.build(null) : null;
+    }
+
+    /**
+     * Строит индекс файла, открытого в режиме просмотра. Строки просмотра декодируются по одной,
+     * поэтому текст файла целиком в памяти не хранится.
+     *
+     * @param text Открытый файл
+     * @param cancelled Признак отмены, проверяемый между строками
+     * @return Индекс или null, если построение отменено
+     * @throws IOException Текст файла длиннее {@link Integer#MAX_VALUE} символов
+     */
+    public static SearchIndex build(MappedTextFile text, BooleanSupplier cancelled) throws IOException {
+        Builder builder = new Builder();
+        int lines = text.lineCount();
+        int[] lineStarts = new int[lines + 1];
+        char[] chars = new char[MappedTextFile.MAX_LINE_BYTES];
+        int position = 0;
+        for (int line = 0; line < lines; line++) {
+            if (cancelled.getAsBoolean()) {
+                return null;
+            }
+            // Строка вместе с переводом строки: слова соседних строк не склеиваются, а перенос
+            // длинной строки без перевода строки не разрывает слово
+            String raw = text.rawLine(line);
+            if (raw.length() > Integer.MAX_VALUE - position) {
+                throw new IOException("Файл слишком велик для поиска");
+            }
+            if (raw.length() > chars.length) {
+                chars = new char[raw.length()];
+            }
+            raw.getChars(0, raw.length(), chars, 0);
+            lineStarts[line] = position;
+            builder.feed(chars, 0, raw.length(), position);
+            position += raw.length();
+        }
+        lineStarts[lines] = position;
+        return builder.build(lineStarts);
+    }
+
+    /**
+     * Строит индекс текста.
+     *
+     * @param text Текст
+     * @return Индекс
+     */
+    public static SearchIndex build(CharSequence text) {
+        Builder builder = new Builder();
+        char[] chars = text.toString().toCharArray();
+        builder.feed(chars, 0, chars.length, 0);
+        return builder.build(null);
+    }
+
+    /**
+     * Возвращает количество слов в тексте.
+     *
+     * @return Количество проиндексированных вхождений
+     */
+    public int tokenCount() {
+        return tokenStarts.length;
+    }
+
+    /**
+     * Возвращает количество различных слов в тексте.
+     *
+     * @return Количество терминов
+     */
+    public int termCount() {
+        return sortedTerms.length;
+    }
+
+    /**
+     * Оценивает объём памяти, занимаемый индексом.
+     *
+     * @return Оценочный объём в байтах
+     */
+    public long estimatedBytes() {
+        return 4L * (tokenStarts.length + tokenTerms.length + postings.length + postingStarts.length
+                + termStarts.length + sortedTerms.length + termRanks.length
+                + (lineStarts == null ? 0 : lineStarts.length)) + 2L * termChars.length;
+    }
+
+    /**
+     * Находит строку просмотра, в которой лежит позиция текста (только для индекса файла).
+     *
+     * @param position Позиция в тексте
+     * @return Номер строки, начиная с 0
+     */
+    public int lineOf(int position) {
+        // Строки хранятся вместе с переводом строки, поэтому их начала возрастают строго
+        int line = Arrays.binarySearch(lineStarts, 0, lineStarts.length - 1, position);
+        return line >= 0 ? line : -line - 2;
+    }
+
+    /**
+     * Возвращает позицию начала строки просмотра в тексте (только для индекса файла).
+     *
+     * @param line Номер строки; номер после последней строки даёт длину текста
+     * @return Позиция первого символа строки
+     */
+    public int lineStart(int line) {
+        return lineStarts[line];
+    }
+
+    /**
+     * Ищет вхождения запроса.
+     *
+     * @param query Слово, начало слова со звёздочкой или фраза
+     * @return Найденные вхождения (пустые, если запрос не содержит слов)
+     */
+    public Matches find(String query) {
+        char[] chars = query.toCharArray();
+        Builder parsed = new Builder();
+        parsed.feed(chars, 0, chars.length, 0);
+        parsed.finish();
+        int words = parsed.tokens;
+        if (words == 0) {
+            return new Matches(new int[0], 0);
+        }
+        // Звёздочка сразу после последнего слова означает поиск по началу слова
+        int lastEnd = parsed.tokenStarts[words - 1] + parsed.termLength(parsed.tokenTerms[words - 1]);
+        boolean prefix = lastEnd < chars.length && chars[lastEnd] == PREFIX_MARK;
+
+        // Каждое слово запроса — отрезок терминов в алфавитном порядке: один термин или все термины с началом
+        int[] firstRanks = new int[words];
+        int[] lastRanks = new int[words];
+        for (int w = 0; w < words; w++) {
+            int term = parsed.tokenTerms[w];
+            int from = parsed.termStarts[term];
+            int length = parsed.termLength(term);
+            firstRanks[w] = firstWithPrefix(parsed.chars, from, length);
+            if (prefix && w == words - 1) {
+                lastRanks[w] = firstRanks[w];
+                while (lastRanks[w] < sortedTerms.length
+                        && comparePrefix(sortedTerms[lastRanks[w]], parsed.chars, from, length) == 0) {
+                    lastRanks[w]++;
+                }
+            } else {
+                boolean found = firstRanks[w] < sortedTerms.length
+                        && Arrays.compare(termChars, termStarts[sortedTerms[firstRanks[w]]],
+                        termStarts[sortedTerms[firstRanks[w]] + 1], parsed.chars, from, from + length) == 0;
+                lastRanks[w] = found ? firstRanks[w] + 1 : firstRanks[w];
+            }
+            if (lastRanks[w] == firstRanks[w]) {
+                return new Matches(new int[0], words); // Слова нет в тексте
+            }
+        }
+        if (words == 1) {
+            return new Matches(positions(firstRanks[0], lastRanks[0]), 1);
+        }
+
+        // Фраза: перебираются вхождения самого редкого точного слова, остальные слова проверяются по соседним
+        // вхождениям, поэтому время поиска не зависит от того, насколько часты другие слова фразы
+        int driver = -1;
+        for (int w = 0; w < words; w++) {
+            if (lastRanks[w] - firstRanks[w] == 1 && (driver < 0 || frequency(w, firstRanks) < frequency(driver,
+                    firstRanks))) {
+                driver = w;
+            }
+        }
+        int term = sortedTerms[firstRanks[driver]];
+        int[] result = new int[postingStarts[term + 1] - postingStarts[term]];
+        int count = 0;
+        for (int i = postingStarts[term]; i < postingStarts[term + 1]; i++) {
+            int start = postings[i] - driver;
+            if (start < 0 || start + words > tokenTerms.length) {
+                continue;
+            }
+            boolean matches = true;
+            for (int w = 0; w < words && matches; w++) {
+                int rank = termRanks[tokenTerms[start + w]];
+                matches = rank >= firstRanks[w] && rank < lastRanks[w];
+            }
+            if (matches) {
+                result[count++] = start;
+            }
+        }
+        return new Matches(Arrays.copyOf(result, count), words);
+    }
+
+    private int frequency(int word, int[] firstRanks) {
+        int term = sortedTerms[firstRanks[word]];
+        return postingStarts[term + 1] - postingStarts[term];
+    }
+
+    /**
+     * Возвращает номера вхождений терминов с алфавитными номерами [first, last) в порядке следования в тексте.
+     */
+    private int[] positions(int first, int last) {
+        int total = 0;
+        for (int i = first; i < last; i++) {
+            int term = sortedTerms[i];
+            total += postingStarts[term + 1] - postingStarts[term];
+        }
+        int[] positions = new int[total];
+        int filled = 0;
+        for (int i = first; i < last; i++) {
+            int term = sortedTerms[i];
+            int size = postingStarts[term + 1] - postingStarts[term];
+            System.arraycopy(postings, postingStarts[term], positions, filled, size);
+            filled += size;
+        }
+        if (last - first > 1) {
+            Arrays.sort(positions); // Объединение отрезков нескольких терминов
+        }
+        return positions;
+    }
+
+    /**
+     * Находит алфавитный номер первого термина, который не меньше заданного начала слова.
+     */
+    private int firstWithPrefix(char[] prefix, int offset, int length) {
+        int low = 0;
+        int high = sortedTerms.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparePrefix(sortedTerms[middle], prefix, offset, length) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Сравнивает начало термина с началом слова: 0, если термин начинается с него.
+     */
+    private int comparePrefix(int term, char[] prefix, int offset, int length) {
+        int start = termStarts[term];
+        return Arrays.compare(termChars, start, start + Math.min(termLength(term), length),
+                prefix, offset, offset + length);
+    }
+
+    private int compareTerms(int a, int b) {
+        return Arrays.compare(termChars, termStarts[a], termStarts[a + 1], termChars, termStarts[b],
+                termStarts[b + 1]);
+    }
+
+    private int termLength(int term) {
+        return termStarts[term + 1] - termStarts[term];
+    }
+
+    /**
+     * Вхождения запроса, упорядоченные по позиции в тексте.
+     */
+    public final class Matches {
+        private final int[] tokens; // Номер первого слова каждого вхождения
+        private final int words; // Количество слов во вхождении
+
+        private Matches(int[] tokens, int words) {
+            this.tokens = tokens;
+            this.words = words;
+        }
+
+        /**
+         * Возвращает количество вхождений.
+         *
+         * @return Количество вхождений
+         */
+        public int count() {
+            return tokens.length;
+        }
+
+        /**
+         * Возвращает позицию начала вхождения в тексте.
+         *
+         * @param index Номер вхождения
+         * @return Позиция первого символа
+         */
+        public int start(int index) {
+            return tokenStarts[tokens[index]];
+        }
+
+        /**
+         * Возвращает позицию конца вхождения в тексте.
+         *
+         * @param index Номер вхождения
+         * @return Позиция после последнего символа
+         */
+        public int end(int index) {
+            int last = tokens[index] + words - 1;
+            return tokenStarts[last] + termLength(tokenTerms[last]);
+        }
+
+        /**
+         * Находит первое вхождение, которое начинается не раньше заданной позиции.
+         *
+         * @param offset Позиция в тексте
+         * @return Номер вхождения или {@link #count()}, если таких вхождений нет
+         */
+        public int firstAtOrAfter(int offset) {
+            int low = 0;
+            int high = tokens.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (start(middle) < offset) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Построитель индекса: разбивает текст на слова и заполняет словарь терминов.
+     * Слово, разрезанное границей фрагментов, собирается из частей.
+     */
+    private static final class Builder {
+        private int[] tokenStarts = new int[1024];
+        private int[] tokenTerms = new int[1024];
+        private int tokens;
+
+        private char[] chars = new char[4096];
+        private int[] termStarts = new int[1025];
+        private long[] termHashes = new long[1024];
+        private int terms;
+        private int[] slots = new int[2048]; // Номер термина + 1, 0 — пустая ячейка
+
+        private char[] word = new char[64]; // Текущее слово в нижнем регистре
+        private int wordLength;
+        private int wordStart;
+
+        /**
+         * Обрабатывает фрагмент текста.
+         *
+         * @param text Массив символов
+         * @param offset Смещение фрагмента в массиве
+         * @param length Длина фрагмента
+         * @param position Позиция фрагмента в тексте
+         */
+        void feed(char[] text, int offset, int length, int position) {
+            for (int i = 0; i < length; i++) {
+                char c = text[offset + i];
+                if (CharClass.isWord(CharClass.of(c))) {
+                    if (wordLength == 0) {
+                        wordStart = position + i;
+                    }
+                    if (wordLength == word.length) {
+                        word = Arrays.copyOf(word, wordLength * 2);
+                    }
+                    word[wordLength++] = CharClass.toLowerCase(c);
+                } else if (wordLength > 0) {
+                    endWord();
+                }
+            }
+        }
+
+        private void endWord() {
+            if (tokens == tokenStarts.length) {
+                tokenStarts = Arrays.copyOf(tokenStarts, tokens * 2);
+                tokenTerms = Arrays.copyOf(tokenTerms, tokens * 2);
+            }
+            tokenStarts[tokens] = wordStart;
+            tokenTerms[tokens++] = term(word, wordLength);
+            wordLength = 0;
+        }
+
+        /**
+         * Возвращает номер термина, добавляя его в словарь при первом появлении.
+         */
+        private int term(char[] text, int length) {
+            long hash = 0;
+            for (int i = 0; i < length; i++) {
+                hash = hash * AnalysisResult.HASH_MULTIPLIER + text[i];
+            }
+            hash ^= hash >>> 29;
+            int mask = slots.length - 1;
+            int slot = (int) hash & mask;
+            while (slots[slot] != 0) {
+                int term = slots[slot] - 1;
+                int start = termStarts[term];
+                if (termHashes[term] == hash && termLength(term) == length
+                        && Arrays.equals(chars, start, start + length, text, 0, length)) {
+                    return term;
+                }
+                slot = (slot + 1) & mask; // Линейное пробирование
+            }
+            if (terms == termHashes.length) {
+                termHashes = Arrays.copyOf(termHashes, terms * 2);
+                termStarts = Arrays.copyOf(termStarts, terms * 2 + 1);
+            }
+            int start = termStarts[terms];
+            if (start + length > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, start + length));
+            }
+            System.arraycopy(text, 0, chars, start, length);
+            termHashes[terms] = hash;
+            termStarts[terms + 1] = start + length;
+            slots[slot] = ++terms;
+            if (terms * 2 > slots.length) {
+                rehash();
+            }
+            return terms - 1;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int term = 0; term < terms; term++) {
+                int slot = (int) termHashes[term] & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = term + 1;
+            }
+        }
+
+        private int termLength(int term) {
+            return termStarts[term + 1] - termStarts[term];
+        }
+
+        /**
+         * Завершает последнее слово, если текст закончился словом.
+         */
+        void finish() {
+            if (wordLength > 0) {
+                endWord();
+            }
+        }
+
+        SearchIndex build(int[] lineStarts) {
+            finish();
+            return new SearchIndex(this, lineStarts);
+        }
+    }
+}
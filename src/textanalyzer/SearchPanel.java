@@ -0,0 +1,360 @@
+package textanalyzer;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultHighlighter;
+import javax.swing.text.Document;
+import javax.swing.text.Highlighter;
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Панель SearchPanel выполняет полнотекстовый поиск по тексту текстового поля главного окна.
+ * Поиск идёт по инвертированному индексу ({@link SearchIndex}), который строится в фоновом потоке
+ * после загрузки файла или анализа текста, а после правки текста — при следующем поиске.
+ * В режиме просмотра большого файла ({@link #setViewer}) индекс строится по файлу при первом поиске,
+ * а вхождения подсвечиваются в просмотре.
+ * <p>
+ * Подсвечиваются только вхождения, попадающие в видимую часть текста: при прокрутке подсветка
+ * пересчитывается, поэтому число выделений не зависит от числа найденных вхождений.
+ * Кнопки "&lt;" и "&gt;" переходят к предыдущему и следующему вхождению относительно курсора.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public class SearchPanel extends JPanel {
+    static final Color MATCH_COLOR = new Color(255, 235, 120);
+    static final Color CURRENT_COLOR = new Color(255, 170, 60);
+
+    private final JTextArea textArea;
+    private final JTextField queryField = new JTextField(25);
+    private final JButton jbtPrevious = new JButton("<");
+    private final JButton jbtNext = new JButton(">");
+    private final JButton jbtFind = new JButton("Найти");
+    private final JLabel statusLabel = new JLabel(" ");
+    private final Highlighter.HighlightPainter matchPainter =
+            new DefaultHighlighter.DefaultHighlightPainter(MATCH_COLOR);
+    private final Highlighter.HighlightPainter currentPainter =
+            new DefaultHighlighter.DefaultHighlightPainter(CURRENT_COLOR);
+    private final List<Object> highlights = new ArrayList<>(); // Подсветка, добавленная панелью
+
+    private Document document; // Документ, за правками которого следит панель
+    private LargeFileViewer viewer; // Просмотр файла, по которому идёт поиск (null — поиск по текстовому полю)
+    private SearchIndex index; // Индекс текущего текста (null, если не построен или устарел)
+    private SwingWorker<SearchIndex, Void> indexer; // Выполняющееся построение индекса
+    private boolean searchWhenIndexed; // Выполнить поиск, как только индекс будет построен
+    private SearchIndex.Matches matches; // Результат последнего поиска (null, если поиска не было)
+    private int current = -1; // Номер выбранного вхождения
+
+    // Правка текста делает индекс и найденные позиции недействительными
+    private final DocumentListener invalidator = new DocumentListener() {
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            resetIndex();
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            resetIndex();
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            // Изменение атрибутов не меняет текст
+        }
+    };
+
+    /**
+     * Конструктор панели поиска.
+     *
+     * @param textArea Текстовое поле, в котором выполняется поиск
+     * @param scrollPane Область прокрутки текстового поля
+     */
+    public SearchPanel(JTextArea textArea, JScrollPane scrollPane) {
+        super(new BorderLayout(5, 0));
+        this.textArea = textArea;
+        setBorder(BorderFactory.createEmptyBorder(0, 0, 5, 0));
+
+        queryField.setToolTipText("<html>Слово, начало слова со звёздочкой (проб*) или фраза из нескольких слов."
+                + "<br>Enter — следующее вхождение</html>");
+        queryField.addActionListener(_ -> {
+            if (matches == null) {
+                search();
+            } else {
+                select(true);
+            }
+        });
+        queryField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                clearMatches();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                clearMatches();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+        jbtPrevious.setToolTipText("Предыдущее вхождение");
+        jbtPrevious.addActionListener(_ -> select(false));
+        jbtNext.setToolTipText("Следующее вхождение");
+        jbtNext.addActionListener(_ -> select(true));
+        jbtFind.addActionListener(_ -> search());
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        buttons.add(jbtFind);
+        buttons.add(jbtPrevious);
+        buttons.add(jbtNext);
+        buttons.add(statusLabel);
+
+        add(new JLabel("Поиск:"), BorderLayout.WEST);
+        add(queryField, BorderLayout.CENTER);
+        add(buttons, BorderLayout.EAST);
+
+        // Подсветка пересчитывается при прокрутке и изменении размеров видимой области
+        scrollPane.getViewport().addChangeListener(_ -> {
+            if (viewer == null) {
+                highlightVisible(); // Просмотр файла подсвечивает видимые вхождения сам
+            }
+        });
+        textArea.addPropertyChangeListener("document", _ -> attach(textArea.getDocument()));
+        attach(textArea.getDocument());
+        updateButtons();
+    }
+
+    /**
+     * Переводит фокус в поле запроса.
+     */
+    public void focusQuery() {
+        queryField.requestFocusInWindow();
+        queryField.selectAll();
+    }
+
+    /**
+     * Переключает поиск на файл в режиме просмотра или обратно на текст текстового поля.
+     *
+     * @param newViewer Просмотр файла или null, если поиск выполняется по тексту текстового поля
+     */
+    public void setViewer(LargeFileViewer newViewer) {
+        resetIndex(); // Снимает подсветку в прежнем просмотре
+        viewer = newViewer;
+    }
+
+    /**
+     * Строит индекс текста в фоновом потоке, если он ещё не построен или устарел.
+     */
+    public void ensureIndex() {
+        if (index != null || indexer != null || !isEnabled()) {
+            return;
+        }
+        Document indexed = document;
+        LargeFileViewer viewed = viewer;
+        statusLabel.setText("Построение индекса...");
+        SwingWorker<SearchIndex, Void> worker = new SwingWorker<>() {
+            @Override
+            protected SearchIndex doInBackground() throws IOException {
+                return viewed != null ? SearchIndex.build(viewed.getText(), this::isCancelled)
+                        : SearchIndex.build(indexed, this::isCancelled);
+            }
+
+            @Override
+            protected void done() {
+                finishIndexing(this, indexed, viewed);
+            }
+        };
+        indexer = worker;
+        InactivityTimer.track(worker);
+        worker.execute();
+    }
+
+    /**
+     * Устанавливает построенный индекс, если за время построения текст не изменился.
+     */
+    private void finishIndexing(SwingWorker<SearchIndex, Void> worker, Document indexed, LargeFileViewer viewed) {
+        if (worker != indexer) {
+            return; // Построение было отменено правкой или заменой текста
+        }
+        indexer = null;
+        try {
+            index = worker.get();
+        } catch (InterruptedException | ExecutionException e) {
+            statusLabel.setText(e.getCause() instanceof IOException ? e.getCause().getMessage()
+                    : "Ошибка построения индекса");
+            return;
+        }
+        if (indexed != document || viewed != viewer || index == null) {
+            index = null;
+            return;
+        }
+        statusLabel.setText(String.format("Слов в индексе: %,d", index.tokenCount()));
+        if (searchWhenIndexed) {
+            searchWhenIndexed = false;
+            search();
+        }
+    }
+
+    /**
+     * Ищет запрос в тексте и подсвечивает вхождения в видимой части текста.
+     */
+    private void search() {
+        String query = queryField.getText();
+        if (query.isBlank() || !isEnabled()) {
+            return;
+        }
+        if (index == null) {
+            searchWhenIndexed = true; // Поиск продолжится после построения индекса
+            ensureIndex();
+            return;
+        }
+        matches = index.find(query);
+        current = -1;
+        statusLabel.setText(matches.count() == 0 ? "Не найдено" : String.format("Найдено: %,d", matches.count()));
+        updateButtons();
+        if (matches.count() > 0) {
+            select(true);
+        } else {
+            highlightVisible();
+        }
+    }
+
+    /**
+     * Выбирает следующее или предыдущее вхождение относительно курсора и прокручивает текст к нему.
+     *
+     * @param forward true — следующее вхождение, false — предыдущее
+     */
+    private void select(boolean forward) {
+        if (matches == null || matches.count() == 0) {
+            return;
+        }
+        int count = matches.count();
+        int caret;
+        if (viewer != null) {
+            // В просмотре нет курсора: переход идёт от выбранного вхождения или от верха видимой области
+            caret = current >= 0 ? matches.start(current) : index.lineStart(viewer.firstVisibleLine());
+        } else {
+            caret = textArea.getCaretPosition();
+        }
+        if (forward) {
+            int next = matches.firstAtOrAfter(current >= 0 ? caret + 1 : caret);
+            current = next < count ? next : 0; // После последнего вхождения — снова с начала
+        } else {
+            int previous = matches.firstAtOrAfter(caret) - 1;
+            current = previous >= 0 ? previous : count - 1;
+        }
+        int start = matches.start(current);
+        if (viewer != null) {
+            int line = index.lineOf(start);
+            viewer.scrollToPosition(line, start - index.lineStart(line));
+        } else {
+            textArea.setCaretPosition(start);
+            try {
+                Rectangle2D view = textArea.modelToView2D(start);
+                if (view != null) {
+                    textArea.scrollRectToVisible(view.getBounds());
+                }
+            } catch (BadLocationException e) {
+                // Позиция вхождения лежит внутри документа, для которого построен индекс
+            }
+        }
+        statusLabel.setText(String.format("%,d из %,d", current + 1, count));
+        highlightVisible();
+    }
+
+    /**
+     * Подсвечивает вхождения, попадающие в видимую часть текстового поля или просмотра файла.
+     */
+    private void highlightVisible() {
+        Highlighter highlighter = textArea.getHighlighter();
+        for (Object highlight : highlights) {
+            highlighter.removeHighlight(highlight);
+        }
+        highlights.clear();
+        if (viewer != null) {
+            viewer.setMatches(index, matches, current);
+            return;
+        }
+        if (matches == null || matches.count() == 0 || textArea.getParent() == null) {
+            return;
+        }
+        Rectangle visible = textArea.getVisibleRect();
+        int from = textArea.viewToModel2D(new Point(visible.x, visible.y));
+        int to = textArea.viewToModel2D(new Point(visible.x + visible.width, visible.y + visible.height));
+        int first = matches.firstAtOrAfter(from);
+        if (first > 0 && matches.end(first - 1) > from) {
+            first--; // Фраза начинается выше видимой области
+        }
+        try {
+            for (int i = first; i < matches.count() && matches.start(i) <= to; i++) {
+                highlights.add(highlighter.addHighlight(matches.start(i), matches.end(i),
+                        i == current ? currentPainter : matchPainter));
+            }
+        } catch (BadLocationException e) {
+            // Позиции вхождений лежат внутри документа, для которого построен индекс
+        }
+    }
+
+    /**
+     * Начинает следить за правками нового документа текстового поля.
+     */
+    private void attach(Document newDocument) {
+        if (document != null) {
+            document.removeDocumentListener(invalidator);
+        }
+        document = newDocument;
+        document.addDocumentListener(invalidator);
+        resetIndex();
+    }
+
+    /**
+     * Сбрасывает индекс и результаты поиска после изменения текста.
+     */
+    private void resetIndex() {
+        if (indexer != null) {
+            indexer.cancel(false);
+            indexer = null;
+        }
+        index = null;
+        searchWhenIndexed = false;
+        clearMatches();
+        statusLabel.setText(" ");
+    }
+
+    private void clearMatches() {
+        matches = null;
+        current = -1;
+        highlightVisible();
+        updateButtons();
+    }
+
+    private void updateButtons() {
+        boolean found = matches != null && matches.count() > 0;
+        jbtPrevious.setEnabled(found && isEnabled());
+        jbtNext.setEnabled(found && isEnabled());
+    }
+
+    /**
+     * Разрешает или запрещает поиск.
+     *
+     * @param enabled true, если поиск разрешён
+     */
+    @Override
+    public void setEnabled(boolean enabled) {
+        super.setEnabled(enabled);
+        queryField.setEnabled(enabled);
+        jbtFind.setEnabled(enabled);
+        if (!enabled) {
+            resetIndex();
+        }
+        updateButtons();
+    }
+}
@@ -0,0 +1,249 @@
+package textanalyzer;
+
+import javax.swing.text.Document;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Класс SentenceTable хранит границы, количество слов и тип каждого предложения текста в том виде,
+ * в котором их насчитал анализатор (см. {@link TextAnalysisEngine.Scanner}). По таблице можно проверить,
+ * какие предложения отнесены к повествовательным, вопросительным и восклицательным.
+ * <p>
+ * Данные лежат в массивах примитивов (начало, конец и количество слов — {@code int}, тип — {@code byte}),
+ * то есть 13 байт на предложение без единой строки, поэтому таблица документа с миллионами предложений
+ * занимает десятки мегабайт. Текст предложения берётся из документа только при отображении.
+ * Начало предложения — первый символ его первого слова, конец — позиция после последнего знака конца
+ * предложения. Незаконченное предложение в конце текста (без знаков конца) в таблицу не входит,
+ * как не входит оно и в количество предложений.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class SentenceTable {
+    /**
+     * Повествовательное предложение.
+     */
+    public static final byte DECLARATIVE = 0;
+
+    /**
+     * Вопросительное предложение.
+     */
+    public static final byte QUESTION = 1;
+
+    /**
+     * Восклицательное предложение.
+     */
+    public static final byte EXCLAMATORY = 2;
+
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] words;
+    private final byte[] types;
+
+    private SentenceTable(Builder builder) {
+        starts = Arrays.copyOf(builder.starts, builder.size);
+        ends = Arrays.copyOf(builder.ends, builder.size);
+        words = Arrays.copyOf(builder.words, builder.size);
+        types = Arrays.copyOf(builder.types, builder.size);
+    }
+
+    /**
+     * Строит таблицу предложений документа. Блокировка чтения документа удерживается только на время
+     * одного блока текста (см. {@link DocumentAnalyzer#readBlocks}), поэтому ввод текста во время
+     * построения не ждёт его окончания.
+     *
+     * @param document Документ
+     * @param rules Правила языка
+     * @param cancelled Признак отмены построения
+     * @return Таблица предложений или null, если построение отменено или документ изменился во время построения
+     */
+    public static SentenceTable build(Document document, TokenizerRules rules, BooleanSupplier cancelled) {
+        Builder builder = new Builder();
+        TextAnalysisEngine.Scanner scanner = new TextAnalysisEngine.Scanner(rules, null, null, builder);
+        boolean complete = DocumentAnalyzer.readBlocks(document, cancelled,
+                (chars, offset, length, _) -> scanner.feed(chars, offset, length));
+        return complete ? scanner.sentences().build() : null;
+    }
+
+    /**
+     * Строит таблицу предложений текста.
+     *
+     * @param text Текст
+     * @param rules Правила языка
+     * @return Таблица предложений
+     */
+    public static SentenceTable build(CharSequence text, TokenizerRules rules) {
+        Builder builder = new Builder();
+        TextAnalysisEngine.Scanner scanner = new TextAnalysisEngine.Scanner(rules, null, null, builder);
+        scanner.feed(text, 0, text.length());
+        return scanner.sentences().build();
+    }
+
+    /**
+     * Возвращает количество предложений.
+     *
+     * @return Количество предложений
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * Возвращает позицию первого символа предложения.
+     *
+     * @param sentence Номер предложения
+     * @return Позиция в тексте
+     */
+    public int start(int sentence) {
+        return starts[sentence];
+    }
+
+    /**
+     * Возвращает позицию после последнего символа предложения.
+     *
+     * @param sentence Номер предложения
+     * @return Позиция в тексте
+     */
+    public int end(int sentence) {
+        return ends[sentence];
+    }
+
+    /**
+     * Возвращает количество слов в предложении.
+     *
+     * @param sentence Номер предложения
+     * @return Количество слов
+     */
+    public int words(int sentence) {
+        return words[sentence];
+    }
+
+    /**
+     * Возвращает тип предложения.
+     *
+     * @param sentence Номер предложения
+     * @return {@link #DECLARATIVE}, {@link #QUESTION} или {@link #EXCLAMATORY}
+     */
+    public byte type(int sentence) {
+        return types[sentence];
+    }
+
+    /**
+     * Подсчитывает предложения заданного типа.
+     *
+     * @param type Тип предложения
+     * @return Количество предложений
+     */
+    public int count(byte type) {
+        int count = 0;
+        for (byte t : types) {
+            if (t == type) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Возвращает номера предложений заданного типа.
+     *
+     * @param type Тип предложения
+     * @return Номера предложений по возрастанию
+     */
+    public int[] sentencesOf(byte type) {
+        int[] sentences = new int[count(type)];
+        int count = 0;
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == type) {
+                sentences[count++] = i;
+            }
+        }
+        return sentences;
+    }
+
+    /**
+     * Находит предложение, которое содержит позицию текста, или первое предложение после неё.
+     *
+     * @param offset Позиция в тексте
+     * @return Номер предложения ({@link #size()}, если после позиции предложений нет)
+     */
+    public int sentenceAt(int offset) {
+        int low = 0;
+        int high = ends.length;
+        while (low < high) { // Первое предложение, которое заканчивается после позиции
+            int middle = (low + high) >>> 1;
+            if (ends[middle] <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Возвращает название типа предложения.
+     *
+     * @param type Тип предложения
+     * @return Название типа
+     */
+    public static String typeName(byte type) {
+        return switch (type) {
+            case QUESTION -> "Вопросительное";
+            case EXCLAMATORY -> "Восклицательное";
+            default -> "Повествовательное";
+        };
+    }
+
+    /**
+     * Оценивает объём памяти, занимаемый таблицей.
+     *
+     * @return Оценочный объём в байтах
+     */
+    public long estimatedBytes() {
+        return 13L * starts.length;
+    }
+
+    /**
+     * Построитель таблицы: анализатор добавляет предложения по порядку, массивы растут по мере заполнения.
+     */
+    public static final class Builder {
+        private int[] starts = new int[1024];
+        private int[] ends = new int[1024];
+        private int[] words = new int[1024];
+        private byte[] types = new byte[1024];
+        private int size;
+
+        /**
+         * Добавляет предложение.
+         *
+         * @param start Позиция первого символа
+         * @param end Позиция после последнего символа
+         * @param wordCount Количество слов
+         * @param type Тип предложения
+         */
+        void add(long start, long end, long wordCount, byte type) {
+            if (size == starts.length) {
+                int capacity = size + (size >> 1);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                words = Arrays.copyOf(words, capacity);
+                types = Arrays.copyOf(types, capacity);
+            }
+            starts[size] = (int) start;
+            ends[size] = (int) end;
+            words[size] = (int) Math.min(wordCount, Integer.MAX_VALUE);
+            types[size] = type;
+            size++;
+        }
+
+        /**
+         * Завершает построение.
+         *
+         * @return Таблица предложений
+         */
+        SentenceTable build() {
+            return new SentenceTable(this);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package textanalyzer;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultHighlighter;
+import javax.swing.text.Document;
+import javax.swing.text.Highlighter;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Класс SentenceWindow показывает таблицу предложений текста главного окна: позицию, длину,
+ * количество слов и тип каждого предложения (см. {@link SentenceTable}). Таблица строится в фоновом потоке
+ * при открытии окна и по кнопке "Обновить"; правка текста делает её устаревшей.
+ * <p>
+ * Модель таблицы виртуальная: строки не создаются заранее, а значения ячеек вычисляются из массивов
+ * таблицы предложений, когда таблица их отрисовывает. Текст предложения читается из документа только для
+ * видимых строк и обрезается до {@value #PREVIEW_LENGTH} символов, поэтому окно одинаково быстро работает
+ * и с десятком, и с миллионами предложений. Сортировка не поддерживается: она потребовала бы значений всех
+ * строк. Вместо неё предложения можно отобрать по типу.
+ * <p>
+ * Выбор строки выделяет предложение в тексте и прокручивает текст к нему.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public class SentenceWindow extends JFrame {
+    private static final int PREVIEW_LENGTH = 200;
+    private static final Color SENTENCE_COLOR = new Color(190, 215, 255);
+    private static final String[] FILTERS = {"Все предложения", "Повествовательные", "Вопросительные",
+            "Восклицательные"};
+
+    private final JTextArea textArea;
+    private final Supplier<TokenizerRules> rules; // Правила языка, выбранные в главном окне
+    private final SentenceTableModel model = new SentenceTableModel();
+    private final JTable table = new JTable(model);
+    private final JComboBox<String> filterBox = new JComboBox<>(FILTERS);
+    private final JLabel statusLabel = new JLabel(" ");
+    private final Highlighter.HighlightPainter sentencePainter =
+            new DefaultHighlighter.DefaultHighlightPainter(SENTENCE_COLOR);
+    private Object highlight; // Выделение выбранного предложения в тексте
+
+    private Document document; // Документ, за правками которого следит окно
+    private SwingWorker<SentenceTable, Void> builder; // Выполняющееся построение таблицы
+
+    // Правка текста делает позиции предложений недействительными
+    private final DocumentListener invalidator = new DocumentListener() {
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            markOutdated();
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            markOutdated();
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            // Изменение атрибутов не меняет текст
+        }
+    };
+
+    /**
+     * Конструктор, инициализирует окно таблицы предложений.
+     *
+     * @param owner Главное окно программы
+     * @param textArea Текстовое поле, предложения которого показываются
+     * @param rules Источник правил языка, по которым текст делится на предложения
+     */
+    public SentenceWindow(JFrame owner, JTextArea textArea, Supplier<TokenizerRules> rules) {
+        this.textArea = textArea;
+        this.rules = rules;
+        UtilsUI.setAppIcon(this);
+        setTitle("Предложения");
+        setSize(1000, 600);
+        setLocationRelativeTo(owner);
+        setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
+
+        table.setFillsViewportHeight(true);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getColumnModel().getColumn(0).setPreferredWidth(70);
+        table.getColumnModel().getColumn(1).setPreferredWidth(80);
+        table.getColumnModel().getColumn(2).setPreferredWidth(60);
+        table.getColumnModel().getColumn(3).setPreferredWidth(50);
+        table.getColumnModel().getColumn(4).setPreferredWidth(130);
+        table.getColumnModel().getColumn(5).setPreferredWidth(600);
+        table.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showSelected();
+            }
+        });
+
+        JButton jbtRefresh = new JButton("Обновить");
+        jbtRefresh.addActionListener(_ -> rebuild());
+        filterBox.addActionListener(_ -> model.setFilter(filterBox.getSelectedIndex()));
+        JButton jbtClose = new JButton("Закрыть");
+        jbtClose.addActionListener(_ -> setVisible(false));
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttonPanel.add(jbtRefresh);
+        buttonPanel.add(filterBox);
+
+        JPanel closePanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        closePanel.add(jbtClose);
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(buttonPanel, BorderLayout.WEST);
+        topPanel.add(closePanel, BorderLayout.EAST);
+
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 10, 10));
+
+        add(topPanel, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+        UtilsUI.disableFocusForAllButtons(this);
+
+        // Выделение предложения в тексте остаётся, только пока окно открыто
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentHidden(ComponentEvent e) {
+                removeHighlight();
+            }
+        });
+        textArea.addPropertyChangeListener("document", _ -> attach(textArea.getDocument()));
+        attach(textArea.getDocument());
+    }
+
+    /**
+     * Показывает окно и строит таблицу предложений, если она ещё не построена или устарела.
+     */
+    public void showSentences() {
+        setVisible(true);
+        toFront();
+        if (model.sentences == null && builder == null) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Строит таблицу предложений текущего текста в фоновом потоке.
+     */
+    private void rebuild() {
+        if (builder != null) {
+            builder.cancel(false);
+        }
+        Document built = document;
+        TokenizerRules language = rules.get();
+        statusLabel.setText("Построение таблицы предложений...");
+        SwingWorker<SentenceTable, Void> worker = new SwingWorker<>() {
+            @Override
+            protected SentenceTable doInBackground() {
+                return SentenceTable.build(built, language, this::isCancelled);
+            }
+
+            @Override
+            protected void done() {
+                finishBuilding(this, built);
+            }
+        };
+        builder = worker;
+        InactivityTimer.track(worker);
+        worker.execute();
+    }
+
+    /**
+     * Показывает построенную таблицу, если за время построения текст не изменился.
+     */
+    private void finishBuilding(SwingWorker<SentenceTable, Void> worker, Document built) {
+        if (worker != builder) {
+            return; // Построение было отменено правкой текста или новым построением
+        }
+        builder = null;
+        SentenceTable sentences;
+        try {
+            sentences = worker.get();
+        } catch (InterruptedException | ExecutionException e) {
+            statusLabel.setText("Ошибка построения таблицы предложений");
+            return;
+        }
+        if (sentences == null || built != document) {
+            return;
+        }
+        model.setSentences(sentences, filterBox.getSelectedIndex());
+        statusLabel.setText(String.format("Предложений: %,d (повествовательных %,d, вопросительных %,d, "
+                        + "восклицательных %,d)", sentences.size(), sentences.count(SentenceTable.DECLARATIVE),
+                sentences.count(SentenceTable.QUESTION), sentences.count(SentenceTable.EXCLAMATORY)));
+
+        // Выбирается предложение, в котором стоит курсор
+        int sentence = sentences.sentenceAt(textArea.getCaretPosition());
+        int row = model.rowOf(sentence);
+        if (row >= 0) {
+            table.getSelectionModel().setSelectionInterval(row, row);
+            table.scrollRectToVisible(table.getCellRect(row, 0, true));
+        }
+    }
+
+    /**
+     * Выделяет выбранное предложение в тексте и прокручивает текст к нему.
+     */
+    private void showSelected() {
+        removeHighlight();
+        int row = table.getSelectedRow();
+        if (row < 0 || model.sentences == null) {
+            return;
+        }
+        int sentence = model.sentenceOf(row);
+        int start = model.sentences.start(sentence);
+        int end = model.sentences.end(sentence);
+        try {
+            highlight = textArea.getHighlighter().addHighlight(start, end, sentencePainter);
+            textArea.setCaretPosition(start);
+            Rectangle2D view = textArea.modelToView2D(start);
+            if (view != null) {
+                textArea.scrollRectToVisible(view.getBounds());
+            }
+        } catch (BadLocationException e) {
+            // Таблица построена по текущему тексту, поэтому позиции лежат внутри документа
+        }
+    }
+
+    private void removeHighlight() {
+        if (highlight != null) {
+            textArea.getHighlighter().removeHighlight(highlight);
+            highlight = null;
+        }
+    }
+
+    /**
+     * Начинает следить за правками нового документа текстового поля.
+     */
+    private void attach(Document newDocument) {
+        if (document != null) {
+            document.removeDocumentListener(invalidator);
+        }
+        document = newDocument;
+        document.addDocumentListener(invalidator);
+        markOutdated();
+    }
+
+    /**
+     * Сбрасывает таблицу после изменения текста: позиции предложений больше не соответствуют тексту.
+     */
+    private void markOutdated() {
+        if (builder != null) {
+            builder.cancel(false);
+            builder = null;
+        }
+        removeHighlight();
+        if (model.sentences != null || isVisible()) {
+            model.setSentences(null, filterBox.getSelectedIndex());
+            statusLabel.setText("Текст изменён. Нажмите \"Обновить\", чтобы построить таблицу заново");
+        }
+    }
+
+    /**
+     * Виртуальная модель таблицы предложений: значения ячеек вычисляются при отрисовке строки.
+     * Если выбран тип предложений, строки таблицы соответствуют номерам предложений из массива {@code rows}.
+     */
+    private final class SentenceTableModel extends AbstractTableModel {
+        private final String[] columnNames = {"№", "Начало", "Длина", "Слов", "Тип", "Текст"};
+        private SentenceTable sentences; // Таблица предложений (null, если не построена или устарела)
+        private int[] rows; // Номера отобранных предложений (null, если показываются все)
+
+        void setSentences(SentenceTable sentences, int filter) {
+            this.sentences = sentences;
+            applyFilter(filter);
+        }
+
+        void setFilter(int filter) {
+            applyFilter(filter);
+        }
+
+        private void applyFilter(int filter) {
+            // Пункты списка после "Все предложения" идут в порядке типов предложений
+            rows = sentences == null || filter == 0 ? null : sentences.sentencesOf((byte) (filter - 1));
+            fireTableDataChanged();
+        }
+
+        int sentenceOf(int row) {
+            return rows == null ? row : rows[row];
+        }
+
+        /**
+         * Находит строку предложения.
+         *
+         * @return Номер строки или -1, если предложение не отобрано или его нет
+         */
+        int rowOf(int sentence) {
+            if (sentences == null || sentence >= sentences.size()) {
+                return -1;
+            }
+            if (rows == null) {
+                return sentence;
+            }
+            int row = Arrays.binarySearch(rows, sentence);
+            return row >= 0 ? row : -1;
+        }
+
+        @Override
+        public int getRowCount() {
+            return sentences == null ? 0 : rows == null ? sentences.size() : rows.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column <= 3 ? Integer.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            int sentence = sentenceOf(row);
+            return switch (column) {
+                case 0 -> sentence + 1;
+                case 1 -> sentences.start(sentence);
+                case 2 -> sentences.end(sentence) - sentences.start(sentence);
+                case 3 -> sentences.words(sentence);
+                case 4 -> SentenceTable.typeName(sentences.type(sentence));
+                default -> preview(sentence);
+            };
+        }
+
+        /**
+         * Читает из документа начало текста предложения для отображения в одной строке.
+         */
+        private String preview(int sentence) {
+            int start = sentences.start(sentence);
+            int length = sentences.end(sentence) - start;
+            try {
+                String text = document.getText(start, Math.min(length, PREVIEW_LENGTH));
+                text = text.replace('\n', ' ').replace('\r', ' ').replace('\t', ' ');
+                return length > PREVIEW_LENGTH ? text + "…" : text;
+            } catch (BadLocationException e) {
+                return ""; // Текст изменился, а таблица ещё не сброшена
+            }
+        }
+    }
+}
@@ -2,7 +2,6 @@ package textanalyzer;
 
 import javax.swing.*;
 import java.awt.*;
-import java.net.URL;
 
 /**
  * Класс StartWindow - стартовое окно приложения с основными кнопками для перехода в другие части программы.
@@ -12,7 +11,7 @@ import java.net.URL;
  * @version 1.1.2.2024
  */
 public class StartWindow extends JFrame {
-    private InactivityTimer inactivityTimer;
+    private MainWindow mainWindow; // Основное окно (создаётся при первом открытии)
 
     /**
      * Конструктор окна, инициализирует интерфейс и таймер бездействия.
@@ -36,14 +35,24 @@ public class StartWindow extends JFrame {
 
         add(mainPanel);
         UtilsUI.disableFocusForAllButtons(this);
+        prefetchImages();
     }
 
     /**
-     * Инициализирует таймер бездействия, который отслеживает, если пользователь не взаимодействует с приложением.
+     * Запускает общий таймер бездействия приложения, который отслеживает, если пользователь
+     * не взаимодействует ни с одним окном программы.
      */
     private void initializeTimer() {
-        inactivityTimer = new InactivityTimer(this, 60 * 1000); // 1 минута бездействия
-        inactivityTimer.startTimer(); // Запуск таймера
+        InactivityTimer.startGlobal(60 * 1000); // 1 минута бездействия
+    }
+
+    /**
+     * Начинает фоновую загрузку изображений окон "О программе" и "Об авторе",
+     * чтобы они открывались без задержки.
+     */
+    private static void prefetchImages() {
+        ImageCache.prefetch(ImageCache.APP_ICON, AboutProgramWindow.IMAGE_SIZE, AboutProgramWindow.IMAGE_SIZE);
+        ImageCache.prefetch(ImageCache.AUTHOR_PHOTO, AboutAuthorWindow.PHOTO_SIZE, AboutAuthorWindow.PHOTO_SIZE);
     }
 
     /**
@@ -190,28 +199,21 @@ public class StartWindow extends JFrame {
     }
 
     /**
-     * Создает метку с изображением, которое загружается из ресурсов.
+     * Создает метку с изображением, которое загружается из ресурсов в фоновом потоке.
      *
      * @return Метка с изображением.
      */
     private JLabel createImageLabel() {
-        URL resource = getClass().getResource("/resources/icon.png");
-        if (resource != null) {
-            ImageIcon icon = new ImageIcon(resource);
-            Image scaledImage = icon.getImage().getScaledInstance(130, 130, Image.SCALE_SMOOTH);
-            return new JLabel(new ImageIcon(scaledImage), SwingConstants.CENTER);
-        } else {
-            return new JLabel("Изображение не найдено", SwingConstants.CENTER);
-        }
+        return ImageCache.createLabel(ImageCache.APP_ICON, 130, 130, "Изображение не найдено");
     }
 
     /**
      * Открывает основное окно программы.
      */
     private void openMainWindow() {
-        inactivityTimer.stopTimer();
-        inactivityTimer.removeEventListener();
-        MainWindow mainWindow = new MainWindow(this);
+        if (mainWindow == null) {
+            mainWindow = new MainWindow(this); // Окно создаётся при первом открытии и затем переиспользуется
+        }
         mainWindow.setVisible(true);
         setVisible(false);
     }
@@ -220,10 +222,7 @@ public class StartWindow extends JFrame {
      * Открывает окно с информацией о программе.
      */
     private void openAboutProgramWindow() {
-        inactivityTimer.stopTimer();
-        inactivityTimer.removeEventListener();
-        AboutProgramWindow aboutProgramWindow = new AboutProgramWindow(this);
-        aboutProgramWindow.setVisible(true);
+        AboutProgramWindow.open(this);
         setVisible(false);
     }
 
@@ -231,10 +230,7 @@ public class StartWindow extends JFrame {
      * Открывает окно с информацией об авторе программы.
      */
     private void openAboutAuthorWindow() {
-        inactivityTimer.stopTimer();
-        inactivityTimer.removeEventListener();
-        AboutAuthorWindow aboutAuthorWindow = new AboutAuthorWindow(this);
-        aboutAuthorWindow.setVisible(true);
+        AboutAuthorWindow.open(this);
         setVisible(false);
     }
 }
@@ -0,0 +1,652 @@
+package textanalyzer;
+
+/**
+ * Класс TextAnalysisEngine выполняет анализ текста без привязки к интерфейсу пользователя.
+ * Текст просматривается один раз конечным автоматом: подсчитываются предложения, слова
+ * и типы предложений без разбиения на массивы строк и без выделения памяти на каждое слово.
+ * Класс каждого символа берётся из заранее построенной таблицы (см. {@link CharClass}),
+ * а правила, зависящие от языка, — из {@link TokenizerRules}.
+ * За тот же проход вычисляется хеш содержимого и счётчики букв и слогов, из которых получаются
+ * показатели удобочитаемости (см. {@link AnalysisResult}).
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class TextAnalysisEngine {
+    /**
+     * Максимальная длина слова, учитываемого в таблице частот: более длинные последовательности букв
+     * (например, закодированные данные) в таблицу не попадают.
+     */
+    static final int MAX_WORD_LENGTH = 64;
+
+    private TextAnalysisEngine() {
+    }
+
+    /**
+     * Анализирует весь переданный текст.
+     *
+     * @param text Текст для анализа
+     * @return Результаты анализа
+     */
+    public static AnalysisResult analyze(CharSequence text) {
+        return analyze(text, 0, text.length());
+    }
+
+    /**
+     * Анализирует фрагмент текста в диапазоне [from, to).
+     *
+     * @param text Текст для анализа
+     * @param from Начало диапазона (включительно)
+     * @param to Конец диапазона (не включительно)
+     * @return Результаты анализа
+     */
+    public static AnalysisResult analyze(CharSequence text, int from, int to) {
+        Scanner scanner = new Scanner();
+        scanner.feed(text, from, to);
+        return scanner.result();
+    }
+
+    /**
+     * Анализирует весь переданный текст по правилам заданного языка.
+     *
+     * @param text Текст для анализа
+     * @param rules Правила языка
+     * @return Результаты анализа
+     */
+    public static AnalysisResult analyze(CharSequence text, TokenizerRules rules) {
+        Scanner scanner = new Scanner(rules, null);
+        scanner.feed(text, 0, text.length());
+        return scanner.result();
+    }
+
+    /**
+     * Продолжает вычисление хеша содержимого (того же, что вычисляет {@link Scanner}) на следующем фрагменте
+     * текста без подсчёта предложений и слов. Используется для быстрого поиска готового результата в кэше.
+     * Символы обрабатываются по четыре: хеш четвёрки вычисляется независимо от предыдущего значения,
+     * поэтому цепочка зависимых умножений вчетверо короче, чем при посимвольном вычислении.
+     *
+     * @param hash Хеш предшествующего текста (0 для начала текста)
+     * @param chars Массив символов
+     * @param offset Смещение первого символа
+     * @param length Количество символов
+     * @return Хеш текста вместе с фрагментом
+     */
+    static long hash(long hash, char[] chars, int offset, int length) {
+        final long p = AnalysisResult.HASH_MULTIPLIER;
+        final long p2 = p * p;
+        final long p3 = p2 * p;
+        final long p4 = p2 * p2;
+        int i = offset;
+        for (int end = offset + (length & ~3); i < end; i += 4) {
+            hash = hash * p4 + (chars[i] * p3 + chars[i + 1] * p2 + chars[i + 2] * p + chars[i + 3]);
+        }
+        for (int end = offset + length; i < end; i++) {
+            hash = hash * p + chars[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Ищет первую точку синхронизации в диапазоне [from, to). Точка синхронизации — позиция сразу после
+     * пробельного символа, перед которым стоит буква или цифра. К этому месту слово уже закончилось,
+     * а знаки конца предложения перед ним уже учтены, поэтому состояние анализатора в такой позиции
+     * не зависит от предшествующего текста, поэтому с неё можно начинать независимый анализ фрагмента
+     * (см. {@link Scanner#atSyncPoint()}): сумма результатов по фрагментам совпадает с результатом
+     * последовательного анализа всего текста.
+     *
+     * @param chars Массив символов
+     * @param textStart Индекс начала текста в массиве
+     * @param from Начало диапазона поиска (включительно)
+     * @param to Конец диапазона поиска (не включительно)
+     * @return Индекс точки синхронизации или -1, если в диапазоне её нет
+     */
+    static int findSyncPoint(char[] chars, int textStart, int from, int to) {
+        for (int i = Math.max(from, textStart + 2); i < to; i++) {
+            if (isSyncPoint(chars[i - 2], chars[i - 1])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Проверяет, является ли позиция точкой синхронизации, по двум предшествующим ей символам.
+     *
+     * @param beforePrevious Символ за два до позиции
+     * @param previous Символ непосредственно перед позицией
+     * @return true, если позиция является точкой синхронизации
+     */
+    static boolean isSyncPoint(char beforePrevious, char previous) {
+        return CharClass.of(previous) == CharClass.SPACE && CharClass.isWord(CharClass.of(beforePrevious));
+    }
+
+    /**
+     * Потоковый анализатор. Текст можно передавать частями любого размера: состояние
+     * между вызовами {@code feed} сохраняется, поэтому результат не зависит от разбиения.
+     * <p>
+     * Слово — последовательность букв и цифр, части которой могут соединяться дефисом или апострофом
+     * («кто-то», «don't»), цифры — точкой или запятой («3.14», «1,5»), а однобуквенные части — точкой
+     * («т.е»). Отдельно стоящие тире, кавычки и прочие знаки словами не считаются.
+     * <p>
+     * Серия подряд идущих знаков '.', '!', '?' и '…' («...», «?!», «!!!») завершает одно предложение:
+     * вопросительное, если в серии есть '?', восклицательное, если есть '!', иначе повествовательное.
+     * Предложение без единого слова не учитывается. Точка между цифрами и точка после сокращения или
+     * инициала не завершает предложение (см. {@link TokenizerRules}). Если после многоточия, '?' или '!'
+     * (возможно, через закрывающую кавычку и тире) текст продолжается со строчной буквы, как в прямой речи
+     * («Привет!» — сказал он), предложение продолжается. Решение о конце предложения принимается
+     * на первом значимом символе после серии знаков, поэтому серия в конце текста всегда завершает предложение.
+     * <p>
+     * Если анализатору передана таблица частот, каждое слово в нижнем регистре учитывается в ней.
+     * Слово копируется во внутренний буфер, а строка не создаётся. Скетч сочетаний слов ({@link NGramSketch})
+     * получает те же слова, а знаки конца предложения, запятые и прочие знаки препинания прерывают сочетания.
+     * <p>
+     * Слоги считаются по гласным буквам (см. {@link TokenizerRules}); слово без гласных (число, предлог «в»)
+     * считается одним слогом.
+     */
+    public static final class Scanner {
+        // Знаки в незавершённой серии знаков конца предложения (0 — серии нет)
+        private static final int RUN_PERIOD = 1;
+        private static final int RUN_QUESTION = 1 << 1;
+        private static final int RUN_EXCLAMATION = 1 << 2;
+        private static final int RUN_ELLIPSIS = 1 << 3;
+        private static final int RUN_LEADING = 1 << 4; // Точка после сокращения перед именем или числом
+        private static final int RUN_TRAILING = 1 << 5; // Точка после сокращения, которым может закончиться фраза
+        private static final int RUN_INITIAL = 1 << 6; // Точка после однобуквенного слова («Я.», «т.», «А.»)
+        // Серии, после которых предложение продолжается, если дальше идёт строчная буква
+        private static final int RUN_SOFT = RUN_QUESTION | RUN_EXCLAMATION | RUN_ELLIPSIS | RUN_TRAILING | RUN_INITIAL;
+        // Серии после сокращения, после которых предложение продолжается и перед числом («руб. 20 коп.»)
+        private static final int RUN_BEFORE_NUMBER = RUN_TRAILING | RUN_INITIAL;
+
+        private final TokenizerRules rules;
+        private final boolean vowelGroups; // Несколько гласных подряд образуют один слог
+        private final WordFrequencyTable frequencies; // Таблица частот слов (null, если частоты не нужны)
+        private final NGramSketch ngrams; // Частоты сочетаний слов (null, если они не нужны)
+        private final SentenceTable.Builder sentences; // Границы предложений (null, если они не нужны)
+        private final char[] word = new char[MAX_WORD_LENGTH]; // Текущее слово в нижнем регистре
+
+        private long declarative;
+        private long questions;
+        private long exclamatory;
+        private long words;
+        private long characters;
+        private long wordCharacters;
+        private long syllables;
+        private long hash;
+
+        private boolean inWord; // Текущий символ находится внутри слова
+        private int wordLength; // Длина слова (MAX_WORD_LENGTH + 1, если слово слишком длинное для буфера)
+        private int segmentLength; // Длина части слова после последнего соединительного знака
+        private boolean lastDigit; // Последний символ слова — цифра
+        private boolean initials; // Слово состоит из прописных букв, соединённых точками («А.С»)
+        private boolean initialChain; // Однобуквенное слово с точкой оказалось вторым инициалом («А. С.»)
+        private char joiner; // Соединительный знак после слова, судьба которого решится на следующем символе
+        private byte joinerClass;
+        private boolean hasContent; // В текущем предложении есть хотя бы одно слово
+        private int run; // Незавершённая серия знаков конца предложения
+        private boolean wordHasVowel; // В текущем слове уже встретилась гласная
+        private boolean lastVowel; // Последний символ слова — гласная
+        private long sentenceStart; // Позиция первого слова текущего предложения
+        private long sentenceWords; // Количество слов перед текущим предложением
+        private long runEnd; // Позиция после последнего знака серии
+        private long joinerEnd; // Позиция после отложенного соединительного знака
+        // Серия после однобуквенного слова, за которой идёт слово с прописной буквы: она завершает предложение,
+        // если это слово не окажется следующим инициалом («А. С. Пушкин»), что станет ясно в конце слова
+        private int tentative;
+        private long tentativeEnd; // Позиция после последнего знака этой серии
+        private long tentativeWordStart; // Позиция первого символа слова после серии
+        private boolean sentencesFinished; // Последнее предложение уже передано таблице предложений
+
+        /**
+         * Создаёт анализатор с правилами языка по умолчанию без подсчёта частот слов.
+         */
+        public Scanner() {
+            this(TokenizerRules.DEFAULT, null);
+        }
+
+        /**
+         * Создаёт анализатор с правилами заданного языка.
+         *
+         * @param rules Правила языка
+         * @param frequencies Таблица частот слов (или null, если частоты не нужны)
+         */
+        public Scanner(TokenizerRules rules, WordFrequencyTable frequencies) {
+            this(rules, frequencies, null);
+        }
+
+        /**
+         * Создаёт анализатор с правилами заданного языка, который также передаёт слова скетчу сочетаний слов.
+         *
+         * @param rules Правила языка
+         * @param frequencies Таблица частот слов (или null, если частоты не нужны)
+         * @param ngrams Скетч частот сочетаний слов (или null, если сочетания не нужны)
+         */
+        public Scanner(TokenizerRules rules, WordFrequencyTable frequencies, NGramSketch ngrams) {
+            this(rules, frequencies, ngrams, null);
+        }
+
+        /**
+         * Создаёт анализатор с правилами заданного языка, который также сообщает границы предложений.
+         * Позиции предложений отсчитываются от первого переданного символа.
+         *
+         * @param rules Правила языка
+         * @param frequencies Таблица частот слов (или null, если частоты не нужны)
+         * @param ngrams Скетч частот сочетаний слов (или null, если сочетания не нужны)
+         * @param sentences Построитель таблицы предложений (или null, если границы предложений не нужны)
+         */
+        public Scanner(TokenizerRules rules, WordFrequencyTable frequencies, NGramSketch ngrams,
+                       SentenceTable.Builder sentences) {
+            this.rules = rules;
+            this.frequencies = frequencies;
+            this.ngrams = ngrams;
+            this.sentences = sentences;
+            this.vowelGroups = rules.countsVowelGroups();
+        }
+
+        /**
+         * Создаёт анализатор для фрагмента, начинающегося с точки синхронизации
+         * (см. {@link TextAnalysisEngine#findSyncPoint(char[], int, int, int)}).
+         *
+         * @return Анализатор в состоянии, которое имел бы последовательный анализ в точке синхронизации
+         */
+        public static Scanner atSyncPoint() {
+            return atSyncPoint(TokenizerRules.DEFAULT, null);
+        }
+
+        /**
+         * Создаёт анализатор с правилами заданного языка для фрагмента, начинающегося с точки синхронизации.
+         *
+         * @param rules Правила языка
+         * @param frequencies Таблица частот слов (или null)
+         * @return Анализатор в состоянии, которое имел бы последовательный анализ в точке синхронизации
+         */
+        public static Scanner atSyncPoint(TokenizerRules rules, WordFrequencyTable frequencies) {
+            return atSyncPoint(rules, frequencies, null);
+        }
+
+        /**
+         * Создаёт анализатор с правилами заданного языка и скетчем сочетаний слов для фрагмента,
+         * начинающегося с точки синхронизации.
+         *
+         * @param rules Правила языка
+         * @param frequencies Таблица частот слов (или null)
+         * @param ngrams Скетч частот сочетаний слов (или null)
+         * @return Анализатор в состоянии, которое имел бы последовательный анализ в точке синхронизации
+         */
+        public static Scanner atSyncPoint(TokenizerRules rules, WordFrequencyTable frequencies,
+                                          NGramSketch ngrams) {
+            Scanner scanner = new Scanner(rules, frequencies, ngrams);
+            scanner.hasContent = true; // Перед точкой синхронизации стоит слово текущего предложения
+            return scanner;
+        }
+
+        /**
+         * Передаёт анализатору очередной фрагмент текста.
+         *
+         * @param text Текст
+         * @param from Начало фрагмента (включительно)
+         * @param to Конец фрагмента (не включительно)
+         */
+        public void feed(CharSequence text, int from, int to) {
+            for (int i = from; i < to; i++) {
+                accept(text.charAt(i));
+            }
+        }
+
+        /**
+         * Передаёт анализатору очередной фрагмент текста из массива символов.
+         *
+         * @param chars Массив символов
+         * @param offset Смещение первого символа
+         * @param length Количество символов
+         */
+        public void feed(char[] chars, int offset, int length) {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                accept(chars[i]);
+            }
+        }
+
+        private void accept(char c) {
+            characters++;
+            hash = hash * AnalysisResult.HASH_MULTIPLIER + c;
+            byte charClass = CharClass.of(c);
+            if (charClass == CharClass.IGNORABLE) {
+                return;
+            }
+            if (joiner != 0) {
+                char deferred = joiner;
+                joiner = 0;
+                if (joins(charClass)) {
+                    append(deferred);
+                    segmentLength = 0;
+                    lastVowel = false; // Соединительный знак разделяет группы гласных
+                    initials &= joinerClass == CharClass.PERIOD;
+                    wordCharacter(c, charClass);
+                    return;
+                }
+                if (joinerClass == CharClass.PERIOD) {
+                    terminator(CharClass.PERIOD, true); // Точка после слова оказалась знаком препинания
+                    runEnd = joinerEnd;
+                } else {
+                    endWord();
+                }
+            }
+            switch (charClass) {
+                case CharClass.LOWER, CharClass.UPPER, CharClass.LETTER, CharClass.DIGIT ->
+                        wordCharacter(c, charClass);
+                case CharClass.PERIOD -> {
+                    // Точка после цифры или одной буквы может оказаться частью слова («3.14», «т.е»)
+                    if (inWord && (lastDigit || segmentLength == 1)) {
+                        defer(c, charClass);
+                    } else {
+                        terminator(charClass, inWord);
+                    }
+                }
+                case CharClass.QUESTION, CharClass.EXCLAMATION, CharClass.ELLIPSIS -> terminator(charClass, false);
+                case CharClass.HYPHEN, CharClass.APOSTROPHE -> {
+                    if (inWord) {
+                        defer(c, charClass);
+                    }
+                }
+                case CharClass.COMMA -> {
+                    if (inWord && lastDigit) {
+                        defer(c, charClass);
+                    } else {
+                        endWord();
+                        breakSequence();
+                        resolveRun(true);
+                    }
+                }
+                case CharClass.OTHER -> {
+                    endWord();
+                    breakSequence();
+                    resolveRun(false);
+                }
+                default -> endWord(); // Пробелы, тире и кавычки не решают судьбу серии знаков
+            }
+        }
+
+        private void defer(char c, byte charClass) {
+            joiner = c;
+            joinerClass = charClass;
+            joinerEnd = characters;
+        }
+
+        /**
+         * Проверяет, соединяет ли отложенный знак слово со следующим символом.
+         */
+        private boolean joins(byte next) {
+            return switch (joinerClass) {
+                case CharClass.HYPHEN, CharClass.APOSTROPHE -> CharClass.isWord(next);
+                case CharClass.PERIOD -> lastDigit ? next == CharClass.DIGIT : CharClass.isWord(next)
+                        && next != CharClass.DIGIT;
+                default -> next == CharClass.DIGIT;
+            };
+        }
+
+        private void wordCharacter(char c, byte charClass) {
+            if (!inWord) {
+                if ((run & RUN_INITIAL) != 0 && charClass == CharClass.UPPER) {
+                    // Решение откладывается до конца слова: «Я. Потом» — два предложения, «А. С.» — инициалы
+                    tentative = run;
+                    tentativeEnd = runEnd;
+                    tentativeWordStart = characters - 1;
+                    run = 0;
+                } else {
+                    resolveRun(charClass == CharClass.LOWER
+                            || charClass == CharClass.DIGIT && (run & RUN_BEFORE_NUMBER) != 0);
+                }
+                initialChain = false;
+                if (!hasContent) {
+                    sentenceStart = characters - 1; // Первое слово нового предложения
+                    sentenceWords = words;
+                }
+                inWord = true;
+                words++;
+                hasContent = true;
+                wordLength = 0;
+                segmentLength = 0;
+                initials = true;
+                syllables++; // Первый слог слова (или единственный, если гласных нет)
+                wordHasVowel = false;
+                lastVowel = false;
+            }
+            char lowerCase = CharClass.toLowerCase(c);
+            append(lowerCase);
+            wordCharacters++;
+            boolean vowel = CharClass.isVowel(lowerCase);
+            if (vowel && wordHasVowel && !(lastVowel && vowelGroups)) {
+                syllables++;
+            }
+            wordHasVowel |= vowel;
+            lastVowel = vowel;
+            segmentLength++;
+            lastDigit = charClass == CharClass.DIGIT;
+            initials &= charClass == CharClass.UPPER && segmentLength == 1;
+        }
+
+        private void append(char c) {
+            if (wordLength < MAX_WORD_LENGTH) {
+                word[wordLength] = c;
+            }
+            if (wordLength <= MAX_WORD_LENGTH) {
+                wordLength++;
+            }
+        }
+
+        private void endWord() {
+            if (inWord) {
+                inWord = false;
+                if (tentative != 0) {
+                    splitAtTentative(); // Слово после однобуквенного слова с точкой не оказалось инициалом
+                }
+                if (frequencies != null && wordLength <= MAX_WORD_LENGTH) {
+                    frequencies.add(word, 0, wordLength);
+                }
+                if (ngrams != null) {
+                    if (wordLength <= MAX_WORD_LENGTH) {
+                        ngrams.addWord(word, 0, wordLength);
+                    } else {
+                        ngrams.breakSequence(); // Слишком длинное слово не входит в сочетания
+                    }
+                }
+            }
+        }
+
+        /**
+         * Прерывает последовательность слов для сочетаний на знаке препинания.
+         */
+        private void breakSequence() {
+            if (ngrams != null) {
+                ngrams.breakSequence();
+            }
+        }
+
+        private void terminator(byte charClass, boolean afterWord) {
+            if (tentative != 0 && charClass == CharClass.PERIOD && afterWord && isSingleLetter()) {
+                tentative = 0; // Второй инициал подряд: предложение продолжается
+                initialChain = true;
+            }
+            endWord();
+            breakSequence();
+            run = extendRun(run, charClass, afterWord);
+            runEnd = characters;
+        }
+
+        /**
+         * Добавляет знак конца предложения к серии.
+         *
+         * @param run Текущая серия знаков (0, если серии нет)
+         * @param charClass Класс знака
+         * @param afterWord true, если знак стоит сразу после слова (буфер слова содержит это слово)
+         * @return Новая серия знаков
+         */
+        private int extendRun(int run, byte charClass, boolean afterWord) {
+            if (run == 0 && charClass == CharClass.PERIOD && afterWord) {
+                int abbreviation = initials && wordLength > 1 || initialChain ? TokenizerRules.LEADING_ABBREVIATION
+                        : wordLength <= MAX_WORD_LENGTH ? rules.abbreviation(word, wordLength)
+                        : TokenizerRules.NOT_ABBREVIATION;
+                if (abbreviation == TokenizerRules.LEADING_ABBREVIATION) {
+                    return RUN_PERIOD | RUN_LEADING;
+                }
+                if (abbreviation == TokenizerRules.TRAILING_ABBREVIATION) {
+                    return RUN_PERIOD | RUN_TRAILING;
+                }
+                if (isSingleLetter()) {
+                    return RUN_PERIOD | RUN_INITIAL; // Инициал или конец предложения: решает следующее слово
+                }
+            }
+            int mark = switch (charClass) {
+                case CharClass.PERIOD -> (run & RUN_PERIOD) != 0 ? RUN_ELLIPSIS : RUN_PERIOD;
+                case CharClass.QUESTION -> RUN_QUESTION;
+                case CharClass.EXCLAMATION -> RUN_EXCLAMATION;
+                default -> RUN_ELLIPSIS;
+            };
+            return run & ~(RUN_LEADING | RUN_INITIAL) | mark;
+        }
+
+        /**
+         * Проверяет, состоит ли слово в буфере из одной буквы.
+         */
+        private boolean isSingleLetter() {
+            return wordLength == 1 && !lastDigit;
+        }
+
+        /**
+         * Завершает предложение серией перед текущим словом: слово после однобуквенного слова с точкой
+         * начинается с прописной буквы, но само не является инициалом.
+         */
+        private void splitAtTentative() {
+            countSentence(tentative, tentativeEnd, words - 1 - sentenceWords);
+            sentenceStart = tentativeWordStart;
+            sentenceWords = words - 1;
+            tentative = 0;
+        }
+
+        /**
+         * Проверяет, завершает ли отложенная серия перед текущим словом предложение, если текст
+         * на этом закончится: не завершает, только если слово — второй инициал с точкой.
+         */
+        private boolean tentativeEnds() {
+            return tentative != 0 && !(joiner != 0 && joinerClass == CharClass.PERIOD && isSingleLetter());
+        }
+
+        /**
+         * Решает судьбу незавершённой серии знаков на первом значимом символе после неё.
+         *
+         * @param continuation true, если символ продолжает предложение (строчная буква или запятая)
+         */
+        private void resolveRun(boolean continuation) {
+            if (run == 0) {
+                return;
+            }
+            boolean continues = (run & RUN_LEADING) != 0 || continuation && (run & RUN_SOFT) != 0;
+            if (!continues) {
+                countSentence(run, runEnd, words - sentenceWords);
+                hasContent = false;
+            }
+            run = 0;
+        }
+
+        private void countSentence(int run, long end, long sentenceWordCount) {
+            if (!hasContent) {
+                return; // Знаки препинания без слов («...» в начале текста) предложением не считаются
+            }
+            byte type = sentenceType(run);
+            switch (type) {
+                case SentenceTable.QUESTION -> questions++;
+                case SentenceTable.EXCLAMATORY -> exclamatory++;
+                default -> declarative++;
+            }
+            if (sentences != null) {
+                sentences.add(sentenceStart, end, sentenceWordCount, type);
+            }
+        }
+
+        private static byte sentenceType(int run) {
+            if ((run & RUN_QUESTION) != 0) {
+                return SentenceTable.QUESTION;
+            }
+            return (run & RUN_EXCLAMATION) != 0 ? SentenceTable.EXCLAMATORY : SentenceTable.DECLARATIVE;
+        }
+
+        /**
+         * Возвращает таблицу частот слов, учитывая в ней последнее слово текста.
+         * Вызывается после того, как передан весь текст (и получены результаты анализа).
+         *
+         * @return Таблица частот слов (или null, если анализатор создан без неё)
+         */
+        public WordFrequencyTable frequencies() {
+            endWord();
+            return frequencies;
+        }
+
+        /**
+         * Возвращает построитель таблицы предложений, передав ему последнее предложение текста, если оно
+         * завершено серией знаков в конце текста (как в {@link #result()}). Вызывается после того,
+         * как передан весь текст.
+         *
+         * @return Построитель таблицы предложений (или null, если анализатор создан без него)
+         */
+        public SentenceTable.Builder sentences() {
+            if (sentences != null && !sentencesFinished) {
+                sentencesFinished = true;
+                long start = sentenceStart;
+                long startWords = sentenceWords;
+                if (tentativeEnds()) {
+                    sentences.add(start, tentativeEnd, words - 1 - startWords, sentenceType(tentative));
+                    start = tentativeWordStart;
+                    startWords = words - 1;
+                }
+                boolean deferred = joiner != 0 && joinerClass == CharClass.PERIOD;
+                int pending = deferred ? extendRun(run, CharClass.PERIOD, true) : run;
+                if (pending != 0 && hasContent) {
+                    sentences.add(start, deferred ? joinerEnd : runEnd, words - startWords, sentenceType(pending));
+                }
+            }
+            return sentences;
+        }
+
+        /**
+         * Возвращает скетч сочетаний слов, учитывая в нём последнее слово текста.
+         * Вызывается после того, как передан весь текст.
+         *
+         * @return Скетч сочетаний слов (или null, если анализатор создан без него)
+         */
+        public NGramSketch ngrams() {
+            endWord();
+            return ngrams;
+        }
+
+        /**
+         * Возвращает результаты анализа всего переданного текста (без времени анализа и таблицы частот).
+         * Незавершённая серия знаков в конце текста считается концом предложения. Состояние анализатора
+         * не изменяется, поэтому метод можно вызывать для промежуточных результатов.
+         *
+         * @return Результаты анализа
+         */
+        public AnalysisResult result() {
+            long declarative = this.declarative;
+            long questions = this.questions;
+            long exclamatory = this.exclamatory;
+            if (tentativeEnds()) {
+                switch (sentenceType(tentative)) {
+                    case SentenceTable.QUESTION -> questions++;
+                    case SentenceTable.EXCLAMATORY -> exclamatory++;
+                    default -> declarative++;
+                }
+            }
+            int pending = joiner != 0 && joinerClass == CharClass.PERIOD
+                    ? extendRun(run, CharClass.PERIOD, true) : run;
+            if (pending != 0 && hasContent) {
+                switch (sentenceType(pending)) {
+                    case SentenceTable.QUESTION -> questions++;
+                    case SentenceTable.EXCLAMATORY -> exclamatory++;
+                    default -> declarative++;
+                }
+            }
+            return new AnalysisResult(declarative + questions + exclamatory, words, declarative, questions,
+                    exclamatory, characters, wordCharacters, syllables,
+                    characters == 0 ? AnalysisResult.NO_HASH : hash, 0);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package textanalyzer;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.GapContent;
+import javax.swing.text.PlainDocument;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Класс TextFileLoader читает текстовые файлы через отображение в память (FileChannel/MappedByteBuffer).
+ * Кодировка определяется явно (метка порядка байтов, проверка UTF-8, иначе windows-1251),
+ * а декодирование выполняется крупными блоками без построчного чтения. Сжатые файлы (например, {@code .gz})
+ * распаковываются на лету через {@link CompressionCodec}.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class TextFileLoader {
+    /**
+     * Кодировка windows-1251, используемая для файлов, не являющихся корректным UTF-8.
+     */
+    public static final Charset WINDOWS_1251 = Charset.forName("windows-1251");
+
+    /**
+     * Размер окна отображения файла в память (в байтах).
+     */
+    static final int MAP_WINDOW = 64 << 20;
+
+    /**
+     * Размер буфера декодированных символов.
+     */
+    static final int CHUNK_CHARS = 1 << 20;
+
+    /**
+     * Количество байтов в начале файла, по которым проверяется корректность UTF-8.
+     */
+    private static final int DETECT_SAMPLE = 1 << 20;
+
+    private TextFileLoader() {
+    }
+
+    /**
+     * Кодировка файла и длина метки порядка байтов, которую нужно пропустить.
+     *
+     * @param charset Кодировка файла
+     * @param bomLength Длина метки порядка байтов в начале файла (0, если метки нет)
+     */
+    public record Encoding(Charset charset, int bomLength) {
+    }
+
+    /**
+     * Исключение, сообщающее, что текст файла слишком велик для загрузки в текстовое поле.
+     */
+    public static final class TextTooLargeException extends IOException {
+        /**
+         * Конструктор исключения.
+         *
+         * @param message Сообщение об ошибке
+         */
+        public TextTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Получатель декодированных блоков текста.
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        /**
+         * Принимает очередной блок символов. Массив используется повторно, поэтому
+         * его содержимое действительно только во время вызова.
+         *
+         * @param chars Массив символов
+         * @param offset Смещение первого символа блока
+         * @param length Количество символов в блоке
+         * @throws IOException Ошибка обработки блока
+         */
+        void accept(char[] chars, int offset, int length) throws IOException;
+    }
+
+    /**
+     * Получатель сведений о ходе чтения файла.
+     */
+    @FunctionalInterface
+    public interface ReadProgress {
+        /**
+         * Сообщает о ходе чтения.
+         *
+         * @param bytesRead Количество прочитанных байтов
+         * @param totalBytes Размер файла в байтах
+         * @return false, если чтение нужно прервать
+         */
+        boolean update(long bytesRead, long totalBytes);
+    }
+
+    /**
+     * Определяет кодировку файла: по метке порядка байтов, а при её отсутствии проверяет,
+     * является ли начало файла корректным UTF-8. Иначе файл считается записанным в windows-1251.
+     *
+     * @param channel Канал открытого файла
+     * @return Кодировка файла
+     * @throws IOException Ошибка чтения файла
+     */
+    public static Encoding detectEncoding(FileChannel channel) throws IOException {
+        ByteBuffer sample = ByteBuffer.allocate((int) Math.min(DETECT_SAMPLE, channel.size()));
+        while (sample.hasRemaining() && channel.read(sample, sample.position()) > 0) {
+            // Читаем начало файла целиком
+        }
+        sample.flip();
+        return detectEncoding(sample, sample.limit() == channel.size());
+    }
+
+    /**
+     * Определяет кодировку текста по его начальным байтам.
+     *
+     * @param sample Начало текста
+     * @param wholeText true, если выборка содержит весь текст
+     * @return Кодировка текста
+     */
+    private static Encoding detectEncoding(ByteBuffer sample, boolean wholeText) {
+        int b0 = sample.remaining() > 0 ? sample.get(0) & 0xFF : -1;
+        int b1 = sample.remaining() > 1 ? sample.get(1) & 0xFF : -1;
+        int b2 = sample.remaining() > 2 ? sample.get(2) & 0xFF : -1;
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            return new Encoding(StandardCharsets.UTF_8, 3);
+        }
+        if (b0 == 0xFF && b1 == 0xFE) {
+            return new Encoding(StandardCharsets.UTF_16LE, 2);
+        }
+        if (b0 == 0xFE && b1 == 0xFF) {
+            return new Encoding(StandardCharsets.UTF_16BE, 2);
+        }
+        return new Encoding(isValidUtf8(sample, wholeText) ? StandardCharsets.UTF_8 : WINDOWS_1251, 0);
+    }
+
+    /**
+     * Проверяет, что байты являются корректным UTF-8. Если проверяется только начало файла,
+     * незавершённая последовательность в самом конце выборки ошибкой не считается.
+     */
+    private static boolean isValidUtf8(ByteBuffer bytes, boolean wholeFile) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer chars = CharBuffer.allocate(8192);
+        ByteBuffer input = bytes.duplicate();
+        while (true) {
+            CoderResult result = decoder.decode(input, chars, wholeFile);
+            if (result.isError()) {
+                return false;
+            }
+            if (result.isUnderflow()) {
+                if (wholeFile) {
+                    try {
+                        return !decoder.flush(chars).isError();
+                    } catch (IllegalStateException e) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            chars.clear(); // Переполнение буфера символов: продолжаем проверку
+        }
+    }
+
+    /**
+     * Декодирует файл блоками и передаёт их получателю. Файл отображается в память окнами
+     * по {@value #MAP_WINDOW} байт, поэтому его размер не ограничен объёмом кучи. Сжатый файл
+     * (см. {@link CompressionCodec}) распаковывается на лету, без записи распакованного текста на диск;
+     * ход чтения в этом случае измеряется в байтах сжатого файла.
+     *
+     * @param file Путь к файлу
+     * @param consumer Получатель декодированных блоков
+     * @param progress Получатель сведений о ходе чтения
+     * @return true, если файл прочитан полностью, и false, если чтение было прервано
+     * @throws IOException Ошибка чтения файла
+     */
+    public static boolean decode(Path file, ChunkConsumer consumer, ReadProgress progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CompressionCodec codec = CompressionCodec.detect(channel);
+            if (codec != null) {
+                return decodeCompressed(channel, codec, consumer, progress);
+            }
+            Encoding encoding = detectEncoding(channel);
+            CharsetDecoder decoder = newDecoder(encoding);
+            long size = channel.size();
+            CharBuffer chars = CharBuffer.allocate(chunkCapacity(size));
+            long position = encoding.bomLength();
+
+            while (position < size) {
+                long windowSize = Math.min(MAP_WINDOW, size - position);
+                boolean last = position + windowSize == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                decodeBlock(decoder, window, chars, last, consumer);
+                // Незавершённая многобайтовая последовательность переносится в следующее окно
+                position += windowSize - window.remaining();
+                if (!progress.update(position, size)) {
+                    return false;
+                }
+                if (last) {
+                    break;
+                }
+            }
+            finish(decoder, chars, consumer);
+            return true;
+        } catch (CharacterCodingException e) {
+            throw new IOException("Ошибка декодирования файла " + file, e);
+        }
+    }
+
+    /**
+     * Распаковывает и декодирует сжатый файл. Распакованные байты читаются в буфер по
+     * {@value #DETECT_SAMPLE} байт; по первому заполнению буфера определяется кодировка текста.
+     */
+    private static boolean decodeCompressed(FileChannel channel, CompressionCodec codec, ChunkConsumer consumer,
+                                            ReadProgress progress) throws IOException {
+        long size = channel.size();
+        InputStream in = codec.decompress(Channels.newInputStream(channel)); // Закрывается вместе с каналом
+        byte[] bytes = new byte[DETECT_SAMPLE];
+        int count = in.readNBytes(bytes, 0, bytes.length);
+        boolean last = count < bytes.length;
+        ByteBuffer input = ByteBuffer.wrap(bytes, 0, count);
+        Encoding encoding = detectEncoding(input, last);
+        input.position(Math.min(encoding.bomLength(), count));
+        CharsetDecoder decoder = newDecoder(encoding);
+        CharBuffer chars = CharBuffer.allocate(CHUNK_CHARS);
+
+        while (true) {
+            decodeBlock(decoder, input, chars, last, consumer);
+            if (!progress.update(channel.position(), size)) {
+                return false;
+            }
+            if (last) {
+                break;
+            }
+            // Незавершённая многобайтовая последовательность переносится в начало буфера
+            input.compact();
+            int read = in.readNBytes(bytes, input.position(), input.remaining());
+            last = read < input.remaining();
+            input.position(input.position() + read).flip();
+        }
+        finish(decoder, chars, consumer);
+        return true;
+    }
+
+    /**
+     * Создаёт декодер, заменяющий некорректные последовательности байтов символом замены.
+     */
+    private static CharsetDecoder newDecoder(Encoding encoding) {
+        return encoding.charset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Декодирует блок байтов, передавая получателю заполненные буферы символов.
+     */
+    private static void decodeBlock(CharsetDecoder decoder, ByteBuffer bytes, CharBuffer chars, boolean last,
+                                    ChunkConsumer consumer) throws IOException {
+        while (true) {
+            CoderResult result = decoder.decode(bytes, chars, last);
+            if (result.isOverflow() || chars.position() > 0 && !bytes.hasRemaining()) {
+                chars.flip();
+                consumer.accept(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+                chars.clear();
+            }
+            if (result.isUnderflow()) {
+                break;
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+        }
+    }
+
+    /**
+     * Завершает декодирование и передаёт получателю оставшиеся символы.
+     */
+    private static void finish(CharsetDecoder decoder, CharBuffer chars, ChunkConsumer consumer) throws IOException {
+        decoder.decode(ByteBuffer.allocate(0), chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        if (chars.hasRemaining()) {
+            consumer.accept(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        }
+    }
+
+    /**
+     * Возвращает размер буфера символов для файла: небольшим файлам не нужен буфер полного размера,
+     * так как число символов в файле не превышает числа байтов.
+     */
+    private static int chunkCapacity(long fileSize) {
+        return (int) Math.min(CHUNK_CHARS, Math.max(16, fileSize));
+    }
+
+    /**
+     * Загружает файл в новый документ. Документ строится целиком в вызывающем потоке и ни к чему
+     * не привязан, поэтому метод можно вызывать вне потока обработки событий, а затем
+     * установить готовый документ в текстовое поле одной операцией.
+     * Переводы строк Windows (\r\n) и старого Mac OS (\r) приводятся к \n.
+     *
+     * @param file Путь к файлу
+     * @param progress Получатель сведений о ходе чтения
+     * @return Документ с содержимым файла
+     * @throws IOException Ошибка чтения файла
+     * @throws CancellationException Если чтение было прервано
+     */
+    public static PlainDocument loadDocument(Path file, ReadProgress progress) throws IOException {
+        return loadDocument(file, Integer.MAX_VALUE - 1, progress);
+    }
+
+    /**
+     * Загружает файл в новый документ, если текст файла не длиннее заданного. Длина распакованного текста
+     * сжатого файла заранее неизвестна, поэтому она проверяется по мере чтения, и загрузка прерывается,
+     * как только текст превысит предел, не дожидаясь нехватки памяти.
+     *
+     * @param file Путь к файлу
+     * @param maxChars Наибольшая длина текста (в символах)
+     * @param progress Получатель сведений о ходе чтения
+     * @return Документ с содержимым файла
+     * @throws TextTooLargeException Если текст длиннее {@code maxChars}
+     * @throws IOException Ошибка чтения файла
+     * @throws CancellationException Если чтение было прервано
+     */
+    public static PlainDocument loadDocument(Path file, long maxChars, ReadProgress progress) throws IOException {
+        long size = Files.size(file);
+        boolean compressed = CompressionCodec.detect(file) != null;
+        if (size >= Integer.MAX_VALUE) {
+            throw new TextTooLargeException("Файл слишком велик для загрузки в текстовое поле");
+        }
+        // Размер распакованного текста заранее неизвестен: для сжатого файла буфер документа растёт по мере чтения
+        PlainDocument document = compressed ? new PlainDocument() : new PlainDocument(new GapContent((int) size + 1));
+        char[] normalized = new char[compressed ? CHUNK_CHARS : chunkCapacity(size)];
+        boolean[] afterCarriageReturn = {false};
+
+        boolean completed = decode(file, (chars, offset, length) -> {
+            int count = 0;
+            for (int i = offset, end = offset + length; i < end; i++) {
+                char c = chars[i];
+                if (c == '\n' && afterCarriageReturn[0]) {
+                    afterCarriageReturn[0] = false;
+                    continue; // \n после \r уже учтён
+                }
+                afterCarriageReturn[0] = c == '\r';
+                normalized[count++] = c == '\r' ? '\n' : c;
+            }
+            if (document.getLength() + (long) count > maxChars) {
+                throw new TextTooLargeException("Текст файла слишком велик для загрузки в текстовое поле");
+            }
+            try {
+                document.insertString(document.getLength(), new String(normalized, 0, count), null);
+            } catch (BadLocationException e) {
+                throw new IllegalStateException(e); // Вставка всегда выполняется в конец документа
+            }
+        }, progress);
+
+        if (!completed) {
+            throw new CancellationException("Загрузка файла отменена");
+        }
+        return document;
+    }
+}
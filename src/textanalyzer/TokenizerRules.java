@@ -0,0 +1,182 @@
+package textanalyzer;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Класс TokenizerRules содержит правила разбора текста на предложения для одного языка.
+ * Классы символов (буквы, цифры, знаки препинания) определяются общей таблицей Unicode
+ * (см. {@link CharClass}), а от языка зависят сокращения, точка после которых не всегда
+ * завершает предложение:
+ * <ul>
+ *     <li>сокращения перед именем или числом («г.», «ул.», «т.е.», «Mr.») — точка после них
+ *     завершает предложение только в конце текста;</li>
+ *     <li>сокращения, которыми часто заканчивается предложение («т.д.», «др.», «etc.»), — точка после них
+ *     не завершает предложение, если дальше идёт слово со строчной буквы или число.</li>
+ * </ul>
+ * Сокращения, совпадающие с обычными словами («ок», «см», «им»), относятся ко второму виду: фразу
+ * «Всё ок. Пошли домой.» нельзя склеивать. Однобуквенные слова с точкой («Я.», «т.», «А.») в списки
+ * не входят — их разбирает сканер по следующему слову: инициалы распознаются только цепочкой («А. С. Пушкин»).
+ * Сокращения хранятся в таблице с открытой адресацией и ищутся по буферу слова без создания строк.
+ * От языка зависит и подсчёт слогов для индексов удобочитаемости: в русском каждая гласная образует слог
+ * («по-эт»), а в английском несколько гласных подряд обычно читаются как один слог («read»).
+ * Для поддержки другого языка достаточно создать объект правил со своими списками сокращений.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class TokenizerRules {
+    /**
+     * Слово не является сокращением.
+     */
+    static final int NOT_ABBREVIATION = 0;
+
+    /**
+     * Сокращение перед именем или числом.
+     */
+    static final int LEADING_ABBREVIATION = 1;
+
+    /**
+     * Сокращение, которым может заканчиваться предложение.
+     */
+    static final int TRAILING_ABBREVIATION = 2;
+
+    /**
+     * Правила русского языка.
+     */
+    public static final TokenizerRules RUSSIAN = new TokenizerRules("ru", "Русский", false,
+            List.of("г", "гг", "ул", "пер", "пл", "просп", "кв", "рис", "табл", "гл", "стр", "т.е", "т.к", "т.н",
+                    "напр", "проф", "акад", "доц", "св", "тов", "гр", "прим"),
+            List.of("т.д", "т.п", "д", "п", "др", "пр", "руб", "коп", "тыс", "млн", "млрд", "шт", "мин", "сек",
+                    "им", "см", "ср", "ок", "н.э", "etc"));
+
+    /**
+     * Правила английского языка.
+     */
+    public static final TokenizerRules ENGLISH = new TokenizerRules("en", "English", true,
+            List.of("mr", "mrs", "ms", "dr", "prof", "st", "sr", "rev", "gen", "col", "capt", "lt", "mt", "vs",
+                    "e.g", "i.e", "cf", "fig", "figs", "pp", "vol", "approx", "dept"),
+            List.of("etc", "inc", "ltd", "co", "corp", "jr", "a.m", "p.m", "al"));
+
+    /**
+     * Правила, которые используются, если язык не выбран явно.
+     */
+    public static final TokenizerRules DEFAULT = RUSSIAN;
+
+    private static final List<TokenizerRules> AVAILABLE = List.of(RUSSIAN, ENGLISH);
+
+    private final String language;
+    private final String name;
+    private final WordFrequencyTable abbreviations = new WordFrequencyTable(); // Счётчик хранит вид сокращения
+    private final int maxAbbreviationLength;
+    private final boolean vowelGroups;
+
+    /**
+     * Конструктор правил. Сокращения задаются в нижнем регистре без завершающей точки
+     * (точки внутри сокращения сохраняются: «т.е», «e.g»).
+     *
+     * @param language Код языка (например, "ru")
+     * @param name Название языка для интерфейса
+     * @param leadingAbbreviations Сокращения, после которых обычно идёт имя или число
+     * @param trailingAbbreviations Сокращения, которыми может заканчиваться предложение
+     */
+    public TokenizerRules(String language, String name, Collection<String> leadingAbbreviations,
+                          Collection<String> trailingAbbreviations) {
+        this(language, name, false, leadingAbbreviations, trailingAbbreviations);
+    }
+
+    /**
+     * Конструктор правил с выбором способа подсчёта слогов.
+     *
+     * @param language Код языка (например, "ru")
+     * @param name Название языка для интерфейса
+     * @param vowelGroups true, если несколько гласных подряд образуют один слог; false, если слог образует
+     *                    каждая гласная
+     * @param leadingAbbreviations Сокращения, после которых обычно идёт имя или число
+     * @param trailingAbbreviations Сокращения, которыми может заканчиваться предложение
+     */
+    public TokenizerRules(String language, String name, boolean vowelGroups, Collection<String> leadingAbbreviations,
+                          Collection<String> trailingAbbreviations) {
+        this.language = language;
+        this.name = name;
+        this.vowelGroups = vowelGroups;
+        int maxLength = 0;
+        for (String abbreviation : leadingAbbreviations) {
+            abbreviations.add(abbreviation.toCharArray(), 0, abbreviation.length(), LEADING_ABBREVIATION);
+            maxLength = Math.max(maxLength, abbreviation.length());
+        }
+        for (String abbreviation : trailingAbbreviations) {
+            abbreviations.add(abbreviation.toCharArray(), 0, abbreviation.length(), TRAILING_ABBREVIATION);
+            maxLength = Math.max(maxLength, abbreviation.length());
+        }
+        maxAbbreviationLength = maxLength;
+    }
+
+    /**
+     * Возвращает правила всех поддерживаемых языков.
+     *
+     * @return Список правил
+     */
+    public static List<TokenizerRules> available() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Ищет правила по коду языка.
+     *
+     * @param language Код языка (например, "ru" или "en")
+     * @return Правила языка
+     * @throws IllegalArgumentException Если язык не поддерживается
+     */
+    public static TokenizerRules forLanguage(String language) {
+        for (TokenizerRules rules : AVAILABLE) {
+            if (rules.language.equalsIgnoreCase(language)) {
+                return rules;
+            }
+        }
+        throw new IllegalArgumentException("язык не поддерживается: " + language);
+    }
+
+    /**
+     * Возвращает код языка.
+     *
+     * @return Код языка
+     */
+    public String language() {
+        return language;
+    }
+
+    /**
+     * Возвращает название языка.
+     *
+     * @return Название языка
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Определяет, является ли слово (в нижнем регистре) сокращением.
+     *
+     * @param word Буфер слова
+     * @param length Длина слова
+     * @return {@link #NOT_ABBREVIATION}, {@link #LEADING_ABBREVIATION} или {@link #TRAILING_ABBREVIATION}
+     */
+    int abbreviation(char[] word, int length) {
+        return length > maxAbbreviationLength ? NOT_ABBREVIATION : abbreviations.count(word, 0, length);
+    }
+
+    /**
+     * Проверяет, образуют ли несколько гласных подряд один слог.
+     *
+     * @return true, если слоги считаются по группам гласных
+     */
+    boolean countsVowelGroups() {
+        return vowelGroups;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
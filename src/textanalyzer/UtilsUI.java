@@ -2,7 +2,8 @@ package textanalyzer;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Класс UtilsUI содержит вспомогательные методы для работы с интерфейсом пользователя.
@@ -13,18 +14,33 @@ import java.util.Objects;
  */
 public class UtilsUI {
     /**
-     * Иконка приложения, загружается из ресурсов.
+     * Создаёт фильтр диалога выбора файлов для текстовых файлов, в том числе сжатых
+     * (см. {@link CompressionCodec}).
+     *
+     * @return Фильтр файлов
      */
-    private static final ImageIcon APP_ICON = new ImageIcon(Objects.requireNonNull
-            (UtilsUI.class.getResource("/resources/icon.png")));
+    public static javax.swing.filechooser.FileFilter textFileFilter() {
+        List<String> extensions = new ArrayList<>();
+        extensions.add("txt");
+        for (CompressionCodec codec : CompressionCodec.AVAILABLE) {
+            extensions.add(codec.extension());
+        }
+        return new javax.swing.filechooser.FileNameExtensionFilter("Text Files (*.txt, *.txt."
+                + String.join(", *.txt.", extensions.subList(1, extensions.size())) + ")",
+                extensions.toArray(new String[0]));
+    }
 
     /**
-     * Устанавливает иконку для окна приложения.
+     * Устанавливает иконку для окна приложения. Иконка загружается в фоновом потоке один раз
+     * (см. {@link ImageCache}) и появляется в окне, как только будет готова.
      *
      * @param frame Окно приложения, для которого устанавливается иконка
      */
     public static void setAppIcon(JFrame frame) {
-        frame.setIconImage(APP_ICON.getImage());
+        ImageCache.whenLoaded(ImageCache.APP_ICON, ImageCache.ORIGINAL_SIZE, ImageCache.ORIGINAL_SIZE,
+                icon -> frame.setIconImage(icon.getImage()), () -> {
+                    // Окно остаётся со стандартной иконкой
+                });
     }
 
     /**
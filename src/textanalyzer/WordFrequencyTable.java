@@ -0,0 +1,334 @@
+package textanalyzer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Таблица частот слов с открытой адресацией. Слово ищется по фрагменту массива символов без создания строки:
+ * сначала сравниваются 64-битные хеши, затем сами символы. Символы новых слов дописываются в общий массив,
+ * поэтому на слово не создаётся ни одного объекта, а счётчики хранятся в массиве {@code int}.
+ * Строки создаются только при выдаче результатов (например, самых частых слов).
+ * <p>
+ * Записи хранятся плотно в порядке первого появления слова, а таблица слотов содержит только номера записей,
+ * поэтому при расширении таблицы слова не копируются и хеши не пересчитываются.
+ * Таблица не потокобезопасна: каждый поток анализа заполняет свою таблицу, а затем таблицы объединяются.
+ * Таблица, переданная в {@link AnalysisResult}, замораживается: результат владеет ею, а попытка изменить её
+ * после этого приводит к {@link IllegalStateException}.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public final class WordFrequencyTable {
+    /**
+     * Слово и количество его появлений в тексте.
+     *
+     * @param word Слово
+     * @param count Количество появлений
+     */
+    public record Entry(String word, int count) {
+    }
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private int[] slots = new int[INITIAL_CAPACITY * 2]; // Номер записи + 1 (0 — пустой слот)
+    private long[] hashes = new long[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int[] starts = new int[INITIAL_CAPACITY + 1]; // Слово i занимает [starts[i], starts[i + 1]) в chars
+    private char[] chars = new char[INITIAL_CAPACITY * 8];
+    private int size;
+    private long total;
+    private boolean frozen;
+
+    /**
+     * Вычисляет хеш фрагмента массива символов.
+     *
+     * @param word Массив символов
+     * @param offset Смещение первого символа
+     * @param length Количество символов
+     * @return Хеш слова
+     */
+    static long hash(char[] word, int offset, int length) {
+        long hash = length;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = hash * AnalysisResult.HASH_MULTIPLIER + word[i];
+        }
+        // Перемешивание битов (завершающий шаг MurmurHash3), чтобы младшие биты зависели от всех символов
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Увеличивает счётчик слова на единицу.
+     *
+     * @param word Массив символов
+     * @param offset Смещение первого символа слова
+     * @param length Длина слова
+     */
+    public void add(char[] word, int offset, int length) {
+        add(word, offset, length, hash(word, offset, length), 1);
+    }
+
+    /**
+     * Увеличивает счётчик слова на заданное значение.
+     *
+     * @param word Массив символов
+     * @param offset Смещение первого символа слова
+     * @param length Длина слова
+     * @param count Прибавляемое значение
+     */
+    void add(char[] word, int offset, int length, int count) {
+        add(word, offset, length, hash(word, offset, length), count);
+    }
+
+    private void add(char[] word, int offset, int length, long hash, int count) {
+        if (frozen) {
+            throw new IllegalStateException("Таблица частот результата анализа не изменяется");
+        }
+        int mask = slots.length - 1;
+        int slot = (int) hash & mask;
+        while (true) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) {
+                slots[slot] = insert(word, offset, length, hash, count) + 1;
+                if (size * 2 > slots.length) {
+                    rehash();
+                }
+                total += count;
+                return;
+            }
+            if (hashes[entry] == hash && equals(entry, word, offset, length)) {
+                counts[entry] += count;
+                total += count;
+                return;
+            }
+            slot = (slot + 1) & mask; // Линейное пробирование
+        }
+    }
+
+    private boolean equals(int entry, char[] word, int offset, int length) {
+        int start = starts[entry];
+        return starts[entry + 1] - start == length
+                && Arrays.equals(chars, start, start + length, word, offset, offset + length);
+    }
+
+    private int insert(char[] word, int offset, int length, long hash, int count) {
+        if (size == hashes.length) {
+            int capacity = size * 2;
+            hashes = Arrays.copyOf(hashes, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            starts = Arrays.copyOf(starts, capacity + 1);
+        }
+        int start = starts[size];
+        if (start + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, start + length));
+        }
+        System.arraycopy(word, offset, chars, start, length);
+        hashes[size] = hash;
+        counts[size] = count;
+        starts[size + 1] = start + length;
+        return size++;
+    }
+
+    /**
+     * Увеличивает таблицу слотов вдвое и заново раскладывает в неё номера записей.
+     */
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = (int) hashes[entry] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    /**
+     * Запрещает дальнейшие изменения таблицы. Вызывается, когда таблица становится частью результата анализа.
+     */
+    void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Добавляет к этой таблице счётчики другой таблицы.
+     *
+     * @param other Таблица, счётчики которой добавляются
+     */
+    public void addAll(WordFrequencyTable other) {
+        for (int entry = 0; entry < other.size; entry++) {
+            int start = other.starts[entry];
+            add(other.chars, start, other.starts[entry + 1] - start, other.hashes[entry], other.counts[entry]);
+        }
+    }
+
+    /**
+     * Возвращает количество различных слов.
+     *
+     * @return Количество различных слов
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает общее количество учтённых слов (с повторениями).
+     *
+     * @return Количество слов
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Возвращает количество появлений слова.
+     *
+     * @param word Слово
+     * @return Количество появлений (0, если слово не встречалось)
+     */
+    public int count(String word) {
+        char[] key = word.toCharArray();
+        return count(key, 0, key.length);
+    }
+
+    /**
+     * Возвращает количество появлений слова, заданного фрагментом массива символов.
+     *
+     * @param word Массив символов
+     * @param offset Смещение первого символа слова
+     * @param length Длина слова
+     * @return Количество появлений (0, если слово не встречалось)
+     */
+    int count(char[] word, int offset, int length) {
+        long hash = hash(word, offset, length);
+        int mask = slots.length - 1;
+        for (int slot = (int) hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (hashes[entry] == hash && equals(entry, word, offset, length)) {
+                return counts[entry];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Возвращает самые частые слова. Выбор выполняется неполной сортировкой через кучу из n записей,
+     * при равных частотах раньше идёт слово, встретившееся в тексте первым.
+     *
+     * @param n Количество слов
+     * @return Не более n слов в порядке убывания частоты
+     */
+    public List<Entry> top(int n) {
+        int limit = Math.min(n, size);
+        int[] heap = new int[limit]; // Куча с минимумом в корне: корень — наименее частое из отобранных слов
+        int heapSize = 0;
+        for (int entry = 0; entry < size; entry++) {
+            if (heapSize < limit) {
+                heap[heapSize] = entry;
+                siftUp(heap, heapSize++);
+            } else if (limit > 0 && less(heap[0], entry)) {
+                heap[0] = entry;
+                siftDown(heap, 0, heapSize);
+            }
+        }
+        // Извлекаем слова из кучи от наименее частого к самому частому
+        Entry[] result = new Entry[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            int entry = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, 0, heapSize);
+            result[i] = new Entry(word(entry), counts[entry]);
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Сравнивает записи по частоте: запись a «меньше», если она встречается реже
+     * (или так же часто, но появилась в тексте позже).
+     */
+    private boolean less(int a, int b) {
+        return counts[a] < counts[b] || counts[a] == counts[b] && a > b;
+    }
+
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!less(heap[index], heap[parent])) {
+                return;
+            }
+            int swap = heap[index];
+            heap[index] = heap[parent];
+            heap[parent] = swap;
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int index, int heapSize) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && less(heap[left], heap[smallest])) {
+                smallest = left;
+            }
+            if (right < heapSize && less(heap[right], heap[smallest])) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            int swap = heap[index];
+            heap[index] = heap[smallest];
+            heap[smallest] = swap;
+            index = smallest;
+        }
+    }
+
+    private String word(int entry) {
+        return new String(chars, starts[entry], starts[entry + 1] - starts[entry]);
+    }
+
+    /**
+     * Получатель записей таблицы.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Принимает слово и его частоту. Массив символов принадлежит таблице и не должен изменяться.
+         *
+         * @param chars Массив символов
+         * @param offset Смещение первого символа слова
+         * @param length Длина слова
+         * @param count Количество появлений слова
+         * @throws IOException Ошибка обработки записи (например, записи в файл)
+         */
+        void accept(char[] chars, int offset, int length, int count) throws IOException;
+    }
+
+    /**
+     * Передаёт получателю все слова в порядке их первого появления в тексте.
+     *
+     * @param consumer Получатель записей
+     * @throws IOException Ошибка, возникшая у получателя
+     */
+    public void forEach(EntryConsumer consumer) throws IOException {
+        for (int entry = 0; entry < size; entry++) {
+            consumer.accept(chars, starts[entry], starts[entry + 1] - starts[entry], counts[entry]);
+        }
+    }
+
+    /**
+     * Оценивает объём памяти, занятый таблицей (в байтах).
+     *
+     * @return Оценка объёма в байтах
+     */
+    public long estimatedBytes() {
+        return (long) slots.length * Integer.BYTES + (long) hashes.length * Long.BYTES
+                + (long) counts.length * Integer.BYTES + (long) starts.length * Integer.BYTES
+                + (long) chars.length * Character.BYTES;
+    }
+}
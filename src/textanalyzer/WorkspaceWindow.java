@@ -0,0 +1,494 @@
+package textanalyzer;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Класс WorkspaceWindow представляет рабочую область для анализа многих документов за один раз.
+ * Пользователь выбирает несколько файлов или каталогов (каталоги обходятся так же, как в пакетном режиме,
+ * см. {@link BatchAnalyzer}), файлы ставятся в очередь пула фоновых потоков ограниченного размера,
+ * а таблица результатов заполняется по мере завершения анализа каждого файла. Таблицу можно сортировать
+ * по любому столбцу; под таблицей показываются итоговые суммы по всем проанализированным файлам.
+ * <p>
+ * Результаты берутся из общего кэша ({@link ResultCache#shared()}), поэтому повторная постановка
+ * неизменённых файлов в очередь выполняется мгновенно. Таблицы частот слов не хранятся в памяти,
+ * чтобы сотни документов не занимали её. Если общий кэш сохраняет результаты в индексе корпуса
+ * (см. {@link ResultStore}), самые частые слова проанализированных файлов можно узнать по сводкам частот
+ * из индекса, не читая файлы повторно.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+public class WorkspaceWindow extends JFrame {
+    // Один поток оставляем потоку обработки событий и остальной программе
+    private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private static final int TOP_WORDS = 50;
+
+    private final Supplier<TokenizerRules> rules; // Правила языка, выбранные в главном окне
+    private final WorkspaceTableModel model = new WorkspaceTableModel();
+    private final JLabel totalsLabel = new JLabel();
+    private final JButton jbtCancel;
+    private final ExecutorService executor;
+    // Номер поколения очереди: задачи прежних поколений (после отмены или очистки) не выполняются
+    private final AtomicInteger generation = new AtomicInteger();
+    private AnalysisResult total = AnalysisResult.EMPTY;
+    private int pending; // Количество файлов в очереди и в работе
+
+    /**
+     * Конструктор, инициализирует окно рабочей области.
+     *
+     * @param owner Главное окно программы
+     * @param rules Источник правил языка, по которым анализируются файлы
+     */
+    public WorkspaceWindow(JFrame owner, Supplier<TokenizerRules> rules) {
+        this.rules = rules;
+        UtilsUI.setAppIcon(this);
+        setTitle("Рабочая область");
+        setSize(1000, 600);
+        setLocationRelativeTo(owner);
+        setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE); // Очередь продолжает работать в фоне
+
+        executor = new ThreadPoolExecutor(THREADS, THREADS, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "workspace-analyzer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.setFillsViewportHeight(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(300);
+
+        JButton jbtAdd = new JButton("Добавить файлы...");
+        jbtAdd.addActionListener(_ -> addFiles());
+        jbtCancel = new JButton("Отменить");
+        jbtCancel.addActionListener(_ -> cancelPending());
+        JButton jbtClear = new JButton("Очистить");
+        jbtClear.addActionListener(_ -> clear());
+        JButton jbtTopWords = new JButton("Частые слова");
+        jbtTopWords.addActionListener(_ -> showTopWords());
+        JButton jbtClose = new JButton("Закрыть");
+        jbtClose.addActionListener(_ -> setVisible(false));
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttonPanel.add(jbtAdd);
+        buttonPanel.add(jbtCancel);
+        buttonPanel.add(jbtClear);
+        buttonPanel.add(jbtTopWords);
+
+        JPanel closePanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        closePanel.add(jbtClose);
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(buttonPanel, BorderLayout.WEST);
+        topPanel.add(closePanel, BorderLayout.EAST);
+
+        totalsLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 10, 10));
+
+        add(topPanel, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(totalsLabel, BorderLayout.SOUTH);
+        UtilsUI.disableFocusForAllButtons(this);
+        updateTotals();
+    }
+
+    /**
+     * Показывает диалог выбора файлов и каталогов и ставит выбранные файлы в очередь анализа.
+     */
+    private void addFiles() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Добавить файлы и каталоги");
+        fileChooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        fileChooser.setMultiSelectionEnabled(true);
+        fileChooser.setFileFilter(UtilsUI.textFileFilter());
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        List<Path> inputs = new ArrayList<>();
+        for (File file : fileChooser.getSelectedFiles()) {
+            inputs.add(file.toPath());
+        }
+
+        // Обход каталогов может занять время, поэтому выполняется в фоновом потоке
+        TokenizerRules language = rules.get();
+        SwingWorker<List<Path>, Void> collector = new SwingWorker<>() {
+            @Override
+            protected List<Path> doInBackground() throws IOException {
+                return BatchAnalyzer.collectFiles(inputs);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    enqueue(get(), language);
+                } catch (InterruptedException | ExecutionException e) {
+                    JOptionPane.showMessageDialog(WorkspaceWindow.this,
+                            "Ошибка при чтении каталога: " + e.getCause(),
+                            "Ошибка", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        collector.execute();
+    }
+
+    /**
+     * Добавляет файлы в таблицу и ставит их в очередь анализа.
+     *
+     * @param files Файлы
+     * @param language Правила языка
+     */
+    private void enqueue(List<Path> files, TokenizerRules language) {
+        int queue = generation.get();
+        int first = model.addRows(files, language);
+        for (int i = 0; i < files.size(); i++) {
+            WorkspaceTableModel.Row row = model.row(first + i);
+            executor.execute(() -> analyze(row, queue));
+        }
+        pending += files.size();
+        updateTotals();
+    }
+
+    /**
+     * Анализирует один файл (выполняется в потоке пула) и передаёт результат в таблицу.
+     */
+    private void analyze(WorkspaceTableModel.Row row, int queue) {
+        AnalysisProgress progress = new AnalysisProgress() {
+            @Override
+            public boolean isCancelled() {
+                return generation.get() != queue;
+            }
+
+            @Override
+            public void update(long processed, long total, AnalysisResult partial) {
+            }
+        };
+        if (progress.isCancelled()) {
+            return; // Очередь отменена, пока задача ждала своей очереди
+        }
+        SwingUtilities.invokeLater(() -> model.setState(row, WorkspaceTableModel.State.RUNNING));
+        AnalysisResult result = null;
+        String error = null;
+        PerformanceMonitor.Sample sample = PerformanceMonitor.start(PerformanceMonitor.Operation.ANALYSIS);
+        InactivityTimer.taskStarted(); // Пока очередь анализируется, приложение не закрывается из-за бездействия
+        try {
+            result = ResultCache.shared().analyze(row.file(), progress, row.rules(), false);
+            if (!progress.isCancelled()) {
+                sample.stop(result.characters());
+            }
+        } catch (IOException | RuntimeException e) {
+            error = e.getMessage() == null ? e.toString() : e.getMessage();
+        } finally {
+            InactivityTimer.taskFinished();
+        }
+        AnalysisResult counts = result;
+        String message = error;
+        SwingUtilities.invokeLater(() -> finish(row, queue, counts, message));
+    }
+
+    /**
+     * Записывает результат анализа файла в таблицу и пересчитывает итоги (в потоке обработки событий).
+     */
+    private void finish(WorkspaceTableModel.Row row, int queue, AnalysisResult result, String error) {
+        if (generation.get() != queue) {
+            return; // Результат отменённой очереди не учитывается
+        }
+        pending--;
+        if (result != null) {
+            total = total.plus(result);
+        }
+        model.setResult(row, result, error);
+        updateTotals();
+    }
+
+    /**
+     * Отменяет анализ файлов, которые ещё не проанализированы.
+     */
+    private void cancelPending() {
+        generation.incrementAndGet();
+        model.cancelPending();
+        pending = 0;
+        updateTotals();
+    }
+
+    /**
+     * Отменяет очередь и очищает таблицу.
+     */
+    private void clear() {
+        generation.incrementAndGet();
+        model.clear();
+        total = AnalysisResult.EMPTY;
+        pending = 0;
+        updateTotals();
+    }
+
+    /**
+     * Показывает самые частые слова проанализированных файлов по сводкам частот из индекса корпуса.
+     * Сводка файла хранится в индексе под языком, с которым он анализировался, поэтому файлы разных языков
+     * запрашиваются и показываются отдельно.
+     */
+    private void showTopWords() {
+        ResultStore store = ResultCache.shared().store();
+        if (store == null) {
+            JOptionPane.showMessageDialog(this,
+                    "Индекс корпуса не используется. Укажите файл индекса системным свойством "
+                            + "textanalyzer.cache.file.",
+                    "Частые слова", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        Map<TokenizerRules, Set<Path>> files = model.analyzedFiles();
+        // Сводки читаются из файла индекса, поэтому запрос выполняется в фоновом потоке
+        SwingWorker<Map<TokenizerRules, List<WordFrequencyTable.Entry>>, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Map<TokenizerRules, List<WordFrequencyTable.Entry>> doInBackground() throws IOException {
+                Map<TokenizerRules, List<WordFrequencyTable.Entry>> words = new LinkedHashMap<>();
+                for (Map.Entry<TokenizerRules, Set<Path>> language : files.entrySet()) {
+                    Set<Path> selected = language.getValue();
+                    words.put(language.getKey(),
+                            store.topWords(selected::contains, language.getKey().language(), TOP_WORDS));
+                }
+                return words;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    StringBuilder text = new StringBuilder();
+                    int count = 0;
+                    for (Map.Entry<TokenizerRules, List<WordFrequencyTable.Entry>> language : get().entrySet()) {
+                        if (files.size() > 1) {
+                            text.append(text.length() == 0 ? "" : "\n").append(language.getKey().name())
+                                    .append(" (файлов: ").append(files.get(language.getKey()).size()).append("):\n");
+                        }
+                        for (WordFrequencyTable.Entry entry : language.getValue()) {
+                            text.append(entry.word()).append(" — ").append(entry.count()).append('\n');
+                        }
+                        count += files.get(language.getKey()).size();
+                    }
+                    JTextArea area = new JTextArea(text.length() == 0 ? "Нет данных" : text.toString(), 20, 30);
+                    area.setEditable(false);
+                    JOptionPane.showMessageDialog(WorkspaceWindow.this, new JScrollPane(area),
+                            "Частые слова (файлов: " + count + ")", JOptionPane.PLAIN_MESSAGE);
+                } catch (InterruptedException | ExecutionException e) {
+                    JOptionPane.showMessageDialog(WorkspaceWindow.this,
+                            "Ошибка при чтении индекса: " + e.getCause(),
+                            "Ошибка", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * Обновляет строку итогов под таблицей.
+     */
+    private void updateTotals() {
+        jbtCancel.setEnabled(pending > 0);
+        int done = model.getRowCount() - pending;
+        StringBuilder text = new StringBuilder(String.format(
+                "Файлов: %d из %d, ошибок: %d. Всего предложений: %d, слов: %d "
+                        + "(повествовательных: %d, вопросительных: %d, восклицательных: %d)",
+                done, model.getRowCount(), model.errorCount(), total.sentences(), total.words(),
+                total.declarative(), total.questions(), total.exclamatory()));
+        if (!total.isEmpty()) {
+            text.append(String.format(". Средняя длина предложения: %.1f слов", total.averageSentenceLength()));
+        }
+        totalsLabel.setText(text.toString());
+    }
+
+    /**
+     * Модель таблицы рабочей области. Строка хранит только путь к файлу, состояние и результат анализа;
+     * значения ячеек вычисляются при отрисовке видимых строк, поэтому таблица из сотен файлов не хранит
+     * готовых строк текста. Все методы вызываются в потоке обработки событий.
+     */
+    static final class WorkspaceTableModel extends AbstractTableModel {
+        /**
+         * Состояние анализа файла.
+         */
+        enum State {
+            QUEUED("В очереди"), RUNNING("Анализ"), DONE("Готово"), FAILED("Ошибка"), CANCELLED("Отменено");
+
+            private final String description;
+
+            State(String description) {
+                this.description = description;
+            }
+        }
+
+        /**
+         * Строка таблицы.
+         */
+        static final class Row {
+            private final Path file;
+            private final TokenizerRules rules;
+            private final int index; // Номер строки в модели (строки только добавляются в конец)
+            private State state = State.QUEUED;
+            private AnalysisResult result;
+            private String error;
+
+            private Row(Path file, TokenizerRules rules, int index) {
+                this.file = file;
+                this.rules = rules;
+                this.index = index;
+            }
+
+            Path file() {
+                return file;
+            }
+
+            TokenizerRules rules() {
+                return rules;
+            }
+        }
+
+        private static final String[] COLUMNS = {"Файл", "Состояние", "Предложений", "Слов", "Повеств.",
+                "Вопрос.", "Восклиц.", "Символов", "Ср. длина предл.", "Флеш"};
+        private static final Class<?>[] COLUMN_CLASSES = {String.class, String.class, Long.class, Long.class,
+                Long.class, Long.class, Long.class, Long.class, Double.class, Double.class};
+
+        private final List<Row> rows = new ArrayList<>();
+        private int errors;
+
+        /**
+         * Добавляет строки для файлов.
+         *
+         * @return Индекс первой добавленной строки
+         */
+        int addRows(List<Path> files, TokenizerRules rules) {
+            int first = rows.size();
+            for (Path file : files) {
+                rows.add(new Row(file, rules, rows.size()));
+            }
+            if (!files.isEmpty()) {
+                fireTableRowsInserted(first, rows.size() - 1);
+            }
+            return first;
+        }
+
+        Row row(int index) {
+            return rows.get(index);
+        }
+
+        void setState(Row row, State state) {
+            if (row.state == State.QUEUED) {
+                row.state = state;
+                fireRowUpdated(row);
+            }
+        }
+
+        void setResult(Row row, AnalysisResult result, String error) {
+            row.result = result;
+            row.error = error;
+            row.state = result != null ? State.DONE : State.FAILED;
+            if (result == null) {
+                errors++;
+            }
+            fireRowUpdated(row);
+        }
+
+        void cancelPending() {
+            for (Row row : rows) {
+                if (row.state == State.QUEUED || row.state == State.RUNNING) {
+                    row.state = State.CANCELLED;
+                }
+            }
+            if (!rows.isEmpty()) {
+                fireTableRowsUpdated(0, rows.size() - 1);
+            }
+        }
+
+        void clear() {
+            rows.clear();
+            errors = 0;
+            fireTableDataChanged();
+        }
+
+        int errorCount() {
+            return errors;
+        }
+
+        /**
+         * Возвращает пути проанализированных файлов в том виде, в каком они хранятся в индексе корпуса,
+         * по правилам языка, с которыми файлы анализировались.
+         */
+        Map<TokenizerRules, Set<Path>> analyzedFiles() {
+            Map<TokenizerRules, Set<Path>> files = new LinkedHashMap<>();
+            for (Row row : rows) {
+                if (row.state == State.DONE) {
+                    files.computeIfAbsent(row.rules, _ -> new HashSet<>()).add(row.file.toAbsolutePath().normalize());
+                }
+            }
+            return files;
+        }
+
+        private void fireRowUpdated(Row row) {
+            // Строка могла быть удалена очисткой таблицы, пока её файл анализировался
+            if (row.index < rows.size() && rows.get(row.index) == row) {
+                fireTableRowsUpdated(row.index, row.index);
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return COLUMN_CLASSES[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int column) {
+            Row row = rows.get(rowIndex);
+            if (column == 0) {
+                return row.file.toString();
+            }
+            if (column == 1) {
+                return row.error != null ? row.state.description + ": " + row.error : row.state.description;
+            }
+            AnalysisResult result = row.result;
+            if (result == null) {
+                return null; // Пустая ячейка до завершения анализа
+            }
+            return switch (column) {
+                case 2 -> result.sentences();
+                case 3 -> result.words();
+                case 4 -> result.declarative();
+                case 5 -> result.questions();
+                case 6 -> result.exclamatory();
+                case 7 -> result.characters();
+                case 8 -> Math.round(result.averageSentenceLength() * 10) / 10.0;
+                case 9 -> Math.round(result.readingEase(row.rules) * 10) / 10.0;
+                default -> throw new IndexOutOfBoundsException(column);
+            };
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package textanalyzer;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тест AnalyzerConsistencyTest проверяет, что все способы анализа дают одинаковые счётчики: последовательный
+ * анализ, анализ по частям с точек синхронизации, параллельный анализ и пошаговый пересчёт при вводе.
+ * Тексты — образец {@code /resources/TestText.txt} и короткие примеры с сокращениями и прямой речью,
+ * на которых границы предложений определяются сложнее всего.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+class AnalyzerConsistencyTest {
+    private static final List<String> RUSSIAN_SAMPLES = List.of(
+            "Встреча назначена на ул. Ленина, д. 5, в 10 ч. утра. Проф. Иванов, т.е. докладчик, придёт вовремя. "
+                    + "Купили яблоки, груши и т. д. Цена 5 руб. 20 коп. за штуку. Итого 100 тыс. руб. "
+                    + "В 1812 г. армия отступила, см. рис. 3 и табл. 2. Всё ясно?",
+            "«Ты придёшь?» — спросила она.\n— Да! — ответил он. — Обязательно.\n«Конечно», — сказал он и ушёл... "
+                    + "Она вздохнула.\n\"Правда?!\" — переспросил брат. Никто не ответил!\n\n— Что, опять?",
+            "Т. е. так и было. А.С. Пушкин родился в 1799 г. в Москве.Следующее предложение без пробела! "
+                    + "Вопрос?.. Ответ... И ещё: «Стоп!» — крикнул он.",
+            // Знаки через пробел: каждая точка синхронизации стоит перед концом предложения
+            "Стой ! Кто ? Свои ... Проходи .\n",
+            // Сокращения, совпадающие с обычными словами, и однобуквенные слова с точкой
+            "Всё ок. Пошли домой. Кто там? Я. Потом открыл. Смотри см. Дальше идём. А. С. Пушкин здесь. Я. А ты?");
+
+    private static final List<String> ENGLISH_SAMPLES = List.of(
+            "Mr. Smith met Dr. Brown at 5 p.m. on Main St. yesterday. They talked, e.g. about apples, pears, etc. "
+                    + "Then they left. Is it over?",
+            "\"Really?\" she asked. \"Yes!\" he replied. \"Well,\" said Prof. Green, \"we'll see...\" The end.");
+
+    @Test
+    void sentenceCountsMatchExpected() {
+        assertSentences(7, RUSSIAN_SAMPLES.get(0), TokenizerRules.RUSSIAN);
+        assertSentences(8, RUSSIAN_SAMPLES.get(1), TokenizerRules.RUSSIAN);
+        assertSentences(6, RUSSIAN_SAMPLES.get(2), TokenizerRules.RUSSIAN);
+        assertSentences(4, RUSSIAN_SAMPLES.get(3), TokenizerRules.RUSSIAN);
+        assertSentences(10, RUSSIAN_SAMPLES.get(4), TokenizerRules.RUSSIAN);
+        assertSentences(2, "Всё ок. Пошли домой.", TokenizerRules.RUSSIAN);
+        assertSentences(3, "Кто там? Я. Потом открыл.", TokenizerRules.RUSSIAN);
+        assertSentences(2, "Смотри см. Дальше идём.", TokenizerRules.RUSSIAN);
+        assertSentences(2, "Длина 5 см. Ширина 3 см.", TokenizerRules.RUSSIAN);
+        assertSentences(1, "А. С. Пушкин родился в 1799 г. в Москве.", TokenizerRules.RUSSIAN);
+        assertSentences(2, "Цена 5 руб. 20 коп. за штуку. Итого.", TokenizerRules.RUSSIAN);
+        assertSentences(2, "Купили яблоки и т. д. Потом ушли.", TokenizerRules.RUSSIAN);
+        assertSentences(4, ENGLISH_SAMPLES.get(0), TokenizerRules.ENGLISH);
+        assertSentences(4, ENGLISH_SAMPLES.get(1), TokenizerRules.ENGLISH);
+        assertSentences(2, "See p. 5 for details. Then stop.", TokenizerRules.ENGLISH);
+        assertSentences(2, "It was I. Then he came.", TokenizerRules.ENGLISH);
+    }
+
+    @Test
+    void splitAtSyncPointsMatchesSequential() throws Exception {
+        forEachSample((text, rules) -> {
+            long[] expected = counts(TextAnalysisEngine.analyze(text, rules));
+            char[] chars = text.toCharArray();
+            for (int split = 2; split < chars.length; split++) {
+                if (!TextAnalysisEngine.isSyncPoint(chars[split - 2], chars[split - 1])) {
+                    continue;
+                }
+                TextAnalysisEngine.Scanner head = new TextAnalysisEngine.Scanner(rules, null);
+                head.feed(chars, 0, split);
+                TextAnalysisEngine.Scanner tail = TextAnalysisEngine.Scanner.atSyncPoint(rules, null);
+                tail.feed(chars, split, chars.length - split);
+                assertArrayEquals(expected, counts(head.result().plus(tail.result())),
+                        "Разбиение в позиции " + split + ": " + text);
+            }
+        });
+    }
+
+    @Test
+    void parallelMatchesSequential() throws Exception {
+        forEachSample((sample, rules) -> {
+            // Текст из повторений образца, чтобы параллельный анализ разбил его на несколько фрагментов
+            String text = sample.repeat(4 * ParallelTextAnalyzer.MIN_CHUNK / sample.length() + 1);
+            char[] chars = text.toCharArray();
+            long[] expected = counts(TextAnalysisEngine.analyze(text, rules));
+            assertArrayEquals(expected, counts(ParallelTextAnalyzer.analyze(chars, 0, chars.length,
+                    AnalysisProgress.NONE, rules, false)), sample);
+            assertArrayEquals(expected, counts(DocumentAnalyzer.analyze(document(text), AnalysisProgress.NONE,
+                    rules, false)), sample);
+        });
+    }
+
+    @Test
+    void parallelNGramsMatchSequential() throws Exception {
+        forEachSample((sample, rules) -> {
+            String text = sample.repeat(4 * ParallelTextAnalyzer.MIN_CHUNK / sample.length() + 1);
+            char[] chars = text.toCharArray();
+            TextAnalysisEngine.Scanner scanner = new TextAnalysisEngine.Scanner(rules, new WordFrequencyTable(),
+                    new NGramSketch());
+            scanner.feed(chars, 0, chars.length);
+            NGramSketch expected = scanner.ngrams();
+            AnalysisResult parallel = ParallelTextAnalyzer.analyze(chars, 0, chars.length, AnalysisProgress.NONE,
+                    rules, true);
+            assertEquals(scanner.frequencies().total(), parallel.frequencies().total(), sample);
+            assertEquals(scanner.frequencies().size(), parallel.frequencies().size(), sample);
+            // Сочетания на стыках фрагментов учитываются, поэтому их столько же, сколько при последовательном анализе
+            for (int order = 1; order <= NGramSketch.MAX_ORDER; order++) {
+                assertEquals(expected.total(order), parallel.ngrams().total(order), "Длина " + order + ": " + sample);
+            }
+            for (int order = 2; order <= NGramSketch.MAX_ORDER; order++) {
+                for (NGramSketch.Entry entry : expected.top(order, 20)) {
+                    assertEquals(expected.estimate(entry.words()), parallel.ngrams().estimate(entry.words()),
+                            entry.words());
+                }
+            }
+        });
+    }
+
+    @Test
+    void liveAnalyzerMatchesSequential() throws Exception {
+        Random random = new Random(1);
+        forEachSample((sample, rules) -> {
+            // Первая половина текста анализируется при подключении, вторая вводится кусками
+            PlainDocument document = document(sample.substring(0, sample.length() / 2));
+            LiveAnalyzer live = new LiveAnalyzer(_ -> {
+            });
+            live.setRules(rules);
+            AnalysisWorker scan = live.attach(document);
+            // Слушатель анализатора добавлен раньше, поэтому к срабатыванию этого слушателя подключение завершено
+            CountDownLatch attached = new CountDownLatch(1);
+            scan.addPropertyChangeListener(event -> {
+                if (event.getNewValue() == SwingWorker.StateValue.DONE) {
+                    attached.countDown();
+                }
+            });
+            scan.execute();
+            assertTrue(attached.await(10, TimeUnit.SECONDS), "Полный анализ при подключении не завершился");
+            onEventThread(() -> typeAndEdit(live, document, sample, rules, random));
+        });
+    }
+
+    /**
+     * Вводит остаток текста кусками, затем удаляет и снова вставляет случайные фрагменты, сверяя результаты
+     * анализатора с последовательным анализом после каждой правки.
+     */
+    /**
+     * Проверяет число предложений в тексте и совпадение с ним таблицы предложений.
+     */
+    private static void assertSentences(long expected, String text, TokenizerRules rules) {
+        assertEquals(expected, TextAnalysisEngine.analyze(text, rules).sentences(), text);
+        assertEquals(expected, SentenceTable.build(text, rules).size(), text);
+    }
+
+    private static void typeAndEdit(LiveAnalyzer live, PlainDocument document, String sample, TokenizerRules rules,
+                                    Random random) throws BadLocationException {
+        assertTrue(live.isAttached());
+        assertLiveResult(live, document, rules);
+        for (int offset = document.getLength(); offset < sample.length(); ) {
+            int end = Math.min(sample.length(), offset + 1 + random.nextInt(12));
+            document.insertString(document.getLength(), sample.substring(offset, end), null);
+            offset = end;
+            assertLiveResult(live, document, rules);
+        }
+        for (int edit = 0; edit < 50; edit++) {
+            int start = random.nextInt(document.getLength());
+            int length = Math.min(document.getLength() - start, 1 + random.nextInt(8));
+            String removed = document.getText(start, length);
+            document.remove(start, length);
+            assertLiveResult(live, document, rules);
+            document.insertString(random.nextInt(document.getLength() + 1), removed, null);
+            assertLiveResult(live, document, rules);
+        }
+        live.detach();
+    }
+
+    private static void assertLiveResult(LiveAnalyzer live, PlainDocument document, TokenizerRules rules)
+            throws BadLocationException {
+        String text = document.getText(0, document.getLength());
+        assertArrayEquals(counts(TextAnalysisEngine.analyze(text, rules)), counts(live.getResult()), text);
+    }
+
+    /**
+     * Вызывает проверку для каждого примера с правилами его языка.
+     */
+    private static void forEachSample(SampleCheck check) throws Exception {
+        check.run(loadTestText(), TokenizerRules.RUSSIAN);
+        for (String sample : RUSSIAN_SAMPLES) {
+            check.run(sample, TokenizerRules.RUSSIAN);
+        }
+        for (String sample : ENGLISH_SAMPLES) {
+            check.run(sample, TokenizerRules.ENGLISH);
+        }
+    }
+
+    private static String loadTestText() throws IOException {
+        try (InputStream in = Objects.requireNonNull(
+                AnalyzerConsistencyTest.class.getResourceAsStream("/resources/TestText.txt"))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static PlainDocument document(String text) throws BadLocationException {
+        PlainDocument document = new PlainDocument();
+        document.insertString(0, text, null);
+        return document;
+    }
+
+    /**
+     * Выполняет действие в потоке обработки событий, где работает анализ при вводе.
+     */
+    private static void onEventThread(SwingAction action) throws Exception {
+        Exception[] failure = new Exception[1];
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                try {
+                    action.run();
+                } catch (Exception e) {
+                    failure[0] = e;
+                }
+            });
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error; // Неудачная проверка
+            }
+            throw e;
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    /**
+     * Счётчики результата без времени анализа, хеша и таблиц частот: хеш неизвестен после пересчёта при вводе.
+     */
+    private static long[] counts(AnalysisResult result) {
+        return new long[]{result.sentences(), result.words(), result.declarative(), result.questions(),
+                result.exclamatory(), result.characters(), result.wordCharacters(), result.syllables()};
+    }
+
+    @FunctionalInterface
+    private interface SampleCheck {
+        void run(String text, TokenizerRules rules) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface SwingAction {
+        void run() throws Exception;
+    }
+}
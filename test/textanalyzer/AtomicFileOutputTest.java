@@ -0,0 +1,111 @@
+package textanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тест AtomicFileOutputTest проверяет, что запись через {@link AtomicFileOutput} либо заменяет файл целиком,
+ * либо оставляет его прежним, и в обоих случаях не оставляет временных файлов в каталоге.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+class AtomicFileOutputTest {
+    private static final byte[] OLD = "прежнее содержимое".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void commitReplacesExistingFile() throws IOException {
+        Path target = Files.write(directory.resolve("report.txt"), OLD);
+        // Данных больше буфера, чтобы часть из них была записана во временный файл до commit()
+        byte[] data = randomBytes(AtomicFileOutput.BUFFER_SIZE * 2 + 123);
+        try (AtomicFileOutput out = new AtomicFileOutput(target, false)) {
+            try (OutputStream stream = out.stream(null)) {
+                stream.write(data, 0, 10);
+                stream.write(data, 10, data.length - 10);
+            }
+            out.commit();
+            assertEquals(data.length, out.bytesWritten());
+        }
+        assertArrayEquals(data, Files.readAllBytes(target));
+        assertEquals(List.of(target), files());
+    }
+
+    @Test
+    void commitCreatesMissingFile() throws IOException {
+        Path target = directory.resolve("new.txt");
+        try (AtomicFileOutput out = new AtomicFileOutput(target, true)) {
+            out.write(OLD);
+            out.commit();
+        }
+        assertArrayEquals(OLD, Files.readAllBytes(target));
+        assertEquals(List.of(target), files());
+    }
+
+    @Test
+    void uncommittedWriteKeepsTargetAndDeletesTemp() throws IOException {
+        Path target = Files.write(directory.resolve("report.txt"), OLD);
+        try (AtomicFileOutput out = new AtomicFileOutput(target, false)) {
+            out.write(randomBytes(AtomicFileOutput.BUFFER_SIZE + 1));
+            out.flush();
+        }
+        assertArrayEquals(OLD, Files.readAllBytes(target));
+        assertEquals(List.of(target), files());
+    }
+
+    @Test
+    void failedWriteKeepsTargetAndDeletesTemp() throws IOException {
+        Path target = Files.write(directory.resolve("report.txt"), OLD);
+        IOException failure = assertThrows(IOException.class, () -> {
+            try (AtomicFileOutput out = new AtomicFileOutput(target, false)) {
+                out.write(randomBytes(AtomicFileOutput.BUFFER_SIZE + 1));
+                throw new IOException("Нет места на диске"); // Сбой посреди записи, до commit()
+            }
+        });
+        assertEquals("Нет места на диске", failure.getMessage());
+        assertArrayEquals(OLD, Files.readAllBytes(target));
+        assertEquals(List.of(target), files());
+    }
+
+    @Test
+    void failedCommitDeletesTemp() throws IOException {
+        // Непустой каталог на месте целевого файла нельзя заменить переименованием
+        Path target = Files.createDirectory(directory.resolve("report.txt"));
+        Path inside = Files.write(target.resolve("inside.txt"), OLD);
+        assertThrows(IOException.class, () -> {
+            try (AtomicFileOutput out = new AtomicFileOutput(target, false)) {
+                out.write(OLD);
+                out.commit();
+            }
+        });
+        assertArrayEquals(OLD, Files.readAllBytes(inside));
+        assertEquals(List.of(target), files());
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,161 @@
+package textanalyzer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тест NGramSketchTest проверяет гарантии скетча сочетаний слов: оценка Count-Min не меньше истинной частоты
+ * и редко превышает её больше чем на ε·N, набор самых частых сочетаний находит частые сочетания,
+ * а объединение скетчей соседних фрагментов учитывает сочетания на стыке так же, как последовательный подсчёт.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+class NGramSketchTest {
+    private static final int BREAK = -1; // Разрыв последовательности вместо номера слова
+
+    @Test
+    void estimatesStayWithinCountMinBound() {
+        double epsilon = 0.01;
+        double delta = 0.01;
+        Random random = new Random(7);
+        int[] events = new int[20_000];
+        for (int i = 0; i < events.length; i++) {
+            // Частоты слов убывают примерно по закону Ципфа, предложения — около 15 слов
+            events[i] = random.nextInt(15) == 0 ? BREAK : (int) Math.exp(random.nextDouble() * Math.log(2000));
+        }
+        NGramSketch sketch = new NGramSketch(epsilon, delta, 16);
+        feed(sketch, events, 0, events.length);
+        Map<String, Integer> exact = exactCounts(events);
+
+        long total = sketch.total(1) + sketch.total(2) + sketch.total(3);
+        int exceeded = 0;
+        for (Map.Entry<String, Integer> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), entry.getKey());
+            if (estimate > entry.getValue() + epsilon * total) {
+                exceeded++;
+            }
+        }
+        assertTrue(exceeded <= Math.ceil(delta * exact.size()),
+                "Оценка превышает ε·N для " + exceeded + " из " + exact.size() + " сочетаний");
+    }
+
+    @Test
+    void topFindsFrequentNGrams() {
+        String[] phrases = {"w1 w2", "w3 w4", "w5 w6", "w7 w8", "w9 w10"};
+        int[] frequencies = {300, 250, 200, 150, 100};
+        List<String> words = new ArrayList<>();
+        Random random = new Random(11);
+        int[] left = frequencies.clone();
+        for (boolean planted = true; planted; ) {
+            planted = false;
+            for (int i = 0; i < phrases.length; i++) {
+                if (left[i] > 0) {
+                    left[i]--;
+                    planted = true;
+                    words.add(phrases[i]);
+                }
+                // Между частыми сочетаниями — редкие слова из большого словаря
+                for (int j = random.nextInt(8); j > 0; j--) {
+                    words.add("r" + random.nextInt(5000));
+                }
+                words.add(".");
+            }
+        }
+        NGramSketch sketch = new NGramSketch(0.001, 0.01, 32);
+        for (String word : words) {
+            if (word.equals(".")) {
+                sketch.breakSequence();
+            } else {
+                for (String part : word.split(" ")) {
+                    sketch.addWord(part.toCharArray(), 0, part.length());
+                }
+            }
+        }
+
+        List<NGramSketch.Entry> top = sketch.top(2, phrases.length);
+        assertEquals(phrases.length, top.size());
+        for (int i = 0; i < phrases.length; i++) {
+            NGramSketch.Entry entry = top.get(i);
+            assertEquals(phrases[i], entry.words());
+            // Истинная частота лежит между гарантированной частотой и оценкой сверху
+            assertTrue(entry.count() - entry.error() <= frequencies[i], entry.toString());
+            assertTrue(entry.count() >= frequencies[i], entry.toString());
+        }
+    }
+
+    @Test
+    void mergeCountsNGramsAcrossBoundary() {
+        Random random = new Random(3);
+        int[] events = new int[40];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = random.nextInt(6) == 0 ? BREAK : random.nextInt(6);
+        }
+        NGramSketch sequential = sketch(events, 0, events.length);
+        Map<String, Integer> exact = exactCounts(events);
+        for (int first = 0; first <= events.length; first++) {
+            for (int second = first; second <= events.length; second++) {
+                // Три соседних фрагмента объединяются в обоих порядках
+                NGramSketch leftFirst = sketch(events, 0, first);
+                leftFirst.merge(sketch(events, first, second));
+                leftFirst.merge(sketch(events, second, events.length));
+                NGramSketch middle = sketch(events, first, second);
+                middle.merge(sketch(events, second, events.length));
+                NGramSketch rightFirst = sketch(events, 0, first);
+                rightFirst.merge(middle);
+                String split = "Стыки в позициях " + first + " и " + second;
+                for (NGramSketch merged : List.of(leftFirst, rightFirst)) {
+                    for (int order = 1; order <= NGramSketch.MAX_ORDER; order++) {
+                        assertEquals(sequential.total(order), merged.total(order), split);
+                    }
+                    for (Map.Entry<String, Integer> entry : exact.entrySet()) {
+                        assertEquals((long) entry.getValue(), merged.estimate(entry.getKey()),
+                                split + ": " + entry.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+    private static NGramSketch sketch(int[] events, int from, int to) {
+        NGramSketch sketch = new NGramSketch(0.001, 0.01, 16);
+        feed(sketch, events, from, to);
+        return sketch;
+    }
+
+    private static void feed(NGramSketch sketch, int[] events, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (events[i] == BREAK) {
+                sketch.breakSequence();
+            } else {
+                char[] word = ("w" + events[i]).toCharArray();
+                sketch.addWord(word, 0, word.length);
+            }
+        }
+    }
+
+    /**
+     * Подсчитывает точные частоты слов и сочетаний из двух и трёх слов, не переходящих через разрывы.
+     */
+    private static Map<String, Integer> exactCounts(int[] events) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int end = 0; end < events.length; end++) {
+            StringBuilder words = new StringBuilder();
+            for (int start = end; start > end - NGramSketch.MAX_ORDER && start >= 0 && events[start] != BREAK;
+                 start--) {
+                words.insert(0, words.isEmpty() ? "w" + events[start] : "w" + events[start] + " ");
+                counts.merge(words.toString(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+}
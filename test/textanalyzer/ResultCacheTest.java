@@ -0,0 +1,56 @@
+package textanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Тест ResultCacheTest проверяет кэш результатов с индексом корпуса на диске: после повторного открытия
+ * индекса файл не анализируется заново, даже если запрошены частоты слов, а частоты подсчитываются
+ * по требованию.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+class ResultCacheTest {
+    private static final TokenizerRules RULES = TokenizerRules.RUSSIAN;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenedStoreGivesHitWithFrequenciesRequested() throws IOException {
+        Path text = Files.writeString(directory.resolve("text.txt"),
+                "Мама мыла раму. Рама была чистой! Кто мыл раму? Мама.");
+        Path index = directory.resolve("index");
+        AnalysisResult analyzed;
+        try (ResultStore store = ResultStore.open(index)) {
+            ResultCache cache = new ResultCache(ResultCache.DEFAULT_MAX_BYTES, store);
+            analyzed = cache.analyze(text, AnalysisProgress.NONE, RULES, true);
+            assertNotNull(analyzed.frequencies());
+            assertEquals(1, cache.getMisses());
+        }
+        try (ResultStore store = ResultStore.open(index)) {
+            ResultCache cache = new ResultCache(ResultCache.DEFAULT_MAX_BYTES, store);
+            AnalysisResult stored = cache.analyze(text, AnalysisProgress.NONE, RULES, true);
+            assertEquals(1, cache.getHits());
+            assertEquals(0, cache.getMisses());
+            assertEquals(analyzed.withoutFrequencies(), stored);
+            assertNull(stored.frequencies()); // Полные частоты в индексе не хранятся
+
+            // Частоты по требованию: файл анализируется заново, а результат с частотами остаётся в кэше
+            AnalysisResult counted = cache.analyzeFrequencies(text, AnalysisProgress.NONE, RULES);
+            assertEquals(1, cache.getMisses());
+            assertEquals(analyzed.frequencies().size(), counted.frequencies().size());
+            assertEquals(counted, cache.analyze(text, AnalysisProgress.NONE, RULES, true));
+            assertEquals(2, cache.getHits());
+        }
+    }
+}
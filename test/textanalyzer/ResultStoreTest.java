@@ -0,0 +1,253 @@
+package textanalyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тест ResultStoreTest проверяет постоянный индекс результатов: более поздняя запись файла заменяет ранние,
+ * заменённые записи отбрасываются при сжатии, индекс восстанавливается после сбоя (оборванная запись,
+ * обрезанный в любом месте файл, повреждённая таблица смещений, прерванное сжатие), индекс прежней версии
+ * формата создаётся заново, открытый индекс заблокирован, а индекс для чтения не изменяется.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+class ResultStoreTest {
+    private static final String LANGUAGE = TokenizerRules.RUSSIAN.language();
+    private static final int RECORDS = 5;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void laterRecordReplacesEarlier() throws IOException {
+        Path file = directory.resolve("index");
+        try (ResultStore store = ResultStore.open(file)) {
+            store.put(key(1, 100), result(1, "яблоко", "груша"));
+            store.put(key(2, 100), result(2, "слива"));
+            store.put(key(1, 200), result(3, "вишня")); // Файл 1 изменился и проанализирован заново
+            assertNull(store.get(key(1, 100)));
+            assertEquals(counts(3), store.get(key(1, 200)));
+        }
+        try (ResultStore store = ResultStore.open(file)) {
+            assertEquals(2, store.size());
+            assertNull(store.get(key(1, 100)));
+            assertEquals(counts(3), store.get(key(1, 200)));
+            assertEquals(counts(2), store.get(key(2, 100)));
+            AnalysisResult totals = store.totals(_ -> true, LANGUAGE);
+            AnalysisResult expected = counts(3).plus(counts(2));
+            assertEquals(expected.sentences(), totals.sentences());
+            assertEquals(expected.words(), totals.words());
+            assertEquals(expected.characters(), totals.characters());
+            assertEquals(expected.syllables(), totals.syllables());
+            assertEquals(AnalysisResult.NO_HASH, totals.sourceHash()); // У корпуса нет хеша содержимого
+            assertEquals(List.of("вишня", "слива"), words(store));
+            // Перенос записи на новое время изменения тоже заменяет прежнюю запись вместе со сводкой
+            assertEquals(counts(2), store.move(key(2, 100), key(2, 300)));
+            assertNull(store.get(key(2, 100)));
+        }
+        try (ResultStore store = ResultStore.open(file)) {
+            assertEquals(counts(2), store.get(key(2, 300)));
+            assertEquals(List.of("вишня", "слива"), words(store));
+        }
+    }
+
+    @Test
+    void supersededRecordsAreCompacted() throws IOException {
+        Path file = directory.resolve("index");
+        try (ResultStore store = ResultStore.open(file)) {
+            for (int modified = 100; modified < 110; modified++) { // Файл 1 проанализирован заново 10 раз
+                store.put(key(1, modified), result(modified, "слово" + modified));
+            }
+            store.put(key(2, 100), result(2, "слива"));
+        }
+        Path fresh = directory.resolve("fresh");
+        try (ResultStore store = ResultStore.open(fresh)) {
+            store.put(key(1, 109), result(109, "слово109"));
+            store.put(key(2, 100), result(2, "слива"));
+        }
+        // После сжатия остаются только действующие записи: файл такой же, как у индекса без замен
+        assertArrayEquals(Files.readAllBytes(fresh), Files.readAllBytes(file));
+        try (ResultStore store = ResultStore.open(file)) {
+            assertEquals(2, store.size());
+            assertEquals(counts(109), store.get(key(1, 109)));
+            assertEquals(counts(2), store.get(key(2, 100)));
+            assertEquals(List.of("слово109", "слива"), words(store));
+        }
+    }
+
+    @Test
+    void interruptedCompactionIsRecreated() throws IOException {
+        Path file = directory.resolve("index");
+        try (ResultStore store = ResultStore.open(file)) {
+            store.put(key(1, 100), result(1, "слово"));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(4, -1); // Признак сжатия вместо номера версии
+        Files.write(file, bytes);
+        try (ResultStore store = ResultStore.open(file)) {
+            assertEquals(0, store.size());
+        }
+    }
+
+    @Test
+    void openIndexIsLocked() throws IOException {
+        Path file = directory.resolve("index");
+        try (ResultStore store = ResultStore.open(file)) {
+            store.put(key(1, 100), result(1, "слово"));
+            assertThrows(IOException.class, () -> ResultStore.open(file));
+            assertThrows(IOException.class, () -> ResultStore.openReadOnly(file));
+        }
+        try (ResultStore store = ResultStore.openReadOnly(file)) {
+            assertThrows(IOException.class, () -> ResultStore.open(file));
+            assertEquals(counts(1), store.get(key(1, 100)));
+        }
+    }
+
+    @Test
+    void readOnlyIndexIsNotModified() throws IOException {
+        Path file = directory.resolve("index");
+        try (ResultStore store = ResultStore.open(file)) {
+            store.put(key(1, 100), result(1, "слово"));
+            store.put(key(1, 200), result(2, "другое"));
+        }
+        // Без таблицы смещений и с оборванной записью в конце: индекс для записи отрезал бы её
+        byte[] closed = Files.readAllBytes(file);
+        ByteBuffer trailer = ByteBuffer.wrap(closed, closed.length - 12, 12);
+        byte[] damaged = Arrays.copyOf(closed, (int) trailer.getLong() + 3);
+        Files.write(file, damaged);
+        try (ResultStore store = ResultStore.openReadOnly(file)) {
+            assertEquals(counts(2), store.get(key(1, 200)));
+            assertEquals(List.of("другое"), words(store));
+            assertThrows(IOException.class, () -> store.put(key(2, 100), result(3, "слива")));
+        }
+        assertArrayEquals(damaged, Files.readAllBytes(file));
+        assertThrows(IOException.class, () -> ResultStore.openReadOnly(directory.resolve("missing")));
+    }
+
+    @Test
+    void truncationAtAnyOffsetKeepsCompleteRecords() throws IOException {
+        Path file = directory.resolve("index");
+        long[] ends = new long[RECORDS]; // Конец каждой записи: записи дописываются сразу при сохранении
+        try (ResultStore store = ResultStore.open(file)) {
+            for (int i = 0; i < RECORDS; i++) {
+                store.put(key(i, 100), result(i, "слово" + i));
+                ends[i] = Files.size(file);
+            }
+        }
+        byte[] closed = Files.readAllBytes(file); // Записи, таблица смещений и признак в конце
+        Path truncated = directory.resolve("truncated");
+        for (int length = 0; length <= closed.length; length++) {
+            Files.write(truncated, Arrays.copyOf(closed, length));
+            int complete = 0;
+            while (complete < RECORDS && ends[complete] <= length) {
+                complete++;
+            }
+            String context = "Длина " + length;
+            try (ResultStore store = ResultStore.open(truncated)) {
+                assertEquals(complete, store.size(), context);
+                for (int i = 0; i < complete; i++) {
+                    assertEquals(counts(i), store.get(key(i, 100)), context);
+                }
+                store.put(key(RECORDS, 100), result(RECORDS, "новое"));
+            }
+            // Новая запись продолжает журнал после восстановленных записей
+            try (ResultStore store = ResultStore.open(truncated)) {
+                assertEquals(complete + 1, store.size(), context);
+                assertEquals(counts(RECORDS), store.get(key(RECORDS, 100)), context);
+                assertEquals("новое", store.topWords(_ -> true, LANGUAGE, 1).getFirst().word(), context);
+            }
+        }
+    }
+
+    @Test
+    void damagedTableFallsBackToScan() throws IOException {
+        Path file = directory.resolve("index");
+        try (ResultStore store = ResultStore.open(file)) {
+            for (int i = 0; i < RECORDS; i++) {
+                store.put(key(i, 100), result(i, "слово" + i));
+            }
+        }
+        byte[] closed = Files.readAllBytes(file);
+        ByteBuffer trailer = ByteBuffer.wrap(closed, closed.length - 12, 12);
+        int table = (int) trailer.getLong();
+        // Повреждены: признак таблицы, число записей в ней, смещение таблицы в конце и признак конца
+        int[] positions = {table, table + 4, closed.length - 12, closed.length - 1};
+        for (int position : positions) {
+            byte[] damaged = closed.clone();
+            damaged[position] ^= 0x7F;
+            Files.write(file, damaged);
+            try (ResultStore store = ResultStore.open(file)) {
+                assertEquals(RECORDS, store.size(), "Байт " + position);
+                for (int i = 0; i < RECORDS; i++) {
+                    assertEquals(counts(i), store.get(key(i, 100)), "Байт " + position);
+                }
+            }
+            assertEquals(closed.length, Files.size(file), "Таблица записана заново, байт " + position);
+        }
+    }
+
+    @Test
+    void olderVersionIsRecreated() throws IOException {
+        Path file = directory.resolve("index");
+        try (ResultStore store = ResultStore.open(file)) {
+            store.put(key(1, 100), result(1, "слово"));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(4, ByteBuffer.wrap(bytes).getInt(4) - 1); // Номер версии после признака
+        Files.write(file, bytes);
+        try (ResultStore store = ResultStore.open(file)) {
+            assertEquals(0, store.size());
+            store.put(key(2, 100), result(2, "другое"));
+        }
+        try (ResultStore store = ResultStore.open(file)) {
+            assertEquals(1, store.size());
+            assertEquals(counts(2), store.get(key(2, 100)));
+        }
+    }
+
+    @Test
+    void foreignFileIsRejected() throws IOException {
+        Path file = Files.writeString(directory.resolve("notes.txt"), "Это не индекс результатов");
+        assertThrows(IOException.class, () -> ResultStore.open(file));
+        assertEquals("Это не индекс результатов", Files.readString(file));
+    }
+
+    private static ResultCache.FileKey key(int file, long modified) {
+        return new ResultCache.FileKey(Path.of("corpus", "file" + file + ".txt").toAbsolutePath(), 1000 + file,
+                modified, LANGUAGE);
+    }
+
+    private static AnalysisResult counts(int seed) {
+        return new AnalysisResult(seed + 1, 10L * seed + 3, seed, 1, 0, 100L * seed + 20, 80L * seed + 10,
+                30L * seed + 5, 0x1234_5678_9ABCL * (seed + 1), 1_000_000L * seed);
+    }
+
+    /**
+     * Результат с таблицей частот, в которой i-е слово встречается на i раз реже первого.
+     */
+    private static AnalysisResult result(int seed, String... words) {
+        WordFrequencyTable table = new WordFrequencyTable();
+        for (int i = 0; i < words.length; i++) {
+            char[] word = words[i].toCharArray();
+            table.add(word, 0, word.length, 10 * (seed + 1) - i);
+        }
+        return counts(seed).withFrequencies(table);
+    }
+
+    private static List<String> words(ResultStore store) throws IOException {
+        return store.topWords(_ -> true, LANGUAGE, 10).stream().map(WordFrequencyTable.Entry::word).toList();
+    }
+}
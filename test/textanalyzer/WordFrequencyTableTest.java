@@ -0,0 +1,110 @@
+package textanalyzer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тест WordFrequencyTableTest сверяет таблицу частот слов со словарём {@link LinkedHashMap}: счётчики
+ * после многократного расширения таблицы, порядок самых частых слов при равных частотах и объединение таблиц.
+ *
+ * @author Klimuk M.N.
+ * @version 1.1.2.2024
+ */
+class WordFrequencyTableTest {
+    @Test
+    void growthKeepsCounts() throws Exception {
+        Random random = new Random(5);
+        WordFrequencyTable table = new WordFrequencyTable();
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        // Слова берутся из середины общего массива, чтобы проверить смещение; длинное слово расширяет массив символов
+        char[] buffer = new char[20_000];
+        for (int i = 0; i < 100_000; i++) {
+            String word = i == 50_000 ? "я".repeat(10_000) : "слово" + random.nextInt(40_000);
+            word.getChars(0, word.length(), buffer, 7);
+            table.add(buffer, 7, word.length());
+            expected.merge(word, 1, Integer::sum);
+        }
+        assertTable(expected, table);
+    }
+
+    @Test
+    void topOrdersByCountThenFirstAppearance() {
+        WordFrequencyTable table = new WordFrequencyTable();
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        Random random = new Random(9);
+        for (int i = 0; i < 5_000; i++) {
+            // Маленький разброс частот даёт много слов с одинаковой частотой
+            String word = "w" + random.nextInt(300);
+            add(table, word);
+            expected.merge(word, 1, Integer::sum);
+        }
+        // Устойчивая сортировка сохраняет порядок первого появления среди слов с равной частотой
+        List<WordFrequencyTable.Entry> sorted = new ArrayList<>();
+        expected.forEach((word, count) -> sorted.add(new WordFrequencyTable.Entry(word, count)));
+        sorted.sort(Comparator.comparingInt(WordFrequencyTable.Entry::count).reversed());
+        for (int n : new int[]{0, 1, 2, 10, 150, expected.size(), expected.size() + 10}) {
+            assertEquals(sorted.subList(0, Math.min(n, sorted.size())), table.top(n), "n = " + n);
+        }
+    }
+
+    @Test
+    void addAllMergesCounts() throws Exception {
+        WordFrequencyTable first = new WordFrequencyTable();
+        WordFrequencyTable second = new WordFrequencyTable();
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        Random random = new Random(13);
+        for (int i = 0; i < 20_000; i++) {
+            String word = "w" + random.nextInt(3_000);
+            add(first, word);
+            expected.merge(word, 1, Integer::sum);
+        }
+        for (int i = 0; i < 20_000; i++) {
+            // Часть слов есть в обеих таблицах, часть — только во второй
+            String word = "w" + (2_000 + random.nextInt(3_000));
+            add(second, word);
+            expected.merge(word, 1, Integer::sum);
+        }
+        first.addAll(second);
+        assertTable(expected, first);
+        first.addAll(new WordFrequencyTable());
+        assertTable(expected, first);
+    }
+
+    @Test
+    void frozenTableRejectsChanges() {
+        WordFrequencyTable table = new WordFrequencyTable();
+        add(table, "слово");
+        AnalysisResult result = AnalysisResult.EMPTY.withFrequencies(table);
+        assertThrows(IllegalStateException.class, () -> add(result.frequencies(), "ещё"));
+        assertThrows(IllegalStateException.class, () -> result.frequencies().addAll(table));
+        assertEquals(1, result.frequencies().count("слово"));
+    }
+
+    private static void add(WordFrequencyTable table, String word) {
+        table.add(word.toCharArray(), 0, word.length());
+    }
+
+    /**
+     * Сверяет размер, сумму и счётчики таблицы, а также порядок слов при обходе, со словарём.
+     */
+    private static void assertTable(Map<String, Integer> expected, WordFrequencyTable table) throws Exception {
+        assertEquals(expected.size(), table.size());
+        assertEquals(expected.values().stream().mapToLong(Integer::longValue).sum(), table.total());
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), table.count(entry.getKey()), entry.getKey());
+        }
+        assertEquals(0, table.count("нет такого слова"));
+        Map<String, Integer> visited = new LinkedHashMap<>();
+        table.forEach((chars, offset, length, count) -> visited.put(new String(chars, offset, length), count));
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(visited.entrySet()));
+    }
+}